@@ -0,0 +1,65 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.enums.RequestDirection;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.utility.Helper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Arrival lookup: "which active requests wait at floor F in my direction?"
+*
+* indexedLookup - per-floor index (what movement uses); expected flat across activeRequests
+* fullScan      - the previous approach, streaming over every active request and collecting a new list
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkFleet.FLOOR_COUNT_JVM_ARG, "-Xmx4g"})
+public class ArrivalLookupBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int activeRequests;
+
+    @Param({"30"})
+    public int floorCount;
+
+    private int[] floors;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED);
+        BenchmarkFleet.populateActiveRequests(activeRequests, floorCount, random);
+        this.floors = new int[1024];
+        for (int i = 0; i < floors.length; i++) {
+            floors[i] = random.nextInt(floorCount + 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFleet.clearRequests();
+    }
+
+    @Benchmark
+    public void indexedLookup(Blackhole bh) {
+        Helper.forEachActiveRequestFromFloor(ElevatorBanks.getDefaultBank(), floors[cursor++ & 1023], RequestDirection.UP, bh::consume);
+    }
+
+    @Benchmark
+    public void fullScan(Blackhole bh) {
+        int floor = floors[cursor++ & 1023];
+        for (ElevatorRequest request : ElevatorBanks.getDefaultBank().getActiveRequests().values().stream()
+                .filter(request -> request.getFromSrcFloor() == floor && request.isUpward())
+                .toList()) {
+            bh.consume(request);
+        }
+    }
+}
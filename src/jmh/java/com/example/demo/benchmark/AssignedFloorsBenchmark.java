@@ -0,0 +1,186 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.customds.AtomicFloorBitSet;
+import com.example.demo.customds.ConcurrentTreeSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Candidate structures for Elevator.assignedFloors:
+*   ConcurrentSkipListSet<Integer>  (what Elevator used before)
+*   customds.ConcurrentTreeSet      (TreeSet + ReadWriteLock)
+*   customds.AtomicFloorBitSet      (what Elevator uses now - one AtomicLong up to 64 floors, AtomicLongArray above)
+*
+* Uncontended: single thread doing higher/lower/contains.
+* Contended  : JMH thread groups - 3 reader threads (movement/scheduler side: higher/lower/contains)
+*              racing 1 writer thread (dispatcher side: add/remove of stops) on the same set.
+* */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssignedFloorsBenchmark {
+
+    @Param({"30", "80", "160"})
+    public int floorCount;
+
+    // how many of the floors are assigned stops at the start of the trial
+    @Param({"4", "16"})
+    public int assignedStops;
+
+    private ConcurrentSkipListSet<Integer> skipListSet;
+    private ConcurrentTreeSet treeSet;
+    private AtomicFloorBitSet bitSet;
+
+    @State(Scope.Thread)
+    public static class Probe {
+        private static final int POOL = 1024;
+        private final int[] floors = new int[POOL];
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(AssignedFloorsBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().threadId());
+            for (int i = 0; i < POOL; i++) {
+                floors[i] = random.nextInt(benchmark.floorCount + 1);
+            }
+        }
+
+        int next() {
+            return floors[cursor++ & (POOL - 1)];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED);
+        this.skipListSet = new ConcurrentSkipListSet<>();
+        this.treeSet = new ConcurrentTreeSet();
+        this.bitSet = AtomicFloorBitSet.forMaxFloor(floorCount);
+        for (int i = 0; i < assignedStops; i++) {
+            int floor = random.nextInt(floorCount + 1);
+            skipListSet.add(floor);
+            treeSet.add(floor);
+            bitSet.add(floor);
+        }
+    }
+
+    // ---------------- uncontended ----------------
+
+    @Benchmark
+    @Group("skipListReadOnly")
+    public void skipListReads(Probe probe, Blackhole bh) {
+        int floor = probe.next();
+        bh.consume(skipListSet.higher(floor));
+        bh.consume(skipListSet.lower(floor));
+        bh.consume(skipListSet.contains(floor));
+    }
+
+    @Benchmark
+    @Group("treeSetReadOnly")
+    public void treeSetReads(Probe probe, Blackhole bh) {
+        int floor = probe.next();
+        bh.consume(treeSet.higher(floor));
+        bh.consume(treeSet.lower(floor));
+        bh.consume(treeSet.contains(floor));
+    }
+
+    @Benchmark
+    @Group("bitSetReadOnly")
+    public void bitSetReads(Probe probe, Blackhole bh) {
+        int floor = probe.next();
+        bh.consume(bitSet.higher(floor));
+        bh.consume(bitSet.lower(floor));
+        bh.consume(bitSet.contains(floor));
+    }
+
+    // ---------------- contended: 3 readers vs 1 writer ----------------
+
+    @Benchmark
+    @Group("skipListContended")
+    @GroupThreads(3)
+    public void skipListContendedReads(Probe probe, Blackhole bh) {
+        int floor = probe.next();
+        bh.consume(skipListSet.higher(floor));
+        bh.consume(skipListSet.lower(floor));
+        bh.consume(skipListSet.contains(floor));
+    }
+
+    @Benchmark
+    @Group("skipListContended")
+    @GroupThreads(1)
+    public void skipListContendedWrites(Probe probe) {
+        int floor = probe.next();
+        if (!skipListSet.add(floor)) {
+            skipListSet.remove(floor);
+        }
+    }
+
+    @Benchmark
+    @Group("treeSetContended")
+    @GroupThreads(3)
+    public void treeSetContendedReads(Probe probe, Blackhole bh) {
+        int floor = probe.next();
+        bh.consume(treeSet.higher(floor));
+        bh.consume(treeSet.lower(floor));
+        bh.consume(treeSet.contains(floor));
+    }
+
+    @Benchmark
+    @Group("treeSetContended")
+    @GroupThreads(1)
+    public void treeSetContendedWrites(Probe probe) {
+        int floor = probe.next();
+        if (treeSet.contains(floor)) {
+            treeSet.remove(floor);
+        } else {
+            treeSet.add(floor);
+        }
+    }
+
+    @Benchmark
+    @Group("bitSetContended")
+    @GroupThreads(3)
+    public void bitSetContendedReads(Probe probe, Blackhole bh) {
+        int floor = probe.next();
+        bh.consume(bitSet.higher(floor));
+        bh.consume(bitSet.lower(floor));
+        bh.consume(bitSet.contains(floor));
+    }
+
+    @Benchmark
+    @Group("bitSetContended")
+    @GroupThreads(1)
+    public void bitSetContendedWrites(Probe probe) {
+        int floor = probe.next();
+        if (!bitSet.add(floor)) {
+            bitSet.remove(floor);
+        }
+    }
+
+    // ---------------- Elevator level: next stop + load count, as used by movement and scheduler ----------------
+
+    @Benchmark
+    @Group("skipListNearestStop")
+    public int skipListNearestStop(Probe probe) {
+        int floor = probe.next();
+        Integer up = skipListSet.higher(floor);
+        int next = (up != null) ? up : (skipListSet.isEmpty() ? floor : skipListSet.last());
+        return next + skipListSet.size();
+    }
+
+    @Benchmark
+    @Group("bitSetNearestStop")
+    public int bitSetNearestStop(Probe probe) {
+        int floor = probe.next();
+        int up = bitSet.higher(floor);
+        int next = (up != AtomicFloorBitSet.NO_FLOOR) ? up : (bitSet.isEmpty() ? floor : bitSet.last());
+        return next + bitSet.size();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.IConstants;
+import com.example.demo.bank.ElevatorBank;
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.cache.ElevatorCache;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.utility.Helper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/*
+* Shared fixture builder for the JMH benchmarks.
+* Every fleet/request population is generated from a fixed seed so that two runs (or two branches) measure the same building.
+* */
+public final class BenchmarkFleet {
+
+    // Forked benchmark JVMs raise the top floor so that floorCount params above the default 30 are still valid requests
+    public static final String FLOOR_COUNT_JVM_ARG = "-Delevator.maxFloorCount=160";
+
+    // lets the scheduler load its Vector API scoring kernel in forked benchmark JVMs
+    public static final String VECTOR_MODULE_JVM_ARG = "--add-modules=jdk.incubator.vector";
+
+    public static final long SEED = 42L;
+
+    private static final ElevatorState[] WORKING_STATES = {
+            ElevatorState.IDLE, ElevatorState.MOVING_UP, ElevatorState.MOVING_DOWN
+    };
+
+    private BenchmarkFleet() {
+    }
+
+    // fleet of cars scattered over the building, each already carrying a few assigned stops
+    public static List<Elevator> randomFleet(int fleetSize, int floorCount, SplittableRandom random) {
+        int topFloor = topFloor(floorCount);
+        List<Elevator> fleet = new ArrayList<>(fleetSize);
+        for (int i = 0; i < fleetSize; i++) {
+            ElevatorState state = WORKING_STATES[random.nextInt(WORKING_STATES.length)];
+            Elevator elevator = new Elevator(state, random.nextInt(topFloor + 1));
+            if (state != ElevatorState.IDLE) {
+                int stops = 1 + random.nextInt(4);
+                for (int s = 0; s < stops; s++) {
+                    elevator.addFloor(random.nextInt(topFloor + 1));
+                }
+            }
+            fleet.add(elevator);
+        }
+        return fleet;
+    }
+
+    // replaces the global elevator cache with the given fleet (the cars join the elevator banks the dispatchers read)
+    public static void installFleet(List<Elevator> fleet) {
+        ElevatorCache.elevators.clear();
+        ElevatorCache.elevators.addAll(fleet);
+    }
+
+    public static ElevatorRequest randomDestinationRequest(int floorCount, SplittableRandom random) {
+        int topFloor = topFloor(floorCount);
+        int src = random.nextInt(topFloor + 1);
+        int dest = random.nextInt(topFloor);
+        if (dest >= src) dest++; // never equal to src, always within [0, topFloor]
+        return new ElevatorRequest(RequestPriority.REGULAR_NORMAL, src, dest);
+    }
+
+    // pre-built requests so that UUID generation is not part of the measured call
+    public static ElevatorRequest[] randomDestinationRequests(int count, int floorCount, SplittableRandom random) {
+        ElevatorRequest[] requests = new ElevatorRequest[count];
+        for (int i = 0; i < count; i++) {
+            requests[i] = randomDestinationRequest(floorCount, random);
+        }
+        return requests;
+    }
+
+    // fills the in-flight (already assigned) request table and its per-floor index that arrival processing reads
+    public static void populateActiveRequests(int count, int floorCount, SplittableRandom random) {
+        for (ElevatorBank bank : ElevatorBanks.getBanks()) {
+            bank.getActiveRequests().clear();
+            bank.getFloorRequestIndex().clear();
+        }
+        for (ElevatorRequest request : randomDestinationRequests(count, floorCount, random)) {
+            Helper.activateRequest(request);
+        }
+    }
+
+    public static void populatePendingRequests(int count, int floorCount, SplittableRandom random) {
+        ElevatorBanks.getBanks().forEach(bank -> bank.getPendingRequests().clear());
+        for (ElevatorRequest request : randomDestinationRequests(count, floorCount, random)) {
+            ElevatorBanks.route(request).getPendingRequests().offer(request);
+        }
+    }
+
+    public static void clearRequests() {
+        for (ElevatorBank bank : ElevatorBanks.getBanks()) {
+            bank.getActiveRequests().clear();
+            bank.getFloorRequestIndex().clear();
+            bank.getPendingRequests().clear();
+        }
+    }
+
+    public static int topFloor(int floorCount) {
+        return Math.min(floorCount, IConstants.MAX_FLOOR_COUNT);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.enums.ThreadingMode;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.service.ElevatorDispatcherService;
+import com.example.demo.threading.ThreadingProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Burst of concurrent callers against ElevatorDispatcherService.assignRequestToElevator, run once on the bounded
+* platform-thread pool and once with a virtual thread per request - not a JMH benchmark, since what matters is the
+* latency distribution of a whole burst (queueing behind parked threads included), not one call in isolation.
+*
+* Latency = submit -> assignment done (or request queued as pending), as a caller would see it.
+*
+* Run:  mvn -P benchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.DispatchThreadingComparison \
+*           -Djmh.args="<callers=10000> <fleetSize=64> <floorCount=30> <rounds=3>"
+* */
+public final class DispatchThreadingComparison {
+
+    private DispatchThreadingComparison() {
+    }
+
+    public static void main(String[] args) {
+        int callers = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int fleetSize = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int floorCount = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        ElevatorDispatcherService dispatcher = ElevatorDispatcherService.getInstance();
+        System.out.printf("callers=%d fleet=%d floors=%d platform pool=%d threads%n",
+                callers, fleetSize, floorCount, ThreadingProvider.PLATFORM_DISPATCH_THREADS);
+
+        for (int round = 0; round <= rounds; round++) { // round 0 is warm-up
+            for (ThreadingMode mode : ThreadingMode.values()) {
+                Burst burst = runBurst(dispatcher, mode, callers, fleetSize, floorCount);
+                if (round > 0) {
+                    System.out.printf("  round %d %-8s : %s%n", round, mode, burst);
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private static Burst runBurst(ElevatorDispatcherService dispatcher, ThreadingMode mode,
+                                  int callers, int fleetSize, int floorCount) {
+        // same building and same calls for both modes
+        SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED);
+        BenchmarkFleet.installFleet(BenchmarkFleet.randomFleet(fleetSize, floorCount, random));
+        BenchmarkFleet.clearRequests();
+        ElevatorRequest[] requests = BenchmarkFleet.randomDestinationRequests(callers, floorCount, random);
+
+        ExecutorService executor = ThreadingProvider.newDispatchExecutor(mode, "bench-" + mode.name().toLowerCase());
+        List<CompletableFuture<Long>> latencies = new ArrayList<>(callers);
+        long start = System.nanoTime();
+        for (int i = 0; i < callers; i++) {
+            ElevatorRequest request = requests[i];
+            long submitted = System.nanoTime();
+            latencies.add(CompletableFuture.supplyAsync(() -> {
+                dispatcher.assignRequestToElevator(request);
+                return System.nanoTime() - submitted;
+            }, executor));
+        }
+        CompletableFuture.allOf(latencies.toArray(CompletableFuture<?>[]::new)).join();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        long[] sorted = latencies.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+        return new Burst(callers * 1e9 / elapsed, percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1]);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return TimeUnit.NANOSECONDS.toMicros(sorted[(int) Math.min(sorted.length - 1, Math.ceil(sorted.length * p) - 1)]) / 1000d;
+    }
+
+    private record Burst(double requestsPerSecond, double p50Millis, double p99Millis, long maxNanos) {
+        @Override
+        public String toString() {
+            return String.format("%,.0f req/s, p50=%.2f ms, p99=%.2f ms, max=%.2f ms",
+                    requestsPerSecond, p50Millis, p99Millis, maxNanos / 1e6);
+        }
+    }
+}
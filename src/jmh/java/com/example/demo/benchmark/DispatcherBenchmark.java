@@ -0,0 +1,122 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.service.ElevatorDispatcherService;
+import com.example.demo.utility.Helper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Cost of ElevatorDispatcherService.assignRequestToElevator(request) per call:
+* scheduler ranking + optimistic versioned commit + assignment + repository save.
+* The contended variants run the same call from 8 and 64 submitter threads against the shared fleet;
+* the 64-thread one samples the latency distribution (p99 etc.) next to throughput.
+*
+* Every call must dispatch a waiting (PENDING) call onto a car with a free seat, or it would only time the
+* "no suitable elevator" path. So each submitter thread cycles through its own pool of requests, and every invocation
+* first puts its request back to PENDING and afterwards hands the seat it reserved back to the car (and takes the call
+* out of the active tables) - the car keeps the stops, which the per-iteration fresh fleet clears again.
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkFleet.FLOOR_COUNT_JVM_ARG)
+public class DispatcherBenchmark {
+
+    @Param({"4", "64", "500", "2000"})
+    public int fleetSize;
+
+    @Param({"30", "80"})
+    public int floorCount;
+
+    // volume of already queued/in-flight calls sitting in UserRequestCache while dispatching
+    @Param({"0", "10000", "100000"})
+    public int requestVolume;
+
+    private static final int REQUEST_POOL = 4096;
+
+    private ElevatorDispatcherService dispatcher;
+
+    // one request pool per submitter thread - two threads never dispatch the same request object
+    @State(Scope.Thread)
+    public static class Cursor {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        ElevatorRequest[] requests;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(DispatcherBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED + THREADS.incrementAndGet());
+            this.requests = BenchmarkFleet.randomDestinationRequests(REQUEST_POOL, benchmark.floorCount, random);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED);
+        this.dispatcher = ElevatorDispatcherService.getInstance();
+        BenchmarkFleet.populatePendingRequests(requestVolume, floorCount, random);
+        BenchmarkFleet.populateActiveRequests(requestVolume, floorCount, random);
+    }
+
+    // assignments keep adding stops, so every iteration starts again from a fresh fleet
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        BenchmarkFleet.installFleet(
+                BenchmarkFleet.randomFleet(fleetSize, floorCount, new SplittableRandom(BenchmarkFleet.SEED)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFleet.clearRequests();
+        BenchmarkFleet.installFleet(java.util.List.of());
+    }
+
+    // the thread's next request, waiting for a car again
+    private static ElevatorRequest nextRequest(Cursor cursor) {
+        ElevatorRequest request = cursor.requests[cursor.next++ & (REQUEST_POOL - 1)];
+        request.setRequestStatus(RequestStatus.PENDING);
+        request.setAssignedElevator(null);
+        return request;
+    }
+
+    // frees the seat the assignment reserved, so the fleet never fills up during an iteration
+    private static Elevator release(ElevatorRequest request, Elevator car) {
+        if (car != null) {
+            Helper.deactivateRequest(request);
+            car.releasePickup();
+        }
+        return car;
+    }
+
+    private Elevator dispatch(Cursor cursor) {
+        ElevatorRequest request = nextRequest(cursor);
+        return release(request, dispatcher.assignRequestToElevator(request));
+    }
+
+    @Benchmark
+    public Elevator assignRequestToElevator(Cursor cursor) {
+        return dispatch(cursor);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Elevator assignRequestToElevatorContended(Cursor cursor) {
+        return dispatch(cursor);
+    }
+
+    @Benchmark
+    @Threads(64)
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    public Elevator assignRequestToElevator64Submitters(Cursor cursor) {
+        return dispatch(cursor);
+    }
+}
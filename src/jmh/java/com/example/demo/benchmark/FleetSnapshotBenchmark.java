@@ -0,0 +1,60 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.cache.ElevatorCache;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.FleetSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Reading "the whole fleet":
+*   copyOnRead        : what ElevatorRepository.findAll() did - a new ArrayList of the map values per call
+*   publishedSnapshot : ElevatorCache.getFleetSnapshot() with nothing changed since the last read - one volatile read
+*   afterOneChange    : one car moved a floor since the last read - rebuild reusing every other car's view
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkFleet.FLOOR_COUNT_JVM_ARG)
+public class FleetSnapshotBenchmark {
+
+    @Param({"64", "500", "2000"})
+    public int fleetSize;
+
+    private final Map<String, Elevator> table = new ConcurrentHashMap<>();
+    private List<Elevator> fleet;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.fleet = BenchmarkFleet.randomFleet(fleetSize, 30, new SplittableRandom(BenchmarkFleet.SEED));
+        BenchmarkFleet.installFleet(fleet);
+        fleet.forEach(elevator -> table.put(elevator.getElevatorId(), elevator));
+        ElevatorCache.getFleetSnapshot();
+    }
+
+    @Benchmark
+    public List<Elevator> copyOnRead() {
+        return new ArrayList<>(table.values());
+    }
+
+    @Benchmark
+    public FleetSnapshot publishedSnapshot() {
+        return ElevatorCache.getFleetSnapshot();
+    }
+
+    @Benchmark
+    public FleetSnapshot afterOneChange() {
+        Elevator elevator = fleet.get(cursor++ % fleetSize);
+        elevator.setCurrentFloor(elevator.getCurrentFloor() ^ 1); // stays within 0..30
+        return ElevatorCache.getFleetSnapshot();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.ElevatorSystemApplication;
+import com.example.demo.metrics.HistogramSnapshot;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+* HTTP load against the REST intake (ElevatorController1) - not JMH: what matters is end-to-end throughput and the
+* latency distribution seen by kiosk clients, including Tomcat, JSON and the dispatcher hand-off.
+*
+* Every client is a virtual thread that keeps one call (or one batch) in flight for the whole run:
+*   batchSize = 1 : POST /api/calls/destination per call
+*   batchSize > 1 : POST /api/calls/batch with batchSize calls per request
+* Latency = request sent -> 202 received (the intake answers on enqueue, assignment is not awaited).
+*
+* Without a url the application is started in-process on a random port (so the run needs no separate server).
+*
+* Run:  mvn -P benchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.IntakeLoadTest \
+*           -Djmh.args="<clients=64> <seconds=20> <batchSize=1> [url=http://localhost:8080]"
+* */
+public final class IntakeLoadTest {
+
+    private IntakeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        String baseUrl = args.length > 3 ? args[3] : null;
+
+        ConfigurableApplicationContext context = null;
+        if (baseUrl == null) {
+            context = SpringApplication.run(ElevatorSystemApplication.class, "--server.port=0", "--logging.level.root=WARN");
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        URI target = URI.create(baseUrl + (batchSize == 1 ? "/api/calls/destination" : "/api/calls/batch"));
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        // warm-up (JIT, connection pool), then the measured run
+        run(httpClient, target, clients, Math.max(2, seconds / 4), batchSize, "loadtest.warmup");
+        Result result = run(httpClient, target, clients, seconds, batchSize, "loadtest.latency");
+
+        System.out.printf("clients=%d seconds=%d batchSize=%d target=%s%n", clients, seconds, batchSize, target);
+        System.out.println(result);
+        if (context != null) {
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    private static Result run(HttpClient httpClient, URI target, int clients, int seconds, int batchSize, String histogramName)
+            throws InterruptedException {
+        LatencyHistogram latency = MetricsRegistry.histogram(histogramName + "." + batchSize);
+        AtomicLong httpRequests = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        for (int client = 0; client < clients; client++) {
+            SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED + client);
+            Thread.ofVirtual().name("load-client-" + client).start(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(target)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body(batchSize, random)))
+                                .build();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            latency.recordSince(sent);
+                            httpRequests.incrementAndGet();
+                            if (response.statusCode() != 202) failures.incrementAndGet();
+                        } catch (Exception ex) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        return new Result(httpRequests.get() / elapsedSeconds, httpRequests.get() * batchSize / elapsedSeconds,
+                failures.get(), latency.snapshot());
+    }
+
+    // random valid destination calls on the default 30 floors
+    private static String body(int batchSize, SplittableRandom random) {
+        StringBuilder json = new StringBuilder(batchSize * 40);
+        if (batchSize > 1) json.append('[');
+        for (int i = 0; i < batchSize; i++) {
+            int from = random.nextInt(31);
+            int to = (from + 1 + random.nextInt(30)) % 31;
+            if (i > 0) json.append(',');
+            json.append("{\"fromFloor\":").append(from).append(",\"toFloor\":").append(to).append('}');
+        }
+        if (batchSize > 1) json.append(']');
+        return json.toString();
+    }
+
+    private record Result(double httpRequestsPerSecond, double callsPerSecond, long failures, HistogramSnapshot latency) {
+        @Override
+        public String toString() {
+            return String.format("http=%.0f req/s, calls=%.0f/s, failures=%d, latency p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+                    httpRequestsPerSecond, callsPerSecond, failures,
+                    latency.getP50Nanos() / 1e6, latency.getP99Nanos() / 1e6, latency.getP999Nanos() / 1e6, latency.getMaxNanos() / 1e6);
+        }
+    }
+}
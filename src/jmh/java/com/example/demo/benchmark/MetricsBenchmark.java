@@ -0,0 +1,68 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.metrics.StripedCounter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+* Hot-path cost of recording a metric - budget is < 50 ns per record.
+*
+* histogramRecord*   - LatencyHistogram.record (bucket index + one striped atomic increment), 1 and 8 threads
+* counterIncrement*  - StripedCounter.increment (LongAdder), 1 and 8 threads
+* sharedAtomic8      - baseline: one AtomicLong hammered by 8 threads, what the striping avoids
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private final LatencyHistogram histogram = MetricsRegistry.histogram("benchmark.histogram");
+    private final StripedCounter counter = MetricsRegistry.counter("benchmark.counter");
+    private final AtomicLong sharedAtomic = new AtomicLong();
+
+    // per-thread pseudo latencies spread over several decades, so the index math is not constant-folded
+    @State(Scope.Thread)
+    public static class Values {
+        private long next = 1;
+
+        long nextValue() {
+            next = next * 6364136223846793005L + 1442695040888963407L;
+            return (next >>> 40) & 0xFFFFF; // 0 .. ~1 ms
+        }
+    }
+
+    @Benchmark
+    public void histogramRecord(Values values) {
+        histogram.record(values.nextValue());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void histogramRecord8(Values values) {
+        histogram.record(values.nextValue());
+    }
+
+    @Benchmark
+    public void counterIncrement() {
+        counter.increment();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void counterIncrement8() {
+        counter.increment();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long sharedAtomic8() {
+        return sharedAtomic.incrementAndGet();
+    }
+}
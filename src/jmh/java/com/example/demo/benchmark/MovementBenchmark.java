@@ -0,0 +1,72 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.model.Elevator;
+import com.example.demo.service.ElevatorMovementService1;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Cost of one movement tick - ElevatorMovementService1.moveElevatorOrNot(elevator).
+* Each invocation ticks the next car of the fleet (round robin); a car that went idle is handed a new stop
+* so that the measured mix stays "moving + arriving" instead of decaying to idle early returns.
+* Arrival processing scans the active request table, hence the activeRequests param.
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkFleet.FLOOR_COUNT_JVM_ARG)
+public class MovementBenchmark {
+
+    @Param({"4", "64", "500", "2000"})
+    public int fleetSize;
+
+    @Param({"30", "80"})
+    public int floorCount;
+
+    @Param({"0", "1000", "100000"})
+    public int activeRequests;
+
+    private ElevatorMovementService1 movementService;
+    private List<Elevator> fleet;
+    private SplittableRandom random;
+    private int topFloor;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        this.random = new SplittableRandom(BenchmarkFleet.SEED);
+        this.movementService = ElevatorMovementService1.getInstance();
+        this.topFloor = BenchmarkFleet.topFloor(floorCount);
+        BenchmarkFleet.populateActiveRequests(activeRequests, floorCount, random);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        this.fleet = BenchmarkFleet.randomFleet(fleetSize, floorCount, new SplittableRandom(BenchmarkFleet.SEED));
+        this.cursor = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFleet.clearRequests();
+    }
+
+    @Benchmark
+    public int moveElevatorOrNot() {
+        Elevator elevator = fleet.get(cursor);
+        cursor = (cursor + 1 == fleetSize) ? 0 : cursor + 1;
+        if (elevator.isStandingIdle()) {
+            int floor = random.nextInt(topFloor + 1);
+            elevator.addFloor(floor);
+            elevator.setElevatorState(floor >= elevator.getCurrentFloor() ? ElevatorState.MOVING_UP : ElevatorState.MOVING_DOWN);
+        }
+        movementService.moveElevatorOrNot(elevator);
+        return elevator.getCurrentFloor();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.IConstants;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.model.Elevator;
+import com.example.demo.service.ElevatorMovementService1;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Thread count and CPU time of the movement engine for a large fleet - not a JMH benchmark,
+* since what matters here is the steady-state footprint of the whole process, not the latency of one call.
+*
+*   per-car  : the old model - one single-thread scheduled executor per car, ticking every car every second
+*   wheel    : ElevatorMovementService1 as it is now - one shared timing wheel, steps armed only for moving cars
+*
+* Both phases run the same fleet: a busyShare of the cars travels bottom -> top, the rest stands idle.
+*
+* Run:  mvn -P benchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.MovementEngineFootprint \
+*           -Djmh.args="<fleetSize=1000> <busyShare=0.1> <seconds=20>"
+* */
+public final class MovementEngineFootprint {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private MovementEngineFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int fleetSize = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        double busyShare = args.length > 1 ? Double.parseDouble(args[1]) : 0.1;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        ElevatorMovementService1 movementService = ElevatorMovementService1.getInstance();
+
+        // --- old model: an executor thread per car, fixed-rate tick whether the car moves or not
+        List<Elevator> fleet = newFleet(fleetSize, busyShare);
+        List<ScheduledExecutorService> perCarExecutors = new ArrayList<>(fleetSize);
+        long cpuBefore = processCpuNanos();
+        for (Elevator elevator : fleet) {
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+                    runnable -> new Thread(runnable, "elevator-" + elevator.getElevatorId()));
+            executor.scheduleAtFixedRate(() -> movementService.moveElevatorOrNot(elevator), 0, 1, TimeUnit.SECONDS);
+            perCarExecutors.add(executor);
+        }
+        Footprint perCar = measure(seconds, cpuBefore);
+        perCarExecutors.forEach(ScheduledExecutorService::shutdownNow);
+        for (ScheduledExecutorService executor : perCarExecutors) {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        // --- new model: shared timing wheel, only moving cars have a pending step
+        fleet = newFleet(fleetSize, busyShare);
+        cpuBefore = processCpuNanos();
+        for (Elevator elevator : fleet) {
+            movementService.startElevator(elevator);
+        }
+        Footprint wheel = measure(seconds, cpuBefore);
+
+        System.out.printf("fleet=%d busy=%.0f%% window=%ds%n", fleetSize, busyShare * 100, seconds);
+        System.out.printf("  per-car executors : %s%n", perCar);
+        System.out.printf("  timing wheel      : %s%n", wheel);
+        System.exit(0);
+    }
+
+    private static List<Elevator> newFleet(int fleetSize, double busyShare) {
+        int busyCars = (int) Math.round(fleetSize * busyShare);
+        List<Elevator> fleet = new ArrayList<>(fleetSize);
+        for (int i = 0; i < fleetSize; i++) {
+            if (i < busyCars) {
+                Elevator elevator = new Elevator(ElevatorState.MOVING_UP, IConstants.BASE_FLOOR);
+                elevator.addFloor(IConstants.MAX_FLOOR_COUNT);
+                fleet.add(elevator);
+            } else {
+                fleet.add(new Elevator(ElevatorState.IDLE, IConstants.BASE_FLOOR));
+            }
+        }
+        return fleet;
+    }
+
+    // live threads of the whole JVM (JVM housekeeping threads included, same for both phases)
+    private static Footprint measure(int seconds, long cpuBefore) throws InterruptedException {
+        int peakThreads = 0;
+        for (int s = 0; s < seconds; s++) {
+            TimeUnit.SECONDS.sleep(1);
+            peakThreads = Math.max(peakThreads, THREADS.getThreadCount());
+        }
+        return new Footprint(peakThreads, TimeUnit.NANOSECONDS.toMillis(processCpuNanos() - cpuBefore), seconds);
+    }
+
+    // CPU of all live threads; threads of the previous phase are gone by the time the next phase starts
+    private static long processCpuNanos() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime();
+        }
+        long total = 0;
+        for (long id : THREADS.getAllThreadIds()) {
+            total += Math.max(0, THREADS.getThreadCpuTime(id));
+        }
+        return total;
+    }
+
+    private record Footprint(int liveThreads, long cpuMillis, int seconds) {
+        @Override
+        public String toString() {
+            return String.format("live threads=%d, cpu=%d ms (%.1f ms per wall second)",
+                    liveThreads, cpuMillis, cpuMillis / (double) seconds);
+        }
+    }
+}
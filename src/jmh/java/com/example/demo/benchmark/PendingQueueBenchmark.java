@@ -0,0 +1,104 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.cache.PendingRequestQueue;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.model.ElevatorRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Pending queue under a large backlog (e.g., the whole fleet in maintenance during the morning peak).
+*
+* One operation = one "retry pass" over the backlog, as the dispatcher does it:
+*   - REMOVALS requests are assigned by other paths meanwhile and leave the queue via remove(request)
+*   - size() is checked once per retried request (isEmpty()/metrics/logging)
+*   - every remaining request is polled and re-offered (assignment failed again)
+*
+* linkedQueue   - the previous ConcurrentLinkedQueue: remove(Object) and size() both walk the queue
+* priorityLanes - PendingRequestQueue: handle-based O(1) remove, counter-based O(1) size
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkFleet.FLOOR_COUNT_JVM_ARG, "-Xmx4g"})
+public class PendingQueueBenchmark {
+
+    private static final int REMOVALS = 1_000;
+    private static final int SIZE_CHECKS = 1_000;
+
+    @Param({"1000", "10000", "100000"})
+    public int backlog;
+
+    @Param({"30"})
+    public int floorCount;
+
+    private ElevatorRequest[] requests;
+    private ElevatorRequest[] removalOrder;
+    private Queue<ElevatorRequest> linkedQueue;
+    private PendingRequestQueue priorityLanes;
+
+    @Setup(Level.Trial)
+    public void setUpRequests() {
+        SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED);
+        this.requests = BenchmarkFleet.randomDestinationRequests(backlog, floorCount, random);
+        // a few VIP/EMERGENCY calls mixed in, like a real backlog
+        RequestPriority[] priorities = RequestPriority.values();
+        for (int i = 0; i < requests.length; i += 50) {
+            requests[i] = new ElevatorRequest(priorities[random.nextInt(priorities.length)],
+                    requests[i].getFromSrcFloor(), requests[i].getToDestFloor());
+        }
+        // seeded shuffle - removals hit random positions, not just the head
+        this.removalOrder = requests.clone();
+        for (int i = removalOrder.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            ElevatorRequest tmp = removalOrder[i];
+            removalOrder[i] = removalOrder[j];
+            removalOrder[j] = tmp;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillQueues() {
+        this.linkedQueue = new ConcurrentLinkedQueue<>();
+        this.priorityLanes = new PendingRequestQueue();
+        for (ElevatorRequest request : requests) {
+            linkedQueue.offer(request);
+            priorityLanes.offer(request);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void drainQueues() {
+        priorityLanes.clear(); // releases the handles so the next invocation can offer the same requests again
+    }
+
+    @Benchmark
+    public void linkedQueue(Blackhole bh) {
+        retryPass(linkedQueue, bh);
+    }
+
+    @Benchmark
+    public void priorityLanes(Blackhole bh) {
+        retryPass(priorityLanes, bh);
+    }
+
+    private void retryPass(Queue<ElevatorRequest> queue, Blackhole bh) {
+        int removals = Math.min(REMOVALS, removalOrder.length);
+        for (int i = 0; i < removals; i++) {
+            bh.consume(queue.remove(removalOrder[i]));
+        }
+        int remaining = backlog - removals;
+        for (int i = 0; i < remaining; i++) {
+            if (i < SIZE_CHECKS) bh.consume(queue.size());
+            ElevatorRequest request = queue.poll();
+            queue.offer(request); // assignment failed again - back to the queue
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.cache.ElevatorCache;
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.repository.ElevatorJournal;
+import com.example.demo.repository.ElevatorSnapshot;
+import com.example.demo.repository.PersistedState;
+import com.example.demo.service.ElevatorPersistenceService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/*
+* Restart time of a large building - not JMH, a restart happens once per process.
+*
+*   1. writes a snapshot of <cars> cars and <requests> live requests (60% pending, 30% assigned, 10% riding)
+*      and a journal tail of <tail> further changes on top of it
+*   2. decode : ElevatorSnapshot.recover() - snapshot + journal replay into a PersistedState, cold then warm
+*   3. restore: ElevatorPersistenceService.recover() - the same plus putting everything back into the caches,
+*               the per-floor index and the expiry wheel, as on a real restart
+*
+* Run:  mvn -P benchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.PersistenceRecoveryBenchmark \
+*           -Djmh.args="<cars=500> <requests=1000000> <tail=100000>"
+* */
+public final class PersistenceRecoveryBenchmark {
+
+    private PersistenceRecoveryBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int cars = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int tail = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        int floorCount = 30;
+
+        Path directory = Files.createTempDirectory("elevator-state");
+        SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED);
+        List<Elevator> fleet = BenchmarkFleet.randomFleet(cars, floorCount, random);
+        List<ElevatorRequest> live = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            ElevatorRequest request = BenchmarkFleet.randomDestinationRequest(floorCount, random);
+            int kind = random.nextInt(10);
+            if (kind >= 6) {
+                request.setAssignedElevator(fleet.get(random.nextInt(cars)));
+                request.setRequestStatus(kind == 9 ? RequestStatus.IN_PROGRESS : RequestStatus.ASSIGNED);
+            }
+            live.add(request);
+        }
+
+        long start = System.nanoTime();
+        Path snapshot = ElevatorSnapshot.write(directory, 0L, fleet, live);
+        System.out.printf("snapshot : %,d cars + %,d requests, %.1f MB written in %d ms%n",
+                cars, requests, Files.size(snapshot) / 1048576d, (System.nanoTime() - start) / 1_000_000);
+
+        ElevatorJournal journal = new ElevatorJournal(directory, 0L);
+        start = System.nanoTime();
+        for (int i = 0; i < tail; i++) {
+            ElevatorRequest request = live.get(random.nextInt(requests));
+            request.setRequestStatus(random.nextBoolean() ? RequestStatus.COMPLETED : RequestStatus.IN_PROGRESS);
+            journal.appendRequest(request);
+            if (i % 100 == 0) journal.appendCar(fleet.get(random.nextInt(cars)));
+        }
+        System.out.printf("journal  : %,d records appended in %d ms (%,d bytes)%n",
+                tail + tail / 100, (System.nanoTime() - start) / 1_000_000, journal.position());
+        journal.close();
+        live = null;
+        fleet = null;
+        System.gc();
+
+        for (int pass = 1; pass <= 3; pass++) {
+            start = System.nanoTime();
+            PersistedState state = ElevatorSnapshot.recover(directory);
+            System.out.printf("decode   pass %d: %,d cars + %,d requests in %d ms%n",
+                    pass, state.getCars().size(), state.getRequests().size(), (System.nanoTime() - start) / 1_000_000);
+        }
+
+        System.setProperty("elevator.persistence.dir", directory.toString());
+        start = System.nanoTime();
+        ElevatorPersistenceService.getInstance().recover();
+        System.out.printf("restore  : %,d cars, %,d active + %,d pending requests in %d ms%n",
+                ElevatorCache.elevators.size(), ElevatorBanks.activeRequestCount(),
+                ElevatorBanks.pendingRequestCount(), (System.nanoTime() - start) / 1_000_000);
+
+        ElevatorPersistenceService.getInstance().shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+        System.exit(0);
+    }
+}
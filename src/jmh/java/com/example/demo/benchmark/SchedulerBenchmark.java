@@ -0,0 +1,83 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.FleetSnapshot;
+import com.example.demo.scheduler.ElevatorCandidate;
+import com.example.demo.scheduler.ElevatorScheduler;
+import com.example.demo.scheduler.SCANScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Cost of ranking the fleet for a single request - SCANScheduler.findBestElevators()
+* It is a pure read of elevator state, so the fleet is built once per trial and never mutated.
+*
+*   findBestElevators / findBestElevator : List<Elevator> API - captures a view of every car per call
+*   findBestCandidatesOnSnapshot         : ranks a published FleetSnapshot, no capture - every eligible car, sorted
+*   topCandidatesOnSnapshot              : what the dispatcher does - only its TOP_K (8) best, nearest-first through
+*                                          the snapshot's FleetFloorIndex from 64 cars on
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkFleet.FLOOR_COUNT_JVM_ARG)
+public class SchedulerBenchmark {
+
+    @Param({"4", "64", "500", "2000"})
+    public int fleetSize;
+
+    @Param({"30", "80"})
+    public int floorCount;
+
+    // SCANScheduler.Cost: ETA replay of every eligible car vs the kernel score alone
+    @Param({"ETA", "DISTANCE"})
+    public String cost;
+
+    private static final int REQUEST_POOL = 1024; // power of two - cheap index masking
+    private static final int TOP_K = 8;             // ElevatorDispatcherService.TOP_K
+
+    private ElevatorScheduler scheduler;
+    private List<Elevator> fleet;
+    private FleetSnapshot snapshot;
+    private ElevatorRequest[] requests;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED);
+        this.scheduler = new SCANScheduler(SCANScheduler.Cost.valueOf(cost));
+        this.fleet = BenchmarkFleet.randomFleet(fleetSize, floorCount, random);
+        this.snapshot = FleetSnapshot.of(fleet);
+        this.requests = BenchmarkFleet.randomDestinationRequests(REQUEST_POOL, floorCount, random);
+    }
+
+    private ElevatorRequest nextRequest() {
+        return requests[cursor++ & (REQUEST_POOL - 1)];
+    }
+
+    @Benchmark
+    public List<Elevator> findBestElevators() {
+        return scheduler.findBestElevators(fleet, nextRequest());
+    }
+
+    @Benchmark
+    public Elevator findBestElevator() {
+        return scheduler.findBestElevator(fleet, nextRequest());
+    }
+
+    @Benchmark
+    public List<ElevatorCandidate> findBestCandidatesOnSnapshot() {
+        return scheduler.findBestCandidates(snapshot, nextRequest());
+    }
+
+    @Benchmark
+    public List<ElevatorCandidate> topCandidatesOnSnapshot() {
+        return scheduler.findBestCandidates(snapshot, nextRequest(), TOP_K);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.FleetSnapshot;
+import com.example.demo.model.FleetStateTable;
+import com.example.demo.scheduler.ElevatorCandidate;
+import com.example.demo.scheduler.FleetScoringKernel;
+import com.example.demo.scheduler.SCANScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Scoring every car of the fleet for one request on the struct-of-arrays FleetStateTable:
+*   scalarKernel / vectorKernel : the scoring pass alone (one int per car), plain loop vs Vector API
+*   rankOnSnapshot              : the full SCANScheduler ranking on a snapshot - kernel + sort of the packed keys
+* Compare with SchedulerBenchmark.findBestElevators for the old per-car Comparator chain.
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkFleet.FLOOR_COUNT_JVM_ARG, BenchmarkFleet.VECTOR_MODULE_JVM_ARG})
+public class ScoringKernelBenchmark {
+
+    private static final int REQUEST_POOL = 1024;
+
+    @Param({"64", "1000", "4000"})
+    public int fleetSize;
+
+    @Param({"80"})
+    public int floorCount;
+
+    private final SCANScheduler scheduler = new SCANScheduler();
+    private final FleetScoringKernel scalar = FleetScoringKernel.scalar();
+    private FleetScoringKernel vector;
+    private FleetSnapshot snapshot;
+    private FleetStateTable table;
+    private ElevatorRequest[] requests;
+    private int[] scores;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED);
+        this.snapshot = FleetSnapshot.of(BenchmarkFleet.randomFleet(fleetSize, floorCount, random));
+        this.table = snapshot.getStateTable();
+        this.requests = BenchmarkFleet.randomDestinationRequests(REQUEST_POOL, floorCount, random);
+        this.scores = new int[table.capacity()];
+        this.vector = FleetScoringKernel.vector();
+        if (vector == null) {
+            throw new IllegalStateException("jdk.incubator.vector is not available in the benchmark JVM");
+        }
+    }
+
+    private ElevatorRequest nextRequest() {
+        return requests[cursor++ & (REQUEST_POOL - 1)];
+    }
+
+    @Benchmark
+    public int[] scalarKernel() {
+        ElevatorRequest request = nextRequest();
+        scalar.score(table, request.getFromSrcFloor(), request.isUpward() ? FleetStateTable.DIRECTION_UP : FleetStateTable.DIRECTION_DOWN, scores);
+        return scores;
+    }
+
+    @Benchmark
+    public int[] vectorKernel() {
+        ElevatorRequest request = nextRequest();
+        vector.score(table, request.getFromSrcFloor(), request.isUpward() ? FleetStateTable.DIRECTION_UP : FleetStateTable.DIRECTION_DOWN, scores);
+        return scores;
+    }
+
+    @Benchmark
+    public List<ElevatorCandidate> rankOnSnapshot() {
+        return scheduler.findBestCandidates(snapshot, nextRequest());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.service.ElevatorDispatcherService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Dispatch throughput of a tower split into elevator banks: the same fleet and the same floors, as 1 bank or as
+* `banks` banks of fleetSize / banks cars each, every bank serving its own slice of floors. One submitter thread per
+* core; each call routes its request to its bank and runs that bank's dispatcher - with one bank all threads rank the
+* same cars and race for the same versions, with N banks they mostly work in disjoint shards.
+*
+* Banks are fixed when ElevatorBanks is first used, so the trial setup sets -Delevator.banks itself before touching
+* anything else; JMH runs every @Param combination in a fresh fork, so each combination gets its own bank layout.
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkFleet.FLOOR_COUNT_JVM_ARG, BenchmarkFleet.VECTOR_MODULE_JVM_ARG})
+public class ShardedDispatchBenchmark {
+
+    private static final int REQUEST_POOL = 4096;
+
+    @Param({"1", "2", "4", "8"})
+    public int banks;
+
+    @Param({"256"})
+    public int fleetSize;
+
+    @Param({"80"})
+    public int floorCount;
+
+    private ElevatorDispatcherService frontDoor;
+    private ElevatorRequest[] requests;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        int floorsPerBank = floorCount / banks;
+        StringBuilder spec = new StringBuilder();
+        for (int bank = 0; bank < banks; bank++) {
+            int lowest = bank * floorsPerBank;
+            int highest = bank == banks - 1 ? floorCount : lowest + floorsPerBank - 1;
+            spec.append("bank").append(bank).append(':').append(lowest).append('-').append(highest)
+                    .append(':').append(fleetSize / banks).append(';');
+        }
+        System.setProperty("elevator.banks", spec.toString());
+        if (ElevatorBanks.getBanks().size() != banks) {
+            throw new IllegalStateException("ElevatorBanks was initialised before the benchmark could configure it");
+        }
+        this.frontDoor = ElevatorDispatcherService.getInstance();
+
+        // calls spread evenly over the banks, each one within the floors of its bank
+        SplittableRandom random = new SplittableRandom(BenchmarkFleet.SEED);
+        this.requests = new ElevatorRequest[REQUEST_POOL];
+        for (int i = 0; i < REQUEST_POOL; i++) {
+            int bank = i % banks;
+            int lowest = bank * floorsPerBank;
+            int floors = (bank == banks - 1 ? floorCount : lowest + floorsPerBank - 1) - lowest + 1;
+            int src = lowest + random.nextInt(floors);
+            int dest = lowest + random.nextInt(floors - 1);
+            if (dest >= src) dest++;
+            this.requests[i] = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, src, dest);
+        }
+    }
+
+    // assignments keep adding stops, so every iteration starts again from a fresh fleet
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        BenchmarkFleet.clearRequests();
+        BenchmarkFleet.installFleet(
+                BenchmarkFleet.randomFleet(fleetSize, floorCount, new SplittableRandom(BenchmarkFleet.SEED)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFleet.clearRequests();
+        BenchmarkFleet.installFleet(java.util.List.of());
+    }
+
+    @Benchmark
+    public Elevator assignRequestToElevator(Cursor cursor) {
+        return frontDoor.assignRequestToElevator(requests[cursor.next++ & (REQUEST_POOL - 1)]);
+    }
+}
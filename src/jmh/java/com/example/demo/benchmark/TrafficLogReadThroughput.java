@@ -0,0 +1,106 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.simulation.TrafficGenerator;
+import com.example.demo.simulation.TrafficLogReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+* Read throughput and allocation of a large traffic log - not JMH, since one pass over a file of hundreds of MB is
+* the unit of work (and the first pass, from disk, matters as much as the warm one from the page cache).
+*
+*   readLine : the obvious way - BufferedReader.readLine + String searching/parsing per line
+*   mapped   : simulation.TrafficLogReader - memory-mapped windows, parsed in place on the bytes
+*
+* Allocation is measured per thread (com.sun.management.ThreadMXBean) and reported per record.
+*
+* Run:  mvn -P benchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.TrafficLogReadThroughput \
+*           -Djmh.args="<days=100> <passes=3> [existing log.jsonl]"
+* */
+public final class TrafficLogReadThroughput {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private TrafficLogReadThroughput() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        Path log;
+        if (args.length > 2) {
+            log = Path.of(args[2]);
+        } else {
+            log = Files.createTempFile("traffic", ".jsonl");
+            log.toFile().deleteOnExit();
+            long calls = TrafficGenerator.writeOfficeDays(log, days, BenchmarkFleet.SEED);
+            System.out.printf("generated %d calls (%.1f MB) in %s%n", calls, Files.size(log) / 1048576d, log);
+        }
+
+        for (int pass = 1; pass <= passes; pass++) {
+            measure("readLine", pass, log, TrafficLogReadThroughput::readLines);
+            measure("mapped", pass, log, TrafficLogReadThroughput::readMapped);
+        }
+        System.exit(0);
+    }
+
+    private interface Pass {
+        long run(Path log) throws IOException; // returns a checksum of the records, so nothing is optimised away
+    }
+
+    private static void measure(String name, int pass, Path log, Pass reader) throws IOException {
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long records = reader.run(log);
+        long nanos = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-8s pass %d: %,d records in %d ms - %.0f MB/s, %.1f M records/s, %.1f bytes allocated per record%n",
+                name, pass, records, nanos / 1_000_000, Files.size(log) / 1048576d / (nanos / 1e9),
+                records / (nanos / 1e3), (double) allocated / Math.max(1, records));
+    }
+
+    private static long readMapped(Path log) throws IOException {
+        long records = 0;
+        long checksum = 0;
+        try (TrafficLogReader reader = new TrafficLogReader(log)) {
+            while (reader.next()) {
+                records++;
+                checksum += reader.getTimestampMillis() + reader.getFromFloor() * 31L + reader.getToFloor() + reader.getPriority().ordinal();
+            }
+        }
+        if (checksum == 42) System.out.print(""); // keep the checksum alive
+        return records;
+    }
+
+    // what a straightforward implementation would do: a String per line, a String per value
+    private static long readLines(Path log) throws IOException {
+        long records = 0;
+        long checksum = 0;
+        try (BufferedReader reader = Files.newBufferedReader(log, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                checksum += Long.parseLong(value(line, "\"timestamp\":"))
+                        + Integer.parseInt(value(line, "\"fromFloor\":")) * 31L
+                        + Integer.parseInt(value(line, "\"toFloor\":"))
+                        + value(line, "\"priority\":").length();
+                records++;
+            }
+        }
+        if (checksum == 42) System.out.print("");
+        return records;
+    }
+
+    private static String value(String line, String key) {
+        int start = line.indexOf(key) + key.length();
+        int end = start;
+        while (end < line.length() && line.charAt(end) != ',' && line.charAt(end) != '}') end++;
+        return line.substring(start, end);
+    }
+}
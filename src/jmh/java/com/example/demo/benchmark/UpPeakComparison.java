@@ -0,0 +1,83 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.simulation.TrafficSimulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+* Dispatch strategies on a tall building's morning up-peak: the same seeded hour of lobby traffic
+* (TrafficGenerator.upPeak) simulated once per strategy, and round-trip time, stops per round trip and handling
+* capacity (riders delivered per 5 minutes) of each run compared. Not a JMH benchmark - what matters is the
+* passengers' clock, not the scheduler's CPU time.
+*
+*   scan                  per-request SCAN assignment (the default)
+*   destination           destination dispatch over SCAN - riders grouped by source floor and destination band
+*   zoning                zoning scheduler
+*   zoning+destination    destination dispatch over zoning
+*
+* The scheduler is fixed when the first dispatcher is created, so each run is its own JVM (TrafficSimulation with the
+* strategy's system properties); only the report line of each run is printed. Handling capacity only shows the
+* fleet's limit when the calls arrive faster than it can serve them - keep callsPerMinute above what SCAN can carry.
+*
+* Run:  mvn -P benchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.UpPeakComparison \
+*           -Djmh.args="<fleetSize=16> <callsPerMinute=40> <floorCount=80> <seed=1> [strategy,strategy,...]"
+* */
+public final class UpPeakComparison {
+
+    private static final Map<String, List<String>> STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        STRATEGIES.put("scan", List.of());
+        STRATEGIES.put("destination", List.of("-Delevator.destinationDispatch=true"));
+        STRATEGIES.put("zoning", List.of("-Delevator.scheduler=zoning"));
+        STRATEGIES.put("zoning+destination", List.of("-Delevator.scheduler=zoning", "-Delevator.destinationDispatch=true"));
+    }
+
+    private UpPeakComparison() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String fleetSize = args.length > 0 ? args[0] : "16";
+        String callsPerMinute = args.length > 1 ? args[1] : "40";
+        String floorCount = args.length > 2 ? args[2] : "80";
+        String seed = args.length > 3 ? args[3] : "1";
+        List<String> strategies = args.length > 4 ? List.of(args[4].split(",")) : List.copyOf(STRATEGIES.keySet());
+
+        System.out.printf("up-peak: fleet=%s floors=%s calls/min=%s seed=%s%n", fleetSize, floorCount, callsPerMinute, seed);
+        for (String strategy : strategies) {
+            List<String> properties = STRATEGIES.get(strategy);
+            if (properties == null) {
+                throw new IllegalArgumentException("unknown strategy '" + strategy + "', expected one of " + STRATEGIES.keySet());
+            }
+            List<String> command = new ArrayList<>();
+            command.add(ProcessHandle.current().info().command().orElse("java"));
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                command.add(BenchmarkFleet.VECTOR_MODULE_JVM_ARG);
+            }
+            command.add("-Delevator.maxFloorCount=" + floorCount);
+            command.addAll(properties);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(TrafficSimulation.class.getName());
+            command.addAll(List.of(fleetSize, seed, "uppeak", callsPerMinute));
+
+            Process run = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String report = null;
+            try (BufferedReader output = new BufferedReader(new InputStreamReader(run.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = output.readLine()) != null) {
+                    if (line.startsWith("SimulationReport{")) report = line; // skip the cars' door chatter
+                }
+            }
+            int exit = run.waitFor();
+            System.out.printf("  %-18s: %s%n", strategy, report != null ? report : "no report (exit code " + exit + ")");
+        }
+    }
+}
@@ -7,15 +7,33 @@ import com.example.demo.enums.RequestDirection;
 import com.example.demo.enums.RequestPriority;
 import com.example.demo.model.Elevator;
 import com.example.demo.repository.ElevatorRepository;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-//@SpringBootApplication
+@SpringBootApplication
 public class ElevatorSystemApplication {
 
+	// starts the HTTP intake (ElevatorController1 on /api/calls, MetricsController on /api/metrics)
+	// elevator system properties (-Delevator.clock / .threads / ...) must be set before this - the service singletons read them once
 	public static void main(String[] args) {
-//		SpringApplication.run(ElevatorSystemApplication.class, args);
+		SpringApplication.run(ElevatorSystemApplication.class, args);
+	}
+
+	// the former console walk-through, now opt-in: --elevator.demo=true
+	@Bean
+	@ConditionalOnProperty(name = "elevator.demo", havingValue = "true")
+	public CommandLineRunner demo(ElevatorController1 controller) {
+		return args -> runDemo(controller);
+	}
+
+	private static void runDemo(ElevatorController1 controller) {
 
 //        // start Spring context so beans, repositories and scheduled services are initialized
 //        ConfigurableApplicationContext ctx = SpringApplication.run(ElevatorSystemApplication.class, args);
@@ -23,18 +41,19 @@ public class ElevatorSystemApplication {
         // obtain controller from Spring context instead of newing it up
 //        ElevatorController controller = ctx.getBean(ElevatorController.class);
 
-        ElevatorController1 controller = new ElevatorController1();
-
 //        for( Elevator e: ElevatorCache.elevators) {
 //            System.out.println("Cache Elevator : " + e);
 //        }
 
-        controller.selectDestinationFloorOutsideElevator(13, 7, RequestPriority.REGULAR_NORMAL);
-        controller.selectDestinationFloorOutsideElevator(4, 10, RequestPriority.REGULAR_NORMAL);
-        controller.selectDestinationFloorOutsideElevator(5, 9, RequestPriority.REGULAR_NORMAL);
-        controller.selectDestinationFloorOutsideElevator(7, 13, RequestPriority.REGULAR_NORMAL);
-        controller.selectDestinationFloorOutsideElevator(12, 15, RequestPriority.REGULAR_NORMAL);
-        controller.selectDestinationFloorOutsideElevator(6, 4, RequestPriority.REGULAR_NORMAL);
+        // requests are dispatched asynchronously (virtual thread per request with -Delevator.threads=virtual)
+        CompletableFuture.allOf(
+                controller.selectDestinationFloorOutsideElevator(13, 7, RequestPriority.REGULAR_NORMAL),
+                controller.selectDestinationFloorOutsideElevator(4, 10, RequestPriority.REGULAR_NORMAL),
+                controller.selectDestinationFloorOutsideElevator(5, 9, RequestPriority.REGULAR_NORMAL),
+                controller.selectDestinationFloorOutsideElevator(7, 13, RequestPriority.REGULAR_NORMAL),
+                controller.selectDestinationFloorOutsideElevator(12, 15, RequestPriority.REGULAR_NORMAL),
+                controller.selectDestinationFloorOutsideElevator(6, 4, RequestPriority.REGULAR_NORMAL)
+        ).join(); // wait for the assignments before printing the fleet
 
         for( Elevator e: ElevatorCache.elevators) {
             System.out.println("Cache Elevator : " + e);
@@ -2,7 +2,8 @@ package com.example.demo;
 
 public interface IConstants {
     int MAX_HOLDING_CAPACITY = 12;
-    int MAX_FLOOR_COUNT = 30;
+    // top floor can be overridden per building at startup (e.g. -Delevator.maxFloorCount=80) - defaults to 30
+    int MAX_FLOOR_COUNT = Integer.getInteger("elevator.maxFloorCount", 30);
     int BASE_FLOOR = 0;
     int INITIAL_ELEVATOR_COUNT = 4;
 }
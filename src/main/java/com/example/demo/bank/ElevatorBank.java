@@ -0,0 +1,164 @@
+package com.example.demo.bank;
+
+import com.example.demo.cache.FleetSnapshotPublisher;
+import com.example.demo.cache.FloorRequestIndex;
+import com.example.demo.cache.PendingRequestQueue;
+import com.example.demo.cache.UserRequestCache;
+import com.example.demo.forecast.DemandForecaster;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.FleetSnapshot;
+import com.example.demo.scheduler.ParkingPolicy;
+import com.example.demo.service.ElevatorDispatcherService;
+import lombok.Getter;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+* One elevator bank (group of cars serving the same floors) - the unit dispatch is sharded by.
+*
+* A bank owns everything a dispatch decision touches:
+*   - its cars and their published FleetSnapshot (own change counter - see FleetSnapshotPublisher)
+*   - its pending queue, active-request table and per-floor index (own UserRequestCache)
+*   - its own ElevatorDispatcherService (own executor, own batch window)
+*   - its own demand forecast and parking policy for its idle cars
+* A request is routed to exactly one bank (ElevatorBanks.route) and never leaves it, so two banks share no lock, no
+* queue and no counter on the dispatch path - a tower with N banks runs N independent dispatchers.
+* */
+public class ElevatorBank {
+
+    @Getter
+    private final String bankId;
+    private final BitSet servedFloors;
+    // cars this bank takes when cars join the fleet (Integer.MAX_VALUE = no limit)
+    @Getter
+    private final int targetCarCount;
+
+    private final List<Elevator> elevators = new CopyOnWriteArrayList<>();
+    private final FleetSnapshotPublisher fleetPublisher = new FleetSnapshotPublisher(this.elevators);
+    private final UserRequestCache requestCache = new UserRequestCache();
+    // calls per floor and direction this bank can expect next (fed by its dispatcher's intake)
+    @Getter
+    private final DemandForecaster demandForecaster;
+    @Getter
+    private final ParkingPolicy parkingPolicy = new ParkingPolicy();
+
+    // created on first use, after construction - the dispatcher pulls in the movement/expiry services and keeps a
+    // reference to its bank, so it must only ever see a fully built one (banks are created long before)
+    private volatile ElevatorDispatcherService dispatcher;
+
+    private ElevatorBank(String bankId, BitSet servedFloors, int targetCarCount, DemandForecaster demandForecaster) {
+        this.bankId = bankId;
+        this.servedFloors = servedFloors;
+        this.targetCarCount = targetCarCount;
+        this.demandForecaster = demandForecaster;
+    }
+
+    // everything derived from the served floors is built here, so the constructor hands 'this' to nobody
+    public static ElevatorBank of(String bankId, BitSet servedFloors, int targetCarCount) {
+        BitSet floors = (BitSet) servedFloors.clone();
+        DemandForecaster forecaster = new DemandForecaster(bankId, lowestFloor(floors), highestFloor(floors));
+        return new ElevatorBank(bankId, floors, targetCarCount, forecaster);
+    }
+
+    public boolean serves(int floor) {
+        return floor >= 0 && this.servedFloors.get(floor);
+    }
+
+    public int lowestFloor() {
+        return lowestFloor(this.servedFloors);
+    }
+
+    public int highestFloor() {
+        return highestFloor(this.servedFloors);
+    }
+
+    private static int lowestFloor(BitSet floors) {
+        return floors.nextSetBit(0);
+    }
+
+    private static int highestFloor(BitSet floors) {
+        return floors.length() - 1;
+    }
+
+    // read-only view of the bank's cars
+    public List<Elevator> getElevators() {
+        return Collections.unmodifiableList(this.elevators);
+    }
+
+    public int size() {
+        return this.elevators.size();
+    }
+
+    public FleetSnapshot getFleetSnapshot() {
+        return this.fleetPublisher.current();
+    }
+
+    // a car of this bank changed (Elevator version bump)
+    public void fleetChanged() {
+        this.fleetPublisher.changed();
+    }
+
+    public PendingRequestQueue getPendingRequests() {
+        return this.requestCache.getPendingRequests();
+    }
+
+    public Map<String, ElevatorRequest> getActiveRequests() {
+        return this.requestCache.getActiveRequests();
+    }
+
+    public FloorRequestIndex getFloorRequestIndex() {
+        return this.requestCache.getFloorRequestIndex();
+    }
+
+    public ElevatorDispatcherService getDispatcher() {
+        ElevatorDispatcherService current = this.dispatcher;
+        if (current == null) {
+            synchronized (this) {
+                current = this.dispatcher;
+                if (current == null) {
+                    current = new ElevatorDispatcherService(this);
+                    this.dispatcher = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // membership is managed by ElevatorBanks only (it keeps the banks in line with ElevatorCache.elevators)
+    void join(Elevator elevator) {
+        this.elevators.add(elevator);
+        elevator.setBank(this);
+        this.fleetPublisher.changed();
+    }
+
+    void leave(Elevator elevator) {
+        this.elevators.remove(elevator);
+        if (elevator.getBank() == this) {
+            elevator.setBank(null);
+        }
+        this.fleetPublisher.changed();
+    }
+
+    // served floors as ranges, e.g. "0,21-40" - same notation as -Delevator.banks
+    public String describeFloors() {
+        StringBuilder text = new StringBuilder();
+        for (int from = this.servedFloors.nextSetBit(0); from >= 0; ) {
+            int to = this.servedFloors.nextClearBit(from) - 1;
+            if (!text.isEmpty()) text.append(',');
+            text.append(from);
+            if (to > from) text.append('-').append(to);
+            from = this.servedFloors.nextSetBit(to + 1);
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "ElevatorBank{" + this.bankId + ", floors " + this.describeFloors() + ", cars " + this.elevators.size() + "}";
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.demo.bank;
+
+import com.example.demo.IConstants;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.enums.RequestType;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.ElevatorView;
+import com.example.demo.model.FleetSnapshot;
+import com.example.demo.service.ElevatorMovementService1;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/*
+* The elevator banks of the building, fixed at startup:
+*
+*   -Delevator.banks="low:0-20:4;high:0,21-40:4"      bank id : served floors : cars (cars optional = no limit)
+*
+* Without the property there is one bank "main" serving every floor with every car - exactly the old single
+* dispatcher. Cars are handed to banks as they join ElevatorCache.elevators: in configuration order, each bank up to
+* its car count, surplus cars to the bank with the fewest cars.
+*
+* Routing (route): a request goes to a bank serving its source floor - for a destination call preferably one serving
+* the destination too, then one that has cars, then the one with the shortest pending queue. A floor no bank serves
+* falls back to the first bank. The choice is stored on the request, so it is made once and every later step
+* (assignment, pickup, expiry, persistence) finds the same bank.
+* */
+public final class ElevatorBanks {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElevatorBanks.class);
+
+    public static final String DEFAULT_BANK_ID = "main";
+
+    private static final List<ElevatorBank> BANKS = parse(System.getProperty("elevator.banks"));
+
+    // whole-building snapshot, rebuilt only when one of the bank snapshots it was made of is outdated
+    private record Composite(FleetSnapshot[] parts, FleetSnapshot snapshot) {
+    }
+
+    private static volatile Composite composite;
+
+    static {
+        LOGGER.info("Elevator banks: {}", BANKS);
+        MetricsRegistry.gauge("pending.depth", ElevatorBanks::pendingRequestCount);
+        for (RequestPriority priority : RequestPriority.values()) {
+            MetricsRegistry.gauge("pending.depth." + priority, () -> {
+                long depth = 0;
+                for (ElevatorBank bank : BANKS) depth += bank.getPendingRequests().size(priority);
+                return depth;
+            });
+        }
+        if (BANKS.size() > 1) {
+            for (ElevatorBank bank : BANKS) {
+                MetricsRegistry.gauge("pending.depth.bank." + bank.getBankId(), () -> bank.getPendingRequests().size());
+            }
+        }
+    }
+
+    private ElevatorBanks() {
+    }
+
+    public static List<ElevatorBank> getBanks() {
+        return BANKS;
+    }
+
+    public static ElevatorBank getDefaultBank() {
+        return BANKS.getFirst();
+    }
+
+    // null when there is no bank with that id
+    public static ElevatorBank get(String bankId) {
+        for (ElevatorBank bank : BANKS) {
+            if (bank.getBankId().equals(bankId)) return bank;
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------ routing
+
+    public static ElevatorBank route(ElevatorRequest request) {
+        ElevatorBank routed = request.getBank();
+        if (routed == null) {
+            // routed on the submitting thread before anybody else sees the request - a plain write is enough
+            routed = BANKS.size() == 1 ? BANKS.getFirst() : choose(request);
+            request.setBank(routed);
+        }
+        return routed;
+    }
+
+    // bank of a car - a car outside ElevatorCache.elevators (ad hoc fleets) counts as the first bank's
+    public static ElevatorBank bankOf(Elevator elevator) {
+        ElevatorBank bank = elevator.getBank();
+        return bank != null ? bank : BANKS.getFirst();
+    }
+
+    private static ElevatorBank choose(ElevatorRequest request) {
+        int srcFloor = request.getFromSrcFloor();
+        boolean hasDestination = request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION;
+        ElevatorBank best = null;
+        long bestRank = Long.MAX_VALUE;
+        for (ElevatorBank bank : BANKS) {
+            if (!bank.serves(srcFloor)) continue;
+            long rank = (hasDestination && !bank.serves(request.getToDestFloor()) ? 1L << 40 : 0)
+                    + (bank.size() == 0 ? 1L << 32 : 0)
+                    + bank.getPendingRequests().size();
+            if (rank < bestRank) {
+                best = bank;
+                bestRank = rank;
+            }
+        }
+        return best != null ? best : BANKS.getFirst();
+    }
+
+    // ------------------------------------------------------------ membership
+
+    /*
+    * Called by FleetList after every change of ElevatorCache.elevators: cars that left it leave their bank, new cars
+    * join one. O(cars) - membership changes are rare (startup, restore), dispatch never waits for this.
+    * */
+    public static synchronized void membershipChanged(List<Elevator> members) {
+        Set<Elevator> present = Collections.newSetFromMap(new IdentityHashMap<>(members.size() * 2));
+        present.addAll(members);
+        for (ElevatorBank bank : BANKS) {
+            for (Elevator elevator : bank.getElevators()) {
+                if (!present.contains(elevator)) {
+                    bank.leave(elevator);
+                    ElevatorMovementService1.getInstance().stopElevator(elevator); // its control loop must not outlive it
+                }
+            }
+        }
+        for (Elevator elevator : members) {
+            if (elevator.getBank() == null) bankForNewCar().join(elevator);
+        }
+    }
+
+    private static ElevatorBank bankForNewCar() {
+        ElevatorBank smallest = BANKS.getFirst();
+        for (ElevatorBank bank : BANKS) {
+            if (bank.size() < bank.getTargetCarCount()) return bank;
+            if (bank.size() < smallest.size()) smallest = bank;
+        }
+        return smallest;
+    }
+
+    // ------------------------------------------------------------ whole-building reads
+
+    public static FleetSnapshot getFleetSnapshot() {
+        if (BANKS.size() == 1) {
+            return BANKS.getFirst().getFleetSnapshot();
+        }
+        Composite current = composite;
+        if (current != null && isCurrent(current)) {
+            return current.snapshot();
+        }
+        FleetSnapshot[] parts = new FleetSnapshot[BANKS.size()];
+        List<ElevatorView> views = new ArrayList<>();
+        long sequence = 0;
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = BANKS.get(i).getFleetSnapshot();
+            views.addAll(parts[i].getViews());
+            sequence += parts[i].getSequence();
+        }
+        Composite rebuilt = new Composite(parts, new FleetSnapshot(sequence, views));
+        composite = rebuilt; // racing rebuilders each publish a consistent composite - any of them will do
+        return rebuilt.snapshot();
+    }
+
+    private static boolean isCurrent(Composite current) {
+        for (int i = 0; i < current.parts().length; i++) {
+            if (BANKS.get(i).getFleetSnapshot() != current.parts()[i]) return false;
+        }
+        return true;
+    }
+
+    public static long pendingRequestCount() {
+        long pending = 0;
+        for (ElevatorBank bank : BANKS) pending += bank.getPendingRequests().size();
+        return pending;
+    }
+
+    public static long activeRequestCount() {
+        long active = 0;
+        for (ElevatorBank bank : BANKS) active += bank.getActiveRequests().size();
+        return active;
+    }
+
+    // ------------------------------------------------------------ configuration
+
+    private static List<ElevatorBank> parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            BitSet everyFloor = new BitSet();
+            everyFloor.set(IConstants.BASE_FLOOR, IConstants.MAX_FLOOR_COUNT + 1);
+            return List.of(ElevatorBank.of(DEFAULT_BANK_ID, everyFloor, Integer.MAX_VALUE));
+        }
+        List<ElevatorBank> banks = new ArrayList<>();
+        for (String entry : spec.split(";")) {
+            if (entry.isBlank()) continue;
+            String[] parts = entry.trim().split(":");
+            if (parts.length < 2 || parts.length > 3 || parts[0].isBlank()) {
+                throw new IllegalArgumentException("elevator.banks: expected <id>:<floors>[:<cars>] but got '" + entry + "'");
+            }
+            int cars = parts.length == 3 ? Integer.parseInt(parts[2].trim()) : Integer.MAX_VALUE;
+            banks.add(ElevatorBank.of(parts[0].trim(), parseFloors(parts[1]), cars));
+        }
+        if (banks.isEmpty()) {
+            throw new IllegalArgumentException("elevator.banks: no bank in '" + spec + "'");
+        }
+        return List.copyOf(banks);
+    }
+
+    // "0,21-40" -> {0, 21..40}
+    private static BitSet parseFloors(String floors) {
+        BitSet served = new BitSet();
+        for (String range : floors.split(",")) {
+            String[] bounds = range.trim().split("-");
+            int from = Integer.parseInt(bounds[0].trim());
+            int to = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : from;
+            if (from < IConstants.BASE_FLOOR || to > IConstants.MAX_FLOOR_COUNT || from > to) {
+                throw new IllegalArgumentException("elevator.banks: floor range '" + range + "' outside "
+                        + IConstants.BASE_FLOOR + ".." + IConstants.MAX_FLOOR_COUNT);
+            }
+            served.set(from, to + 1);
+        }
+        return served;
+    }
+}
@@ -1,10 +1,10 @@
 package com.example.demo.cache;
 
+import com.example.demo.bank.ElevatorBanks;
 import com.example.demo.model.Elevator;
+import com.example.demo.model.FleetSnapshot;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ElevatorCache {
     // CopyOnWriteArrayList or Collections.synchronizedList
@@ -12,5 +12,12 @@ public class ElevatorCache {
     // When a write operation occurs (like add or remove), it creates a new copy of the underlying array to ensure that readers working on a previous version are unaffected, but this makes write operations expensive.
     // ideal for read-heavy scenarios where modifications are infrequent. low write frequency, many reads
     // Because Read operations are fast and non-blocking because they operate on a snapshot of the list
-        public static final List<Elevator> elevators = new CopyOnWriteArrayList<>();
+    // (a CopyOnWriteArrayList that also hands new cars to their elevator bank - see FleetList / ElevatorBanks)
+        public static final List<Elevator> elevators = new FleetList();
+
+    // consistent, versioned state of every car above, bank after bank - for status reads and the repository
+    // (dispatch reads only its own bank's snapshot - ElevatorBank.getFleetSnapshot)
+    public static FleetSnapshot getFleetSnapshot() {
+        return ElevatorBanks.getFleetSnapshot();
+    }
 }
@@ -0,0 +1,158 @@
+package com.example.demo.cache;
+
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.model.Elevator;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/*
+* ElevatorCache.elevators: the same CopyOnWriteArrayList as before, plus an ElevatorBanks.membershipChanged() after
+* every membership change - callers keep using the plain List API (add / addAll / clear ...) and every new car still
+* joins a bank, every removed one leaves it. (Mutations through subList() views are not seen - nothing in the code
+* base does that.)
+* */
+final class FleetList extends CopyOnWriteArrayList<Elevator> {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean add(Elevator elevator) {
+        try {
+            return super.add(elevator);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public void add(int index, Elevator elevator) {
+        try {
+            super.add(index, elevator);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public boolean addIfAbsent(Elevator elevator) {
+        try {
+            return super.addIfAbsent(elevator);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Elevator> elevators) {
+        try {
+            return super.addAll(elevators);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Elevator> elevators) {
+        try {
+            return super.addAll(index, elevators);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public int addAllAbsent(Collection<? extends Elevator> elevators) {
+        try {
+            return super.addAllAbsent(elevators);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public Elevator set(int index, Elevator elevator) {
+        try {
+            return super.set(index, elevator);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public Elevator remove(int index) {
+        try {
+            return super.remove(index);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public boolean remove(Object elevator) {
+        try {
+            return super.remove(elevator);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> elevators) {
+        try {
+            return super.removeAll(elevators);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> elevators) {
+        try {
+            return super.retainAll(elevators);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Elevator> filter) {
+        try {
+            return super.removeIf(filter);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Elevator> operator) {
+        try {
+            super.replaceAll(operator);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public void sort(Comparator<? super Elevator> comparator) {
+        try {
+            super.sort(comparator);
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            super.clear();
+        } finally {
+            ElevatorBanks.membershipChanged(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.cache;
+
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorView;
+import com.example.demo.model.FleetSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+* Publishes the cars of one elevator bank as one immutable FleetSnapshot behind a single volatile reference.
+* One publisher per bank (ElevatorBank) - cars of different banks never touch the same counter or reference.
+*
+* Writers only count: every car change (Elevator version bump) and every change of the bank's members bumps
+* changes - one atomic increment, no copying on the write path. The snapshot is (re)built by the first reader that
+* finds it older than changes, so a burst of changes (a step = floor + stops + state) costs one rebuild, not three,
+* and a fleet nobody reads costs nothing. Readers that find it current - the common case between floor steps - get
+* the published reference back: one volatile read, no lock, no ArrayList copy.
+*
+* A rebuild is cheap too: cars whose version did not move keep their previous ElevatorView object, only changed
+* cars are captured again. Concurrent rebuilders may race; the newest sequence wins the reference.
+* */
+public final class FleetSnapshotPublisher {
+
+    private final List<Elevator> members;
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicReference<FleetSnapshot> published = new AtomicReference<>(new FleetSnapshot(0, List.of()));
+
+    // members: a CopyOnWriteArrayList - iterating it is itself a snapshot of the membership
+    public FleetSnapshotPublisher(List<Elevator> members) {
+        this.members = members;
+    }
+
+    // a car or the membership changed - the published snapshot is outdated from now on
+    public void changed() {
+        this.changes.incrementAndGet();
+    }
+
+    public FleetSnapshot current() {
+        FleetSnapshot published = this.published.get();
+        long changes = this.changes.get();
+        if (published.getSequence() == changes) {
+            return published;
+        }
+        // built from state read AFTER `changes` - so it is at least as new as that count (maybe newer: harmless,
+        // the next change just triggers another rebuild)
+        FleetSnapshot rebuilt = this.rebuild(published, changes);
+        return this.published.accumulateAndGet(rebuilt, (current, candidate) -> candidate.getSequence() > current.getSequence() ? candidate : current);
+    }
+
+    private FleetSnapshot rebuild(FleetSnapshot previous, long sequence) {
+        List<ElevatorView> views = new ArrayList<>(this.members.size());
+        int index = 0;
+        for (Elevator elevator : this.members) { // COW iteration - itself a snapshot of the membership
+            // membership rarely changes: the same car is almost always at the same position as last time
+            ElevatorView view = index < previous.size() ? previous.get(index) : null;
+            boolean unchanged = view != null && view.getElevator() == elevator && view.getVersion() == elevator.getVersion();
+            views.add(unchanged ? view : ElevatorView.capture(elevator));
+            index++;
+        }
+        return new FleetSnapshot(sequence, views);
+    }
+}
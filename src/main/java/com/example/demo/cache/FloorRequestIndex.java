@@ -0,0 +1,137 @@
+package com.example.demo.cache;
+
+import com.example.demo.IConstants;
+import com.example.demo.enums.RequestDirection;
+import com.example.demo.model.ElevatorRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/*
+* Secondary index over UserRequestCache.activeRequests so that arrival processing only touches the requests of that floor.
+*
+* Without it, every arrival streams over ALL active requests of the building (O(total in-flight requests))
+* and allocates a fresh filtered list, just to find the handful of passengers waiting at / riding to one floor.
+*
+* Layout: direction -> [floor] -> concurrent set of requests (one Lanes per side: an up list and a down list)
+*   waitingAtFloor  : keyed by source floor      - requests assigned to an elevator, passenger not yet picked up
+*   ridingToFloor   : keyed by destination floor - passenger picked up (IN_PROGRESS), not yet dropped off
+*
+* Floors are a small bounded range (BASE_FLOOR..MAX_FLOOR_COUNT), so lists indexed by floor are used instead of a map;
+* only the per-slot sets are concurrent. ConcurrentHashMap key sets give O(1) add/remove and weakly consistent iteration,
+* i.e., a request can be removed while the same slot is being iterated by an arriving elevator.
+*
+* Lifecycle (kept in sync by dispatcher & movement services):
+*   assign    -> addWaiting()      (source slot)
+*   pickup    -> markPickedUp()    (source slot -> destination slot)
+*   complete  -> remove()          (from wherever it still is)
+* */
+public class FloorRequestIndex {
+
+    // per direction, one set per floor - fixed once built, so the lists are never written afterwards
+    private record Lanes(List<Set<ElevatorRequest>> up, List<Set<ElevatorRequest>> down) {
+
+        static Lanes of(int floors) {
+            List<Set<ElevatorRequest>> up = new ArrayList<>(floors);
+            List<Set<ElevatorRequest>> down = new ArrayList<>(floors);
+            for (int f = 0; f < floors; f++) {
+                up.add(ConcurrentHashMap.newKeySet());
+                down.add(ConcurrentHashMap.newKeySet());
+            }
+            return new Lanes(List.copyOf(up), List.copyOf(down));
+        }
+
+        int floors() {
+            return up.size();
+        }
+    }
+
+    private final Lanes waitingAtFloor;
+    private final Lanes ridingToFloor;
+
+    public FloorRequestIndex() {
+        this(IConstants.MAX_FLOOR_COUNT);
+    }
+
+    public FloorRequestIndex(int maxFloor) {
+        int floors = maxFloor - IConstants.BASE_FLOOR + 1;
+        this.waitingAtFloor = Lanes.of(floors);
+        this.ridingToFloor = Lanes.of(floors);
+    }
+
+    // request assigned to an elevator; passenger is waiting at the source floor
+    public void addWaiting(ElevatorRequest request) {
+        Set<ElevatorRequest> slot = slot(waitingAtFloor, request.getFromSrcFloor(), request.getRequestDirection());
+        if (slot != null) slot.add(request);
+    }
+
+    // passenger boarded: stop looking for them at the source floor, start expecting them at the destination floor
+    public void markPickedUp(ElevatorRequest request) {
+        Set<ElevatorRequest> source = slot(waitingAtFloor, request.getFromSrcFloor(), request.getRequestDirection());
+        if (source != null) source.remove(request);
+        Set<ElevatorRequest> destination = slot(ridingToFloor, request.getToDestFloor(), request.getRequestDirection());
+        if (destination != null) destination.add(request);
+    }
+
+    // completed / expired / cancelled - drop it from both sides
+    public void remove(ElevatorRequest request) {
+        Set<ElevatorRequest> source = slot(waitingAtFloor, request.getFromSrcFloor(), request.getRequestDirection());
+        if (source != null) source.remove(request);
+        Set<ElevatorRequest> destination = slot(ridingToFloor, request.getToDestFloor(), request.getRequestDirection());
+        if (destination != null) destination.remove(request);
+    }
+
+    /*
+    * Visits the requests waiting at the given floor - O(requests at that floor), no list is materialized.
+    * direction UP/DOWN visits only that lane; NONE (e.g., idle elevator) visits both lanes.
+    * */
+    public void forEachWaitingAt(int floor, RequestDirection direction, Consumer<ElevatorRequest> action) {
+        forEach(waitingAtFloor, floor, direction, action);
+    }
+
+    public void forEachRidingTo(int floor, RequestDirection direction, Consumer<ElevatorRequest> action) {
+        forEach(ridingToFloor, floor, direction, action);
+    }
+
+    public int countWaitingAt(int floor, RequestDirection direction) {
+        return count(waitingAtFloor, floor, direction);
+    }
+
+    public int countRidingTo(int floor, RequestDirection direction) {
+        return count(ridingToFloor, floor, direction);
+    }
+
+    public void clear() {
+        for (Lanes lanes : List.of(waitingAtFloor, ridingToFloor)) {
+            lanes.up().forEach(Set::clear);
+            lanes.down().forEach(Set::clear);
+        }
+    }
+
+    private void forEach(Lanes index, int floor, RequestDirection direction, Consumer<ElevatorRequest> action) {
+        int f = floor - IConstants.BASE_FLOOR;
+        if (f < 0 || f >= index.floors()) return;
+        if (direction != RequestDirection.DOWN) index.up().get(f).forEach(action);
+        if (direction != RequestDirection.UP) index.down().get(f).forEach(action);
+    }
+
+    private int count(Lanes index, int floor, RequestDirection direction) {
+        int f = floor - IConstants.BASE_FLOOR;
+        if (f < 0 || f >= index.floors()) return 0;
+        int count = 0;
+        if (direction != RequestDirection.DOWN) count += index.up().get(f).size();
+        if (direction != RequestDirection.UP) count += index.down().get(f).size();
+        return count;
+    }
+
+    private Set<ElevatorRequest> slot(Lanes index, int floor, RequestDirection direction) {
+        int f = floor - IConstants.BASE_FLOOR;
+        if (f < 0 || f >= index.floors()) return null;
+        if (direction == RequestDirection.UP) return index.up().get(f);
+        if (direction == RequestDirection.DOWN) return index.down().get(f);
+        return null; // src == dest requests are rejected by Validator; nothing to index
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.demo.cache;
+
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.model.ElevatorRequest;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+* Pending (not yet assigned) requests - one lock-free FIFO lane per RequestPriority instead of a single ConcurrentLinkedQueue.
+*
+* Service order of poll():
+*   1. EMERGENCY lane - never overtaken
+*   2. any lower-lane request that has waited at least agingMillis (oldest first) - starvation aging:
+*      a regular call cannot be kept waiting forever by a steady stream of VIP calls. Waits are measured on the
+*      monotonic clock (like the expiry TTLs), so a wall clock step can neither reorder nor starve the lanes
+*   3. VIP lane, then REGULAR_NORMAL lane
+*
+* Removal by handle:
+*   offer() stores a Handle on the request. remove(request) flips that handle to REMOVED with one CAS - O(1),
+*   no scan of the queue like ConcurrentLinkedQueue.remove(Object) does. The dead handle is simply skipped
+*   (and dropped) the next time it reaches the head of its lane.
+*
+* size() is an atomic counter - O(1), unlike ConcurrentLinkedQueue.size() which walks the whole queue.
+*
+* offer() is idempotent: a request that is already waiting is not queued twice (request.isEnqueued guards it),
+* and poll()/remove() hand the request back so that it can be offered again later.
+* */
+public class PendingRequestQueue extends AbstractQueue<ElevatorRequest> {
+
+    // lane service order: life safety first, then VIP, then everybody else
+    private static final RequestPriority[] LANE_ORDER = {
+            RequestPriority.EMERGENCY, RequestPriority.VIP, RequestPriority.REGULAR_NORMAL
+    };
+
+    private final Lane[] lanes = new Lane[RequestPriority.values().length]; // indexed by RequestPriority.ordinal()
+    private final AtomicInteger size = new AtomicInteger();
+    private final long agingMillis;
+
+    public PendingRequestQueue() {
+        this(Long.getLong("elevator.pending.agingMillis", 30_000L));
+    }
+
+    public PendingRequestQueue(long agingMillis) {
+        this.agingMillis = agingMillis;
+        for (RequestPriority priority : RequestPriority.values()) {
+            lanes[priority.ordinal()] = new Lane();
+        }
+    }
+
+    /*
+    * Position of a request in the queue. Owned by whoever flips it away from LIVE first:
+    * poll() (-> TAKEN) or remove() (-> REMOVED) - never both.
+    * */
+    public static final class Handle {
+        private static final int LIVE = 0;
+        private static final int TAKEN = 1;
+        private static final int REMOVED = 2;
+
+        private final ElevatorRequest request;
+        private final long enqueuedAtMonotonicMillis;
+        private final AtomicInteger state = new AtomicInteger(LIVE);
+
+        private Handle(ElevatorRequest request, long enqueuedAtMonotonicMillis) {
+            this.request = request;
+            this.enqueuedAtMonotonicMillis = enqueuedAtMonotonicMillis;
+        }
+
+        private boolean isLive() {
+            return state.get() == LIVE;
+        }
+
+        private boolean release(int newState) {
+            return state.compareAndSet(LIVE, newState);
+        }
+    }
+
+    private static final class Lane {
+        private final Queue<Handle> handles = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger live = new AtomicInteger();
+
+        // first handle that is still waiting; dead handles at the head are dropped on the way (O(1) each - they ARE the head)
+        private Handle peekLive() {
+            Handle head;
+            while ((head = handles.peek()) != null && !head.isLive()) {
+                handles.remove(head);
+            }
+            return head;
+        }
+
+        private Handle take() {
+            Handle head;
+            while ((head = handles.poll()) != null) {
+                if (head.release(Handle.TAKEN)) return head;
+                // removed while waiting - skip it
+            }
+            return null;
+        }
+    }
+
+    private Lane laneOf(ElevatorRequest request) {
+        RequestPriority priority = request.getRequestPriority();
+        return lanes[(priority == null ? RequestPriority.REGULAR_NORMAL : priority).ordinal()];
+    }
+
+    @Override
+    public boolean offer(ElevatorRequest request) {
+        Objects.requireNonNull(request);
+        if (!request.getIsEnqueued().compareAndSet(false, true)) {
+            return false; // already waiting - keep its place (and its age)
+        }
+        Handle handle = new Handle(request, ClockProvider.getClock().monotonicMillis());
+        request.setPendingHandle(handle);
+        Lane lane = laneOf(request);
+        // count first, publish after - a concurrent poll/remove can never drive the counters below zero
+        lane.live.incrementAndGet();
+        size.incrementAndGet();
+        lane.handles.add(handle);
+        return true;
+    }
+
+    // Collection.add() must not throw for an already queued request - same idempotent semantics as offer()
+    @Override
+    public boolean add(ElevatorRequest request) {
+        return offer(request);
+    }
+
+    @Override
+    public ElevatorRequest poll() {
+        while (true) {
+            Lane lane = selectLane();
+            if (lane == null) return null;
+            Handle handle = lane.take();
+            if (handle != null) {
+                release(lane, handle);
+                return handle.request;
+            }
+            // lost the head to a concurrent poll/remove - select again
+        }
+    }
+
+    @Override
+    public ElevatorRequest peek() {
+        Lane lane = selectLane();
+        Handle head = (lane == null) ? null : lane.peekLive();
+        return (head == null) ? null : head.request;
+    }
+
+    // O(1): flips the request's own handle, no traversal
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof ElevatorRequest request)) return false;
+        Handle handle = request.getPendingHandle();
+        if (handle == null || !handle.release(Handle.REMOVED)) return false;
+        release(laneOf(request), handle);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    public int size(RequestPriority priority) {
+        return lanes[priority.ordinal()].live.get();
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null) {
+            // drain - every request gets its handle released
+        }
+    }
+
+    // weakly consistent, lanes in service order, live requests only
+    @Override
+    public Iterator<ElevatorRequest> iterator() {
+        List<ElevatorRequest> snapshot = new ArrayList<>(size());
+        for (RequestPriority priority : LANE_ORDER) {
+            for (Handle handle : lanes[priority.ordinal()].handles) {
+                if (handle.isLive()) snapshot.add(handle.request);
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    private void release(Lane lane, Handle handle) {
+        lane.live.decrementAndGet();
+        size.decrementAndGet();
+        ElevatorRequest request = handle.request;
+        if (request.getPendingHandle() == handle) {
+            request.setPendingHandle(null);
+        }
+        request.getIsEnqueued().set(false); // may be offered again from now on
+    }
+
+    private Lane selectLane() {
+        // 1. top lane is never overtaken
+        Lane top = lanes[LANE_ORDER[0].ordinal()];
+        if (top.peekLive() != null) return top;
+
+        // 2. starvation aging - the oldest head that has waited long enough, whatever its lane
+        long now = ClockProvider.getClock().monotonicMillis();
+        Lane aged = null;
+        long oldest = Long.MAX_VALUE;
+        for (int i = 1; i < LANE_ORDER.length; i++) {
+            Lane lane = lanes[LANE_ORDER[i].ordinal()];
+            Handle head = lane.peekLive();
+            if (head != null && now - head.enqueuedAtMonotonicMillis >= agingMillis && head.enqueuedAtMonotonicMillis < oldest) {
+                oldest = head.enqueuedAtMonotonicMillis;
+                aged = lane;
+            }
+        }
+        if (aged != null) return aged;
+
+        // 3. strict priority
+        for (int i = 1; i < LANE_ORDER.length; i++) {
+            Lane lane = lanes[LANE_ORDER[i].ordinal()];
+            if (lane.peekLive() != null) return lane;
+        }
+        return null;
+    }
+}
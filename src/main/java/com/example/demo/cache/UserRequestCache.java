@@ -4,10 +4,12 @@ import com.example.demo.model.ElevatorRequest;
 import lombok.Getter;
 
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
+/*
+* Requests of ONE elevator bank - every ElevatorBank owns its own instance (its pending queue, active table and
+* per-floor index), so dispatch and arrivals of different banks never contend on the same structures.
+* */
 public class UserRequestCache {
 
     // Floor Requests which are yet to be assigned/mapped to any elevator
@@ -16,12 +18,19 @@ public class UserRequestCache {
     // because though they don’t throw ConcurrentModificationException — that’s good, but they don’t lock the queue either
     // which makes it Perfect for monitoring or logging, but not for deterministic decision-making (like scheduling next elevator stop).
     //
+    // Now one lane per RequestPriority (EMERGENCY/VIP no longer wait behind regular calls) with starvation aging,
+    // O(1) remove(request) by handle and an O(1) size() - see PendingRequestQueue
     @Getter
-    private static final Queue<ElevatorRequest> pendingRequests = new ConcurrentLinkedQueue<>();
+    private final PendingRequestQueue pendingRequests = new PendingRequestQueue();
 
     // Active Floor Req holds <Req ID, Req> Mapping for requests already assigned to elevators i.e., active requests
     // and which are ready to be served by an elevator
     @Getter
-    private static final Map<String, ElevatorRequest> activeRequests = new ConcurrentHashMap<>();
+    private final Map<String, ElevatorRequest> activeRequests = new ConcurrentHashMap<>();
+
+    // Per-floor, per-direction view of the same active requests (by source floor until pickup, by destination floor until drop-off)
+    // lets an arriving elevator look only at its floor instead of scanning every active request of the building
+    @Getter
+    private final FloorRequestIndex floorRequestIndex = new FloorRequestIndex();
 
 }
@@ -0,0 +1,44 @@
+package com.example.demo.clock;
+
+import java.time.LocalDate;
+
+/*
+* Process-wide clock selection - like the caches, a static holder shared by every service.
+*
+* Selected at startup:  -Delevator.clock=system   (default, wall clock + real threads)
+*                       -Delevator.clock=virtual  (discrete-event simulation, driven via VirtualElevatorClock.runUntil/runFor)
+*
+* A driver (e.g., the traffic simulation) may also install a clock programmatically with useClock(),
+* but it must do so BEFORE the first service singleton is created, since services grab their executors in constructors.
+* */
+public class ClockProvider {
+
+    private static volatile ElevatorClock clock = fromSystemProperty();
+
+    private ClockProvider() {
+    }
+
+    public static ElevatorClock getClock() {
+        return clock;
+    }
+
+    public static void useClock(ElevatorClock elevatorClock) {
+        clock = elevatorClock;
+    }
+
+    // convenience for drivers running in simulation mode
+    public static VirtualElevatorClock getVirtualClock() {
+        if (clock instanceof VirtualElevatorClock virtualClock) {
+            return virtualClock;
+        }
+        throw new IllegalStateException("Elevator system is not running on a virtual clock");
+    }
+
+    private static ElevatorClock fromSystemProperty() {
+        if ("virtual".equalsIgnoreCase(System.getProperty("elevator.clock"))) {
+            // fixed start instant keeps simulated runs reproducible
+            return new VirtualElevatorClock(LocalDate.of(2024, 1, 1).atStartOfDay());
+        }
+        return new SystemElevatorClock();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.clock;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ScheduledExecutorService;
+
+/*
+* Time base of the whole elevator system.
+*
+* Every "what time is it" (request timestamps, expiry) and every "do this later" (movement ticks, door open/close,
+* pending-request retries) goes through the clock instead of LocalDateTime.now() / Executors directly.
+*
+*   SystemElevatorClock  - wall clock time, real scheduled executor threads + a shared timing wheel (production / real-time mode)
+*   VirtualElevatorClock - simulated time, a single discrete-event queue drained by the caller (simulation mode)
+*
+* Services never know which one they run on, so both modes execute exactly the same movement/dispatch code.
+* */
+public interface ElevatorClock {
+
+    long currentTimeMillis();
+
+    /*
+    * Milliseconds for measuring elapsed time (TTLs, timeouts) - only the difference of two readings means anything.
+    * Unlike currentTimeMillis() it never jumps back or forward with NTP corrections, DST or a manual clock change.
+    * */
+    long monotonicMillis();
+
+    default LocalDateTime now() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(this.currentTimeMillis()), ZoneId.systemDefault());
+    }
+
+    /*
+    * Executor whose delays are measured on this clock.
+    * In real-time mode it is a real thread; in simulation mode it is a view onto the shared event queue.
+    * */
+    ScheduledExecutorService newScheduledExecutor(String name);
+
+    /*
+    * One executor shared by many short timed tasks (movement steps, door timers of every elevator).
+    * Real-time mode: a hashed timing wheel driven by a few worker threads, no matter how many elevators.
+    * Simulation mode: the same event queue as every other executor of the clock.
+    * Callers must not shut it down.
+    * */
+    ScheduledExecutorService sharedScheduler();
+
+    boolean isVirtual();
+}
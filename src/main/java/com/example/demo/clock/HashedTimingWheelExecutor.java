@@ -0,0 +1,236 @@
+package com.example.demo.clock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+* Hashed timing wheel - one shared timer for thousands of short, coarse timeouts (movement steps, door open/close).
+*
+*   ScheduledThreadPoolExecutor       : binary heap, O(log n) per schedule/cancel, one thread per executor if used per elevator
+*   HashedTimingWheelExecutor         : O(1) schedule, O(1) amortized expiry, 1 ticker thread + a few worker threads in total
+*
+* How it works:
+*   - the wheel is a ring of buckets; the ticker thread advances one bucket every tickMillis
+*   - a task due in d ticks goes into bucket (currentTick + d) & mask with rounds = d / wheelSize
+*     (rounds counts down each time the ticker passes the bucket - "how many more revolutions to wait")
+*   - expired tasks are handed to a small fixed pool of workers, so the ticker never runs business code
+*   - producers never touch buckets: new timeouts go through a lock-free queue that the ticker drains every tick
+*
+* Precision is one tick (default 10 ms) - plenty for 1 s floor travel and multi-second door cycles.
+* When nothing at all is scheduled, the ticker parks until the next schedule() call, so an idle fleet costs no CPU.
+* */
+public class HashedTimingWheelExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private final long tickNanos;
+    private final List<List<WheelTask<?>>> wheel; // bucket lists - only the ticker thread touches them
+    private final int mask;
+    private final Queue<WheelTask<?>> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger(); // tasks in newTimeouts + buckets
+    private final ThreadPoolExecutor workers;
+    private Thread ticker; // set by start() before the executor is handed out
+    private final long startNanos;
+    private volatile boolean shutdown;
+    private long tick; // owned by the ticker thread
+
+    // the ticker thread is started here, once the executor is fully built - the constructor hands 'this' to nobody
+    public static HashedTimingWheelExecutor start(String name, long tickMillis, int wheelSize, int workerThreads) {
+        HashedTimingWheelExecutor executor = new HashedTimingWheelExecutor(name, tickMillis, wheelSize, workerThreads);
+        executor.ticker = new Thread(executor::runTicker, name + "-ticker");
+        executor.ticker.start();
+        return executor;
+    }
+
+    private HashedTimingWheelExecutor(String name, long tickMillis, int wheelSize, int workerThreads) {
+        if (Integer.bitCount(wheelSize) != 1) throw new IllegalArgumentException("wheelSize must be a power of two");
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = wheelSize - 1;
+        List<List<WheelTask<?>>> buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) buckets.add(new ArrayList<>());
+        this.wheel = List.copyOf(buckets);
+        AtomicInteger workerIndex = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> new Thread(runnable, name + "-worker-" + workerIndex.incrementAndGet()));
+        this.startNanos = System.nanoTime();
+    }
+
+    public int getWorkerThreadCount() {
+        return workers.getCorePoolSize();
+    }
+
+    public int getPendingTimeouts() {
+        return pending.get();
+    }
+
+    // ---------------------------------------------------------------- ticker (single thread)
+
+    private void runTicker() {
+        while (!shutdown) {
+            if (pending.get() == 0) {
+                // nothing scheduled: sleep until schedule() unparks us - idle fleet, idle CPU
+                while (pending.get() == 0 && !shutdown) {
+                    LockSupport.park(this);
+                }
+                // the wheel is empty, so jumping the tick forward to "now" loses nothing
+                tick = Math.max(tick, (System.nanoTime() - startNanos) / tickNanos);
+                continue;
+            }
+            long sleepNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos); // may wake early - loop re-checks the deadline
+                continue;
+            }
+            transferNewTimeouts();
+            expire(wheel.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    private void transferNewTimeouts() {
+        WheelTask<?> task;
+        while ((task = newTimeouts.poll()) != null) {
+            if (task.isCancelled()) {
+                pending.decrementAndGet();
+                continue;
+            }
+            // ceil: never fire before the requested deadline
+            long dueTick = Math.max(tick, (task.deadlineNanos - startNanos + tickNanos - 1) / tickNanos);
+            task.remainingRounds = (dueTick - tick) / wheel.size();
+            wheel.get((int) (dueTick & mask)).add(task);
+        }
+    }
+
+    private void expire(List<WheelTask<?>> bucket) {
+        int kept = 0;
+        for (int i = 0, n = bucket.size(); i < n; i++) {
+            WheelTask<?> task = bucket.get(i);
+            if (task.isCancelled()) {
+                pending.decrementAndGet();
+            } else if (task.remainingRounds > 0) {
+                task.remainingRounds--;
+                bucket.set(kept++, task);
+            } else {
+                pending.decrementAndGet();
+                workers.execute(task);
+            }
+        }
+        // compact survivors in place - no per-tick allocation
+        for (int i = bucket.size() - 1; i >= kept; i--) bucket.remove(i);
+    }
+
+    // ---------------------------------------------------------------- producers (any thread)
+
+    private <V> WheelTask<V> enqueue(WheelTask<V> task) {
+        if (shutdown) throw new RejectedExecutionException("Timing wheel is shut down");
+        newTimeouts.add(task);
+        if (pending.getAndIncrement() == 0) {
+            LockSupport.unpark(ticker); // wake a parked (idle) ticker
+        }
+        return task;
+    }
+
+    private long deadlineAfter(long delay, TimeUnit unit) {
+        return System.nanoTime() + Math.max(0, unit.toNanos(delay));
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return enqueue(new WheelTask<>(Executors.callable(command, null), deadlineAfter(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return enqueue(new WheelTask<>(callable, deadlineAfter(delay, unit), 0));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) throw new IllegalArgumentException("period must be positive");
+        return enqueue(new WheelTask<>(Executors.callable(command, null), deadlineAfter(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (delay <= 0) throw new IllegalArgumentException("delay must be positive");
+        return enqueue(new WheelTask<>(Executors.callable(command, null), deadlineAfter(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) throw new RejectedExecutionException("Timing wheel is shut down");
+        workers.execute(command); // no delay - skip the wheel
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        LockSupport.unpark(ticker);
+        workers.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return workers.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && workers.isTerminated() && !ticker.isAlive();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return workers.awaitTermination(timeout, unit);
+    }
+
+    /*
+    * periodNanos: 0 one shot, >0 fixed rate, <0 fixed delay
+    * remainingRounds is only touched by the ticker thread.
+    * */
+    private final class WheelTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        private volatile long deadlineNanos;
+        private final long periodNanos;
+        private long remainingRounds;
+
+        WheelTask(Callable<V> callable, long deadlineNanos, long periodNanos) {
+            super(callable);
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = periodNanos;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return periodNanos != 0;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (super.runAndReset() && !shutdown) {
+                deadlineNanos = (periodNanos > 0) ? deadlineNanos + periodNanos : System.nanoTime() - periodNanos;
+                enqueue(this);
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) return 0;
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.clock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/*
+* Hierarchical timing wheel for long, coarse timeouts (request TTLs of minutes) - a data structure, not an executor.
+*
+* HashedTimingWheelExecutor (one level) is ideal for sub-second movement timers, but a 5 minute TTL on a 10 ms wheel
+* would sit in a bucket for ~60 revolutions and be re-examined on every pass. Here every level is 64 slots and each
+* level's slot spans the whole wheel below it (like the hands of a clock):
+*
+*   level 0 : 64 slots x 1 tick       (tick = 1 s -> 64 s)
+*   level 1 : 64 slots x 64 ticks     (~68 min)
+*   level 2 : 64 slots x 4096 ticks   (~3 days)
+*   level 3 : 64 slots x 262144 ticks (~194 days) - anything further is parked in the farthest slot and re-placed later
+*
+*   schedule : O(1) - pick the level from the distance to the deadline, the slot from the deadline itself
+*   advance  : when the lower wheel completes a revolution, the current slot of the level above is "cascaded" down
+*              (each entry is moved at most once per level - O(levels) = O(1) amortized), then the level 0 slot expires
+*   cancel   : O(1) - the payload is taken out of the entry; the empty entry is dropped when the wheel reaches it
+*
+* Threading: schedule()/cancel() from any thread (new entries go through a lock-free queue, like the executor wheel);
+* advanceTo() from ONE thread at a time - the owner of the wheel.
+* Time is whatever the caller passes in - use a monotonic source (ElevatorClock.monotonicMillis()).
+* */
+public final class HierarchicalTimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS; // 64
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Timeout<T>>> slots; // level * SLOTS + slot - see slot()
+    private final Queue<Timeout<T>> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger live = new AtomicInteger(); // scheduled, neither expired nor cancelled
+    private int entriesInWheel; // live + cancelled-but-not-yet-dropped entries in the slots (owner thread only)
+    private long currentTick;   // last tick processed (owner thread only)
+
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        List<List<Timeout<T>>> allSlots = new ArrayList<>(LEVELS * SLOTS);
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            allSlots.add(new ArrayList<>());
+        }
+        this.slots = List.copyOf(allSlots);
+    }
+
+    private List<Timeout<T>> slot(int level, int index) {
+        return this.slots.get(level * SLOTS + index);
+    }
+
+    /*
+    * One scheduled timeout. Exactly one of expiry and cancel() gets the payload (getAndSet(null)),
+    * so a request is never both expired and, e.g., completed.
+    * */
+    public static final class Timeout<T> {
+        private final AtomicReference<T> payload;
+        private final long deadlineTick;
+        private final AtomicInteger live;
+
+        private Timeout(T payload, long deadlineTick, AtomicInteger live) {
+            this.payload = new AtomicReference<>(payload);
+            this.deadlineTick = deadlineTick;
+            this.live = live;
+        }
+
+        public boolean cancel() {
+            return take() != null;
+        }
+
+        public boolean isDone() {
+            return payload.get() == null;
+        }
+
+        private T take() {
+            T taken = payload.getAndSet(null);
+            if (taken != null) live.decrementAndGet();
+            return taken;
+        }
+    }
+
+    // any thread; the timeout is placed into the wheel by the next advanceTo()
+    public Timeout<T> schedule(T payload, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(payload, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), live); // ceil: never early
+        live.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    public int size() {
+        return live.get();
+    }
+
+    /*
+    * Owner thread: expire everything due up to nowMillis, handing each payload to onExpired.
+    * Returns the number of expired timeouts.
+    * */
+    public int advanceTo(long nowMillis, Consumer<? super T> onExpired) {
+        long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        Timeout<T> timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (timeout.isDone()) continue; // cancelled before it ever reached a slot
+            place(timeout, currentTick + 1);
+        }
+
+        int expired = 0;
+        while (currentTick < nowTick) {
+            if (entriesInWheel == 0) {
+                currentTick = nowTick; // nothing to expire on the way - jump, an idle building costs nothing
+                break;
+            }
+            long tick = currentTick + 1;
+            // wheels above first, so an entry can fall through several levels within the same tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(slot(level, (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)), tick);
+                }
+            }
+            List<Timeout<T>> due = slot(0, (int) (tick & SLOT_MASK));
+            for (int i = 0, n = due.size(); i < n; i++) {
+                T payload = due.get(i).take();
+                if (payload != null) {
+                    expired++;
+                    onExpired.accept(payload);
+                }
+            }
+            entriesInWheel -= due.size();
+            due.clear();
+            currentTick = tick;
+        }
+        return expired;
+    }
+
+    private void cascade(List<Timeout<T>> slot, long tick) {
+        if (slot.isEmpty()) return;
+        List<Timeout<T>> entries = new ArrayList<>(slot);
+        entriesInWheel -= slot.size();
+        slot.clear();
+        for (Timeout<T> timeout : entries) {
+            if (!timeout.isDone()) place(timeout, tick);
+        }
+    }
+
+    /*
+    * base = the next tick to be processed (or the one being processed, while cascading).
+    * Level l is chosen so that its slot is reached strictly after base and within one revolution of that level;
+    * level 0 may fire at base itself, since it is handled after the cascades of the same tick.
+    * */
+    private void place(Timeout<T> timeout, long base) {
+        long placeTick = Math.max(timeout.deadlineTick, base);
+        long distance = placeTick - base;
+        if (distance >= (1L << (SLOT_BITS * LEVELS))) {
+            placeTick = base + (1L << (SLOT_BITS * LEVELS)) - 1; // beyond the top wheel: farthest slot, re-placed when cascaded
+            distance = placeTick - base;
+        }
+        int level = 0;
+        while (distance >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        slot(level, (int) ((placeTick >>> (SLOT_BITS * level)) & SLOT_MASK)).add(timeout);
+        entriesInWheel++;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.clock;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Real-time mode: wall clock + real threads.
+*
+*   newScheduledExecutor() - one real scheduled thread per executor (owners with few, long-lived timers, e.g. retry loops)
+*   sharedScheduler()      - ONE hashed timing wheel for the whole process (movement steps + door timers of every car)
+*
+* Timing wheel tuning (system properties):
+*   -Delevator.wheel.tickMillis=10      timer precision
+*   -Delevator.wheel.size=512           buckets per revolution (power of two)
+*   -Delevator.movement.workers=N       worker threads, default max(2, cores / 2)
+* */
+public class SystemElevatorClock implements ElevatorClock {
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long monotonicMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    @Override
+    public ScheduledExecutorService newScheduledExecutor(String name) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, name));
+    }
+
+    @Override
+    public ScheduledExecutorService sharedScheduler() {
+        return TimingWheelHolder.TIMING_WHEEL;
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return false;
+    }
+
+    // Lazy, thread-safe init: the wheel threads start only when the first elevator needs a timer
+    private static class TimingWheelHolder {
+        private static final HashedTimingWheelExecutor TIMING_WHEEL = HashedTimingWheelExecutor.start(
+                "elevator-wheel",
+                Long.getLong("elevator.wheel.tickMillis", 10L),
+                Integer.getInteger("elevator.wheel.size", 512),
+                Integer.getInteger("elevator.movement.workers", Math.max(2, Runtime.getRuntime().availableProcessors() / 2)));
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.demo.clock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+* Discrete-event simulation clock.
+*
+* Time does not flow by itself - it jumps straight to the next due event:
+*   1. take the earliest task from the event queue (ordered by due time, then by submission order)
+*   2. set "now" to its due time
+*   3. run it on the calling thread (it may schedule further events, e.g., next movement tick or door close)
+*
+* So a 1 second movement tick or an 11 second door cycle costs only the CPU time of the task itself,
+* and a full day of traffic for a large bank replays in seconds on one core.
+*
+* Executors handed out by newScheduledExecutor() are lightweight views onto this single queue;
+* no threads are created. Ties are broken by submission order (FIFO), which keeps every run deterministic.
+*
+* Intended to be driven from one thread (runUntil/runFor). Scheduling from other threads is safe, but then ordering
+* between those threads is of course no longer deterministic.
+* */
+public class VirtualElevatorClock implements ElevatorClock {
+
+    private final PriorityQueue<VirtualTask<?>> eventQueue = new PriorityQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile long currentTimeMillis;
+    private long executedEvents;
+    private final VirtualScheduledExecutor sharedScheduler = new VirtualScheduledExecutor();
+
+    public VirtualElevatorClock(long startEpochMillis) {
+        this.currentTimeMillis = startEpochMillis;
+    }
+
+    public VirtualElevatorClock(LocalDateTime start) {
+        this(start.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return currentTimeMillis;
+    }
+
+    // simulated time only ever moves forward - it is already monotonic
+    @Override
+    public long monotonicMillis() {
+        return currentTimeMillis;
+    }
+
+    @Override
+    public ScheduledExecutorService newScheduledExecutor(String name) {
+        return new VirtualScheduledExecutor();
+    }
+
+    @Override
+    public ScheduledExecutorService sharedScheduler() {
+        return sharedScheduler;
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return true;
+    }
+
+    // Run every event due up to (and including) the given virtual time, then park the clock at that time
+    public void runUntil(long epochMillis) {
+        VirtualTask<?> task;
+        while ((task = pollDueBy(epochMillis)) != null) {
+            if (task.isCancelled()) continue;
+            currentTimeMillis = Math.max(currentTimeMillis, task.dueMillis);
+            executedEvents++;
+            task.run();
+        }
+        currentTimeMillis = Math.max(currentTimeMillis, epochMillis);
+    }
+
+    public void runFor(Duration duration) {
+        runUntil(currentTimeMillis + duration.toMillis());
+    }
+
+    public long getExecutedEvents() {
+        return executedEvents;
+    }
+
+    public synchronized int getPendingEvents() {
+        return eventQueue.size();
+    }
+
+    private synchronized VirtualTask<?> pollDueBy(long epochMillis) {
+        VirtualTask<?> head = eventQueue.peek();
+        return (head != null && head.dueMillis <= epochMillis) ? eventQueue.poll() : null;
+    }
+
+    private synchronized void enqueue(VirtualTask<?> task) {
+        eventQueue.add(task);
+    }
+
+    private <V> VirtualTask<V> enqueueTask(VirtualTask<V> task) {
+        enqueue(task);
+        return task;
+    }
+
+    /*
+    * One scheduled event. periodMillis:
+    *   0  -> one shot
+    *   >0 -> fixed rate   (next due = previous due + period)
+    *   <0 -> fixed delay  (next due = end of run + delay; runs take zero virtual time, so same as fixed rate here)
+    * */
+    private final class VirtualTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        private long dueMillis;
+        private final long periodMillis;
+        private long seq;
+        private final VirtualScheduledExecutor owner;
+
+        VirtualTask(Callable<V> callable, long dueMillis, VirtualScheduledExecutor owner) {
+            super(callable);
+            this.dueMillis = dueMillis;
+            this.periodMillis = 0;
+            this.seq = sequence.getAndIncrement();
+            this.owner = owner;
+        }
+
+        VirtualTask(Runnable runnable, long dueMillis, long periodMillis, VirtualScheduledExecutor owner) {
+            super(runnable, null);
+            this.dueMillis = dueMillis;
+            this.periodMillis = periodMillis;
+            this.seq = sequence.getAndIncrement();
+            this.owner = owner;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return periodMillis != 0;
+        }
+
+        @Override
+        public void run() {
+            if (owner.shutdown) {
+                cancel(false);
+                return;
+            }
+            if (!isPeriodic()) {
+                super.run();
+            } else if (super.runAndReset()) {
+                dueMillis = (periodMillis > 0) ? dueMillis + periodMillis : currentTimeMillis - periodMillis;
+                seq = sequence.getAndIncrement();
+                enqueue(this);
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueMillis - currentTimeMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) return 0;
+            if (other instanceof VirtualTask<?> that) {
+                int byTime = Long.compare(this.dueMillis, that.dueMillis);
+                return (byTime != 0) ? byTime : Long.compare(this.seq, that.seq);
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    // Executor view: every method just places events on the shared queue of the enclosing clock
+    private final class VirtualScheduledExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+        private volatile boolean shutdown;
+
+        private long dueIn(long delay, TimeUnit unit) {
+            return currentTimeMillis + Math.max(0, unit.toMillis(delay));
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            return enqueueTask(new VirtualTask<>(command, dueIn(delay, unit), 0, this));
+        }
+
+        @Override
+        public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+            return enqueueTask(new VirtualTask<>(callable, dueIn(delay, unit), this));
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            if (period <= 0) throw new IllegalArgumentException("period must be positive");
+            return enqueueTask(new VirtualTask<>(command, dueIn(initialDelay, unit), unit.toMillis(period), this));
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+            if (delay <= 0) throw new IllegalArgumentException("delay must be positive");
+            return enqueueTask(new VirtualTask<>(command, dueIn(initialDelay, unit), -unit.toMillis(delay), this));
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            schedule(command, 0, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return new ArrayList<>();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return shutdown;
+        }
+    }
+}
@@ -1,18 +1,48 @@
 package com.example.demo.controller;
 
 
+import com.example.demo.dto.BatchReceipt;
+import com.example.demo.dto.CallReceipt;
+import com.example.demo.dto.DestinationCall;
+import com.example.demo.dto.FloorCall;
 import com.example.demo.enums.RequestDirection;
 import com.example.demo.enums.RequestPriority;
 import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
 import com.example.demo.service.ElevatorDispatcherService;
 import com.example.demo.service.ElevatorManagerService;
 import com.example.demo.service.ElevatorManagerService1;
+import com.example.demo.utility.Validator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/*
+* Kiosk / hall-button intake over HTTP (and the plain Java entry points used by the console demo).
+*
+* The HTTP endpoints never wait for an assignment: the call is validated, handed to
+* ElevatorDispatcherService.submitRequest (which dispatches on its own executor, or in the next batch window)
+* and answered with 202 Accepted + its request id right away. So a busy fleet - retries, commit conflicts -
+* never holds a Tomcat worker thread.
+*
+*   POST /api/calls/destination   {"fromFloor":3,"toFloor":12,"priority":"VIP"}
+*   POST /api/calls/floor         {"floor":3,"direction":"UP"}
+*   POST /api/calls/batch         [{"fromFloor":0,"toFloor":7}, ...]   up to -Delevator.intake.maxBatch calls (default 10000)
+* */
+@RestController
+@RequestMapping("/api/calls")
 public class ElevatorController1 {
 
+    private static final int MAX_BATCH = Integer.getInteger("elevator.intake.maxBatch", 10_000);
+
     private final ElevatorDispatcherService elevatorDispatcherService;
     private final ElevatorManagerService1 elevatorManagerService1;
 
@@ -30,9 +60,59 @@ public class ElevatorController1 {
     }
 
 
+    @PostMapping("/destination")
+    public ResponseEntity<CallReceipt> submitDestinationCall(@RequestBody DestinationCall call) {
+        ElevatorRequest request = new ElevatorRequest(priorityOf(call.priority()), call.fromFloor(), call.toFloor());
+        return this.accept(request);
+    }
+
+    @PostMapping("/floor")
+    public ResponseEntity<CallReceipt> submitFloorCall(@RequestBody FloorCall call) {
+        if (call.direction() != RequestDirection.UP && call.direction() != RequestDirection.DOWN) {
+            return ResponseEntity.badRequest().build();
+        }
+        ElevatorRequest request = new ElevatorRequest(priorityOf(call.priority()), call.floor(), call.direction());
+        return this.accept(request);
+    }
+
+    // one HTTP round trip for a whole burst of kiosk calls; invalid calls are skipped, not the whole batch
+    @PostMapping("/batch")
+    public ResponseEntity<BatchReceipt> submitDestinationCalls(@RequestBody List<DestinationCall> calls) {
+        if (calls.size() > MAX_BATCH) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        List<String> requestIds = new ArrayList<>(calls.size());
+        int accepted = 0;
+        for (DestinationCall call : calls) {
+            ElevatorRequest request = new ElevatorRequest(priorityOf(call.priority()), call.fromFloor(), call.toFloor());
+            if (Validator.isValidRequest(request)) {
+                this.elevatorDispatcherService.submitRequest(request);
+                requestIds.add(request.getRequestId());
+                accepted++;
+            } else {
+                requestIds.add(null);
+            }
+        }
+        return ResponseEntity.accepted().body(new BatchReceipt(accepted, calls.size() - accepted, requestIds));
+    }
+
+    // enqueue and answer - the returned future (assignment) is deliberately not awaited
+    private ResponseEntity<CallReceipt> accept(ElevatorRequest request) {
+        if (!Validator.isValidRequest(request)) {
+            return ResponseEntity.badRequest().build();
+        }
+        this.elevatorDispatcherService.submitRequest(request);
+        return ResponseEntity.accepted().body(new CallReceipt(request.getRequestId(), request.getRequestStatus()));
+    }
+
+    private static RequestPriority priorityOf(RequestPriority priority) {
+        return (priority == null) ? RequestPriority.REGULAR_NORMAL : priority;
+    }
+
     // 3. In case of global Destination Floor Selection, algo needs to decide which elevator to map to
-    public void selectDestinationFloorOutsideElevator(int requestedFromFloor, int toDestFloor, RequestPriority requestPriority) {
-        this.elevatorDispatcherService.selectDestinationFloorOutsideForBothPickUpAndDropOff(requestedFromFloor, toDestFloor, requestPriority);
+    // returns immediately; the future completes once the dispatcher has assigned (or queued) the request
+    public CompletableFuture<Elevator> selectDestinationFloorOutsideElevator(int requestedFromFloor, int toDestFloor, RequestPriority requestPriority) {
+        return this.elevatorDispatcherService.selectDestinationFloorOutsideForBothPickUpAndDropOff(requestedFromFloor, toDestFloor, requestPriority);
     }
 
 }
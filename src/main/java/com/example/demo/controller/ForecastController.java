@@ -0,0 +1,42 @@
+package com.example.demo.controller;
+
+import com.example.demo.bank.ElevatorBank;
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.forecast.DemandForecast;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+* Read-only HTTP view of the demand forecasts (DemandForecaster) - the latest published forecast of every bank.
+*
+*   GET /api/forecast                  {"<bank>": {"computedAt":..., "lowestFloor":0, "upPerMinute":[...], "downPerMinute":[...]}, ...}
+*   GET /api/forecast/<bank>/busiest?k=5   the k floors expecting the most calls, busiest first
+* */
+@RestController
+@RequestMapping("/api/forecast")
+public class ForecastController {
+
+    @GetMapping
+    public Map<String, DemandForecast> all() {
+        Map<String, DemandForecast> forecasts = new LinkedHashMap<>();
+        for (ElevatorBank bank : ElevatorBanks.getBanks()) {
+            forecasts.put(bank.getBankId(), bank.getDemandForecaster().current());
+        }
+        return forecasts;
+    }
+
+    @GetMapping("/{bankId}/busiest")
+    public List<Integer> busiest(@PathVariable String bankId, @RequestParam(defaultValue = "5") int k) {
+        for (ElevatorBank bank : ElevatorBanks.getBanks()) {
+            if (bank.getBankId().equals(bankId)) return bank.getDemandForecaster().current().busiestFloors(k);
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.controller;
+
+import com.example.demo.metrics.MetricsRegistry;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Read-only HTTP view of MetricsRegistry (same data as the JMX bean com.example.demo:type=ElevatorMetrics)
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    // counters, gauges and histogram summaries (nanoseconds) in one JSON document
+    @GetMapping
+    public Map<String, Object> all() {
+        return MetricsRegistry.snapshot();
+    }
+
+    @GetMapping("/counters")
+    public Map<String, Long> counters() {
+        return MetricsRegistry.counters();
+    }
+
+    @GetMapping("/gauges")
+    public Map<String, Long> gauges() {
+        return MetricsRegistry.gauges();
+    }
+
+    @GetMapping("/histograms")
+    public Map<String, ?> histograms() {
+        return MetricsRegistry.histograms();
+    }
+}
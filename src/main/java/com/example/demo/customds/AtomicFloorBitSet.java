@@ -0,0 +1,241 @@
+package com.example.demo.customds;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+* Lock-free set of floor numbers backed by bits instead of boxed Integer nodes.
+*
+*   Operation	        ConcurrentSkipListSet<Integer>	        AtomicFloorBitSet
+    add/remove	            O(log n) + Integer boxing + node alloc	O(1) - one CAS on one 64-bit word
+    contains	            O(log n) node walk	                    O(1) - one volatile read + mask
+    higher/lower	        O(log n) node walk, returns boxed value	O(floors/64) words - numberOfTrailingZeros/numberOfLeadingZeros
+    size	                O(n) traversal	                        O(floors/64) - bitCount
+    Allocation	            per add	                                none after construction
+*
+* Floors of a building are a small, bounded integer range (BASE_FLOOR..MAX_FLOOR_COUNT), so a bit per floor is enough:
+*   <= 64 floors : a single AtomicLong     (SingleWord)
+*   >  64 floors : an AtomicLongArray      (MultiWord) - each word is CAS-updated independently
+*
+* Like the skip list, reads are weakly consistent: a multi-word scan may observe words from slightly different moments,
+* which is fine for "which stop next" decisions that are re-evaluated every movement tick anyway.
+*
+* Floor numbers are primitive ints; NO_FLOOR (-1) is returned where the Integer-based API returned null.
+* */
+public abstract class AtomicFloorBitSet {
+
+    public static final int NO_FLOOR = -1;
+
+    // picks the cheapest representation for a building whose floors are 0..maxFloor
+    public static AtomicFloorBitSet forMaxFloor(int maxFloor) {
+        return (maxFloor < Long.SIZE) ? new SingleWord() : new MultiWord(maxFloor);
+    }
+
+    // returns true if the floor was not present before
+    public abstract boolean add(int floor);
+
+    // returns true if the floor was present before
+    public abstract boolean remove(int floor);
+
+    public abstract boolean contains(int floor);
+
+    // smallest floor strictly greater than the given floor, or NO_FLOOR
+    public abstract int higher(int floor);
+
+    // greatest floor strictly less than the given floor, or NO_FLOOR
+    public abstract int lower(int floor);
+
+    public abstract int size();
+
+    public abstract void clear();
+
+    // copy of the bit words (bit n of word n/64 = floor n) - an immutable stop set for snapshots, e.g. ElevatorView
+    public abstract long[] toWords();
+
+    public boolean isEmpty() {
+        return first() == NO_FLOOR;
+    }
+
+    public int first() {
+        return higher(-1);
+    }
+
+    public int last() {
+        return lower(Integer.MAX_VALUE);
+    }
+
+    public void addAll(Collection<Integer> floors) {
+        for (int floor : floors) add(floor);
+    }
+
+    public void removeAll(Collection<Integer> floors) {
+        for (int floor : floors) remove(floor);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int floor = first(); floor != NO_FLOOR; floor = higher(floor)) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(floor);
+        }
+        return sb.append(']').toString();
+    }
+
+    // ------------------------------------------------------------------------------------------
+
+    static final class SingleWord extends AtomicFloorBitSet {
+        private final AtomicLong bits = new AtomicLong();
+
+        @Override
+        public boolean add(int floor) {
+            if (floor < 0 || floor >= Long.SIZE) return false;
+            long mask = 1L << floor;
+            long current;
+            do {
+                current = bits.get();
+                if ((current & mask) != 0) return false;
+            } while (!bits.compareAndSet(current, current | mask));
+            return true;
+        }
+
+        @Override
+        public boolean remove(int floor) {
+            if (floor < 0 || floor >= Long.SIZE) return false;
+            long mask = 1L << floor;
+            long current;
+            do {
+                current = bits.get();
+                if ((current & mask) == 0) return false;
+            } while (!bits.compareAndSet(current, current & ~mask));
+            return true;
+        }
+
+        @Override
+        public boolean contains(int floor) {
+            return floor >= 0 && floor < Long.SIZE && (bits.get() & (1L << floor)) != 0;
+        }
+
+        @Override
+        public int higher(int floor) {
+            if (floor >= Long.SIZE - 1) return NO_FLOOR;
+            long candidates = (floor < 0) ? bits.get() : bits.get() & (-1L << (floor + 1));
+            return candidates == 0 ? NO_FLOOR : Long.numberOfTrailingZeros(candidates);
+        }
+
+        @Override
+        public int lower(int floor) {
+            if (floor <= 0) return NO_FLOOR;
+            long candidates = (floor >= Long.SIZE) ? bits.get() : bits.get() & ((1L << floor) - 1);
+            return candidates == 0 ? NO_FLOOR : (Long.SIZE - 1) - Long.numberOfLeadingZeros(candidates);
+        }
+
+        @Override
+        public int size() {
+            return Long.bitCount(bits.get());
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return bits.get() == 0;
+        }
+
+        @Override
+        public long[] toWords() {
+            return new long[]{bits.get()};
+        }
+
+        @Override
+        public void clear() {
+            bits.set(0);
+        }
+    }
+
+    static final class MultiWord extends AtomicFloorBitSet {
+        private final AtomicLongArray words;
+        private final int capacity; // number of addressable floors (maxFloor + 1)
+
+        MultiWord(int maxFloor) {
+            this.capacity = maxFloor + 1;
+            this.words = new AtomicLongArray((capacity + Long.SIZE - 1) >>> 6);
+        }
+
+        @Override
+        public boolean add(int floor) {
+            if (floor < 0 || floor >= capacity) return false;
+            int index = floor >>> 6;
+            long mask = 1L << floor; // shift distance is taken mod 64
+            long current;
+            do {
+                current = words.get(index);
+                if ((current & mask) != 0) return false;
+            } while (!words.compareAndSet(index, current, current | mask));
+            return true;
+        }
+
+        @Override
+        public boolean remove(int floor) {
+            if (floor < 0 || floor >= capacity) return false;
+            int index = floor >>> 6;
+            long mask = 1L << floor;
+            long current;
+            do {
+                current = words.get(index);
+                if ((current & mask) == 0) return false;
+            } while (!words.compareAndSet(index, current, current & ~mask));
+            return true;
+        }
+
+        @Override
+        public boolean contains(int floor) {
+            return floor >= 0 && floor < capacity && (words.get(floor >>> 6) & (1L << floor)) != 0;
+        }
+
+        @Override
+        public int higher(int floor) {
+            int from = Math.max(floor + 1, 0);
+            if (floor == Integer.MAX_VALUE || from >= capacity) return NO_FLOOR;
+            int index = from >>> 6;
+            long word = words.get(index) & (-1L << from);
+            while (true) {
+                if (word != 0) return (index << 6) + Long.numberOfTrailingZeros(word);
+                if (++index == words.length()) return NO_FLOOR;
+                word = words.get(index);
+            }
+        }
+
+        @Override
+        public int lower(int floor) {
+            if (floor <= 0) return NO_FLOOR;
+            int from = Math.min(floor - 1, capacity - 1);
+            int index = from >>> 6;
+            // keep bits 0..(from mod 64) of the starting word
+            long word = words.get(index) & (-1L >>> (Long.SIZE - 1 - (from & 63)));
+            while (true) {
+                if (word != 0) return (index << 6) + (Long.SIZE - 1) - Long.numberOfLeadingZeros(word);
+                if (--index < 0) return NO_FLOOR;
+                word = words.get(index);
+            }
+        }
+
+        @Override
+        public int size() {
+            int count = 0;
+            for (int i = 0; i < words.length(); i++) count += Long.bitCount(words.get(i));
+            return count;
+        }
+
+        @Override
+        public void clear() {
+            for (int i = 0; i < words.length(); i++) words.set(i, 0);
+        }
+
+        @Override
+        public long[] toWords() {
+            long[] copy = new long[words.length()];
+            for (int i = 0; i < copy.length; i++) copy[i] = words.get(i);
+            return copy;
+        }
+    }
+}
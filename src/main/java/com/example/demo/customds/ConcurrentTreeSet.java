@@ -47,6 +47,15 @@ public class ConcurrentTreeSet {
         }
     }
 
+    public Integer lower(int x) {
+        lock.readLock().lock();
+        try {
+            return set.lower(x);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     public boolean contains(int x) {
         lock.readLock().lock();
         try {
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+// requestIds is positional: entry i belongs to call i of the batch, null when that call was rejected as invalid
+public record BatchReceipt(int accepted, int rejected, List<String> requestIds) {
+}
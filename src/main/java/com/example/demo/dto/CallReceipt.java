@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+import com.example.demo.enums.RequestStatus;
+
+// Answer to an accepted call: it is queued for dispatch, not yet assigned - the id identifies it in logs/metrics
+public record CallReceipt(String requestId, RequestStatus status) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+import com.example.demo.enums.RequestPriority;
+
+// Kiosk call "from floor X to floor Y" (destination selection outside the car) - priority defaults to REGULAR_NORMAL
+public record DestinationCall(int fromFloor, int toFloor, RequestPriority priority) {
+}
@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+import com.example.demo.enums.RequestDirection;
+import com.example.demo.enums.RequestPriority;
+
+// Hall button "I am at floor X and want to go UP/DOWN" - priority defaults to REGULAR_NORMAL
+public record FloorCall(int floor, RequestDirection direction, RequestPriority priority) {
+}
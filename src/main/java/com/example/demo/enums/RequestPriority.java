@@ -1,12 +1,26 @@
 package com.example.demo.enums;
 
+import java.util.concurrent.TimeUnit;
+
 /*
 * In real buildings, some floors or users might have higher priority.
 * VIP floors, emergency situations, maintenance staff — they should get priority over regular requests
 * */
 public enum RequestPriority {
 
-    VIP,
-    EMERGENCY,
-    REGULAR_NORMAL
+    VIP(600),
+    EMERGENCY(1800),
+    REGULAR_NORMAL(300);
+
+    // How long an unserved call stays valid before RequestExpiryService drops it (0 = never expires)
+    // per priority, overridable at startup e.g. -Delevator.expiry.REGULAR_NORMAL.ttlSeconds=120
+    private final long expiryTtlMillis;
+
+    RequestPriority(long defaultTtlSeconds) {
+        this.expiryTtlMillis = TimeUnit.SECONDS.toMillis(Long.getLong("elevator.expiry." + this.name() + ".ttlSeconds", defaultTtlSeconds));
+    }
+
+    public long getExpiryTtlMillis() {
+        return expiryTtlMillis;
+    }
 }
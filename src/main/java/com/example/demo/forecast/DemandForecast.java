@@ -0,0 +1,62 @@
+package com.example.demo.forecast;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+* Expected hall calls per minute, per floor and direction, for the next few minutes of one bank - published by its
+* DemandForecaster after every fold and never written afterwards, so the parking policy and the HTTP view read it
+* without locks. Index i of the arrays is floor lowestFloor + i.
+* */
+@Getter
+public final class DemandForecast {
+
+    private final String bankId;
+    private final LocalDateTime computedAt;
+    private final int lowestFloor;
+    private final double[] upPerMinute;
+    private final double[] downPerMinute;
+
+    DemandForecast(String bankId, LocalDateTime computedAt, int lowestFloor, double[] upPerMinute, double[] downPerMinute) {
+        this.bankId = bankId;
+        this.computedAt = computedAt;
+        this.lowestFloor = lowestFloor;
+        this.upPerMinute = upPerMinute;
+        this.downPerMinute = downPerMinute;
+    }
+
+    // nothing observed yet
+    static DemandForecast empty(String bankId, LocalDateTime now, int lowestFloor, int floors) {
+        return new DemandForecast(bankId, now, lowestFloor, new double[floors], new double[floors]);
+    }
+
+    public int floorCount() {
+        return this.upPerMinute.length;
+    }
+
+    // both directions; 0 for a floor outside the bank
+    public double callsPerMinute(int floor) {
+        int i = floor - this.lowestFloor;
+        return (i < 0 || i >= this.upPerMinute.length) ? 0 : this.upPerMinute[i] + this.downPerMinute[i];
+    }
+
+    public double totalCallsPerMinute() {
+        double total = 0;
+        for (int i = 0; i < this.upPerMinute.length; i++) total += this.upPerMinute[i] + this.downPerMinute[i];
+        return total;
+    }
+
+    // the k floors with the most expected calls, busiest first (floors without any are left out)
+    public List<Integer> busiestFloors(int k) {
+        List<Integer> floors = new ArrayList<>();
+        for (int i = 0; i < this.upPerMinute.length; i++) {
+            if (this.upPerMinute[i] + this.downPerMinute[i] > 0) floors.add(this.lowestFloor + i);
+        }
+        floors.sort(Comparator.comparingDouble(this::callsPerMinute).reversed());
+        return floors.subList(0, Math.min(k, floors.size()));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.forecast;
+
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.ElevatorClock;
+import com.example.demo.enums.RequestDirection;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.model.ElevatorRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+* Hall-call demand of one bank, per floor and direction, learned from the calls it receives.
+*
+*   record()  - intake path: ONE atomic increment of the (floor, direction) cell, nothing else
+*   fold      - periodic task (-Delevator.forecast.tickSeconds, 60) on the clock's shared scheduler, so simulations
+*               forecast on simulated time. It drains the cells into two estimates, both exponentially decayed:
+*                 recent  : calls per tick, decayed with a half-life of -Delevator.forecast.halfLifeMinutes (10)
+*                 profile : calls per time-of-day slot (-Delevator.forecast.slotMinutes, 15), one value per slot, each
+*                           day's count blended in with a half-life of -Delevator.forecast.profileHalfLifeDays (7)
+*               and publishes a new DemandForecast for the next slot: the mean of the recent rate and the slot
+*               profile - yesterday's morning peak pulls the cars to the lobby before today's has started - or the
+*               recent rate alone while that slot has never been seen
+*
+* Only the fold thread writes the decayed values; everybody else reads the published, immutable DemandForecast.
+* */
+public class DemandForecaster {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DemandForecaster.class);
+
+    private final String bankId;
+    private final int lowestFloor;
+    private final int floors;
+    private final ElevatorClock clock;
+    private final long tickSeconds;
+    private final int slotMinutes;
+    private final int slotsPerDay;
+
+    private final double recentDecay;     // per tick
+    private final double profileWeight;   // weight of a new day in a slot profile
+
+    // calls since the last fold - cell = floor offset * 2 + (0 up / 1 down)
+    private final AtomicIntegerArray arrivals;
+
+    // fold thread only
+    private final double[] recent;
+    private final double[] slotCounts;    // calls of the running slot so far
+    private final double[][] profile;     // [slot][cell] calls per slot; null row = slot never seen
+    private int runningSlot = -1;
+
+    private volatile DemandForecast current;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    public DemandForecaster(String bankId, int lowestFloor, int highestFloor) {
+        this.bankId = bankId;
+        this.lowestFloor = lowestFloor;
+        this.floors = highestFloor - lowestFloor + 1;
+        this.clock = ClockProvider.getClock();
+        this.tickSeconds = Long.getLong("elevator.forecast.tickSeconds", 60L);
+        this.slotMinutes = Integer.getInteger("elevator.forecast.slotMinutes", 15);
+        if (this.tickSeconds < 1 || this.slotMinutes < 1 || 1440 % this.slotMinutes != 0) {
+            throw new IllegalArgumentException("forecast: tick of at least 1 s and a slot dividing the day expected, got "
+                    + this.tickSeconds + " s / " + this.slotMinutes + " min");
+        }
+        this.slotsPerDay = 1440 / this.slotMinutes;
+        double halfLifeMinutes = Double.parseDouble(System.getProperty("elevator.forecast.halfLifeMinutes", "10"));
+        double profileHalfLifeDays = Double.parseDouble(System.getProperty("elevator.forecast.profileHalfLifeDays", "7"));
+        this.recentDecay = Math.pow(0.5, this.tickSeconds / 60d / halfLifeMinutes);
+        this.profileWeight = 1 - Math.pow(0.5, 1 / profileHalfLifeDays);
+
+        this.arrivals = new AtomicIntegerArray(this.floors * 2);
+        this.recent = new double[this.floors * 2];
+        this.slotCounts = new double[this.floors * 2];
+        this.profile = new double[this.slotsPerDay][];
+        this.current = DemandForecast.empty(bankId, this.clock.now(), lowestFloor, this.floors);
+    }
+
+    // a fresh hall call of this bank (retries are not new demand)
+    public void record(ElevatorRequest request) {
+        int offset = request.getFromSrcFloor() - this.lowestFloor;
+        if (offset < 0 || offset >= this.floors || request.getRequestDirection() == RequestDirection.NONE) return;
+        this.arrivals.incrementAndGet(offset * 2 + (request.getRequestDirection() == RequestDirection.UP ? 0 : 1));
+        // the periodic fold only starts with the first call - an unused bank costs nothing
+        if (this.started.compareAndSet(false, true)) {
+            String taskName = "forecast.tick." + this.bankId;
+            this.clock.sharedScheduler().scheduleAtFixedRate(
+                    MetricsRegistry.trackFixedRate(taskName, this.tickSeconds, TimeUnit.SECONDS, this::foldSafely),
+                    this.tickSeconds, this.tickSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public DemandForecast current() {
+        return this.current;
+    }
+
+    // runs on the fold thread after every new forecast (e.g., re-park the idle cars)
+    public void onForecast(Runnable listener) {
+        this.listeners.add(listener);
+    }
+
+    private void foldSafely() {
+        try {
+            fold();
+        } catch (Exception ex) {
+            LOGGER.error("Unexpected error while folding the demand of bank {}", this.bankId, ex);
+        }
+    }
+
+    // one owner at a time for the decayed values (fixed rate never overlaps itself, but fold is reachable from tests/tools)
+    synchronized void fold() {
+        LocalDateTime now = this.clock.now();
+        int slot = slotOf(now);
+        if (this.runningSlot >= 0 && slot != this.runningSlot) {
+            closeSlot(this.runningSlot);
+        }
+        this.runningSlot = slot;
+
+        for (int cell = 0; cell < this.recent.length; cell++) {
+            int calls = this.arrivals.getAndSet(cell, 0);
+            this.recent[cell] = this.recent[cell] * this.recentDecay + calls;
+            this.slotCounts[cell] += calls;
+        }
+        publish(now, (slot + 1) % this.slotsPerDay);
+        for (Runnable listener : this.listeners) {
+            listener.run();
+        }
+    }
+
+    private void closeSlot(int slot) {
+        double[] seen = this.profile[slot];
+        if (seen == null) {
+            this.profile[slot] = this.slotCounts.clone();
+        } else {
+            for (int cell = 0; cell < seen.length; cell++) {
+                seen[cell] += this.profileWeight * (this.slotCounts[cell] - seen[cell]);
+            }
+        }
+        Arrays.fill(this.slotCounts, 0);
+    }
+
+    private void publish(LocalDateTime now, int nextSlot) {
+        double[] up = new double[this.floors];
+        double[] down = new double[this.floors];
+        double tickMinutes = this.tickSeconds / 60d;
+        double[] expected = this.profile[nextSlot];
+        for (int cell = 0; cell < this.recent.length; cell++) {
+            // steady state of recent = calls per tick / (1 - decay)
+            double rate = this.recent[cell] * (1 - this.recentDecay) / tickMinutes;
+            if (expected != null) rate = (rate + expected[cell] / this.slotMinutes) / 2;
+            if ((cell & 1) == 0) up[cell >> 1] = rate;
+            else down[cell >> 1] = rate;
+        }
+        this.current = new DemandForecast(this.bankId, now, this.lowestFloor, up, down);
+    }
+
+    private int slotOf(LocalDateTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / this.slotMinutes;
+    }
+}
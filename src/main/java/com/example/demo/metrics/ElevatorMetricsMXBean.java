@@ -0,0 +1,13 @@
+package com.example.demo.metrics;
+
+import java.util.Map;
+
+// JMX view of MetricsRegistry - shows up in JConsole / VisualVM as com.example.demo:type=ElevatorMetrics
+public interface ElevatorMetricsMXBean {
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    Map<String, HistogramSnapshot> getHistograms();
+}
@@ -0,0 +1,54 @@
+package com.example.demo.metrics;
+
+import lombok.Getter;
+
+/*
+* Point-in-time summary of a LatencyHistogram, in nanoseconds.
+* Plain getters on purpose: JMX (MXBean) maps them to a CompositeData, Spring/Jackson to a JSON object.
+* */
+@Getter
+public class HistogramSnapshot {
+    private final long count;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    HistogramSnapshot(long[] buckets) {
+        long total = 0;
+        double sum = 0;
+        int highest = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            if (buckets[bucket] == 0) continue;
+            total += buckets[bucket];
+            sum += (double) buckets[bucket] * LatencyHistogram.midpointOf(bucket);
+            highest = bucket;
+        }
+        this.count = total;
+        this.meanNanos = total == 0 ? 0 : (long) (sum / total);
+        this.p50Nanos = percentile(buckets, total, 0.50);
+        this.p90Nanos = percentile(buckets, total, 0.90);
+        this.p99Nanos = percentile(buckets, total, 0.99);
+        this.p999Nanos = percentile(buckets, total, 0.999);
+        this.maxNanos = total == 0 ? 0 : LatencyHistogram.midpointOf(highest);
+    }
+
+    private static long percentile(long[] buckets, long total, double quantile) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank) return LatencyHistogram.midpointOf(bucket);
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%dns, p50=%dns, p90=%dns, p99=%dns, p99.9=%dns, max=%dns",
+                count, meanNanos, p50Nanos, p90Nanos, p99Nanos, p999Nanos, maxNanos);
+    }
+}
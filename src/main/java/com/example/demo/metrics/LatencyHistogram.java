@@ -0,0 +1,86 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+* HdrHistogram-style latency histogram (nanoseconds) with a fixed ~3% relative error - cheap enough for hot paths.
+*
+* Buckets are log-linear: values below 64 ns are counted exactly; above that every power of two is split into
+* 32 equal sub-buckets, so the bucket index is a couple of shifts off Long.numberOfLeadingZeros - no log(), no search.
+* Values above 2^41 ns (~36 min) land in the last bucket.
+*
+* record() is one index computation + one atomic increment. Recording threads are spread over a few stripes
+* (one counts array per stripe, chosen by thread id), so busy threads do not fight over the same cache line of a
+* hot bucket the way they would on a single array. snapshot() merges the stripes - that is the slow, rare side.
+* */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // 32 -> 1/32 relative precision
+    private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;   // 0..63 exact
+    private static final int FIRST_EXPONENT = SUB_BUCKET_BITS + 1; // 64 = 2^6
+    private static final int MAX_EXPONENT = 41;
+    static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - FIRST_EXPONENT + 1) * SUB_BUCKETS;
+
+    // power of two >= cores, at most 16 stripes (16 x 1.2k buckets x 8 bytes = ~150 KB per histogram)
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1));
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(long nanos) {
+        counts.getAndIncrement(stripeOffset() + bucketOf(nanos));
+    }
+
+    // convenience for "start = System.nanoTime(); ...; histogram.recordSince(start)"
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    private static int stripeOffset() {
+        // Fibonacci hash of the thread id - neighbouring ids (pool workers) end up on different stripes
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 60) % STRIPES * BUCKETS;
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < LINEAR_BUCKETS) return nanos <= 0 ? 0 : (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    // smallest value that falls into the bucket
+    static long lowerBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) return bucket;
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + FIRST_EXPONENT;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    // representative value of a bucket: its midpoint
+    static long midpointOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) return bucket;
+        long width = lowerBoundOf(bucket + 1) - lowerBoundOf(bucket);
+        return lowerBoundOf(bucket) + width / 2;
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] merged = new long[BUCKETS];
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                merged[bucket] += counts.get(stripe * BUCKETS + bucket);
+            }
+        }
+        return new HistogramSnapshot(merged);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.demo.metrics;
+
+import com.example.demo.clock.ClockProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/*
+* Process-wide metrics: latency histograms, striped counters and gauges, looked up by name.
+*
+* Hot paths resolve their metric ONCE into a static final field and then only call record()/increment() on it:
+*     private static final LatencyHistogram SCORING = MetricsRegistry.histogram("scheduler.scoring");
+* so recording never touches the registry map.
+*
+* Exposed read-only over
+*   JMX  : com.example.demo:type=ElevatorMetrics (registered on first use of the registry)
+*   HTTP : GET /api/metrics (MetricsController)
+* */
+public final class MetricsRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    private static final ConcurrentMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, StripedCounter> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    public static final String JMX_NAME = "com.example.demo:type=ElevatorMetrics";
+
+    static {
+        registerJmx();
+    }
+
+    private MetricsRegistry() {
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    public static StripedCounter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, StripedCounter::new);
+    }
+
+    // value read on demand (e.g., a queue size); re-registering a name replaces the supplier
+    public static void gauge(String name, LongSupplier supplier) {
+        GAUGES.put(name, supplier);
+    }
+
+    public static Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    public static Map<String, Long> gauges() {
+        Map<String, Long> values = new TreeMap<>();
+        GAUGES.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    public static Map<String, HistogramSnapshot> histograms() {
+        Map<String, HistogramSnapshot> values = new TreeMap<>();
+        HISTOGRAMS.forEach((name, histogram) -> values.put(name, histogram.snapshot()));
+        return values;
+    }
+
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("counters", counters());
+        snapshot.put("gauges", gauges());
+        snapshot.put("histograms", histograms());
+        return snapshot;
+    }
+
+    /*
+    * Wraps a scheduleAtFixedRate task so that its start-time jitter (|actual start - previous start - period|) is recorded
+    * into histogram "<name>.jitter" and its run time into "<name>.run". A periodic task only runs one execution at a time,
+    * so the wrapper's state needs no synchronisation. On a virtual clock there is no real-time jitter - nothing is recorded.
+    * */
+    public static Runnable trackFixedRate(String name, long period, TimeUnit unit, Runnable task) {
+        return trackPeriodic(name, period, unit, false, task);
+    }
+
+    // scheduleWithFixedDelay flavour: jitter = |actual start - previous END - delay|
+    public static Runnable trackFixedDelay(String name, long delay, TimeUnit unit, Runnable task) {
+        return trackPeriodic(name, delay, unit, true, task);
+    }
+
+    private static Runnable trackPeriodic(String name, long period, TimeUnit unit, boolean fromPreviousEnd, Runnable task) {
+        LatencyHistogram jitter = histogram(name + ".jitter");
+        LatencyHistogram run = histogram(name + ".run");
+        long periodNanos = unit.toNanos(period);
+        boolean virtual = ClockProvider.getClock().isVirtual();
+        return new Runnable() {
+            private long previousMark = -1; // previous start (fixed rate) or end (fixed delay)
+
+            @Override
+            public void run() {
+                if (virtual) {
+                    task.run();
+                    return;
+                }
+                long start = System.nanoTime();
+                if (previousMark >= 0) {
+                    jitter.record(Math.abs(start - previousMark - periodNanos));
+                }
+                previousMark = start;
+                try {
+                    task.run();
+                } finally {
+                    long end = System.nanoTime();
+                    run.record(end - start);
+                    if (fromPreviousEnd) previousMark = end;
+                }
+            }
+        };
+    }
+
+    private static void registerJmx() {
+        try {
+            ObjectName objectName = new ObjectName(JMX_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new ElevatorMetrics(), objectName);
+            }
+        } catch (Exception | LinkageError ex) {
+            // metrics must never stop the elevators - e.g., no management support in a stripped-down runtime
+            LOGGER.warn("Could not register {} with JMX", JMX_NAME, ex);
+        }
+    }
+
+    private static final class ElevatorMetrics implements ElevatorMetricsMXBean {
+        @Override
+        public Map<String, Long> getCounters() {
+            return counters();
+        }
+
+        @Override
+        public Map<String, Long> getGauges() {
+            return gauges();
+        }
+
+        @Override
+        public Map<String, HistogramSnapshot> getHistograms() {
+            return histograms();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+* Event counter for hot paths (commit conflicts, retries, lock failures).
+* Backed by LongAdder: under contention every thread adds to its own cell instead of CAS-looping on one AtomicLong,
+* and sum() adds the cells up when somebody reads the metric.
+* */
+public final class StripedCounter {
+
+    private final String name;
+    private final LongAdder adder = new LongAdder();
+
+    StripedCounter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment() {
+        adder.increment();
+    }
+
+    public void add(long delta) {
+        adder.add(delta);
+    }
+
+    public long sum() {
+        return adder.sum();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.demo.model;
 import com.example.demo.IConstants;
+import com.example.demo.bank.ElevatorBank;
+import com.example.demo.customds.AtomicFloorBitSet;
 import com.example.demo.enums.ElevatorState;
 import com.example.demo.utility.Helper;
 import lombok.AllArgsConstructor;
@@ -7,8 +9,8 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -40,6 +42,13 @@ import java.util.concurrent.locks.ReentrantLock;
 * Safe iteration: The iterator reflects a “snapshot” view and doesn’t throw ConcurrentModificationException.
 * Still sorted: Maintains sorted order at all times, just like TreeSet.
 * Fully thread-safe: No external synchronization needed.
+*
+* Option - Current Approach (AtomicFloorBitSet):
+* ---------------------
+* Floors are a small bounded integer range (BASE_FLOOR..MAX_FLOOR_COUNT), so one bit per floor is enough.
+* One AtomicLong holds up to 64 floors (AtomicLongArray beyond that): add/remove are a single CAS, contains is a mask,
+* and next higher/lower stop is numberOfTrailingZeros/numberOfLeadingZeros on a word - no Integer boxing, no skip-list nodes, no allocation.
+* Still lock-free and still ordered (bit position == floor number).
 * */
 
 
@@ -48,25 +57,57 @@ public class Elevator {
     private final String elevatorId;
 
     @Getter
-    private final ConcurrentSkipListSet<Integer> assignedFloors;
+    private final AtomicFloorBitSet assignedFloors;
 
-    // Per-elevator lock used for fine-grained concurrency
+    // Per-elevator lock used for fine-grained concurrency (legacy ElevatorManagerService; the dispatcher commits via the version below)
     private final ReentrantLock lock = new ReentrantLock(true);
 
     private volatile AtomicInteger currentFloor;
 
     private volatile AtomicReference<ElevatorState> elevatorState;
 
+    /*
+    * Version stamp for optimistic assignment (seqlock style):
+    *   - every state change (floor, state, stops) adds 2 AFTER the change
+    *   - a dispatcher commit flips it to odd (CAS from the version it read) and back to even when done
+    * So "version still equals what I read, and it is even" means nobody changed or is changing this car since
+    * the scheduler looked at it - the dispatcher can commit without holding a lock while deciding.
+    * */
+    private final AtomicLong version = new AtomicLong();
+
+    /*
+    * Riders, not stops: occupancy = riders on board, reservedPickups = riders assigned to this car and still waiting
+    * for it. Only destination calls are counted - a floor-direction call never tells the system who boards or where
+    * they get off. Both move the version like any other change, so a ranking that saw a free seat fails its commit
+    * once the seat is gone.
+    * */
+    private final AtomicInteger occupancy = new AtomicInteger();
+    private final AtomicInteger reservedPickups = new AtomicInteger();
+
+    // floor an idle car was sent to, to wait there for the calls its bank expects (ParkingPolicy) - NO_FLOOR otherwise
+    @Getter
+    private volatile int parkingFloor = AtomicFloorBitSet.NO_FLOOR;
+
+    // the elevator bank this car serves in - set when it joins ElevatorCache.elevators (see ElevatorBanks)
+    @Getter
+    @Setter
+    private volatile ElevatorBank bank;
+
 
     public Elevator(ElevatorState elevatorState){
         this(elevatorState, IConstants.BASE_FLOOR); // start at ground floor by default
     }
 
     public Elevator(ElevatorState elevatorState, int startingFloor){
-        this.elevatorId = Helper.generateUUID();
+        this(Helper.generateUUID(), elevatorState, startingFloor);
+    }
+
+    // restore of a persisted car (snapshot / journal) - same id, so that persisted requests still point at it
+    public Elevator(String elevatorId, ElevatorState elevatorState, int currentFloor){
+        this.elevatorId = elevatorId;
         this.elevatorState = new AtomicReference<>(elevatorState);
-        this.assignedFloors = new ConcurrentSkipListSet<>();
-        this.currentFloor = new AtomicInteger(startingFloor);
+        this.assignedFloors = AtomicFloorBitSet.forMaxFloor(IConstants.MAX_FLOOR_COUNT);
+        this.currentFloor = new AtomicInteger(currentFloor);
     }
 
     public boolean isMoving(){
@@ -86,62 +127,166 @@ public class Elevator {
     }
 
     public int getNoOfIncomingFloorServeRequest(){
-        return this.assignedFloors.size();
+        return this.assignedFloors.size(); // bitCount - no traversal
     }
 
     public boolean canAcceptFloorServeRequest(int floor){
         return !((this.elevatorState.get() == ElevatorState.MAINTENANCE)
-                || (this.elevatorState.get() == ElevatorState.EMERGENCY));
-//                && (this.getNoOfIncomingFloorServeRequest() <= IConstants.MAX_HOLDING_CAPACITY)
+                || (this.elevatorState.get() == ElevatorState.EMERGENCY))
+                && (this.getCommittedRiders() < IConstants.MAX_HOLDING_CAPACITY); // riders, not stops (see occupancy)
 //                && (floor >= IConstants.BASE_FLOOR && floor <= IConstants.MAX_FLOOR_COUNT);
     }
 
+    public int getOccupancy(){
+        return this.occupancy.get();
+    }
+
+    public int getReservedPickups(){
+        return this.reservedPickups.get();
+    }
+
+    // riders this car has promised room for: on board + on their way in
+    public int getCommittedRiders(){
+        return this.occupancy.get() + this.reservedPickups.get();
+    }
+
+    public boolean isFull(){
+        return this.occupancy.get() >= IConstants.MAX_HOLDING_CAPACITY;
+    }
+
+    // a rider was assigned to this car (dispatcher commit)
+    public void reservePickup(){
+        this.reservedPickups.incrementAndGet();
+        this.stateChanged();
+    }
+
+    // an assigned rider will not board this car after all (expired, boarded another car, reassigned)
+    public void releasePickup(){
+        this.reservedPickups.updateAndGet(reserved -> Math.max(0, reserved - 1));
+        this.stateChanged();
+    }
+
+    // a rider boarded - reserved: the one this car was sent for, so the reservation turns into a seat
+    public void board(boolean reserved){
+        if (reserved) this.reservedPickups.updateAndGet(pickups -> Math.max(0, pickups - 1));
+        this.occupancy.incrementAndGet();
+        this.stateChanged();
+    }
+
+    public void park(int floor){
+        this.parkingFloor = floor;
+    }
+
+    // the car got work (or arrived): returns the floor it was parking at, NO_FLOOR when it was not parking
+    public int stopParking(){
+        int floor = this.parkingFloor;
+        this.parkingFloor = AtomicFloorBitSet.NO_FLOOR;
+        return floor;
+    }
+
+    public boolean isParking(){
+        return this.parkingFloor != AtomicFloorBitSet.NO_FLOOR;
+    }
+
+    public void alight(){
+        this.occupancy.updateAndGet(riders -> Math.max(0, riders - 1));
+        this.stateChanged();
+    }
+
     public void addFloor(int destFloor){
         if (destFloor >= IConstants.BASE_FLOOR && destFloor <= IConstants.MAX_FLOOR_COUNT)
-            this.assignedFloors.add(destFloor); // T(n) = O(logn)
+            this.assignedFloors.add(destFloor); // T(n) = O(1) - single CAS
+        this.stateChanged();
     }
 
     public void addFloor(Collection<Integer> destFloors){
         this.assignedFloors.addAll(destFloors);
+        this.stateChanged();
     }
 
     public void removeFloor(int destFloor){
-        this.assignedFloors.remove(destFloor); // T(n) = O(logn)
+        this.assignedFloors.remove(destFloor); // T(n) = O(1) - single CAS
+        this.stateChanged();
     }
 
     public void removeFloor(Collection<Integer> destFloors){
         this.assignedFloors.removeAll(destFloors);
+        this.stateChanged();
+    }
+
+    public long getVersion() {
+        return this.version.get();
+    }
+
+    // Start an optimistic commit: succeeds only if nothing changed since expectedVersion was read and no other commit is running
+    public boolean tryBeginCommit(long expectedVersion) {
+        return (expectedVersion & 1L) == 0 && this.version.compareAndSet(expectedVersion, expectedVersion + 1);
+    }
+
+    // End the commit started by a successful tryBeginCommit - back to an even version
+    public void endCommit() {
+        this.version.incrementAndGet();
+        this.publishChange(); // the published view of this car carries the version before the commit
+    }
+
+    // +2 keeps the parity: a change during a running commit leaves the version odd until endCommit()
+    // the fleet snapshot is outdated only AFTER the version moved - a rebuild then always sees the new version
+    private void stateChanged() {
+        this.version.addAndGet(2);
+        this.publishChange();
+    }
+
+    // only the own bank's snapshot goes stale - a car outside any bank (ad hoc benchmark fleets) has nobody to tell
+    private void publishChange() {
+        ElevatorBank currentBank = this.bank;
+        if (currentBank != null) {
+            currentBank.fleetChanged();
+        }
     }
 
     /*
      * Elevator uses below Logic to determine among its assigned floor requests, which active floor request to serve first
      */
     public int findNearestImmediateFloor(){
-        if(assignedFloors.isEmpty()) return currentFloor.get();
+        int floor = this.currentFloor.get();
+        if(assignedFloors.isEmpty()) return floor;
 
-        Integer nearestFloor = null;
+        int nearestFloor;
 
         if(this.isMovingUp()){
-            Integer nearestUpFloor = this.assignedFloors.higher(this.currentFloor.get()); // immediate higher
-            nearestFloor = (nearestUpFloor != null) ? nearestUpFloor : this.assignedFloors.lower(this.currentFloor.get());
+            int nearestUpFloor = this.assignedFloors.higher(floor); // immediate higher
+            nearestFloor = (nearestUpFloor != AtomicFloorBitSet.NO_FLOOR) ? nearestUpFloor : this.assignedFloors.lower(floor);
         }else if(this.isMovingDown()){
-            Integer nearestDownFloor = this.assignedFloors.lower(this.currentFloor.get()); // immediate lower
-            nearestFloor = (nearestDownFloor != null) ? nearestDownFloor : this.assignedFloors.higher(this.currentFloor.get());
+            int nearestDownFloor = this.assignedFloors.lower(floor); // immediate lower
+            nearestFloor = (nearestDownFloor != AtomicFloorBitSet.NO_FLOOR) ? nearestDownFloor : this.assignedFloors.higher(floor);
         } else {
-            // if idle, choose the closest in absolute terms
-            nearestFloor = this.assignedFloors.stream()
-                    .min(Integer::compareTo)
-                    .orElse(this.currentFloor.get());
+            // if idle, choose the lowest assigned floor
+            nearestFloor = this.assignedFloors.first();
         }
 
-        if(nearestFloor == null){
-            return assignedFloors.last();
+        if(nearestFloor == AtomicFloorBitSet.NO_FLOOR){
+            int lastFloor = assignedFloors.last();
+            // stops may have been cleared concurrently since the isEmpty() check
+            return (lastFloor != AtomicFloorBitSet.NO_FLOOR) ? lastFloor : floor;
         }
         return nearestFloor;
     }
 
+    /*
+     * Next stop after a door cycle: the car is LOADING then, so findNearestImmediateFloor() would treat it as idle and
+     * head for the lowest stop. Keep going the way the car came instead, and turn only when nothing is left ahead.
+     */
+    public int findNextFloorAfterStop(boolean wasMovingUp){
+        int floor = this.currentFloor.get();
+        int ahead = wasMovingUp ? this.assignedFloors.higher(floor) : this.assignedFloors.lower(floor);
+        if (ahead != AtomicFloorBitSet.NO_FLOOR) return ahead;
+        int behind = wasMovingUp ? this.assignedFloors.lower(floor) : this.assignedFloors.higher(floor);
+        return (behind != AtomicFloorBitSet.NO_FLOOR) ? behind : floor;
+    }
+
     public void setElevatorState(ElevatorState elevatorState){
         this.elevatorState.set(elevatorState);
+        this.stateChanged();
     }
 
     public ElevatorState getElevatorState() {
@@ -150,6 +295,7 @@ public class Elevator {
 
     public void setCurrentFloor(int floor){
         this.currentFloor.set(floor);
+        this.stateChanged();
     }
 
     public int getCurrentFloor() {
@@ -169,6 +315,7 @@ public class Elevator {
                 ", lock=" + lock +
                 ", currentFloor=" + currentFloor +
                 ", elevatorState=" + elevatorState +
+                ", version=" + version +
                 '}';
     }
 }
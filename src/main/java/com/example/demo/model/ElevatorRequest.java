@@ -1,5 +1,9 @@
 package com.example.demo.model;
 
+import com.example.demo.bank.ElevatorBank;
+import com.example.demo.cache.PendingRequestQueue;
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.HierarchicalTimingWheel;
 import com.example.demo.enums.RequestDirection;
 import com.example.demo.enums.RequestPriority;
 import com.example.demo.enums.RequestStatus;
@@ -18,6 +22,14 @@ public class ElevatorRequest {
     private final String requestId;
     private RequestPriority requestPriority;
     private LocalDateTime requestedAt;
+    // same instant on the monotonic clock - TTL/expiry arithmetic must not depend on wall clock corrections
+    private final long requestedAtMonotonicMillis;
+
+    // stamped by movement service on the elevator clock - wait time = pickedUpAt - requestedAt, trip time = completedAt - pickedUpAt
+    @Setter
+    private LocalDateTime pickedUpAt;
+    @Setter
+    private LocalDateTime completedAt;
 
     private int fromSrcFloor;
     private int toDestFloor;
@@ -25,20 +37,35 @@ public class ElevatorRequest {
     private RequestDirection requestDirection;
     private final RequestType requestType;
 
+    // volatile: written by dispatcher/movement/expiry threads (transitions themselves are guarded by the request's monitor)
     @Setter
-    private RequestStatus requestStatus;
+    private volatile RequestStatus requestStatus;
 
     @Setter
     private Elevator assignedElevator;
 
+    // the elevator bank it was routed to (ElevatorBanks.route) - its queue, index and dispatcher handle it from then on
+    @Setter
+    private volatile ElevatorBank bank;
+
+    // true while the request waits in its bank's pending queue
     @Getter
     private final AtomicBoolean isEnqueued = new AtomicBoolean(false);
 
+    // its place in the pending queue while waiting - lets the queue remove it in O(1)
+    @Setter
+    private volatile PendingRequestQueue.Handle pendingHandle;
+
+    // its TTL timer in RequestExpiryService while it is expirable (from submission until pickup)
+    @Setter
+    private volatile HierarchicalTimingWheel.Timeout<ElevatorRequest> expiryTimeout;
+
 
     public ElevatorRequest(RequestPriority requestPriority, RequestType requestType, int fromSrcFloor){
         this.requestId = Helper.generateUUID();
         this.requestPriority = requestPriority;
-        this.requestedAt = LocalDateTime.now();
+        this.requestedAt = ClockProvider.getClock().now(); // wall clock or simulated time
+        this.requestedAtMonotonicMillis = ClockProvider.getClock().monotonicMillis();
         this.requestType = requestType;
         this.requestStatus = RequestStatus.PENDING;
         this.fromSrcFloor = fromSrcFloor;
@@ -61,6 +88,25 @@ public class ElevatorRequest {
         }
     }
 
+    /*
+    * Restore of a persisted request (snapshot / journal). The monotonic timestamp is rebuilt from the request's age,
+    * so its TTL keeps counting from the original submission, not from the restart.
+    * */
+    public ElevatorRequest(String requestId, RequestPriority requestPriority, RequestType requestType, RequestDirection requestDirection,
+                           int fromSrcFloor, int toDestFloor, RequestStatus requestStatus,
+                           LocalDateTime requestedAt, LocalDateTime pickedUpAt, long ageMillis){
+        this.requestId = requestId;
+        this.requestPriority = requestPriority;
+        this.requestType = requestType;
+        this.requestDirection = requestDirection;
+        this.fromSrcFloor = fromSrcFloor;
+        this.toDestFloor = toDestFloor;
+        this.requestStatus = requestStatus;
+        this.requestedAt = requestedAt;
+        this.pickedUpAt = pickedUpAt;
+        this.requestedAtMonotonicMillis = ClockProvider.getClock().monotonicMillis() - Math.max(0, ageMillis);
+    }
+
     public boolean isUpward() {
         return this.requestDirection == RequestDirection.UP;
     }
@@ -69,9 +115,23 @@ public class ElevatorRequest {
         return this.requestDirection == RequestDirection.DOWN;
     }
 
-    // has it crossed 5 mins from when the user requested the floor
+    // has it outlived the TTL of its priority since the user requested the floor (monotonic - immune to wall clock jumps)
     public boolean hasExpired(){
-        return LocalDateTime.now().isAfter(requestedAt.plusMinutes(5));
+        long ttlMillis = this.getExpiryTtlMillis();
+        return ttlMillis > 0 && ClockProvider.getClock().monotonicMillis() - this.requestedAtMonotonicMillis >= ttlMillis;
+    }
+
+    public long getExpiryTtlMillis(){
+        return (this.requestPriority == null ? RequestPriority.REGULAR_NORMAL : this.requestPriority).getExpiryTtlMillis();
+    }
+
+    // no longer expirable (picked up / completed) - frees its timer right away instead of when the TTL runs out
+    public void cancelExpiry(){
+        HierarchicalTimingWheel.Timeout<ElevatorRequest> timeout = this.expiryTimeout;
+        if (timeout != null) {
+            timeout.cancel();
+            this.expiryTimeout = null;
+        }
     }
 
 }
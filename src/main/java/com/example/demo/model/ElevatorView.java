@@ -0,0 +1,129 @@
+package com.example.demo.model;
+
+import com.example.demo.IConstants;
+import com.example.demo.customds.AtomicFloorBitSet;
+import com.example.demo.enums.ElevatorState;
+import lombok.Getter;
+
+/*
+* Immutable, self-consistent picture of one car: floor, state and stops as they were at ONE version of the car.
+*
+* Reading an Elevator field by field (what the scheduler used to do) can mix moments - e.g. the floor after a step with
+* the stops before the arrival removed one. capture() reads like a seqlock reader instead: version, then the fields,
+* then the version again; if a change landed in between, it reads again. The version it reports is the one the
+* fields belong to, so an optimistic commit against it (Elevator.tryBeginCommit) fails exactly when the view is stale.
+*
+* Part of a FleetSnapshot; rebuilt only for cars whose version moved since the previous snapshot.
+* */
+public final class ElevatorView {
+
+    private static final int MAX_READ_ATTEMPTS = 4;
+
+    @Getter
+    private final Elevator elevator;
+    @Getter
+    private final long version;
+    @Getter
+    private final int currentFloor;
+    @Getter
+    private final ElevatorState elevatorState;
+    @Getter
+    private final int noOfIncomingFloorServeRequest; // stop count
+    @Getter
+    private final int occupancy;                     // riders on board
+    @Getter
+    private final int committedRiders;               // on board + assigned, still waiting (Elevator.getCommittedRiders)
+    @Getter
+    private final int firstStop;                     // NO_FLOOR without stops
+    @Getter
+    private final int lastStop;
+    private final long[] stopWords;
+
+    private ElevatorView(Elevator elevator, long version, int currentFloor, ElevatorState elevatorState, long[] stopWords,
+                         int occupancy, int committedRiders) {
+        this.elevator = elevator;
+        this.version = version;
+        this.currentFloor = currentFloor;
+        this.elevatorState = elevatorState;
+        this.stopWords = stopWords;
+        this.occupancy = occupancy;
+        this.committedRiders = committedRiders;
+        int count = 0;
+        int first = AtomicFloorBitSet.NO_FLOOR;
+        int last = AtomicFloorBitSet.NO_FLOOR;
+        for (int i = 0; i < stopWords.length; i++) {
+            long word = stopWords[i];
+            if (word == 0) continue;
+            count += Long.bitCount(word);
+            if (first == AtomicFloorBitSet.NO_FLOOR) first = (i << 6) + Long.numberOfTrailingZeros(word);
+            last = (i << 6) + (Long.SIZE - 1) - Long.numberOfLeadingZeros(word);
+        }
+        this.noOfIncomingFloorServeRequest = count;
+        this.firstStop = first;
+        this.lastStop = last;
+    }
+
+    /*
+    * A car changing faster than it can be read (a handful of retries) is taken as last read: its version then no
+    * longer matches and a commit against this view simply fails - same outcome as any other stale candidate.
+    * An odd version (a dispatcher commit is running on the car) is kept as is for the same reason.
+    * */
+    public static ElevatorView capture(Elevator elevator) {
+        long version;
+        int floor;
+        ElevatorState state;
+        long[] stops;
+        int occupancy;
+        int committedRiders;
+        int attempt = 0;
+        do {
+            version = elevator.getVersion();
+            floor = elevator.getCurrentFloor();
+            state = elevator.getElevatorState();
+            stops = elevator.getAssignedFloors().toWords();
+            occupancy = elevator.getOccupancy();
+            committedRiders = occupancy + elevator.getReservedPickups();
+        } while (elevator.getVersion() != version && ++attempt < MAX_READ_ATTEMPTS);
+        return new ElevatorView(elevator, version, floor, state, stops, occupancy, committedRiders);
+    }
+
+    public String getElevatorId() {
+        return this.elevator.getElevatorId();
+    }
+
+    public boolean isMovingUp() {
+        return this.elevatorState == ElevatorState.MOVING_UP;
+    }
+
+    public boolean isMovingDown() {
+        return this.elevatorState == ElevatorState.MOVING_DOWN;
+    }
+
+    public boolean isMoving() {
+        return this.isMovingUp() || this.isMovingDown();
+    }
+
+    public boolean isStandingIdle() {
+        return this.elevatorState == ElevatorState.IDLE;
+    }
+
+    // same rule as Elevator.canAcceptFloorServeRequest(), on the captured state
+    public boolean canAcceptFloorServeRequest(int floor) {
+        return this.elevatorState != ElevatorState.MAINTENANCE && this.elevatorState != ElevatorState.EMERGENCY
+                && this.committedRiders < IConstants.MAX_HOLDING_CAPACITY;
+    }
+
+    public boolean hasStops() {
+        return this.noOfIncomingFloorServeRequest > 0;
+    }
+
+    // the stops into a caller's scratch words (EtaCostModel replays them) - the view's own array is never handed out
+    public void copyStops(long[] into) {
+        System.arraycopy(this.stopWords, 0, into, 0, Math.min(this.stopWords.length, into.length));
+    }
+
+    public boolean hasStop(int floor) {
+        int index = floor >>> 6;
+        return floor >= 0 && index < this.stopWords.length && (this.stopWords[index] & (1L << floor)) != 0;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.model;
+
+import com.example.demo.enums.ElevatorState;
+
+/*
+* Cars of a FleetSnapshot by (current floor, direction) - so "the nearest car moving up at or below floor F" or "the
+* nearest idle car" is a lookup instead of a pass over every car.
+*
+*   slots     : snapshot slots ordered by floor, then direction (FleetStateTable.DIRECTION_NONE / _UP / _DOWN)
+*   start     : cars at (floor, direction) are slots[start[floor * 3 + direction] .. start[floor * 3 + direction + 1])
+*   occupied  : per direction, one bit per floor that has such a car - nearest floor = next / previous set bit,
+*               one word covers 64 floors, so a lookup touches a word or two in any real building
+*
+* Cars in MAINTENANCE / EMERGENCY are left out - they never take a call. Built once per snapshot (counting sort,
+* O(cars + floors)), when a reader first asks for it, and never written afterwards. The snapshot itself is only
+* rebuilt after a car changed (FleetSnapshotPublisher), so a setCurrentFloor / setElevatorState moves its car in the
+* index of the next snapshot - always in step with the versioned views the dispatcher commits against.
+*
+*   int floor = index.floorAtOrBelow(FleetStateTable.DIRECTION_UP, f);   // nearest floor <= f with a car moving up
+*   for (int k = index.firstAt(floor, FleetStateTable.DIRECTION_UP); k < index.endAt(floor, FleetStateTable.DIRECTION_UP); k++)
+*       ... index.slot(k) ...
+* */
+public final class FleetFloorIndex {
+
+    // any direction, for the lookups
+    public static final int ANY_DIRECTION = -1;
+
+    private static final int DIRECTIONS = 3;
+    private static final int MAINTENANCE = ElevatorState.MAINTENANCE.ordinal();
+    private static final int EMERGENCY = ElevatorState.EMERGENCY.ordinal();
+
+    private final int floors;
+    private final int[] slots;
+    private final int[] start;
+    private final long[][] occupied; // [direction][word]; [DIRECTIONS] = any direction
+
+    private FleetFloorIndex(int floors, int cars) {
+        this.floors = floors;
+        this.slots = new int[cars];
+        this.start = new int[floors * DIRECTIONS + 1];
+        this.occupied = new long[DIRECTIONS + 1][(floors + 63) >>> 6];
+    }
+
+    static FleetFloorIndex of(FleetStateTable table) {
+        int[] floorOf = table.floors();
+        int[] states = table.states();
+        int[] directions = table.directions();
+        int floors = 1;
+        int cars = 0;
+        for (int i = 0; i < table.size(); i++) {
+            if (!inService(states[i])) continue;
+            floors = Math.max(floors, floorOf[i] + 1);
+            cars++;
+        }
+        FleetFloorIndex index = new FleetFloorIndex(floors, cars);
+
+        // counting sort by bucket = floor * 3 + direction; slots stay in ascending order inside a bucket
+        int[] next = new int[floors * DIRECTIONS + 1];
+        for (int i = 0; i < table.size(); i++) {
+            if (inService(states[i])) next[floorOf[i] * DIRECTIONS + directions[i] + 1]++;
+        }
+        for (int bucket = 0; bucket < floors * DIRECTIONS; bucket++) {
+            next[bucket + 1] += next[bucket];
+        }
+        System.arraycopy(next, 0, index.start, 0, next.length);
+        for (int i = 0; i < table.size(); i++) {
+            if (!inService(states[i])) continue;
+            int floor = floorOf[i];
+            index.slots[next[floor * DIRECTIONS + directions[i]]++] = i;
+            index.occupied[directions[i]][floor >>> 6] |= 1L << floor;
+            index.occupied[DIRECTIONS][floor >>> 6] |= 1L << floor;
+        }
+        return index;
+    }
+
+    private static boolean inService(int state) {
+        return state != MAINTENANCE && state != EMERGENCY;
+    }
+
+    // cars in service
+    public int size() {
+        return this.slots.length;
+    }
+
+    // nearest floor >= floor with a car of that direction (ANY_DIRECTION: any car), -1 if none
+    public int floorAtOrAbove(int direction, int floor) {
+        if (floor >= this.floors) return -1;
+        floor = Math.max(floor, 0);
+        long[] words = this.occupied[direction == ANY_DIRECTION ? DIRECTIONS : direction];
+        int index = floor >>> 6;
+        long word = words[index] & (-1L << floor);
+        while (true) {
+            if (word != 0) return (index << 6) + Long.numberOfTrailingZeros(word);
+            if (++index == words.length) return -1;
+            word = words[index];
+        }
+    }
+
+    // nearest floor <= floor with a car of that direction (ANY_DIRECTION: any car), -1 if none
+    public int floorAtOrBelow(int direction, int floor) {
+        if (floor < 0) return -1;
+        floor = Math.min(floor, this.floors - 1);
+        long[] words = this.occupied[direction == ANY_DIRECTION ? DIRECTIONS : direction];
+        int index = floor >>> 6;
+        long word = words[index] & (-1L >>> (63 - (floor & 63)));
+        while (true) {
+            if (word != 0) return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+            if (--index < 0) return -1;
+            word = words[index];
+        }
+    }
+
+    // positions of the cars at a floor in slot(): [firstAt, endAt) - all directions, or one
+    public int firstAt(int floor, int direction) {
+        return this.start[floor * DIRECTIONS + (direction == ANY_DIRECTION ? 0 : direction)];
+    }
+
+    public int endAt(int floor, int direction) {
+        return this.start[floor * DIRECTIONS + (direction == ANY_DIRECTION ? DIRECTIONS : direction + 1)];
+    }
+
+    // snapshot slot of the car at a position
+    public int slot(int position) {
+        return this.slots[position];
+    }
+}
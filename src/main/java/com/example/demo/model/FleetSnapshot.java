@@ -0,0 +1,86 @@
+package com.example.demo.model;
+
+import com.example.demo.enums.ElevatorState;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+* Immutable, versioned picture of a fleet - one ElevatorView per car: the cars of one elevator bank, or the whole
+* building bank after bank (ElevatorCache.getFleetSnapshot).
+*
+* Published by FleetSnapshotPublisher through a single volatile reference: readers (scheduler, status endpoints,
+* repository findAll) take the reference and use it as long as they like - no lock, no copy per read, and every car
+* in it is self-consistent. sequence is the fleet change count the snapshot was built from.
+*
+* The struct-of-arrays form the scheduler scores on (FleetStateTable) and the cars by floor and direction
+* (FleetFloorIndex) are built on first use and then shared as well.
+* */
+public final class FleetSnapshot {
+
+    private static final ElevatorState[] STATES = ElevatorState.values();
+
+    @Getter
+    private final long sequence;
+    @Getter
+    private final List<ElevatorView> views;
+    @Getter
+    private final List<Elevator> elevators;
+    private final int[] countByState;
+    // lazily built; two racing readers may both build it - identical content, either one wins
+    private volatile FleetStateTable stateTable;
+    private volatile FleetFloorIndex floorIndex;
+
+    public FleetSnapshot(long sequence, List<ElevatorView> views) {
+        this.sequence = sequence;
+        this.views = Collections.unmodifiableList(views);
+        List<Elevator> cars = new ArrayList<>(views.size());
+        this.countByState = new int[STATES.length];
+        for (ElevatorView view : views) {
+            cars.add(view.getElevator());
+            this.countByState[view.getElevatorState().ordinal()]++;
+        }
+        this.elevators = Collections.unmodifiableList(cars);
+    }
+
+    // ad hoc snapshot of an arbitrary list of cars (benchmarks, the List based scheduler API) - not published anywhere
+    public static FleetSnapshot of(List<Elevator> elevators) {
+        List<ElevatorView> views = new ArrayList<>(elevators.size());
+        for (Elevator elevator : elevators) {
+            views.add(ElevatorView.capture(elevator));
+        }
+        return new FleetSnapshot(-1, views);
+    }
+
+    public int size() {
+        return this.views.size();
+    }
+
+    public ElevatorView get(int index) {
+        return this.views.get(index);
+    }
+
+    public FleetStateTable getStateTable() {
+        FleetStateTable table = this.stateTable;
+        if (table == null) {
+            table = FleetStateTable.of(this.views);
+            this.stateTable = table;
+        }
+        return table;
+    }
+
+    public FleetFloorIndex getFloorIndex() {
+        FleetFloorIndex index = this.floorIndex;
+        if (index == null) {
+            index = FleetFloorIndex.of(getStateTable());
+            this.floorIndex = index;
+        }
+        return index;
+    }
+
+    public int countInState(ElevatorState state) {
+        return this.countByState[state.ordinal()];
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.model;
+
+import com.example.demo.enums.ElevatorState;
+
+import java.util.List;
+
+/*
+* Struct-of-arrays copy of a FleetSnapshot for the scheduler's scoring kernel: car i of the snapshot is slot i of every
+* array, all plain ints - no Elevator / ElevatorView pointer chasing, no atomics, and lanes a vector unit can load
+* straight from memory.
+*
+*   floors     : current floor
+*   states     : ElevatorState ordinal
+*   loads      : riders on board or on their way in (ElevatorView.getCommittedRiders)
+*   directions : DIRECTION_UP / DIRECTION_DOWN for a moving car, DIRECTION_NONE otherwise
+*
+* Built once per snapshot (FleetSnapshot.getStateTable) and never written afterwards, so readers on different cores
+* only ever share clean cache lines. Every array is padded to a whole number of 64 byte lines (16 ints - also the
+* widest vector, AVX-512): a kernel runs over capacity() without a scalar tail, and no other object's written fields
+* can share the last line. Padding slots hold an ineligible state (MAINTENANCE) so they never rank.
+* */
+public final class FleetStateTable {
+
+    public static final int DIRECTION_NONE = 0;
+    public static final int DIRECTION_UP = 1;
+    public static final int DIRECTION_DOWN = 2;
+
+    // ints per cache line
+    private static final int LINE_INTS = 16;
+
+    private final int size;
+    private final int[] floors;
+    private final int[] states;
+    private final int[] loads;
+    private final int[] directions;
+
+    private FleetStateTable(int size) {
+        this.size = size;
+        int capacity = Math.max(LINE_INTS, (size + LINE_INTS - 1) / LINE_INTS * LINE_INTS);
+        this.floors = new int[capacity];
+        this.states = new int[capacity];
+        this.loads = new int[capacity];
+        this.directions = new int[capacity];
+    }
+
+    static FleetStateTable of(List<ElevatorView> views) {
+        FleetStateTable table = new FleetStateTable(views.size());
+        for (int i = 0; i < views.size(); i++) {
+            ElevatorView view = views.get(i);
+            table.floors[i] = view.getCurrentFloor();
+            table.states[i] = view.getElevatorState().ordinal();
+            table.loads[i] = view.getCommittedRiders();
+            table.directions[i] = view.isMovingUp() ? DIRECTION_UP : view.isMovingDown() ? DIRECTION_DOWN : DIRECTION_NONE;
+        }
+        for (int i = views.size(); i < table.capacity(); i++) {
+            table.states[i] = ElevatorState.MAINTENANCE.ordinal();
+        }
+        return table;
+    }
+
+    // number of cars
+    public int size() {
+        return this.size;
+    }
+
+    // array length - a multiple of 16
+    public int capacity() {
+        return this.floors.length;
+    }
+
+    // the arrays themselves (no copy) - for the scoring kernels only, which must not write to them
+    public int[] floors() {
+        return this.floors;
+    }
+
+    public int[] states() {
+        return this.states;
+    }
+
+    public int[] loads() {
+        return this.loads;
+    }
+
+    public int[] directions() {
+        return this.directions;
+    }
+}
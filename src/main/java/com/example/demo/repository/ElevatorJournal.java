@@ -0,0 +1,331 @@
+package com.example.demo.repository;
+
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.metrics.StripedCounter;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/*
+* Append-only write-ahead journal of car and request changes, in memory-mapped segment files.
+*
+*   record  : length int | crc32c int | type byte | payload (ElevatorRecordCodec)   - length/crc cover type + payload
+*   segment : journal-<first position, 16 hex digits>.log, pre-sized (-Delevator.journal.segmentMB, default 64);
+*             a record that does not fit rolls over to a new segment, the rest of the old one stays zero
+*   position: a global byte offset over all segments ("LSN") - snapshots remember the position they are complete up to
+*
+* Why mapped: an append is a memcpy into the page cache - no write() system call per event, and a killed process
+* loses nothing that was appended (the kernel owns the dirty pages). Only power loss needs the pages forced to disk,
+* and that is what group commit amortizes: a background task forces everything appended since its previous run
+* (-Delevator.journal.groupCommitMillis, default 5), one msync for all the events of that window.
+* With -Delevator.journal.sync=true an append additionally waits until the group commit covering it is done.
+*
+* A record is encoded from the object's CURRENT state while holding the append lock, so records of the same object
+* are in the order of their states - the last record of an object always wins on replay.
+* */
+public final class ElevatorJournal implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElevatorJournal.class);
+
+    private static final int HEADER_BYTES = 4 + 4;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final StripedCounter APPENDS = MetricsRegistry.counter("journal.appends");
+    private static final LatencyHistogram GROUP_COMMIT = MetricsRegistry.histogram("journal.groupCommit");
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean syncCommit;
+
+    // append side - guarded by appendLock
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+    private final CRC32C crc = new CRC32C();
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private int segmentOffset;
+    private volatile long appendedPosition;
+
+    // group commit side
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    private long durablePosition; // guarded by durableLock
+    private long forcedSegmentStart = -1; // group commit task only: segment and offset forced so far
+    private int forcedOffset;
+    private final ScheduledExecutorService groupCommitExecutor;
+
+    /*
+    * Opens the journal for appends at position - the end of the valid records found by replay(),
+    * always in a fresh segment (a torn tail of the previous segment is simply never read again).
+    * */
+    public ElevatorJournal(Path directory, long position) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = Long.getLong("elevator.journal.segmentMB", 64L) << 20;
+        // a simulation runs ahead of wall time - its event thread must never wait for the disk
+        this.syncCommit = Boolean.getBoolean("elevator.journal.sync") && !ClockProvider.getClock().isVirtual();
+        this.openSegment(position);
+        this.appendedPosition = position;
+        this.durablePosition = position;
+
+        long groupCommitMillis = Long.getLong("elevator.journal.groupCommitMillis", 5L);
+        // durability is a wall-time concern even when the building runs on a VirtualElevatorClock (a simulated day
+        // would otherwise be 17M msync events); daemon - close() / the shutdown hook force the last window
+        this.groupCommitExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-group-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.groupCommitExecutor.scheduleWithFixedDelay(
+                MetricsRegistry.trackFixedDelay("journal.groupCommit.task", groupCommitMillis, TimeUnit.MILLISECONDS, this::groupCommitSafely),
+                groupCommitMillis, groupCommitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public long appendCar(Elevator elevator) {
+        return this.append(ElevatorRecordCodec.CAR, elevator, null);
+    }
+
+    public long appendRequest(ElevatorRequest request) {
+        return this.append(ElevatorRecordCodec.REQUEST, null, request);
+    }
+
+    // position right after the last appended record
+    public long position() {
+        return this.appendedPosition;
+    }
+
+    private long append(byte type, Elevator elevator, ElevatorRequest request) {
+        long end;
+        this.appendLock.lock();
+        try {
+            ByteBuffer record = this.scratch.clear();
+            record.position(HEADER_BYTES);
+            record.put(type);
+            if (elevator != null) {
+                ElevatorRecordCodec.encodeCar(record, elevator);
+            } else {
+                ElevatorRecordCodec.encodeRequest(record, request);
+            }
+            int length = record.position() - HEADER_BYTES;
+            this.crc.reset();
+            this.crc.update(record.array(), HEADER_BYTES, length);
+            record.putInt(0, length).putInt(4, (int) this.crc.getValue());
+
+            int total = HEADER_BYTES + length;
+            if (this.segmentOffset + total > this.segment.capacity()) {
+                this.rollOver();
+            }
+            this.segment.put(this.segmentOffset, record.array(), 0, total);
+            this.segmentOffset += total;
+            end = this.segmentStart + this.segmentOffset;
+            this.appendedPosition = end;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Journal append failed in " + this.directory, ex);
+        } finally {
+            this.appendLock.unlock();
+        }
+        APPENDS.increment();
+        if (this.syncCommit) this.awaitDurable(end);
+        return end;
+    }
+
+    // caller holds appendLock: the old segment is forced completely before the new one takes appends
+    private void rollOver() throws IOException {
+        this.segment.force();
+        this.segmentChannel.close();
+        this.openSegment(this.segmentStart + this.segmentOffset);
+    }
+
+    private void openSegment(long start) throws IOException {
+        Path file = this.directory.resolve(segmentName(start));
+        this.segmentChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segment = this.segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentBytes); // grows the file (sparse)
+        this.segmentStart = start;
+        this.segmentOffset = 0;
+    }
+
+    // ------------------------------------------------------------ group commit
+
+    private void groupCommitSafely() {
+        try {
+            this.groupCommit();
+        } catch (Exception ex) {
+            LOGGER.error("Journal group commit failed in {}", this.directory, ex);
+        }
+    }
+
+    // force what was appended since the previous run - one msync for the whole window
+    private void groupCommit() {
+        MappedByteBuffer current;
+        long start;
+        int offset;
+        this.appendLock.lock();
+        try {
+            current = this.segment;
+            start = this.segmentStart;
+            offset = this.segmentOffset;
+        } finally {
+            this.appendLock.unlock();
+        }
+        if (start + offset <= this.durable()) return;
+        if (start != this.forcedSegmentStart) { // rolled over - the previous segment was forced completely by rollOver()
+            this.forcedSegmentStart = start;
+            this.forcedOffset = 0;
+        }
+
+        long begin = System.nanoTime();
+        current.force(this.forcedOffset, offset - this.forcedOffset);
+        this.forcedOffset = offset;
+        GROUP_COMMIT.recordSince(begin);
+
+        this.durableLock.lock();
+        try {
+            this.durablePosition = Math.max(this.durablePosition, start + offset);
+            this.durableAdvanced.signalAll();
+        } finally {
+            this.durableLock.unlock();
+        }
+    }
+
+    private long durable() {
+        this.durableLock.lock();
+        try {
+            return this.durablePosition;
+        } finally {
+            this.durableLock.unlock();
+        }
+    }
+
+    private void awaitDurable(long position) {
+        this.durableLock.lock();
+        try {
+            while (this.durablePosition < position) {
+                this.durableAdvanced.awaitUninterruptibly();
+            }
+        } finally {
+            this.durableLock.unlock();
+        }
+    }
+
+    // ------------------------------------------------------------ replay / housekeeping
+
+    public interface RecordHandler {
+        void accept(byte type, ByteBuffer payload);
+    }
+
+    /*
+    * Hands every valid record from position `from` on to the handler, segment by segment, and returns the position
+    * after the last valid one - where appends continue. Within a segment, reading stops at the first zero length
+    * (unused rest of the segment) or checksum mismatch (record torn by a crash).
+    * */
+    public static long replay(Path directory, long from, RecordHandler handler) throws IOException {
+        List<Long> starts = segmentStarts(directory);
+        long end = from;
+        CRC32C crc = new CRC32C();
+        for (int i = 0; i < starts.size(); i++) {
+            long start = starts.get(i);
+            boolean containsFrom = i + 1 == starts.size() || starts.get(i + 1) > from;
+            if (!containsFrom) continue; // entirely before `from`
+            try (FileChannel channel = FileChannel.open(directory.resolve(segmentName(start)), StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int offset = (int) Math.max(0, from - start);
+                while (offset + HEADER_BYTES < segment.capacity()) {
+                    int length = segment.getInt(offset);
+                    if (length <= 0 || offset + HEADER_BYTES + length > segment.capacity()) break;
+                    crc.reset();
+                    crc.update(segment.slice(offset + HEADER_BYTES, length));
+                    if ((int) crc.getValue() != segment.getInt(offset + 4)) {
+                        LOGGER.warn("Journal {} ends with a torn record at offset {}", segmentName(start), offset);
+                        break;
+                    }
+                    ByteBuffer payload = segment.slice(offset + HEADER_BYTES + 1, length - 1);
+                    handler.accept(segment.get(offset + HEADER_BYTES), payload);
+                    offset += HEADER_BYTES + length;
+                }
+                end = start + offset;
+            }
+        }
+        return end;
+    }
+
+    // segments that only hold records before `position` (the oldest position a kept snapshot still needs)
+    public static void deleteSegmentsBefore(Path directory, long position) throws IOException {
+        List<Long> starts = segmentStarts(directory);
+        for (int i = 0; i + 1 < starts.size() && starts.get(i + 1) <= position; i++) {
+            Files.deleteIfExists(directory.resolve(segmentName(starts.get(i))));
+        }
+    }
+
+    private static List<Long> segmentStarts(Path directory) throws IOException {
+        List<Long> starts = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return starts;
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseUnsignedLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()), 16))
+                    .sorted()
+                    .forEach(starts::add);
+        }
+        return starts;
+    }
+
+    private static String segmentName(long start) {
+        return String.format("%s%016x%s", SEGMENT_PREFIX, start, SEGMENT_SUFFIX);
+    }
+
+    /*
+    * Forces the last window and releases every appender still waiting in awaitDurable() (-Delevator.journal.sync) -
+    * with the group commit task gone, nobody else would ever advance durablePosition for them.
+    * */
+    @Override
+    public void close() throws IOException {
+        this.groupCommitExecutor.shutdown();
+        try {
+            // a group commit already running finishes before the segment is forced and closed under it
+            if (!this.groupCommitExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warn("Journal group commit in {} did not stop within 10 s", this.directory);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        long forced;
+        this.appendLock.lock();
+        try {
+            this.segment.force();
+            forced = this.appendedPosition;
+            this.segmentChannel.close();
+        } finally {
+            this.appendLock.unlock();
+        }
+        this.durableLock.lock();
+        try {
+            this.durablePosition = Math.max(this.durablePosition, forced);
+            this.durableAdvanced.signalAll();
+        } finally {
+            this.durableLock.unlock();
+        }
+    }
+}
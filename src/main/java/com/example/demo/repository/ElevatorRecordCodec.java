@@ -0,0 +1,130 @@
+package com.example.demo.repository;
+
+import com.example.demo.customds.AtomicFloorBitSet;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.enums.RequestDirection;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.enums.RequestType;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/*
+* Compact binary form of a car and of a request - shared by the journal (one record per change) and the snapshot
+* (one record per live object), so both are decoded by the same few lines.
+*
+*   car     : id (2 longs) | floor int | state byte | stop count short | stops short...        23 + 2 x stops bytes
+*   request : id (2 longs) | priority, type, direction, status bytes | from int | to int |
+*             requestedAt long | pickedUpAt long (or NONE) | assigned car id (2 longs, or 0/0)   60 bytes
+*
+* Ids are the UUIDs of Helper.generateUUID() kept as two longs (16 bytes instead of 36 chars), enums by ordinal,
+* timestamps as the millis of the LocalDateTime read as UTC - no time zone arithmetic on the hot path, and exact for
+* the round trip (restore only needs the age of a request, see ElevatorRequest's restore constructor).
+* */
+final class ElevatorRecordCodec {
+
+    static final byte CAR = 1;
+    static final byte REQUEST = 2;
+
+    static final int REQUEST_BYTES = 16 + 4 + 4 + 4 + 8 + 8 + 16;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private static final ElevatorState[] ELEVATOR_STATES = ElevatorState.values();
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+    private static final RequestType[] TYPES = RequestType.values();
+    private static final RequestDirection[] DIRECTIONS = RequestDirection.values();
+    private static final RequestStatus[] STATUSES = RequestStatus.values();
+
+    private ElevatorRecordCodec() {
+    }
+
+    static int carBytes(Elevator elevator) {
+        return 16 + 4 + 1 + 2 + 2 * elevator.getAssignedFloors().size();
+    }
+
+    // out is sized with carBytes(); a stop added concurrently that no longer fits is left out - the car's next record has it
+    static void encodeCar(ByteBuffer out, Elevator elevator) {
+        putId(out, elevator.getElevatorId());
+        out.putInt(elevator.getCurrentFloor());
+        out.put((byte) elevator.getElevatorState().ordinal());
+        int countAt = out.position();
+        out.putShort((short) 0);
+        short count = 0;
+        AtomicFloorBitSet stops = elevator.getAssignedFloors();
+        for (int stop = stops.first(); stop != AtomicFloorBitSet.NO_FLOOR && out.remaining() >= 2; stop = stops.higher(stop)) {
+            out.putShort((short) stop);
+            count++;
+        }
+        out.putShort(countAt, count);
+    }
+
+    static void encodeRequest(ByteBuffer out, ElevatorRequest request) {
+        putId(out, request.getRequestId());
+        out.put((byte) (request.getRequestPriority() == null ? RequestPriority.REGULAR_NORMAL : request.getRequestPriority()).ordinal());
+        out.put((byte) request.getRequestType().ordinal());
+        out.put((byte) (request.getRequestDirection() == null ? RequestDirection.NONE : request.getRequestDirection()).ordinal());
+        out.put((byte) request.getRequestStatus().ordinal());
+        out.putInt(request.getFromSrcFloor());
+        out.putInt(request.getToDestFloor());
+        out.putLong(toMillis(request.getRequestedAt()));
+        out.putLong(toMillis(request.getPickedUpAt()));
+        Elevator assignedElevator = request.getAssignedElevator();
+        if (assignedElevator == null) {
+            out.putLong(0L).putLong(0L);
+        } else {
+            putId(out, assignedElevator.getElevatorId());
+        }
+    }
+
+    static Elevator decodeCar(ByteBuffer in) {
+        String elevatorId = new UUID(in.getLong(), in.getLong()).toString();
+        int floor = in.getInt();
+        ElevatorState state = ELEVATOR_STATES[in.get()];
+        Elevator elevator = new Elevator(elevatorId, state, floor);
+        for (int i = in.getShort(); i > 0; i--) {
+            elevator.getAssignedFloors().add(in.getShort());
+        }
+        return elevator;
+    }
+
+    // nowMillis: the restoring clock's now() in the same representation, for the request's age
+    static ElevatorRequest decodeRequest(ByteBuffer in, long nowMillis, PersistedState state) {
+        String requestId = new UUID(in.getLong(), in.getLong()).toString();
+        RequestPriority priority = PRIORITIES[in.get()];
+        RequestType type = TYPES[in.get()];
+        RequestDirection direction = DIRECTIONS[in.get()];
+        RequestStatus status = STATUSES[in.get()];
+        int from = in.getInt();
+        int to = in.getInt();
+        long requestedAt = in.getLong();
+        long pickedUpAt = in.getLong();
+        long carMostSignificant = in.getLong();
+        long carLeastSignificant = in.getLong();
+        ElevatorRequest request = new ElevatorRequest(requestId, priority, type, direction, from, to, status,
+                fromMillis(requestedAt), fromMillis(pickedUpAt), nowMillis - requestedAt);
+        if (carMostSignificant != 0L || carLeastSignificant != 0L) {
+            request.setAssignedElevator(state.findCar(carMostSignificant, carLeastSignificant));
+        }
+        return request;
+    }
+
+    static long toMillis(LocalDateTime time) {
+        if (time == null) return NONE;
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000L + time.getNano() / 1_000_000;
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        if (millis == NONE) return null;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static void putId(ByteBuffer out, String id) {
+        UUID uuid = UUID.fromString(id);
+        out.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+}
@@ -2,37 +2,61 @@ package com.example.demo.repository;
 
 import com.example.demo.cache.ElevatorCache;
 import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
 import lombok.Getter;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class ElevatorRepository {
     // maintain a mapping for quick lookup by id (backed from ElevatorCache)
+    // static: every service creates its own repository object, they must all see the same table
     @Getter
-    public Map<String, Elevator> elevatorTableInDB = new ConcurrentHashMap<>();
+    private static final Map<String, Elevator> elevatorTableInDB = new ConcurrentHashMap<>();
+
+    // write-ahead journal - null unless persistence is enabled (see ElevatorPersistenceService)
+    // every save() of a car or request appends its current state, so a restart can rebuild it from snapshot + journal
+    private static volatile ElevatorJournal journal;
+
+    public static void useJournal(ElevatorJournal elevatorJournal) {
+        journal = elevatorJournal;
+    }
+
+    public static ElevatorJournal getJournal() {
+        return journal;
+    }
 
     public void save(Elevator elevator){
-        elevatorTableInDB.put(elevator.getElevatorId(), elevator);
-        // ensure it's present in cache list as well
-        if (!ElevatorCache.elevators.contains(elevator)) { // if not already present in cache
+        Elevator previous = elevatorTableInDB.put(elevator.getElevatorId(), elevator);
+        // ensure it's present in cache list as well (contains() is a scan of the list - only needed the first time)
+        if (previous == null && !ElevatorCache.elevators.contains(elevator)) { // if not already present in cache
             ElevatorCache.elevators.add(elevator); // populate cache
         }
+        ElevatorJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.appendCar(elevator);
+        }
+    }
+
+    // requests only live in the UserRequestCache of their bank - saving one just records its new state in the journal
+    public void save(ElevatorRequest request){
+        ElevatorJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.appendRequest(request);
+        }
     }
 
     public Elevator findById(String id){
         return elevatorTableInDB.getOrDefault(id, null);
     }
 
+    // the published fleet snapshot (bank by bank) - immutable and shared, no copy of the map per call
     public List<Elevator> findAll(){
-        // return snapshot of values stored in map for determinism
-        return new ArrayList<>(elevatorTableInDB.values());
+        return ElevatorCache.getFleetSnapshot().getElevators();
     }
 
     public int findCountOfElevators(){
-        return this.findAll().size();
+        return ElevatorCache.getFleetSnapshot().size();
     }
 }
@@ -0,0 +1,194 @@
+package com.example.demo.repository;
+
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/*
+* Compact binary snapshot of all cars and live requests - the starting point of a restart, so that only the journal
+* written after it has to be replayed.
+*
+*   header : magic int | version int | journal position long | car count int | request count int | crc32c of body int
+*   body   : cars (ElevatorRecordCodec car records) then requests (fixed 60 byte records)
+*
+* Written to snapshot-<position>.bin.tmp through a 1 MB buffer, forced, then renamed - a reader never sees a half
+* written snapshot, and the header (with the body's checksum) is written last. The two newest snapshots are kept:
+* if the newest one is damaged anyway, the older one plus a longer journal tail gives the same state.
+* */
+public final class ElevatorSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElevatorSnapshot.class);
+
+    private static final int MAGIC = 0x454C5653; // "ELVS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final int KEEP = 2;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private ElevatorSnapshot() {
+    }
+
+    /*
+    * journalPosition must be read BEFORE cars / requests are iterated: anything changing while the snapshot is written
+    * is then either in the snapshot, in the journal after that position, or both (records are upserts - harmless).
+    * Returns the snapshot file.
+    * */
+    public static Path write(Path directory, long journalPosition, Collection<Elevator> cars, Iterable<ElevatorRequest> requests) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(fileName(journalPosition));
+        Path temporary = directory.resolve(fileName(journalPosition) + ".tmp");
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        int carCount = 0;
+        int requestCount = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_BYTES);
+            for (Elevator elevator : cars) {
+                // a stop list is at most 2 bytes per floor - far below the buffer size
+                if (buffer.remaining() < ElevatorRecordCodec.carBytes(elevator) + 2) flush(channel, buffer, crc);
+                ElevatorRecordCodec.encodeCar(buffer, elevator);
+                carCount++;
+            }
+            for (ElevatorRequest request : requests) {
+                if (buffer.remaining() < ElevatorRecordCodec.REQUEST_BYTES) flush(channel, buffer, crc);
+                ElevatorRecordCodec.encodeRequest(buffer, request);
+                requestCount++;
+            }
+            flush(channel, buffer, crc);
+
+            buffer.clear();
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(journalPosition)
+                    .putInt(carCount).putInt(requestCount).putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer, buffer.position());
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        LOGGER.info("Snapshot {} written: {} cars, {} requests", target.getFileName(), carCount, requestCount);
+
+        List<Long> positions = snapshotPositions(directory);
+        for (int i = 0; i + KEEP < positions.size(); i++) {
+            Files.deleteIfExists(directory.resolve(fileName(positions.get(i))));
+        }
+        return target;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.array(), 0, buffer.limit());
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /*
+    * Latest snapshot + every journal record after it. Returns the state with its journal position moved to the end
+    * of the valid journal - where the journal reopens for appends.
+    *
+    * Order: snapshot header + cars, then the journal tail, then the snapshot's requests (skipping those the tail has
+    * a newer state of - see PersistedState). A damaged snapshot (bad magic / checksum) is skipped for the one before
+    * it; without any snapshot the journal is replayed from position 0.
+    * */
+    public static PersistedState recover(Path directory) throws IOException {
+        ByteBuffer snapshot = null;
+        List<Long> positions = snapshotPositions(directory);
+        for (int i = positions.size() - 1; i >= 0 && snapshot == null; i--) {
+            snapshot = open(directory.resolve(fileName(positions.get(i))));
+        }
+
+        int requestCount = snapshot == null ? 0 : snapshot.getInt(20);
+        PersistedState state = new PersistedState(requestCount);
+        long nowMillis = ElevatorRecordCodec.toMillis(ClockProvider.getClock().now());
+        if (snapshot != null) {
+            state.setJournalPosition(snapshot.getLong(8));
+            snapshot.position(HEADER_BYTES);
+            for (int i = snapshot.getInt(16); i > 0; i--) {
+                state.applyCar(ElevatorRecordCodec.decodeCar(snapshot));
+            }
+        }
+
+        long end = ElevatorJournal.replay(directory, state.getJournalPosition(), (type, payload) -> {
+            if (type == ElevatorRecordCodec.CAR) {
+                state.applyCar(ElevatorRecordCodec.decodeCar(payload));
+            } else if (type == ElevatorRecordCodec.REQUEST) {
+                state.applyJournalRequest(payload.getLong(0), payload.getLong(8), ElevatorRecordCodec.decodeRequest(payload, nowMillis, state));
+            }
+        });
+        state.setJournalPosition(end);
+
+        if (snapshot != null) {
+            for (int i = 0; i < requestCount; i++) {
+                int at = snapshot.position();
+                if (state.hasJournalState(snapshot.getLong(at), snapshot.getLong(at + 8))) {
+                    snapshot.position(at + ElevatorRecordCodec.REQUEST_BYTES);
+                } else {
+                    state.addSnapshotRequest(ElevatorRecordCodec.decodeRequest(snapshot, nowMillis, state));
+                }
+            }
+        }
+        return state;
+    }
+
+    // oldest journal position a kept snapshot still needs - segments before it can go
+    public static long oldestPosition(Path directory) throws IOException {
+        List<Long> positions = snapshotPositions(directory);
+        return positions.isEmpty() ? 0L : positions.get(0);
+    }
+
+    // the mapped snapshot, checked - null when it is not usable
+    private static ByteBuffer open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                LOGGER.warn("Snapshot {} is truncated - ignored", file.getFileName());
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // stays valid after close
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                LOGGER.warn("Snapshot {} has an unknown format - ignored", file.getFileName());
+                return null;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(mapped.slice(HEADER_BYTES, mapped.capacity() - HEADER_BYTES));
+            if ((int) crc.getValue() != mapped.getInt(24)) {
+                LOGGER.warn("Snapshot {} fails its checksum - ignored", file.getFileName());
+                return null;
+            }
+            return mapped;
+        }
+    }
+
+    private static List<Long> snapshotPositions(Path directory) throws IOException {
+        List<Long> positions = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return positions;
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseUnsignedLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()), 16))
+                    .sorted(Comparator.naturalOrder())
+                    .forEach(positions::add);
+        }
+        return positions;
+    }
+
+    private static String fileName(long journalPosition) {
+        return String.format("%s%016x%s", PREFIX, journalPosition, SUFFIX);
+    }
+}
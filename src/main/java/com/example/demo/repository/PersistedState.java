@@ -0,0 +1,127 @@
+package com.example.demo.repository;
+
+import com.example.demo.customds.AtomicFloorBitSet;
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+* Cars and live requests rebuilt from disk: the latest snapshot, then every journal record after it applied on top.
+*
+* Journal records are whole-object upserts (the state of a car / request at the time of the change), so replaying a
+* record that the snapshot already contains is harmless - the snapshot may be "fuzzy" (taken while the building runs)
+* as long as replay starts at the journal position read BEFORE the snapshot began.
+*
+* Requests are the bulk (up to millions) and are never looked up by id on the snapshot side: the journal tail is
+* replayed FIRST into a small map keyed by the two id longs, then the snapshot's requests are streamed into a plain
+* list, skipping the ids the tail has a newer state of. No million-entry hash map, no id strings for skipped records.
+* */
+public final class PersistedState {
+
+    private final Map<String, Elevator> cars = new LinkedHashMap<>();
+    private final Map<UUID, Elevator> carsByUuid = new HashMap<>();
+    private final List<ElevatorRequest> snapshotRequests;
+    private final Map<UUID, ElevatorRequest> journalRequests = new HashMap<>(); // last state per id, finished ones included
+    private long[] journalIdFilter; // one bit per hashed tail id, >= 16 bits per id - built once the tail is complete
+    private List<ElevatorRequest> requests;
+    private long journalPosition; // everything up to here is contained
+
+    PersistedState(int expectedRequests) {
+        this.snapshotRequests = new ArrayList<>(expectedRequests);
+    }
+
+    // upsert in place - requests already decoded keep pointing at the same car object
+    void applyCar(Elevator elevator) {
+        Elevator existing = this.cars.get(elevator.getElevatorId());
+        if (existing == null) {
+            this.cars.put(elevator.getElevatorId(), elevator);
+            this.carsByUuid.put(UUID.fromString(elevator.getElevatorId()), elevator);
+            return;
+        }
+        existing.setCurrentFloor(elevator.getCurrentFloor());
+        existing.setElevatorState(elevator.getElevatorState());
+        existing.getAssignedFloors().clear();
+        for (int stop = elevator.getAssignedFloors().first(); stop != AtomicFloorBitSet.NO_FLOOR; stop = elevator.getAssignedFloors().higher(stop)) {
+            existing.getAssignedFloors().add(stop);
+        }
+    }
+
+    // journal tail - the last record of an id wins
+    void applyJournalRequest(long mostSignificantBits, long leastSignificantBits, ElevatorRequest request) {
+        this.journalRequests.put(new UUID(mostSignificantBits, leastSignificantBits), request);
+    }
+
+    /*
+    * Snapshot side - asked for every snapshot record before it is decoded at all.
+    * A HashMap probe per record is a cache miss or three (table, node, key) for each of a million records; the bit
+    * filter (a few hundred KB, cache resident) answers "no" for all but ~1/16 of the ids the tail does not have.
+    * */
+    boolean hasJournalState(long mostSignificantBits, long leastSignificantBits) {
+        if (this.journalRequests.isEmpty()) return false;
+        if (this.journalIdFilter == null) {
+            int bits = Integer.highestOneBit(Math.max(64, this.journalRequests.size() * 16 - 1)) << 1;
+            this.journalIdFilter = new long[bits >>> 6];
+            for (UUID id : this.journalRequests.keySet()) {
+                int bit = filterBit(id.getMostSignificantBits(), id.getLeastSignificantBits(), bits);
+                this.journalIdFilter[bit >>> 6] |= 1L << bit;
+            }
+        }
+        int bit = filterBit(mostSignificantBits, leastSignificantBits, this.journalIdFilter.length << 6);
+        return (this.journalIdFilter[bit >>> 6] & (1L << bit)) != 0
+                && this.journalRequests.containsKey(new UUID(mostSignificantBits, leastSignificantBits));
+    }
+
+    // random UUIDs are already uniformly distributed - folding both halves is enough
+    private static int filterBit(long mostSignificantBits, long leastSignificantBits, int bits) {
+        long folded = mostSignificantBits ^ leastSignificantBits;
+        return (int) (folded ^ (folded >>> 32)) & (bits - 1);
+    }
+
+    void addSnapshotRequest(ElevatorRequest request) {
+        this.snapshotRequests.add(request);
+    }
+
+    Elevator findCar(long mostSignificantBits, long leastSignificantBits) {
+        return this.carsByUuid.get(new UUID(mostSignificantBits, leastSignificantBits));
+    }
+
+    public Collection<Elevator> getCars() {
+        return this.cars.values();
+    }
+
+    // a finished request (completed / expired) is dropped - only calls still waiting or riding are restored
+    public List<ElevatorRequest> getRequests() {
+        if (this.requests == null) {
+            List<ElevatorRequest> live = new ArrayList<>(this.snapshotRequests.size() + this.journalRequests.size());
+            for (ElevatorRequest request : this.snapshotRequests) {
+                if (isLive(request)) live.add(request);
+            }
+            for (ElevatorRequest request : this.journalRequests.values()) {
+                if (isLive(request)) live.add(request);
+            }
+            this.requests = live;
+        }
+        return this.requests;
+    }
+
+    private static boolean isLive(ElevatorRequest request) {
+        RequestStatus status = request.getRequestStatus();
+        return status != RequestStatus.COMPLETED && status != RequestStatus.EXPIRED;
+    }
+
+    public long getJournalPosition() {
+        return this.journalPosition;
+    }
+
+    void setJournalPosition(long journalPosition) {
+        this.journalPosition = journalPosition;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.model.ElevatorRequest;
+
+import java.util.*;
+import java.util.function.ToDoubleBiFunction;
+import java.util.stream.IntStream;
+
+/*
+* Joint (minimum total cost) assignment of a batch of hall calls to cars - instead of a greedy per-request loop
+* that happily sends the nearest car to every request of the batch.
+*
+* Steps:
+*   1. group the batch into hall calls (source floor + direction) - riders waiting at the same floor for the same
+*      direction board the same car, so they are one row of the problem, not many
+*   2. cost matrix [hall call x car] from the scheduler's pickup cost, rows computed in parallel for large batches
+*   3. each car is offered as a few "slots" with an increasing penalty, so one car may still take two hall calls
+*      when that is clearly cheaper (e.g., a car going up past floors 5 and 8), but not the whole batch
+*   4. Hungarian algorithm (Kuhn-Munkres, O(rows^2 * columns)) over [hall call x car slot]
+*
+* Rows are bounded by the building, not by the traffic: at most 2 hall calls per floor. So even a long window of
+* up-peak traffic yields a small matrix.
+* */
+public final class BatchAssignmentSolver {
+
+    // cost returned by a pickup cost function for a car that cannot serve the call at all
+    public static final double INFEASIBLE = 1e9;
+
+    // extra cost (in floors of travel) of giving one more hall call of the same batch to a car
+    private static final double SLOT_PENALTY = 4.0;
+
+    // below this many matrix cells the fork-join overhead outweighs the parallel cost computation
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    private BatchAssignmentSolver() {
+    }
+
+    // request -> assigned car, or null when no car can serve it
+    // T: whatever the cost function rates - live Elevators or the ElevatorViews of a FleetSnapshot
+    public static <T> Map<ElevatorRequest, T> solve(List<T> elevators, List<ElevatorRequest> requests,
+                                                    ToDoubleBiFunction<T, ElevatorRequest> pickupCost) {
+        Map<ElevatorRequest, T> assignment = new HashMap<>();
+        requests.forEach(request -> assignment.put(request, null));
+        if (requests.isEmpty() || elevators.isEmpty()) {
+            return assignment;
+        }
+
+        // 1. hall calls: (source floor, direction) -> riders
+        Map<Long, List<ElevatorRequest>> hallCallsByKey = new LinkedHashMap<>();
+        for (ElevatorRequest request : requests) {
+            long key = ((long) request.getFromSrcFloor() << 2) | request.getRequestDirection().ordinal();
+            hallCallsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(request);
+        }
+        List<List<ElevatorRequest>> hallCalls = new ArrayList<>(hallCallsByKey.values());
+        List<T> cars = List.copyOf(elevators); // random access for the matrix loops
+        int rows = hallCalls.size();
+
+        // 2. base cost per (hall call, car); the first rider represents the whole hall call
+        double[][] base = new double[rows][cars.size()];
+        IntStream rowRange = IntStream.range(0, rows);
+        if ((long) rows * cars.size() >= PARALLEL_THRESHOLD) {
+            rowRange = rowRange.parallel();
+        }
+        rowRange.forEach(row -> {
+            ElevatorRequest representative = hallCalls.get(row).getFirst();
+            for (int car = 0; car < cars.size(); car++) {
+                base[row][car] = Math.min(INFEASIBLE, pickupCost.applyAsDouble(cars.get(car), representative));
+            }
+        });
+
+        // 3. car slots - enough columns for every row, plus one spare slot so that sharing a car stays possible
+        int slots = Math.min(rows, (rows + cars.size() - 1) / cars.size() + 1);
+        double[][] cost = new double[rows][cars.size() * slots];
+        for (int row = 0; row < rows; row++) {
+            for (int car = 0; car < cars.size(); car++) {
+                for (int slot = 0; slot < slots; slot++) {
+                    cost[row][car * slots + slot] = base[row][car] >= INFEASIBLE ? INFEASIBLE : base[row][car] + slot * SLOT_PENALTY;
+                }
+            }
+        }
+
+        // 4. optimal assignment; a row that could only be matched at INFEASIBLE cost stays unassigned
+        int[] columnOfRow = hungarian(cost);
+        for (int row = 0; row < rows; row++) {
+            int column = columnOfRow[row];
+            if (column < 0 || cost[row][column] >= INFEASIBLE) continue;
+            T car = cars.get(column / slots);
+            hallCalls.get(row).forEach(request -> assignment.put(request, car));
+        }
+        return assignment;
+    }
+
+    /*
+    * Hungarian algorithm with potentials for a rows <= columns matrix (minimisation).
+    * u/v are the row/column potentials, p[j] the row matched to column j, way[j] the previous column on the
+    * augmenting path. Index 0 is a virtual column used as the path root, hence the 1-based arrays.
+    * Returns the matched column of every row (-1 if unmatched).
+    * */
+    static int[] hungarian(double[][] cost) {
+        int n = cost.length;
+        int m = cost[0].length;
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                int j1 = 0;
+                double delta = Double.POSITIVE_INFINITY;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+                    double reduced = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                    if (reduced < minv[j]) {
+                        minv[j] = reduced;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            // flip the augmenting path
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] columnOfRow = new int[n];
+        Arrays.fill(columnOfRow, -1);
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) columnOfRow[p[j] - 1] = j - 1;
+        }
+        return columnOfRow;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.IConstants;
+import com.example.demo.enums.RequestType;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.ElevatorView;
+import com.example.demo.model.FleetSnapshot;
+import com.example.demo.utility.Validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+* Destination dispatch (-Delevator.destinationDispatch=true) on top of the configured scheduler (SCAN or zoning):
+* riders entering their destination at the same floor, going the same way, into the same band of floors
+* (-Delevator.destinationDispatch.bandFloors, 4) are grouped into one car - so a car leaving the lobby stops at a few
+* neighbouring floors instead of everywhere.
+*
+*   open group : (source floor, direction, destination band) -> the car that took its last rider, and how many
+*   joining    : while that car still has the source floor as a stop (it has not picked the group up yet) and the
+*                group has room (MAX_HOLDING_CAPACITY riders), it is ranked first for the next rider of the group;
+*                the rest of the ranking follows as the fallback if its commit fails
+*   new group  : otherwise the wrapped scheduler ranks as usual; the car that gets the rider opens the group (assigned())
+*
+* Riders board only their assigned car (canBoard) - otherwise the first car stopping at the lobby takes every group.
+* Hall calls without a destination are not grouped.
+* */
+public class DestinationDispatchScheduler implements ElevatorScheduler {
+
+    private final ElevatorScheduler delegate;
+    private final int bandFloors;
+
+    private record Group(Elevator car, int riders) {
+    }
+
+    private final Map<Long, Group> openGroups = new ConcurrentHashMap<>();
+
+    public DestinationDispatchScheduler(ElevatorScheduler delegate) {
+        this(delegate, Integer.getInteger("elevator.destinationDispatch.bandFloors", 4));
+    }
+
+    public DestinationDispatchScheduler(ElevatorScheduler delegate, int bandFloors) {
+        if (bandFloors < 1) {
+            throw new IllegalArgumentException("destination dispatch: band of at least one floor expected, got " + bandFloors);
+        }
+        this.delegate = delegate;
+        this.bandFloors = bandFloors;
+    }
+
+    // ------------------------------------------------------------ per-request ranking
+
+    @Override
+    public List<ElevatorCandidate> findBestCandidates(FleetSnapshot fleet, ElevatorRequest request) {
+        return findBestCandidates(fleet, request, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<ElevatorCandidate> findBestCandidates(FleetSnapshot fleet, ElevatorRequest request, int limit) {
+        if (!isGroupable(request)) {
+            return this.delegate.findBestCandidates(fleet, request, limit);
+        }
+        Map<Elevator, ElevatorView> collecting = carsCollectingAt(fleet, request);
+        if (collecting.isEmpty()) {
+            return this.delegate.findBestCandidates(fleet, request, limit);
+        }
+        // the collecting cars move to the back - rank enough that `limit` others can still lead
+        List<ElevatorCandidate> ranked = this.delegate.findBestCandidates(fleet, request,
+                (int) Math.min(Integer.MAX_VALUE, (long) limit + collecting.size()));
+        if (ranked.isEmpty()) {
+            return ranked;
+        }
+        List<ElevatorCandidate> candidates = new ArrayList<>(ranked.size() + 1);
+        Group group = this.openGroups.get(groupKey(request));
+        ElevatorView groupCar = group != null && group.riders() < IConstants.MAX_HOLDING_CAPACITY ? collecting.get(group.car()) : null;
+        if (groupCar != null && groupCar.canAcceptFloorServeRequest(request.getFromSrcFloor())) {
+            candidates.add(new ElevatorCandidate(groupCar.getElevator(), groupCar.getVersion()));
+        }
+        // a new group goes to a car not already collecting another band here - one car per band, few stops each
+        for (ElevatorCandidate candidate : ranked) {
+            if (!collecting.containsKey(candidate.elevator())) candidates.add(candidate);
+        }
+        Elevator joined = candidates.isEmpty() ? null : candidates.getFirst().elevator();
+        for (ElevatorCandidate candidate : ranked) {
+            if (collecting.containsKey(candidate.elevator()) && candidate.elevator() != joined) candidates.add(candidate);
+        }
+        return candidates.size() <= limit ? candidates : candidates.subList(0, limit);
+    }
+
+    @Override
+    public List<ElevatorCandidate> findBestCandidates(List<Elevator> elevators, ElevatorRequest request) {
+        return findBestCandidates(FleetSnapshot.of(elevators), request);
+    }
+
+    @Override
+    public List<Elevator> findBestElevators(List<Elevator> elevators, ElevatorRequest request) {
+        return findBestCandidates(elevators, request).stream()
+                .map(ElevatorCandidate::elevator)
+                .toList();
+    }
+
+    @Override
+    public Elevator findBestElevator(List<Elevator> elevators, ElevatorRequest request) {
+        List<Elevator> ordered = findBestElevators(elevators, request);
+        return ordered.isEmpty() ? null : ordered.getFirst();
+    }
+
+    @Override
+    public void assigned(ElevatorRequest request, Elevator car) {
+        this.delegate.assigned(request, car);
+        if (!isGroupable(request)) return;
+        this.openGroups.compute(groupKey(request),
+                (key, group) -> group != null && group.car() == car ? new Group(car, group.riders() + 1) : new Group(car, 1));
+    }
+
+    @Override
+    public boolean canBoard(Elevator car, ElevatorRequest request) {
+        Elevator assigned = request.getAssignedElevator();
+        return (assigned == null || assigned == car) && this.delegate.canBoard(car, request);
+    }
+
+    // ------------------------------------------------------------ batches
+
+    @Override
+    public Map<ElevatorRequest, Elevator> findBestElevator(List<Elevator> elevators, List<ElevatorRequest> requests) {
+        Map<ElevatorRequest, Elevator> plan = new HashMap<>();
+        findBestElevator(FleetSnapshot.of(elevators), requests)
+                .forEach((request, view) -> plan.put(request, view == null ? null : view.getElevator()));
+        return plan;
+    }
+
+    /*
+    * A batch is first cut into groups - the wrapped batch solvers group riders by source floor and direction only,
+    * which would put every band of the lobby into one car. Each group then joins its open group's car, or takes the
+    * best ranked car no other new group of this batch took. Calls without a destination go to the wrapped solver.
+    * */
+    @Override
+    public Map<ElevatorRequest, ElevatorView> findBestElevator(FleetSnapshot fleet, List<ElevatorRequest> requests) {
+        Map<Long, List<ElevatorRequest>> groups = new LinkedHashMap<>();
+        List<ElevatorRequest> ungrouped = new ArrayList<>();
+        for (ElevatorRequest request : requests) {
+            if (isGroupable(request)) {
+                groups.computeIfAbsent(groupKey(request), key -> new ArrayList<>()).add(request);
+            } else {
+                ungrouped.add(request);
+            }
+        }
+        Map<ElevatorRequest, ElevatorView> plan = new IdentityHashMap<>(this.delegate.findBestElevator(fleet, ungrouped));
+        Set<Elevator> taken = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Elevator, ElevatorView> viewOfCar = new IdentityHashMap<>();
+        fleet.getViews().forEach(view -> viewOfCar.put(view.getElevator(), view));
+        for (List<ElevatorRequest> group : groups.values()) {
+            ElevatorView car = null;
+            for (ElevatorCandidate candidate : findBestCandidates(fleet, group.getFirst())) {
+                if (taken.add(candidate.elevator())) {
+                    car = viewOfCar.get(candidate.elevator());
+                    break;
+                }
+            }
+            // one car takes at most a full load of the group; the riders beyond it go the per-request way
+            for (int i = 0; i < group.size(); i++) {
+                plan.put(group.get(i), i < IConstants.MAX_HOLDING_CAPACITY ? car : null);
+            }
+        }
+        return plan;
+    }
+
+    // ------------------------------------------------------------ groups
+
+    private boolean isGroupable(ElevatorRequest request) {
+        return request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION && Validator.isValidRequest(request);
+    }
+
+    private long groupKey(ElevatorRequest request) {
+        return groupKey(request.getFromSrcFloor(), request.getRequestDirection().ordinal(),
+                (request.getToDestFloor() - IConstants.BASE_FLOOR) / this.bandFloors);
+    }
+
+    // source floor | direction | destination band
+    private static long groupKey(int srcFloor, int direction, int band) {
+        return (long) srcFloor << 32 | (long) direction << 24 | band;
+    }
+
+    // cars whose open group at this rider's floor and direction (any band) is not picked up yet -> their view
+    private Map<Elevator, ElevatorView> carsCollectingAt(FleetSnapshot fleet, ElevatorRequest request) {
+        Map<Elevator, ElevatorView> collecting = new IdentityHashMap<>();
+        int srcFloor = request.getFromSrcFloor();
+        int bands = (IConstants.MAX_FLOOR_COUNT - IConstants.BASE_FLOOR) / this.bandFloors;
+        for (int band = 0; band <= bands; band++) {
+            Group group = this.openGroups.get(groupKey(srcFloor, request.getRequestDirection().ordinal(), band));
+            if (group != null) collecting.put(group.car(), null);
+        }
+        if (collecting.isEmpty()) {
+            return collecting;
+        }
+        for (ElevatorView view : fleet.getViews()) {
+            if (collecting.containsKey(view.getElevator()) && view.hasStop(srcFloor)) {
+                collecting.put(view.getElevator(), view);
+            }
+        }
+        collecting.values().removeIf(view -> view == null); // picked up already, or left the bank
+        return collecting;
+    }
+
+    @Override
+    public String toString() {
+        return "DestinationDispatch{bands of " + this.bandFloors + " floors, over " + this.delegate + "}";
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.model.Elevator;
+
+// A ranked elevator together with the version it had when the scheduler read it - commit against exactly that version
+public record ElevatorCandidate(Elevator elevator, long version) {
+}
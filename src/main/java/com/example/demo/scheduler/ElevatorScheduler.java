@@ -2,7 +2,10 @@ package com.example.demo.scheduler;
 
 import com.example.demo.model.Elevator;
 import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.ElevatorView;
+import com.example.demo.model.FleetSnapshot;
 
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -10,24 +13,24 @@ public interface ElevatorScheduler {
     public Elevator findBestElevator(List<Elevator> elevators, ElevatorRequest request);
 
     /**
-     * Returns an ordered list of eligible elevators for the given request.
-     * The list is sorted by desirability and should be used by dispatchers
-     * to attempt locking in order (top-K strategy) while re-validating state
-     * after acquiring each per-elevator lock (closes the TOCTOU gap).
+     * Returns an ordered list of eligible elevators for the given request, best first.
+     * Dispatchers try to commit them in order (top-K strategy, see {@link #findBestCandidates(FleetSnapshot, ElevatorRequest, int)}).
      *
      * Contract:
      * - Pure read-only: no side effects or mutation of elevators/requests.
      * - Eligibility is based on the elevator’s ability to accept the request
-     *   (e.g., not in maintenance/emergency) and request validity.
-     * - Ordering generally favors:
-     *   1) shorter distance to pickup floor,
-     *   2) direction-aligned elevators over idle over opposite,
-     *   3) lower current load (fewer assigned floors),
-     *   4) a tiny jitter tie-breaker to avoid stampede on identical scores.
+     *   (e.g., not in maintenance/emergency, a seat left) and request validity.
+     * - Ordering is by the scheduler's cost; for SCAN ({@code -Delevator.scheduler.cost}):
+     *   eta (default) - predicted pickup time plus the delay the new stops cause the car's existing stops,
+     *   distance      - distance to the pickup floor, then aligned over idle over opposite direction, then load.
+     * - Cars with equal costs are ordered by a rotation derived from {@code -Delevator.scheduler.seed} and the number
+     *   of rankings so far (a SplitMix offset): no stampede on one car, and reproducible for the same seed and calls.
      *
      * Caller responsibilities:
-     * - Re-validate suitability AFTER acquiring the per-elevator lock, since state may
-     *   change between selection and mutation in a concurrent system.
+     * - State may change between ranking and assignment. The dispatcher does not lock and re-check: it commits with
+     *   {@code Elevator.tryBeginCommit(version)} against the version the car was ranked at (see
+     *   {@link #findBestCandidates(List, ElevatorRequest)}), assigns, and releases with {@code endCommit()}. A car that
+     *   changed meanwhile fails the CAS and the next candidate is tried.
      *
      * @param elevators all current elevators in the system
      * @param request   the floor/destination request to evaluate
@@ -35,5 +38,72 @@ public interface ElevatorScheduler {
      */
     public List<Elevator> findBestElevators(List<Elevator> elevators, ElevatorRequest request);
 
+    /**
+     * Same ranking as {@link #findBestElevators}, but each candidate carries the elevator version read
+     * BEFORE its state was evaluated. The dispatcher commits with {@code Elevator.tryBeginCommit(version)}:
+     * if the car changed after the scheduler looked at it, the CAS fails and the next candidate is tried.
+     *
+     * @param elevators all current elevators in the system
+     * @param request   the floor/destination request to evaluate
+     * @return ordered list of versioned candidates, possibly empty if none can serve
+     */
+    public List<ElevatorCandidate> findBestCandidates(List<Elevator> elevators, ElevatorRequest request);
+
     public Map<ElevatorRequest, Elevator> findBestElevator(List<Elevator> elevators, List<ElevatorRequest> requests);
+
+    /**
+     * {@link #findBestCandidates(List, ElevatorRequest)} on a published {@link FleetSnapshot}: every car is ranked on
+     * one self-consistent {@link ElevatorView}, and each candidate carries the version of exactly that view.
+     * Nothing is copied or re-read per call - the snapshot is shared by all concurrent callers.
+     */
+    default List<ElevatorCandidate> findBestCandidates(FleetSnapshot fleet, ElevatorRequest request) {
+        return findBestCandidates(fleet.getElevators(), request);
+    }
+
+    /**
+     * The first {@code limit} candidates of {@link #findBestCandidates(FleetSnapshot, ElevatorRequest)}, in the same
+     * order - for callers that only ever try a few (the dispatcher's top-K). Implementations may select them without
+     * ranking the whole fleet.
+     */
+    default List<ElevatorCandidate> findBestCandidates(FleetSnapshot fleet, ElevatorRequest request, int limit) {
+        List<ElevatorCandidate> ranked = findBestCandidates(fleet, request);
+        return ranked.size() <= limit ? ranked : ranked.subList(0, limit);
+    }
+
+    /**
+     * Batch assignment on a published {@link FleetSnapshot}; the dispatcher commits each car against the version
+     * of the returned view.
+     */
+    default Map<ElevatorRequest, ElevatorView> findBestElevator(FleetSnapshot fleet, List<ElevatorRequest> requests) {
+        Map<Elevator, ElevatorView> viewOfCar = new IdentityHashMap<>();
+        fleet.getViews().forEach(view -> viewOfCar.put(view.getElevator(), view));
+        Map<ElevatorRequest, ElevatorView> plan = new IdentityHashMap<>();
+        findBestElevator(fleet.getElevators(), requests).forEach((request, car) -> plan.put(request, car == null ? null : viewOfCar.get(car)));
+        return plan;
+    }
+
+    /**
+     * Whether a car that stops at a floor may board a rider waiting there. Called by the movement service for every
+     * rider at the floor; SCAN lets any car going the rider's way take them, a zoned scheduler only the car it assigned.
+     */
+    default boolean canBoard(Elevator car, ElevatorRequest request) {
+        return true;
+    }
+
+    /**
+     * Called by the dispatcher after the request was committed to the car - for schedulers that remember their
+     * decisions (destination dispatch groups riders into the car that took the group's first rider).
+     */
+    default void assigned(ElevatorRequest request, Elevator car) {
+    }
+
+    /**
+     * The scheduler selected at startup with {@code -Delevator.scheduler} - any {@link ElevatorSchedulers} spec
+     * ({@code scan}, the default, {@code scan-distance}, {@code zoning}, {@code zoning+destination}, ...) - for cars
+     * serving lobbyFloor..topFloor, wrapped for destination dispatch with {@code -Delevator.destinationDispatch=true}.
+     * Every call returns a new instance - each bank's dispatcher has its own.
+     */
+    static ElevatorScheduler configured(int lobbyFloor, int topFloor) {
+        return ElevatorSchedulers.create(lobbyFloor, topFloor);
+    }
 }
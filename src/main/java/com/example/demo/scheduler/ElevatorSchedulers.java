@@ -0,0 +1,101 @@
+package com.example.demo.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+* Registry of the scheduler implementations, by name - what -Delevator.scheduler and -Delevator.scheduler.shadow select.
+*
+*   scan           SCANScheduler, cost from -Delevator.scheduler.cost (eta by default)
+*   scan-eta       SCANScheduler ranked by predicted pickup time + delay to the car's stops
+*   scan-distance  SCANScheduler ranked by distance -> direction -> load
+*   zoning         ZoningScheduler over the bank's floors
+*
+* A spec is a registered name, optionally followed by "+destination" to group riders by destination
+* (DestinationDispatchScheduler), e.g. -Delevator.scheduler=zoning+destination. The older
+* -Delevator.destinationDispatch=true still wraps the selected scheduler the same way.
+*
+* Another implementation plugs in with register("name", factory) before the first bank is created; the factory is
+* called once per bank, so every dispatcher gets its own instance.
+* */
+public final class ElevatorSchedulers {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElevatorSchedulers.class);
+
+    private static final String DESTINATION = "destination";
+
+    // builds one scheduler for the cars serving lobbyFloor..topFloor
+    @FunctionalInterface
+    public interface Factory {
+        ElevatorScheduler create(int lobbyFloor, int topFloor);
+    }
+
+    // sorted, so the error message and names() list them in a stable order
+    private static final Map<String, Factory> FACTORIES = new ConcurrentSkipListMap<>();
+
+    static {
+        register("scan", (lobbyFloor, topFloor) -> new SCANScheduler());
+        register("scan-eta", (lobbyFloor, topFloor) -> new SCANScheduler(SCANScheduler.Cost.ETA));
+        register("scan-distance", (lobbyFloor, topFloor) -> new SCANScheduler(SCANScheduler.Cost.DISTANCE));
+        register("zoning", ZoningScheduler::new);
+    }
+
+    private ElevatorSchedulers() {
+    }
+
+    public static void register(String name, Factory factory) {
+        String key = name.trim().toLowerCase();
+        if (key.isEmpty() || key.contains("+") || key.contains(",")) {
+            throw new IllegalArgumentException("scheduler name must be non-empty without '+' or ',', got '" + name + "'");
+        }
+        if (FACTORIES.putIfAbsent(key, factory) != null) {
+            throw new IllegalArgumentException("scheduler '" + key + "' is already registered");
+        }
+    }
+
+    public static List<String> names() {
+        return new ArrayList<>(FACTORIES.keySet());
+    }
+
+    // a new scheduler for a spec such as "scan", "zoning+destination"
+    public static ElevatorScheduler create(String spec, int lobbyFloor, int topFloor) {
+        String[] parts = spec.trim().toLowerCase().split("\\+");
+        Factory factory = FACTORIES.get(parts[0].trim());
+        if (factory == null) {
+            throw new IllegalArgumentException("unknown scheduler '" + parts[0].trim() + "' in '" + spec + "' (" + String.join(" | ", names()) + ")");
+        }
+        ElevatorScheduler scheduler = factory.create(lobbyFloor, topFloor);
+        for (int i = 1; i < parts.length; i++) {
+            if (!DESTINATION.equals(parts[i].trim())) {
+                throw new IllegalArgumentException("unknown scheduler option '" + parts[i].trim() + "' in '" + spec + "' (+" + DESTINATION + ")");
+            }
+            scheduler = new DestinationDispatchScheduler(scheduler);
+        }
+        return scheduler;
+    }
+
+    // the active scheduler: -Delevator.scheduler (scan), plus -Delevator.destinationDispatch
+    static ElevatorScheduler create(int lobbyFloor, int topFloor) {
+        String spec = System.getProperty("elevator.scheduler", "scan").trim().toLowerCase();
+        if (Boolean.getBoolean("elevator.destinationDispatch") && !spec.contains("+" + DESTINATION)) {
+            spec += "+" + DESTINATION;
+        }
+        ElevatorScheduler scheduler = create(spec, lobbyFloor, topFloor);
+        LOGGER.info("Scheduler for floors {}..{}: {}", lobbyFloor, topFloor, scheduler);
+        return scheduler;
+    }
+
+    // the candidates to shadow: -Delevator.scheduler.shadow=zoning,scan-distance (none by default)
+    static List<String> shadowSpecs() {
+        List<String> specs = new ArrayList<>();
+        for (String spec : System.getProperty("elevator.scheduler.shadow", "").split(",")) {
+            if (!spec.isBlank()) specs.add(spec.trim().toLowerCase());
+        }
+        return specs;
+    }
+}
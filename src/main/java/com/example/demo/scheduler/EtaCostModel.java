@@ -0,0 +1,156 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.enums.RequestType;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.ElevatorView;
+
+import java.util.Arrays;
+
+/*
+* Predicted timing of one call on one car, replayed from the car's committed stops (ElevatorView) exactly the way
+* ElevatorMovementService1 will serve them:
+*   - next stop = nearest stop ahead in the direction of travel, turn around only when there is none
+*     (Elevator.findNearestImmediateFloor / findNextFloorAfterStop)
+*   - FLOOR_MILLIS per floor travelled, DWELL_MILLIS per stop (doors open, load, close); a car in its door cycle is
+*     taken as half way through it
+*   - a destination call books both floors at assignment: a car passing the destination before the pickup stops
+*     there for nothing, and the floor is booked again at pickup
+*
+*   cost = pickup ETA + DELAY_WEIGHT x (sum over the car's existing stops of how much later the car gets there)
+*
+* So a near car with a long stop list loses against an idle one a few floors further away, and a car whose detour
+* would hold up everybody on board pays for it. Two walks per car - without and with the call - over a scratch copy
+* of the stop bitset: O(stops + words), no allocation. One instance per thread (the scratch is not shared).
+* */
+final class EtaCostModel {
+
+    static final long FLOOR_MILLIS = Long.getLong("elevator.eta.floorMillis", 1000L);
+    static final long DWELL_MILLIS = Long.getLong("elevator.eta.dwellMillis", 11000L);
+    static final double DELAY_WEIGHT = Double.parseDouble(System.getProperty("elevator.eta.delayWeight", "1"));
+
+    private static final long NOT_VISITED = -1;
+
+    private long[] walk = new long[1];          // stop words still to visit
+    private long[] arrivalAtStop = new long[64]; // per floor: arrival time without the call, NOT_VISITED if no stop
+    private long pickupMillis;                   // pickup ETA of the last cost() walk
+
+    // cost in milliseconds of the call on this car (Long.MAX_VALUE if the walk never reaches the pickup)
+    long cost(ElevatorView car, ElevatorRequest request) {
+        int srcFloor = request.getFromSrcFloor();
+        int destFloor = request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION ? request.getToDestFloor() : -1;
+        int floors = Math.max(Math.max(srcFloor, destFloor), car.getLastStop()) + 1;
+        ensureCapacity(Math.max(floors, car.getCurrentFloor() + 1));
+
+        // without the call: when does the car reach each of its stops
+        Arrays.fill(this.arrivalAtStop, 0, floors, NOT_VISITED);
+        load(car, -1, -1);
+        replay(car, -1, -1, true);
+
+        // with the call: pickup time, and how much later every existing stop is reached
+        load(car, srcFloor, destFloor);
+        return replay(car, srcFloor, destFloor, false);
+    }
+
+    // predicted wait of the rider alone, without the delay term (Long.MAX_VALUE if the walk never reaches the pickup)
+    long pickupMillis(ElevatorView car, ElevatorRequest request) {
+        cost(car, request);
+        return this.pickupMillis;
+    }
+
+    private void load(ElevatorView car, int srcFloor, int destFloor) {
+        Arrays.fill(this.walk, 0);
+        car.copyStops(this.walk);
+        if (srcFloor >= 0) set(srcFloor);
+        if (destFloor >= 0) set(destFloor);
+    }
+
+    /*
+    * record = true : fills arrivalAtStop, returns 0
+    * record = false: returns pickup ETA + DELAY_WEIGHT x delay of the existing stops
+    * */
+    private long replay(ElevatorView car, int srcFloor, int destFloor, boolean record) {
+        int position = car.getCurrentFloor();
+        boolean up = startsUp(car, position);
+        long clock = car.getElevatorState() == ElevatorState.LOADING ? DWELL_MILLIS / 2 : 0;
+        long pickupMillis = Long.MAX_VALUE;
+        long delayMillis = 0;
+        boolean pickedUp = false;
+        while (true) {
+            int next = up ? nextStop(position + 1) : previousStop(position - 1);
+            if (next < 0) {
+                next = up ? previousStop(position) : nextStop(position);
+                if (next < 0) break;
+                up = !up;
+            }
+            clock += Math.abs(next - position) * FLOOR_MILLIS;
+            clear(next);
+            if (record) {
+                this.arrivalAtStop[next] = clock;
+            } else {
+                if (next == srcFloor && !pickedUp) {
+                    pickedUp = true;
+                    pickupMillis = clock;
+                    if (destFloor >= 0) set(destFloor); // booked again on board, if passed before the pickup
+                }
+                long before = this.arrivalAtStop[next];
+                if (before != NOT_VISITED) {
+                    delayMillis += Math.max(0, clock - before);
+                    this.arrivalAtStop[next] = NOT_VISITED; // first visit only
+                }
+            }
+            clock += DWELL_MILLIS;
+            position = next;
+        }
+        if (!record) this.pickupMillis = pickupMillis;
+        if (record || pickupMillis == Long.MAX_VALUE) return record ? 0 : Long.MAX_VALUE;
+        return pickupMillis + (long) (DELAY_WEIGHT * delayMillis);
+    }
+
+    // moving cars keep their direction; an idle / loading car heads for its nearest stop (up on a tie)
+    private boolean startsUp(ElevatorView car, int position) {
+        if (car.isMovingUp()) return true;
+        if (car.isMovingDown()) return false;
+        int above = nextStop(position);
+        int below = previousStop(position);
+        if (above < 0) return false;
+        return below < 0 || above - position <= position - below;
+    }
+
+    private int nextStop(int from) {
+        from = Math.max(from, 0);
+        int index = from >>> 6;
+        if (index >= this.walk.length) return -1;
+        long word = this.walk[index] & (-1L << from);
+        while (true) {
+            if (word != 0) return (index << 6) + Long.numberOfTrailingZeros(word);
+            if (++index == this.walk.length) return -1;
+            word = this.walk[index];
+        }
+    }
+
+    private int previousStop(int from) {
+        if (from < 0) return -1;
+        int index = Math.min(from >>> 6, this.walk.length - 1);
+        long word = from >>> 6 > index ? this.walk[index] : this.walk[index] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+            if (--index < 0) return -1;
+            word = this.walk[index];
+        }
+    }
+
+    private void set(int floor) {
+        this.walk[floor >>> 6] |= 1L << floor;
+    }
+
+    private void clear(int floor) {
+        this.walk[floor >>> 6] &= ~(1L << floor);
+    }
+
+    private void ensureCapacity(int floors) {
+        int words = (floors + 63) >>> 6;
+        if (this.walk.length < words) this.walk = new long[words];
+        if (this.arrivalAtStop.length < floors) this.arrivalAtStop = new long[Math.max(floors, this.arrivalAtStop.length * 2)];
+    }
+}
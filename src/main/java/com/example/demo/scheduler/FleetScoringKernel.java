@@ -0,0 +1,51 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.model.FleetStateTable;
+
+/*
+* Scores every car of a FleetStateTable for one request in one pass - the SCAN ranking (distance -> direction ->
+* load) packed into a single int per car, so ranking is a sort of plain numbers instead of a Comparator chain:
+*
+*   score = distance << DISTANCE_SHIFT | directionPriority << PRIORITY_SHIFT | min(load, LOAD_MASK)
+*
+* directionPriority as in SCANScheduler: 0 aligned with the request, 1 idle, 2 anything else; load is the car's
+* committed riders, so the emptier of two equally placed cars wins. Cars that cannot take a request at all
+* (MAINTENANCE / EMERGENCY, no seat left - load >= MAX_HOLDING_CAPACITY - and the table's padding slots) score INELIGIBLE.
+* Distance stays far below 2^12 floors, so a score never reaches the sign bit.
+*
+* Two implementations: VectorScoringKernel (JDK Vector API, needs --add-modules jdk.incubator.vector) and
+* ScalarScoringKernel (plain loop). preferred() picks the vector one when it is available, unless
+* -Delevator.scheduler.kernel=scalar says otherwise.
+* */
+public interface FleetScoringKernel {
+
+    int DISTANCE_SHIFT = 18;
+    int PRIORITY_SHIFT = 16;
+    int LOAD_MASK = 0xFFFF;
+    int INELIGIBLE = Integer.MAX_VALUE;
+
+    // a request direction no car direction equals - never "aligned"
+    int REQUEST_DIRECTION_NONE = -1;
+
+    /**
+     * Writes the score of slot i of the table to scores[i], for every slot up to {@code table.capacity()}.
+     *
+     * @param requestDirection FleetStateTable.DIRECTION_UP / DIRECTION_DOWN, or REQUEST_DIRECTION_NONE
+     */
+    void score(FleetStateTable table, int srcFloor, int requestDirection, int[] scores);
+
+    String name();
+
+    static FleetScoringKernel preferred() {
+        return FleetScoringKernels.PREFERRED;
+    }
+
+    static FleetScoringKernel scalar() {
+        return ScalarScoringKernel.INSTANCE;
+    }
+
+    // null when the jdk.incubator.vector module is not in the boot layer
+    static FleetScoringKernel vector() {
+        return FleetScoringKernels.vectorOrNull();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// picks the scoring kernel once per JVM (see FleetScoringKernel)
+final class FleetScoringKernels {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FleetScoringKernels.class);
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "com.example.demo.scheduler.VectorScoringKernel";
+
+    static final FleetScoringKernel PREFERRED = select();
+
+    private FleetScoringKernels() {
+    }
+
+    private static FleetScoringKernel select() {
+        FleetScoringKernel vector = "scalar".equalsIgnoreCase(System.getProperty("elevator.scheduler.kernel")) ? null : vectorOrNull();
+        FleetScoringKernel kernel = vector != null ? vector : ScalarScoringKernel.INSTANCE;
+        LOGGER.info("Scheduler scoring kernel: {}", kernel.name());
+        return kernel;
+    }
+
+    /*
+    * The vector kernel is only ever loaded by name: without the incubator module its class cannot even be linked, and
+    * a direct reference here would take the whole scheduler down with it.
+    * */
+    static FleetScoringKernel vectorOrNull() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (FleetScoringKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.warn("Vector scoring kernel unavailable, using the scalar one: {}", e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.customds.AtomicFloorBitSet;
+import com.example.demo.forecast.DemandForecast;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorView;
+import com.example.demo.model.FleetSnapshot;
+
+import java.util.PriorityQueue;
+
+/*
+* Where an idle car waits for its next call (-Delevator.parking=true): at the floors its bank's DemandForecast expects
+* the most calls at, instead of wherever its last stop happened to be.
+*
+* The free cars of the bank (standing idle or already on their way to park) are shared out over the floors in proportion
+* to the forecast, highest averages first (D'Hondt: the next car goes to the floor with the most calls per car it
+* would get). The other free cars take their share where they stand or park; this car stays if its own floor still
+* has a free share, otherwise it goes to the nearest floor that has one. Floors expecting fewer than
+* -Delevator.parking.minCallsPerHour (1) calls get no car - at night the cars stay where they are.
+* */
+public class ParkingPolicy {
+
+    private final double minCallsPerMinute;
+
+    public ParkingPolicy() {
+        this(Double.parseDouble(System.getProperty("elevator.parking.minCallsPerHour", "1")) / 60);
+    }
+
+    public ParkingPolicy(double minCallsPerMinute) {
+        this.minCallsPerMinute = minCallsPerMinute;
+    }
+
+    // floor the car should park at, NO_FLOOR to stay where it is
+    public int parkingFloor(FleetSnapshot fleet, Elevator car, DemandForecast forecast) {
+        int lowest = forecast.getLowestFloor();
+        int floors = forecast.floorCount();
+        int freeCars = 1; // this car - the snapshot may not show it idle yet
+        for (ElevatorView view : fleet.getViews()) {
+            if (view.getElevator() != car && isFree(view)) freeCars++;
+        }
+
+        // shares: D'Hondt over the floors with enough expected demand
+        int[] shares = new int[floors];
+        PriorityQueue<int[]> quotients = new PriorityQueue<>( // {floor offset, shares so far}, best average first
+                (a, b) -> Double.compare(forecast.callsPerMinute(lowest + b[0]) / (b[1] + 1),
+                        forecast.callsPerMinute(lowest + a[0]) / (a[1] + 1)));
+        for (int i = 0; i < floors; i++) {
+            if (forecast.callsPerMinute(lowest + i) >= this.minCallsPerMinute) quotients.add(new int[]{i, 0});
+        }
+        if (quotients.isEmpty()) {
+            return AtomicFloorBitSet.NO_FLOOR;
+        }
+        for (int given = 0; given < freeCars; given++) {
+            int[] best = quotients.poll();
+            shares[best[0]]++;
+            quotients.add(new int[]{best[0], best[1] + 1});
+        }
+
+        // the other free cars keep the shares where they are / are heading to
+        for (ElevatorView view : fleet.getViews()) {
+            if (view.getElevator() == car || !isFree(view)) continue;
+            int at = (view.getElevator().isParking() ? view.getElevator().getParkingFloor() : view.getCurrentFloor()) - lowest;
+            if (at >= 0 && at < floors && shares[at] > 0) shares[at]--;
+        }
+
+        int here = car.getCurrentFloor() - lowest;
+        if (here >= 0 && here < floors && shares[here] > 0) {
+            return AtomicFloorBitSet.NO_FLOOR;
+        }
+        int target = AtomicFloorBitSet.NO_FLOOR;
+        for (int i = 0; i < floors; i++) {
+            if (shares[i] > 0 && (target == AtomicFloorBitSet.NO_FLOOR
+                    || Math.abs(i - here) < Math.abs(target - lowest - here))) {
+                target = lowest + i;
+            }
+        }
+        return target;
+    }
+
+    private static boolean isFree(ElevatorView view) {
+        return view.isStandingIdle() || view.getElevator().isParking();
+    }
+}
@@ -2,28 +2,104 @@ package com.example.demo.scheduler;
 
 import com.example.demo.enums.ElevatorState;
 import com.example.demo.enums.RequestType;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
 import com.example.demo.model.Elevator;
 import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.ElevatorView;
+import com.example.demo.model.FleetFloorIndex;
+import com.example.demo.model.FleetSnapshot;
+import com.example.demo.model.FleetStateTable;
 import com.example.demo.utility.Helper;
 import com.example.demo.utility.Validator;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 /*
 * The SCAN algorithm is much more efficient for high-rise buildings
 * because it minimizes the number of direction changes.
 * It’s like how elevators in real buildings work — they pick up people going in the same direction
+*
+* Every rule below reads an ElevatorView (one self-consistent version of a car, see FleetSnapshot) - never the live
+* Elevator field by field. The List<Elevator> entry points capture views of the given cars first (FleetSnapshot.of);
+* the dispatcher passes the published snapshot instead, so nothing is copied per call.
+*
+* Per-request ranking runs on the snapshot's FleetStateTable through a FleetScoringKernel (Vector API when available).
+* The kernel always decides which cars are eligible; -Delevator.scheduler.cost decides their order:
+*   eta      (default) - predicted pickup time + delay to the car's existing stops, replayed from its stop list (EtaCostModel)
+*   distance           - the kernel score itself: distance -> direction -> load
+*
+* A caller that only tries the first few candidates (the dispatcher) gets them nearest-first from the snapshot's
+* FleetFloorIndex once the fleet has -Delevator.scheduler.indexThreshold (64) cars: only the cars close enough to still
+* make the cut are scored, so the cost follows how far the best cars are, not how many cars there are. Below that,
+* or for the full ranking, every car is scored - with the ETA replays in fork-join chunks above
+* -Delevator.scheduler.parallelThreshold (512) cars - and the best are kept in a bounded heap instead of a full sort.
+* Cars with equal costs are taken in an order derived from -Delevator.scheduler.seed, so a replay is reproducible.
 * */
 
 
 public class SCANScheduler implements ElevatorScheduler {
 
+    public enum Cost { ETA, DISTANCE }
+
+    private final Cost cost;
+
+    // tie-break: the rotation of ranking n is a pure function of (seed, n)
+    private final long seed;
+    private final AtomicLong rankings = new AtomicLong();
+
+    public SCANScheduler() {
+        this(parseCost(System.getProperty("elevator.scheduler.cost", "eta")));
+    }
+
+    public SCANScheduler(Cost cost) {
+        this(cost, Long.getLong("elevator.scheduler.seed", 1L));
+    }
+
+    public SCANScheduler(Cost cost, long seed) {
+        this.cost = cost;
+        this.seed = seed;
+    }
+
+    private static Cost parseCost(String name) {
+        for (Cost cost : Cost.values()) {
+            if (cost.name().equalsIgnoreCase(name.trim())) return cost;
+        }
+        throw new IllegalArgumentException("Unknown -Delevator.scheduler.cost '" + name + "' (eta, distance)");
+    }
+
+    // cost of one already assigned stop, in floors of travel (used by the batch assignment)
+    private static final double LOAD_PENALTY = 2.0;
+
+    // time to rank the fleet for one request / to solve one batch
+    private static final LatencyHistogram SCORING = MetricsRegistry.histogram("scheduler.scoring");
+    private static final LatencyHistogram BATCH_SOLVE = MetricsRegistry.histogram("scheduler.batchSolve");
+
+    // scratch of the ETA replay - one per thread, so neither rankings nor batch solves allocate it per car
+    private static final ThreadLocal<EtaCostModel> ETA = ThreadLocal.withInitial(EtaCostModel::new);
+
+    // vector or scalar, chosen once per JVM
+    private static final FleetScoringKernel KERNEL = FleetScoringKernel.preferred();
+
+    // below this many cars the fork-join overhead outweighs replaying their ETAs in parallel
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger("elevator.scheduler.parallelThreshold", 512);
+    // cars per fork-join chunk
+    private static final int PARALLEL_CHUNK = 128;
+
+    // from this many cars a limited ranking walks the FleetFloorIndex nearest-first instead of scoring every car
+    private static final int INDEX_THRESHOLD = Integer.getInteger("elevator.scheduler.indexThreshold", 64);
+
+    // sort key of a car the kernel ruled out - larger than every packed key
+    private static final long NOT_ELIGIBLE = Long.MAX_VALUE;
+
     // SCAN algorithm: prefer elevators moving in the same direction
-    private boolean isElevatorSuitable(Elevator elevator, ElevatorRequest request) {
+    private boolean isElevatorSuitable(ElevatorView elevator, ElevatorRequest request) {
 
         return (elevator.isStandingIdle())
 
@@ -41,7 +117,7 @@ public class SCANScheduler implements ElevatorScheduler {
 
     // Returns a small integer representing direction desirability.
     // 0: aligned with request direction, 1: idle, 2: opposite.
-    private int directionPriority(Elevator e, ElevatorRequest r) {
+    private int directionPriority(ElevatorView e, ElevatorRequest r) {
         boolean upReq = r.isUpward();
         boolean downReq = r.isDownward();
 
@@ -58,15 +134,18 @@ public class SCANScheduler implements ElevatorScheduler {
 
     /**
      * Compute an ordered list of candidate elevators for the given request.
-     * This method is intentionally read-only and lock-free; the dispatcher
-     * MUST re-validate suitability after lock acquisition due to potential
-     * state changes (TOCTOU).
+     * This method is intentionally read-only and lock-free. Each car is ranked on one captured view; the
+     * dispatcher commits with tryBeginCommit(version) of that view and releases with endCommit(), so a car
+     * that changed after it was ranked (TOCTOU) fails the version CAS instead of being assigned on stale state.
      *
-     * Scoring model (sorted ascending — lower is better):
+     * Scoring model (sorted ascending — lower is better), Cost.ETA:
+     * - predicted pickup time, replaying the car's stops with travel and door dwell
+     * - + the extra time the new stops cost the car's existing stops
+     * Cost.DISTANCE:
      * - abs(distance to pickup src floor)
      * - directionPriority (aligned → idle → opposite)
-     * - current load (assignedFloors size)
-     * - tie-breaker jitter to reduce herd effects when scores are equal
+     * - current load (riders on board / on their way in)
+     * Both: seeded tie-break rotation to reduce herd effects when scores are equal
      *
      * Eligibility:
      * - Elevator must be able to accept the request (e.g., not in maintenance/emergency).
@@ -84,27 +163,224 @@ public class SCANScheduler implements ElevatorScheduler {
     public List<Elevator> findBestElevators(List<Elevator> elevators, ElevatorRequest request) {
         // find working elevator and also filter legitimate/valid requests
         // filter elevator not in any emergency or other state preventing it from serving valid requests
-        List<Elevator> eligible = elevators.stream()
-            .filter(e -> e.canAcceptFloorServeRequest(request.getFromSrcFloor()))
-            .filter(e -> Validator.isValidRequest(request))
-            .toList();
+        if (!Validator.isValidRequest(request)) {
+            return List.of();
+        }
+        FleetSnapshot fleet = FleetSnapshot.of(elevators);
+        return rank(fleet, request, 0, fleet.size(), Integer.MAX_VALUE).stream()
+            .map(ElevatorCandidate::elevator)
+            .toList(); // empty if all elevators are totally restricted(maintainenece/emergency) to serve that floor request
+    }
+
+    /*
+    * Versioned ranking for optimistic commits.
+    * The version of each candidate is the version its view was captured at - if the car changes later, the version
+    * moves on and the dispatcher's commit against the recorded version fails (instead of acting on stale state).
+    * */
+    @Override
+    public List<ElevatorCandidate> findBestCandidates(List<Elevator> elevators, ElevatorRequest request) {
+        return findBestCandidates(FleetSnapshot.of(elevators), request);
+    }
+
+    @Override
+    public List<ElevatorCandidate> findBestCandidates(FleetSnapshot fleet, ElevatorRequest request) {
+        return findBestCandidates(fleet, request, Integer.MAX_VALUE);
+    }
 
-        // if all elevators are totally restricted(maintainenece/emergency) to serve that floor request
-        if (eligible.isEmpty()) {
+    @Override
+    public List<ElevatorCandidate> findBestCandidates(FleetSnapshot fleet, ElevatorRequest request, int limit) {
+        if (!Validator.isValidRequest(request)) { // once per ranking - never per car
             return List.of();
         }
+        long start = System.nanoTime();
+        List<ElevatorCandidate> candidates = rank(fleet, request, 0, fleet.size(), limit);
+        SCORING.recordSince(start);
+        return candidates;
+    }
 
-        // when the elevators in working state and elevator request is valid/legitimate
-        Comparator<Elevator> cmp =
-            Comparator.comparingInt((Elevator e) -> Math.abs(e.getCurrentFloor() - request.getFromSrcFloor()))
-                      .thenComparingInt(e -> directionPriority(e, request))
-                      .thenComparingInt(Elevator::getNoOfIncomingFloorServeRequest)
-                      // small jitter to avoid stampede; affects only near-equal cases
-                      .thenComparingDouble(e -> java.util.concurrent.ThreadLocalRandom.current().nextDouble());
+    /*
+    * Ranking of the snapshot slots [fromSlot, toSlot) (ZoningScheduler ranks one zone's cars with it), best `limit` first.
+    *   1. the kernel scores all cars on the snapshot's struct-of-arrays table (distance | direction | load packed in
+    *      one int, see FleetScoringKernel); with Cost.ETA every eligible car's score is replaced by its ETA cost -
+    *      in fork-join chunks from PARALLEL_THRESHOLD cars on, each worker with its own EtaCostModel
+    *   2. score + tie-break + slot are packed into one long per car (NOT_ELIGIBLE for the others), so ordering is
+    *      comparing plain longs - no Comparator, no boxing
+    *   3. the `limit` smallest keys are kept in a bounded max-heap built in place (O(n log limit)) and only those are
+    *      sorted; without a limit (or a limit beyond the fleet) the keys are simply sorted
+    * Tie-break: slots are rotated by an offset per ranking, so cars with equal scores are not always taken in the same
+    * order (no stampede on one car) while the order stays a total one. The offset comes from the seed and the
+    * number of rankings so far, not from a random source: the same seed and the same calls give the same choices.
+    * */
+    List<ElevatorCandidate> rank(FleetSnapshot fleet, ElevatorRequest request, int fromSlot, int toSlot, int limit) {
+        FleetStateTable table = fleet.getStateTable();
+        int size = toSlot - fromSlot;
+        if (size <= 0 || limit <= 0) {
+            return List.of();
+        }
+        // the nearest-first bound needs cost >= travel to the pickup - true unless the ETA delay weight is negative
+        if (limit < size && size >= INDEX_THRESHOLD && (this.cost == Cost.DISTANCE || EtaCostModel.DELAY_WEIGHT >= 0)) {
+            return rankNearestFirst(fleet, request, fromSlot, toSlot, limit);
+        }
+        int[] scores = new int[table.capacity()];
+        KERNEL.score(table, request.getFromSrcFloor(), requestDirection(request), scores);
 
-        return eligible.stream()
-            .sorted(cmp)
-            .toList();
+        int offset = tieBreakOffset(size);
+        long[] keys = new long[size];
+        if (this.cost == Cost.ETA && size >= PARALLEL_THRESHOLD) {
+            int chunks = (size + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> packKeys(fleet, request, scores, fromSlot, size, offset, keys,
+                    chunk * PARALLEL_CHUNK, Math.min(size, (chunk + 1) * PARALLEL_CHUNK)));
+        } else {
+            packKeys(fleet, request, scores, fromSlot, size, offset, keys, 0, size);
+        }
+        int selected = selectSmallest(keys, limit);
+
+        List<ElevatorCandidate> candidates = new ArrayList<>(selected);
+        for (int k = 0; k < selected && keys[k] != NOT_ELIGIBLE; k++) {
+            int rotated = (int) keys[k];
+            int slot = fromSlot + (rotated + offset < size ? rotated + offset : rotated + offset - size);
+            ElevatorView view = fleet.get(slot);
+            candidates.add(new ElevatorCandidate(view.getElevator(), view.getVersion()));
+        }
+        return candidates;
+    }
+
+    /*
+    * The same `limit` best as rank() - same keys, same tie-break - without scoring every car: floors are visited by
+    * increasing distance from the pickup (FleetFloorIndex, both sides in turn), the cars found there are scored and
+    * kept in a bounded max-heap. No car can score below its distance (Cost.DISTANCE: distance is the top field of
+    * the score; Cost.ETA: the rider cannot be picked up before the car has travelled there), so once the heap is full
+    * and the next floor's distance alone is worse than the heap's worst key, nothing farther can get in.
+    * With idle cars around the pickup that is after a floor or two, whatever the size of the fleet.
+    * */
+    private List<ElevatorCandidate> rankNearestFirst(FleetSnapshot fleet, ElevatorRequest request, int fromSlot, int toSlot, int limit) {
+        FleetStateTable table = fleet.getStateTable();
+        FleetFloorIndex index = fleet.getFloorIndex();
+        int srcFloor = request.getFromSrcFloor();
+        int direction = requestDirection(request);
+        int size = toSlot - fromSlot;
+        int offset = tieBreakOffset(size);
+        EtaCostModel eta = this.cost == Cost.ETA ? ETA.get() : null;
+        long boundPerFloor = eta == null ? 1L << FleetScoringKernel.DISTANCE_SHIFT : EtaCostModel.FLOOR_MILLIS;
+
+        long[] heap = new long[limit];
+        int count = 0;
+        int below = index.floorAtOrBelow(FleetFloorIndex.ANY_DIRECTION, srcFloor);
+        int above = index.floorAtOrAbove(FleetFloorIndex.ANY_DIRECTION, srcFloor + 1);
+        while (below >= 0 || above >= 0) {
+            int floor;
+            if (above < 0 || (below >= 0 && srcFloor - below <= above - srcFloor)) {
+                floor = below;
+                below = index.floorAtOrBelow(FleetFloorIndex.ANY_DIRECTION, below - 1);
+            } else {
+                floor = above;
+                above = index.floorAtOrAbove(FleetFloorIndex.ANY_DIRECTION, above + 1);
+            }
+            long bound = Math.min(Math.abs(floor - srcFloor) * boundPerFloor, Integer.MAX_VALUE);
+            if (count == limit && bound << 32 > heap[0]) {
+                break; // every car from here on is at least this far
+            }
+            for (int k = index.firstAt(floor, FleetFloorIndex.ANY_DIRECTION); k < index.endAt(floor, FleetFloorIndex.ANY_DIRECTION); k++) {
+                int slot = index.slot(k);
+                if (slot < fromSlot || slot >= toSlot) continue;
+                int score = ScalarScoringKernel.score(table, slot, srcFloor, direction);
+                if (score == FleetScoringKernel.INELIGIBLE) continue;
+                int i = slot - fromSlot;
+                int rotated = i >= offset ? i - offset : i - offset + size;
+                long cost = eta == null ? score : Math.min(eta.cost(fleet.get(slot), request), Integer.MAX_VALUE);
+                long key = cost << 32 | rotated;
+                if (count < limit) {
+                    heap[count] = key;
+                    siftUp(heap, count++);
+                } else if (key < heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, 0, limit);
+                }
+            }
+        }
+        Arrays.sort(heap, 0, count);
+
+        List<ElevatorCandidate> candidates = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            int rotated = (int) heap[k];
+            ElevatorView view = fleet.get(fromSlot + (rotated + offset < size ? rotated + offset : rotated + offset - size));
+            candidates.add(new ElevatorCandidate(view.getElevator(), view.getVersion()));
+        }
+        return candidates;
+    }
+
+    // keys of the cars [from, to) of the ranked range - each chunk writes only its own part of keys
+    private void packKeys(FleetSnapshot fleet, ElevatorRequest request, int[] scores, int fromSlot, int size, int offset,
+                          long[] keys, int from, int to) {
+        EtaCostModel eta = this.cost == Cost.ETA ? ETA.get() : null; // the calling worker's scratch
+        for (int i = from; i < to; i++) {
+            if (scores[fromSlot + i] == FleetScoringKernel.INELIGIBLE) {
+                keys[i] = NOT_ELIGIBLE;
+                continue;
+            }
+            int rotated = i >= offset ? i - offset : i - offset + size;
+            long score = eta == null ? scores[fromSlot + i] : Math.min(eta.cost(fleet.get(fromSlot + i), request), Integer.MAX_VALUE);
+            keys[i] = score << 32 | rotated;
+        }
+    }
+
+    // moves the `limit` smallest keys to the front of keys, ascending; returns how many that is
+    private static int selectSmallest(long[] keys, int limit) {
+        if (limit >= keys.length) {
+            Arrays.sort(keys);
+            return keys.length;
+        }
+        // max-heap of the best `limit` seen so far in keys[0, limit): the root is the worst of them
+        for (int i = limit / 2 - 1; i >= 0; i--) {
+            siftDown(keys, i, limit);
+        }
+        for (int i = limit; i < keys.length; i++) {
+            if (keys[i] < keys[0]) {
+                keys[0] = keys[i];
+                siftDown(keys, 0, limit);
+            }
+        }
+        Arrays.sort(keys, 0, limit);
+        return limit;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent] >= key) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int index, int size) {
+        long key = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heap[child + 1] > heap[child]) child++;
+            if (heap[child] <= key) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+
+    // SplitMix64 finaliser over (seed, ranking number): well spread over [0, size), reproducible
+    private int tieBreakOffset(int size) {
+        long z = this.seed + this.rankings.incrementAndGet() * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) Math.floorMod(z, (long) size);
+    }
+
+    private static int requestDirection(ElevatorRequest request) {
+        if (request.isUpward()) return FleetStateTable.DIRECTION_UP;
+        if (request.isDownward()) return FleetStateTable.DIRECTION_DOWN;
+        return FleetScoringKernel.REQUEST_DIRECTION_NONE;
     }
 
     // Returns Null when no elevator working or request is invalid
@@ -114,9 +390,68 @@ public class SCANScheduler implements ElevatorScheduler {
         return ordered.isEmpty() ? null : ordered.getFirst();
     }
 
+    /*
+    * Batch variant: one joint assignment for the whole batch (see BatchAssignmentSolver) instead of
+    * findBestElevator per request, which sends the same nearest car to every request of the batch.
+    * */
+    @Override
     public Map<ElevatorRequest, Elevator> findBestElevator(List<Elevator> elevators, List<ElevatorRequest> requests){
-        Map<ElevatorRequest, Elevator> bestElevator = new HashMap<>();
-        requests.forEach(req -> bestElevator.put(req, this.findBestElevator(elevators, req)));
-        return bestElevator;
+        Map<ElevatorRequest, Elevator> plan = new HashMap<>();
+        findBestElevator(FleetSnapshot.of(elevators), requests)
+                .forEach((request, view) -> plan.put(request, view == null ? null : view.getElevator()));
+        return plan;
+    }
+
+    @Override
+    public Map<ElevatorRequest, ElevatorView> findBestElevator(FleetSnapshot fleet, List<ElevatorRequest> requests){
+        long start = System.nanoTime();
+        // validated once per request here, so that the solver's cost calls (one per car) do not repeat it
+        List<ElevatorRequest> valid = new ArrayList<>(requests.size());
+        List<ElevatorRequest> invalid = new ArrayList<>();
+        for (ElevatorRequest request : requests) {
+            (Validator.isValidRequest(request) ? valid : invalid).add(request);
+        }
+        Map<ElevatorRequest, ElevatorView> plan = BatchAssignmentSolver.solve(fleet.getViews(), valid, this::pickupCost);
+        invalid.forEach(request -> plan.put(request, null));
+        BATCH_SOLVE.recordSince(start);
+        return plan;
+    }
+
+    /*
+    * Same preferences as the per-request ranking, as a number so that a batch can be optimised as a whole.
+    * The request must have been validated by the caller (once per batch, not once per car).
+    * Cost.ETA: the ETA cost in seconds. Cost.DISTANCE: roughly "floors of travel":
+    *   - floors to travel until the car can pick up: direct if idle / aligned and not yet passed,
+    *     otherwise out to the car's farthest stop and back
+    *   - + LOAD_PENALTY per stop already assigned to the car
+    *   - + a fraction for direction priority, so aligned > idle > opposite on equal distance
+    * */
+    double pickupCost(ElevatorView elevator, ElevatorRequest request) {
+        int srcFloor = request.getFromSrcFloor();
+        if (!elevator.canAcceptFloorServeRequest(srcFloor)) {
+            return BatchAssignmentSolver.INFEASIBLE;
+        }
+        if (this.cost == Cost.ETA) {
+            return ETA.get().cost(elevator, request) / 1000.0;
+        }
+        int currentFloor = elevator.getCurrentFloor();
+        int travelFloors;
+        if (isElevatorSuitable(elevator, request) || !elevator.hasStops()) {
+            travelFloors = Math.abs(currentFloor - srcFloor);
+        } else if (elevator.isMovingUp()) {
+            int turnFloor = Math.max(currentFloor, elevator.getLastStop());
+            travelFloors = (turnFloor - currentFloor) + Math.abs(turnFloor - srcFloor);
+        } else {
+            int turnFloor = Math.min(currentFloor, elevator.getFirstStop());
+            travelFloors = (currentFloor - turnFloor) + Math.abs(srcFloor - turnFloor);
+        }
+        return travelFloors
+                + LOAD_PENALTY * elevator.getNoOfIncomingFloorServeRequest()
+                + 0.1 * directionPriority(elevator, request);
+    }
+
+    @Override
+    public String toString() {
+        return this.cost == Cost.ETA ? "SCAN" : "SCAN{distance}";
     }
 }
@@ -0,0 +1,54 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.IConstants;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.model.FleetStateTable;
+
+// one car per iteration - the fallback without the Vector API, and the reference the vector kernel must agree with
+final class ScalarScoringKernel implements FleetScoringKernel {
+
+    static final ScalarScoringKernel INSTANCE = new ScalarScoringKernel();
+
+    private static final int IDLE = ElevatorState.IDLE.ordinal();
+    private static final int MAINTENANCE = ElevatorState.MAINTENANCE.ordinal();
+    private static final int EMERGENCY = ElevatorState.EMERGENCY.ordinal();
+
+    private ScalarScoringKernel() {
+    }
+
+    @Override
+    public void score(FleetStateTable table, int srcFloor, int requestDirection, int[] scores) {
+        score(table, srcFloor, requestDirection, scores, 0, table.capacity());
+    }
+
+    // slots [from, to) - also the vector kernel's tail when the vector length does not divide the capacity
+    static void score(FleetStateTable table, int srcFloor, int requestDirection, int[] scores, int from, int to) {
+        int[] floors = table.floors();
+        int[] states = table.states();
+        int[] loads = table.loads();
+        int[] directions = table.directions();
+        for (int i = from; i < to; i++) {
+            scores[i] = score(floors[i], states[i], loads[i], directions[i], srcFloor, requestDirection);
+        }
+    }
+
+    // one slot - SCANScheduler's nearest-first ranking scores only the cars it visits
+    static int score(FleetStateTable table, int slot, int srcFloor, int requestDirection) {
+        return score(table.floors()[slot], table.states()[slot], table.loads()[slot], table.directions()[slot], srcFloor, requestDirection);
+    }
+
+    private static int score(int floor, int state, int load, int direction, int srcFloor, int requestDirection) {
+        if (state == MAINTENANCE || state == EMERGENCY || load >= IConstants.MAX_HOLDING_CAPACITY) {
+            return INELIGIBLE;
+        }
+        int priority = direction == requestDirection ? 0 : state == IDLE ? 1 : 2;
+        return Math.abs(floor - srcFloor) << DISTANCE_SHIFT
+                | priority << PRIORITY_SHIFT
+                | Math.min(load, LOAD_MASK);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.metrics.HistogramSnapshot;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.metrics.StripedCounter;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.ElevatorView;
+import com.example.demo.model.FleetSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Shadow mode: candidate schedulers (-Delevator.scheduler.shadow=zoning,scan-distance, any ElevatorSchedulers spec) rank
+* every live request too, without ever committing anything - so a new algorithm is judged on production traffic
+* before it is switched on.
+*
+* After every commit the dispatcher hands over the fleet snapshot it ranked on, the request and the car it got. On
+* ONE background thread shared by all banks, each shadow ranks the same snapshot, and the pickup ETA of its first
+* choice and of the active choice are predicted with the same yardstick (EtaCostModel, whatever cost the schedulers
+* rank by):
+*   shadow.active.predictedWait       predicted wait on the car the active scheduler chose
+*   shadow.<spec>.predictedWait       predicted wait on the car the shadow would have chosen
+*   shadow.<spec>.sameCar / shorterWait / longerWait / noCandidate   how its choice compares, per request
+*   shadow.<spec>.waitSavedMillis / waitAddedMillis                  by how much, summed
+* (waits are recorded in the histograms as nanoseconds, like every other histogram).
+*
+* The dispatcher only pays for one queue offer: the queue is bounded (-Delevator.scheduler.shadow.queue, 10000) and
+* a full queue drops the evaluation (shadow.dropped) instead of slowing dispatch down. In a simulation (virtual
+* clock) the evaluation runs inline instead, so replays stay deterministic.
+*
+* Each shadow keeps its own memory (ZoningScheduler's demand, the destination groups) as if its choices had been
+* committed, but ranks the real fleet - the comparison is one decision at a time, not a replay of a whole day.
+* */
+public class ShadowEvaluator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShadowEvaluator.class);
+
+    private static final LatencyHistogram ACTIVE_PREDICTED_WAIT = MetricsRegistry.histogram("shadow.active.predictedWait");
+    private static final LatencyHistogram EVALUATION = MetricsRegistry.histogram("shadow.evaluation");
+    private static final StripedCounter DROPPED = MetricsRegistry.counter("shadow.dropped");
+
+    // every spec shadowed by some bank, for summary()
+    private static final Set<String> SHADOWED = new ConcurrentSkipListSet<>();
+
+    // one metric set per spec, shared by the banks shadowing it
+    private record Shadow(String spec, ElevatorScheduler scheduler, LatencyHistogram predictedWait,
+                          StripedCounter sameCar, StripedCounter shorterWait, StripedCounter longerWait,
+                          StripedCounter noCandidate, StripedCounter waitSavedMillis, StripedCounter waitAddedMillis) {
+
+        Shadow(String spec, ElevatorScheduler scheduler) {
+            this(spec, scheduler, MetricsRegistry.histogram("shadow." + spec + ".predictedWait"),
+                    MetricsRegistry.counter("shadow." + spec + ".sameCar"),
+                    MetricsRegistry.counter("shadow." + spec + ".shorterWait"),
+                    MetricsRegistry.counter("shadow." + spec + ".longerWait"),
+                    MetricsRegistry.counter("shadow." + spec + ".noCandidate"),
+                    MetricsRegistry.counter("shadow." + spec + ".waitSavedMillis"),
+                    MetricsRegistry.counter("shadow." + spec + ".waitAddedMillis"));
+        }
+    }
+
+    private final List<Shadow> shadows;
+    // only ever used by the thread running evaluate() - the shadow thread, or the simulation's event thread
+    private final EtaCostModel eta = new EtaCostModel();
+
+    private ShadowEvaluator(List<Shadow> shadows) {
+        this.shadows = shadows;
+    }
+
+    // the shadows configured for cars serving lobbyFloor..topFloor (-Delevator.scheduler.shadow); none by default
+    public static ShadowEvaluator configured(int lobbyFloor, int topFloor) {
+        List<Shadow> shadows = new ArrayList<>();
+        for (String spec : ElevatorSchedulers.shadowSpecs()) {
+            ElevatorScheduler scheduler = ElevatorSchedulers.create(spec, lobbyFloor, topFloor);
+            shadows.add(new Shadow(spec, scheduler));
+            SHADOWED.add(spec);
+            LOGGER.info("Shadow scheduler for floors {}..{}: {}", lobbyFloor, topFloor, scheduler);
+        }
+        return new ShadowEvaluator(List.copyOf(shadows));
+    }
+
+    public boolean isEnabled() {
+        return !this.shadows.isEmpty();
+    }
+
+    // the active scheduler committed request to chosen, after ranking fleet
+    public void observe(FleetSnapshot fleet, ElevatorRequest request, Elevator chosen) {
+        if (this.shadows.isEmpty()) return;
+        if (ClockProvider.getClock().isVirtual()) {
+            evaluateSafely(fleet, request, chosen);
+            return;
+        }
+        // a full queue rejects the task - the handler only counts it
+        ShadowExecutorHolder.INSTANCE.execute(() -> evaluateSafely(fleet, request, chosen));
+    }
+
+    private void evaluateSafely(FleetSnapshot fleet, ElevatorRequest request, Elevator chosen) {
+        try {
+            evaluate(fleet, request, chosen);
+        } catch (Exception ex) {
+            LOGGER.error("Unexpected error while shadow-evaluating request {}", request, ex);
+        }
+    }
+
+    // one evaluation at a time: the shadows' memory and the ETA scratch are not thread-safe
+    private synchronized void evaluate(FleetSnapshot fleet, ElevatorRequest request, Elevator chosen) {
+        long start = System.nanoTime();
+        long activeMillis = predictedWaitMillis(fleet, request, chosen);
+        if (activeMillis == Long.MAX_VALUE) return; // a car the snapshot does not know (added to the bank after it was published)
+        ACTIVE_PREDICTED_WAIT.record(TimeUnit.MILLISECONDS.toNanos(activeMillis));
+
+        for (Shadow shadow : this.shadows) {
+            List<ElevatorCandidate> ranked = shadow.scheduler().findBestCandidates(fleet, request, 1); // its first choice only
+            if (ranked.isEmpty()) {
+                shadow.noCandidate().increment();
+                continue;
+            }
+            Elevator pick = ranked.getFirst().elevator();
+            shadow.scheduler().assigned(request, pick); // its own memory follows its own decisions
+            long shadowMillis = pick == chosen ? activeMillis : predictedWaitMillis(fleet, request, pick);
+            if (shadowMillis == Long.MAX_VALUE) {
+                shadow.noCandidate().increment();
+                continue;
+            }
+            shadow.predictedWait().record(TimeUnit.MILLISECONDS.toNanos(shadowMillis));
+            if (pick == chosen) {
+                shadow.sameCar().increment();
+            } else if (shadowMillis < activeMillis) {
+                shadow.shorterWait().increment();
+                shadow.waitSavedMillis().add(activeMillis - shadowMillis);
+            } else if (shadowMillis > activeMillis) {
+                shadow.longerWait().increment();
+                shadow.waitAddedMillis().add(shadowMillis - activeMillis);
+            }
+        }
+        EVALUATION.recordSince(start);
+    }
+
+    private long predictedWaitMillis(FleetSnapshot fleet, ElevatorRequest request, Elevator car) {
+        for (ElevatorView view : fleet.getViews()) {
+            if (view.getElevator() == car) return this.eta.pickupMillis(view, request);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    // one line per shadowed spec, e.g. for the end of a replay; empty without shadows
+    public static String summary() {
+        StringBuilder text = new StringBuilder();
+        HistogramSnapshot active = ACTIVE_PREDICTED_WAIT.snapshot();
+        for (String spec : SHADOWED) {
+            HistogramSnapshot wait = MetricsRegistry.histogram("shadow." + spec + ".predictedWait").snapshot();
+            long saved = MetricsRegistry.counter("shadow." + spec + ".waitSavedMillis").sum();
+            long added = MetricsRegistry.counter("shadow." + spec + ".waitAddedMillis").sum();
+            text.append(String.format("shadow %s: evaluated=%d, sameCar=%d, shorterWait=%d, longerWait=%d, noCandidate=%d,"
+                            + " predicted wait mean=%.1fs p90=%.1fs (active mean=%.1fs p90=%.1fs), net change=%+.2fs per request%n",
+                    spec, wait.getCount(),
+                    MetricsRegistry.counter("shadow." + spec + ".sameCar").sum(),
+                    MetricsRegistry.counter("shadow." + spec + ".shorterWait").sum(),
+                    MetricsRegistry.counter("shadow." + spec + ".longerWait").sum(),
+                    MetricsRegistry.counter("shadow." + spec + ".noCandidate").sum(),
+                    wait.getMeanNanos() / 1e9, wait.getP90Nanos() / 1e9, active.getMeanNanos() / 1e9, active.getP90Nanos() / 1e9,
+                    wait.getCount() == 0 ? 0 : (added - saved) / 1000d / wait.getCount()));
+        }
+        return text.toString();
+    }
+
+    // started on first use only - a process without shadows never creates the thread
+    private static class ShadowExecutorHolder {
+        private static final ExecutorService INSTANCE = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Integer.getInteger("elevator.scheduler.shadow.queue", 10000)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "scheduler-shadow");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> DROPPED.increment());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.IConstants;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.model.FleetStateTable;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+* The ScalarScoringKernel rule, a whole vector of cars at a time (16 int lanes with AVX-512, 8 with AVX2): four loads,
+* a handful of lane-wise ops and one store per vector, no branches. Loaded by name from FleetScoringKernels only when
+* the jdk.incubator.vector module is present.
+* */
+final class VectorScoringKernel implements FleetScoringKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private static final int IDLE = ElevatorState.IDLE.ordinal();
+    private static final int MAINTENANCE = ElevatorState.MAINTENANCE.ordinal();
+    private static final int EMERGENCY = ElevatorState.EMERGENCY.ordinal();
+
+    VectorScoringKernel() {
+    }
+
+    @Override
+    public void score(FleetStateTable table, int srcFloor, int requestDirection, int[] scores) {
+        int[] floors = table.floors();
+        int[] states = table.states();
+        int[] loads = table.loads();
+        int[] directions = table.directions();
+        IntVector otherPriority = IntVector.broadcast(SPECIES, 2);
+        // the table capacity is a multiple of 16 - a whole number of vectors on every x86 / NEON species
+        int bound = SPECIES.loopBound(table.capacity());
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            IntVector floor = IntVector.fromArray(SPECIES, floors, i);
+            IntVector state = IntVector.fromArray(SPECIES, states, i);
+            IntVector load = IntVector.fromArray(SPECIES, loads, i);
+            IntVector direction = IntVector.fromArray(SPECIES, directions, i);
+
+            VectorMask<Integer> aligned = direction.compare(VectorOperators.EQ, requestDirection);
+            VectorMask<Integer> idle = state.compare(VectorOperators.EQ, IDLE);
+            VectorMask<Integer> ineligible = state.compare(VectorOperators.EQ, MAINTENANCE)
+                    .or(state.compare(VectorOperators.EQ, EMERGENCY))
+                    .or(load.compare(VectorOperators.GE, IConstants.MAX_HOLDING_CAPACITY));
+
+            IntVector priority = otherPriority.blend(1, idle).blend(0, aligned);
+            floor.sub(srcFloor).abs()
+                    .lanewise(VectorOperators.LSHL, DISTANCE_SHIFT)
+                    .or(priority.lanewise(VectorOperators.LSHL, PRIORITY_SHIFT))
+                    .or(load.min(LOAD_MASK))
+                    .blend(INELIGIBLE, ineligible)
+                    .intoArray(scores, i);
+        }
+        ScalarScoringKernel.score(table, srcFloor, requestDirection, scores, bound, table.capacity());
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.length() + " int lanes)";
+    }
+}
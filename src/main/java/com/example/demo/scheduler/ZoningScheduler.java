@@ -0,0 +1,289 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.enums.RequestType;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.metrics.StripedCounter;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.ElevatorView;
+import com.example.demo.model.FleetSnapshot;
+import com.example.demo.utility.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+* Zoning for high-rise buildings (-Delevator.scheduler=zoning): the floors above the lobby are split into contiguous
+* zones and the cars into as many groups, group z only serving the lobby and zone z.
+*
+*   zone of a call : the floor that is not the lobby - destination of a lobby call, source of every other call
+*                    (a call from the lobby without destination belongs to no zone - any car may take it)
+*   cars of zone z : snapshot slots [z * cars / zones, (z + 1) * cars / zones) - a stable split, cars keep their zone
+*   ranking        : SCAN (SCANScheduler.rank) over the zone's cars only; all cars when none of them can take the call
+*
+* Express runs come with it: a car only ever gets stops in its own zone, so it travels through the zones below
+* non-stop, and an up-peak trip from the lobby makes a few stops in one zone instead of one stop per zone. Riders
+* only board the car they were assigned (canBoard) - otherwise the first car at the lobby takes everybody, whatever
+* their zone, and zoning is undone at the door.
+*
+* Boundaries start from an even demand and are rebalanced from observed demand every
+* -Delevator.zoning.rebalanceCalls calls (500, 0 = static zones): zones are cut so that no zone is much busier than
+* the others, with a zone's load estimated as  calls to its floors x (its top floor - lobby + STOP_FLOORS).  Far zones
+* pay a long express run per trip, so under even demand they come out narrower. Observed counts halve after every
+* rebalance, so the zones follow a shift from morning up-peak to lunch within a few rebalances.
+*
+* Zone count: -Delevator.zoning.zones (default one zone per ~20 floors).
+* */
+public class ZoningScheduler implements ElevatorScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZoningScheduler.class);
+
+    // one zone per this many floors unless -Delevator.zoning.zones says otherwise
+    private static final int FLOORS_PER_ZONE = 20;
+
+    // a stop (door cycle ~12 s) costs about as much as the express run up and back over 6 floors (1 s per floor)
+    private static final int STOP_FLOORS = 6;
+
+    // weight of a floor nobody has called yet - keeps unobserved floors in the split
+    private static final long PRIOR_CALLS = 1;
+
+    // same histograms as SCANScheduler - whichever scheduler runs, the dashboards stay the same
+    private static final LatencyHistogram SCORING = MetricsRegistry.histogram("scheduler.scoring");
+    private static final LatencyHistogram BATCH_SOLVE = MetricsRegistry.histogram("scheduler.batchSolve");
+    private static final StripedCounter REBALANCES = MetricsRegistry.counter("scheduler.zoning.rebalances");
+
+    private final SCANScheduler scan = new SCANScheduler();
+    private final int lobbyFloor;
+    private final int topFloor;
+    private final int zoneCount;
+    private final long rebalanceCalls;
+
+    // calls per floor above the lobby (index 0 = lobbyFloor + 1), decayed at every rebalance
+    private final AtomicLongArray demand;
+    private final AtomicLong observedCalls = new AtomicLong();
+
+    private volatile ZoneLayout layout;
+
+    // highest floor of each zone, ascending - zone z spans (highestFloors[z - 1], highestFloors[z]]
+    private record ZoneLayout(int lobbyFloor, int[] highestFloors) {
+
+        int zoneOf(int floor) {
+            if (floor <= this.lobbyFloor) return -1;
+            for (int zone = 0; zone < this.highestFloors.length; zone++) {
+                if (floor <= this.highestFloors[zone]) return zone;
+            }
+            return this.highestFloors.length - 1;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            int lowest = this.lobbyFloor + 1;
+            for (int highest : this.highestFloors) {
+                if (!text.isEmpty()) text.append(", ");
+                text.append(lowest).append('-').append(highest);
+                lowest = highest + 1;
+            }
+            return text.toString();
+        }
+    }
+
+    public ZoningScheduler(int lobbyFloor, int topFloor) {
+        this(lobbyFloor, topFloor,
+                Integer.getInteger("elevator.zoning.zones", Math.max(1, Math.round((topFloor - lobbyFloor) / (float) FLOORS_PER_ZONE))),
+                Long.getLong("elevator.zoning.rebalanceCalls", 500L));
+    }
+
+    public ZoningScheduler(int lobbyFloor, int topFloor, int zones, long rebalanceCalls) {
+        if (topFloor <= lobbyFloor || zones < 1) {
+            throw new IllegalArgumentException("zoning: need at least one floor above the lobby and one zone, got floors "
+                    + lobbyFloor + ".." + topFloor + " in " + zones + " zones");
+        }
+        this.lobbyFloor = lobbyFloor;
+        this.topFloor = topFloor;
+        this.zoneCount = Math.min(zones, topFloor - lobbyFloor);
+        this.rebalanceCalls = rebalanceCalls;
+        this.demand = new AtomicLongArray(topFloor - lobbyFloor);
+        this.layout = partition(new long[topFloor - lobbyFloor]);
+    }
+
+    // ------------------------------------------------------------ per-request ranking
+
+    @Override
+    public List<ElevatorCandidate> findBestCandidates(FleetSnapshot fleet, ElevatorRequest request) {
+        return findBestCandidates(fleet, request, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<ElevatorCandidate> findBestCandidates(FleetSnapshot fleet, ElevatorRequest request, int limit) {
+        if (!Validator.isValidRequest(request)) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        int zone = observe(request);
+        List<ElevatorCandidate> candidates = zone < 0
+                ? List.of()
+                : this.scan.rank(fleet, request, firstSlot(zone, fleet.size()), firstSlot(zone + 1, fleet.size()), limit);
+        if (candidates.isEmpty()) {
+            // lobby call, or no car of the zone can take it (all in maintenance, fewer cars than zones) - any car rather than none
+            candidates = this.scan.rank(fleet, request, 0, fleet.size(), limit);
+        }
+        SCORING.recordSince(start);
+        return candidates;
+    }
+
+    @Override
+    public List<ElevatorCandidate> findBestCandidates(List<Elevator> elevators, ElevatorRequest request) {
+        return findBestCandidates(FleetSnapshot.of(elevators), request);
+    }
+
+    @Override
+    public List<Elevator> findBestElevators(List<Elevator> elevators, ElevatorRequest request) {
+        return findBestCandidates(elevators, request).stream()
+                .map(ElevatorCandidate::elevator)
+                .toList();
+    }
+
+    @Override
+    public Elevator findBestElevator(List<Elevator> elevators, ElevatorRequest request) {
+        List<Elevator> ordered = findBestElevators(elevators, request);
+        return ordered.isEmpty() ? null : ordered.getFirst();
+    }
+
+    // riders board only the car they were assigned - a car of another zone stopping at the same floor leaves them
+    @Override
+    public boolean canBoard(Elevator car, ElevatorRequest request) {
+        Elevator assigned = request.getAssignedElevator();
+        return assigned == null || assigned == car;
+    }
+
+    // ------------------------------------------------------------ batches
+
+    @Override
+    public Map<ElevatorRequest, Elevator> findBestElevator(List<Elevator> elevators, List<ElevatorRequest> requests) {
+        Map<ElevatorRequest, Elevator> plan = new HashMap<>();
+        findBestElevator(FleetSnapshot.of(elevators), requests)
+                .forEach((request, view) -> plan.put(request, view == null ? null : view.getElevator()));
+        return plan;
+    }
+
+    /*
+    * One joint assignment per zone over the zone's cars (the solver groups riders by source floor and direction, so
+    * lobby riders of different zones must never reach it as one batch); lobby calls without a zone go to all cars.
+    * */
+    @Override
+    public Map<ElevatorRequest, ElevatorView> findBestElevator(FleetSnapshot fleet, List<ElevatorRequest> requests) {
+        long start = System.nanoTime();
+        Map<Integer, List<ElevatorRequest>> requestsByZone = new LinkedHashMap<>();
+        Map<ElevatorRequest, ElevatorView> plan = new IdentityHashMap<>();
+        for (ElevatorRequest request : requests) {
+            if (!Validator.isValidRequest(request)) { // once here - SCANScheduler.pickupCost no longer checks per car
+                plan.put(request, null);
+                continue;
+            }
+            requestsByZone.computeIfAbsent(observe(request), z -> new ArrayList<>()).add(request);
+        }
+        requestsByZone.forEach((zone, zoneRequests) -> {
+            List<ElevatorView> cars = zone < 0
+                    ? fleet.getViews()
+                    : fleet.getViews().subList(firstSlot(zone, fleet.size()), firstSlot(zone + 1, fleet.size()));
+            if (cars.isEmpty()) cars = fleet.getViews();
+            plan.putAll(BatchAssignmentSolver.solve(cars, zoneRequests, this.scan::pickupCost));
+        });
+        BATCH_SOLVE.recordSince(start);
+        return plan;
+    }
+
+    // ------------------------------------------------------------ zones
+
+    private int firstSlot(int zone, int cars) {
+        return zone * cars / this.zoneCount;
+    }
+
+    // the floor that decides the zone of a call: the end of the trip that is not the lobby
+    private int zoneFloor(ElevatorRequest request) {
+        if (request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION && request.getFromSrcFloor() == this.lobbyFloor) {
+            return request.getToDestFloor();
+        }
+        return request.getFromSrcFloor();
+    }
+
+    // counts the call towards its floor's demand and returns its zone (-1: no zone)
+    private int observe(ElevatorRequest request) {
+        int floor = zoneFloor(request);
+        ZoneLayout current = this.layout;
+        if (floor <= this.lobbyFloor || floor > this.topFloor) {
+            return current.zoneOf(floor);
+        }
+        this.demand.incrementAndGet(floor - this.lobbyFloor - 1);
+        if (this.rebalanceCalls > 0 && this.observedCalls.incrementAndGet() % this.rebalanceCalls == 0) {
+            rebalance();
+        }
+        return current.zoneOf(floor);
+    }
+
+    private synchronized void rebalance() {
+        long[] calls = new long[this.demand.length()];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = this.demand.getAndUpdate(i, count -> count / 2); // read, then decay for the next window
+        }
+        ZoneLayout rebalanced = partition(calls);
+        if (!Arrays.equals(rebalanced.highestFloors(), this.layout.highestFloors())) {
+            this.layout = rebalanced;
+            REBALANCES.increment();
+            LOGGER.info("Zones rebalanced from observed demand: {}", rebalanced);
+        }
+    }
+
+    /*
+    * Cuts floors lobby+1..top into zoneCount contiguous zones minimising the load of the busiest zone
+    * (load = calls x (top floor of the zone - lobby + STOP_FLOORS)). Dynamic programme over (zones, floors):
+    * O(zones x floors^2) - about a million steps for 8 zones over 300 floors, once per rebalance.
+    * */
+    private ZoneLayout partition(long[] calls) {
+        int floors = calls.length;
+        double[] prefix = new double[floors + 1];
+        for (int i = 0; i < floors; i++) {
+            prefix[i + 1] = prefix[i] + calls[i] + PRIOR_CALLS;
+        }
+        // best[k][j]: least possible busiest-zone load for the first j floors in k + 1 zones; cut[k][j]: start of the last zone
+        double[][] best = new double[this.zoneCount][floors + 1];
+        int[][] cut = new int[this.zoneCount][floors + 1];
+        for (int j = 1; j <= floors; j++) {
+            best[0][j] = (prefix[j] - prefix[0]) * (j + STOP_FLOORS);
+        }
+        for (int k = 1; k < this.zoneCount; k++) {
+            for (int j = k + 1; j <= floors; j++) {
+                best[k][j] = Double.MAX_VALUE;
+                for (int i = k; i < j; i++) {
+                    double load = Math.max(best[k - 1][i], (prefix[j] - prefix[i]) * (j + STOP_FLOORS));
+                    if (load < best[k][j]) {
+                        best[k][j] = load;
+                        cut[k][j] = i;
+                    }
+                }
+            }
+        }
+        int[] highestFloors = new int[this.zoneCount];
+        for (int k = this.zoneCount - 1, j = floors; k >= 0; k--) {
+            highestFloors[k] = this.lobbyFloor + j;
+            j = cut[k][j];
+        }
+        return new ZoneLayout(this.lobbyFloor, highestFloors);
+    }
+
+    @Override
+    public String toString() {
+        return "Zoning{zones " + this.layout + (this.rebalanceCalls > 0 ? ", rebalanced every " + this.rebalanceCalls + " calls" : ", static") + "}";
+    }
+}
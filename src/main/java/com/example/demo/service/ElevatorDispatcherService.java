@@ -1,151 +1,335 @@
 package com.example.demo.service;
 
 import com.example.demo.IConstants;
-import com.example.demo.cache.ElevatorCache;
-import com.example.demo.cache.UserRequestCache;
+import com.example.demo.bank.ElevatorBank;
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.customds.AtomicFloorBitSet;
 import com.example.demo.enums.*;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.metrics.StripedCounter;
 import com.example.demo.model.Elevator;
 import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.ElevatorView;
+import com.example.demo.model.FleetSnapshot;
 import com.example.demo.repository.ElevatorRepository;
+import com.example.demo.scheduler.ElevatorCandidate;
 import com.example.demo.scheduler.ElevatorScheduler;
-import com.example.demo.scheduler.SCANScheduler;
+import com.example.demo.scheduler.ShadowEvaluator;
+import com.example.demo.threading.ThreadingProvider;
+import com.example.demo.utility.Helper;
+import com.example.demo.utility.Validator;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serial;
 import java.io.Serializable;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /*
 * ElevatorManagerService should read elevators from the shared cache (or repository)
 * and schedule a periodic task for each elevator (and allow dynamic registration for later-created elevators).
+*
+* One dispatcher per elevator bank (ElevatorBank.getDispatcher): it ranks only its bank's cars, queues into its bank's
+* pending queue and runs on its own executor. Any dispatcher accepts any request - submitRequest() / the public
+* assignRequestToElevator() first route it (ElevatorBanks.route) and hand it to the dispatcher of its bank.
+* getInstance() is kept as the front door: the first bank's dispatcher.
 * */
 
 @Getter
 public class ElevatorDispatcherService  implements Serializable {// ElevatorDispatcherService or ElevatorRequestService
 
     // Instance-level mutable state - state change is involved - hence non-static below
+    // the shard this dispatcher owns: its cars, pending queue and active requests
+    private final ElevatorBank bank;
     private final ElevatorScheduler scheduler;
+    // candidate schedulers ranking the same requests without committing (-Delevator.scheduler.shadow), off the dispatch path
+    private final ShadowEvaluator shadowEvaluator;
     private final ElevatorRepository elevatorRepository;
     private final ElevatorMovementService1 elevatorMovementService;
+    private final RequestExpiryService requestExpiryService;
+    // runs assignRequestToElevator off the caller's thread: one virtual thread per request, or a platform pool (ThreadingProvider)
+    private final ExecutorService dispatchExecutor;
     private static final int MAX_RETRIES = 6;
+    // ranked candidates tried per round before re-ranking
+    private static final int TOP_K = 8;
+
+    // micro-batching window (0 = off, every request dispatched on its own): -Delevator.dispatch.batchWindowMillis=100
+    private final long batchWindowMillis;
+    private final Queue<BatchEntry> batchBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean batchWindowOpen = new AtomicBoolean(false);
 
     // Static utility components (shared, not business state) - Read only dependency; Not state change
     private static final Logger LOGGER = LoggerFactory.getLogger(ElevatorDispatcherService.class);
 
+    // optimistic commits: every lost CAS is the lock-free counterpart of a failed tryLock
+    private static final StripedCounter COMMITS = MetricsRegistry.counter("dispatch.commits");
+    private static final StripedCounter COMMIT_CONFLICTS = MetricsRegistry.counter("dispatch.commitConflicts");
+    private static final StripedCounter RETRY_ROUNDS = MetricsRegistry.counter("dispatch.retryRounds");
+    private static final StripedCounter RETRIES_EXHAUSTED = MetricsRegistry.counter("dispatch.retriesExhausted");
+    private static final LatencyHistogram ASSIGN_LATENCY = MetricsRegistry.histogram("dispatch.assign");
+    private static final LatencyHistogram PENDING_RETRY = MetricsRegistry.histogram("dispatch.processPendingRequests");
+
 
-    public ElevatorDispatcherService() {
-        this.scheduler = new SCANScheduler();
+    // created by the bank itself (ElevatorBank.getDispatcher) - one per bank
+    public ElevatorDispatcherService(ElevatorBank bank) {
+        this.bank = bank;
+        this.scheduler = ElevatorScheduler.configured(bank.lowestFloor(), bank.highestFloor()); // -Delevator.scheduler
+        this.shadowEvaluator = ShadowEvaluator.configured(bank.lowestFloor(), bank.highestFloor());
         this.elevatorMovementService = ElevatorMovementService1.getInstance();
+        this.requestExpiryService = RequestExpiryService.getInstance();
         this.elevatorRepository  = new ElevatorRepository();
+        this.dispatchExecutor = ThreadingProvider.newDispatchExecutor("dispatch-" + bank.getBankId());
+        this.batchWindowMillis = Long.getLong("elevator.dispatch.batchWindowMillis", 0L);
+        // every new forecast may move the bank's idle cars (no-op unless -Delevator.parking=true)
+        bank.getDemandForecaster().onForecast(() -> bank.getElevators().forEach(this.elevatorMovementService::parkIfIdle));
     }
 
     // Passenger Requesting for both Pick-up & Drop-off
     // 3. In case of global Destination Floor Selection, algo needs to decide which elevator to map to
-    public void selectDestinationFloorOutsideForBothPickUpAndDropOff(int requestedFromFloor, int toDestFloor, RequestPriority requestPriority) {
+    public CompletableFuture<Elevator> selectDestinationFloorOutsideForBothPickUpAndDropOff(int requestedFromFloor, int toDestFloor, RequestPriority requestPriority) {
         ElevatorRequest request = new ElevatorRequest(requestPriority, requestedFromFloor, toDestFloor);
         // scheduler determines which is best elevator to assign as per floor req
         // and then assigns request to that particular elevator
-        this.assignRequestToElevator(request);
+        return this.submitRequest(request);
+    }
+
+    /*
+    * Async dispatch: the caller (controller/HTTP thread) is not parked in tryLock()/backoff sleeps of the retry loop.
+    * In virtual-thread mode every request gets its own virtual thread; in platform mode requests share a bounded pool.
+    * With a batch window configured, the request first waits (at most one window) to be assigned jointly with the others.
+    * The future completes with the assigned elevator, or null when the request was queued as pending / had no candidate.
+    * */
+    public CompletableFuture<Elevator> submitRequest(ElevatorRequest request) {
+        ElevatorDispatcherService owner = ElevatorBanks.route(request).getDispatcher();
+        if (owner != this) {
+            return owner.submitRequest(request); // another bank's request - its own dispatcher, queue and executor
+        }
+        this.requestExpiryService.track(request); // TTL timer runs from submission until pickup
+        this.bank.getDemandForecaster().record(request); // fresh demand only - retries and reassignments do not come through here
+        this.elevatorRepository.save(request);    // journaled as PENDING (no-op without persistence)
+        return (this.batchWindowMillis > 0) ? this.enqueueForBatch(request) : this.dispatchAsync(request);
+    }
+
+    private CompletableFuture<Elevator> dispatchAsync(ElevatorRequest request) {
+        if (ClockProvider.getClock().isVirtual()) {
+            // simulation: dispatch on the event thread, keeps replays deterministic
+            return CompletableFuture.completedFuture(this.assignRequestToElevator(request));
+        }
+        return CompletableFuture.supplyAsync(() -> this.assignRequestToElevator(request), this.dispatchExecutor);
+    }
+
+    // ------------------------------------------------------------ micro-batching
+
+    private record BatchEntry(ElevatorRequest request, CompletableFuture<Elevator> assigned) {
+    }
+
+    private CompletableFuture<Elevator> enqueueForBatch(ElevatorRequest request) {
+        CompletableFuture<Elevator> assigned = new CompletableFuture<>();
+        this.batchBuffer.add(new BatchEntry(request, assigned));
+        // the first request of a window opens it; the batch is solved when the window closes
+        if (this.batchWindowOpen.compareAndSet(false, true)) {
+            ClockProvider.getClock().sharedScheduler()
+                    .schedule(this::dispatchBatchSafely, this.batchWindowMillis, TimeUnit.MILLISECONDS);
+        }
+        return assigned;
+    }
+
+    private void dispatchBatchSafely() {
+        this.batchWindowOpen.set(false); // requests arriving from now on open the next window
+        List<BatchEntry> batch = new ArrayList<>();
+        BatchEntry entry;
+        while ((entry = this.batchBuffer.poll()) != null) {
+            batch.add(entry);
+        }
+        if (batch.isEmpty()) return;
+        try {
+            dispatchBatch(batch);
+        } catch (Exception ex) {
+            LOGGER.error("Unexpected error while dispatching a batch of {} requests", batch.size(), ex);
+            batch.forEach(failed -> failed.assigned().completeExceptionally(ex));
+        }
+    }
+
+    /*
+    * Everything that arrived during the window is assigned jointly, then committed with ONE lock round per car:
+    *   1. scheduler.findBestElevator(fleetSnapshot, requests) - joint min-cost assignment (read-only, lock-free)
+    *   2. per car: ONE optimistic commit against the version of the view the solve used, assign all of its requests
+    *   3. whatever could not be committed (car busy, no longer suitable, no candidate) takes the regular
+    *      per-request path with its retries and pending fallback
+    * */
+    private void dispatchBatch(List<BatchEntry> batch) {
+        List<ElevatorRequest> requests = batch.stream().map(BatchEntry::request).toList();
+        // one published snapshot of the bank's cars for the whole solve - each car is committed against the version of its view
+        FleetSnapshot fleet = this.bank.getFleetSnapshot();
+        Map<ElevatorRequest, ElevatorView> plan = this.scheduler.findBestElevator(fleet, requests);
+
+        Map<Elevator, List<BatchEntry>> entriesByCar = new LinkedHashMap<>();
+        Map<Elevator, Long> versionOfCar = new IdentityHashMap<>();
+        List<BatchEntry> leftovers = new ArrayList<>();
+        for (BatchEntry entry : batch) {
+            ElevatorView view = plan.get(entry.request());
+            if (view == null) {
+                leftovers.add(entry);
+            } else {
+                versionOfCar.put(view.getElevator(), view.getVersion());
+                entriesByCar.computeIfAbsent(view.getElevator(), k -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        entriesByCar.forEach((car, entries) -> {
+            if (!car.tryBeginCommit(versionOfCar.get(car))) { // car changed since the solve - do not wait for it
+                COMMIT_CONFLICTS.increment();
+                leftovers.addAll(entries);
+                return;
+            }
+            try {
+                for (BatchEntry entry : entries) {
+                    if (entry.request().getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION
+                            && car.getCommittedRiders() >= IConstants.MAX_HOLDING_CAPACITY) {
+                        leftovers.add(entry); // the solve planned more riders than the car has seats left
+                        continue;
+                    }
+                    boolean assigned = this.assignRequestToElevator(entry.request(), car);
+                    if (assigned) {
+                        this.scheduler.assigned(entry.request(), car);
+                        this.shadowEvaluator.observe(fleet, entry.request(), car);
+                    }
+                    entry.assigned().complete(assigned ? car : null);
+                }
+            } finally {
+                car.endCommit();
+            }
+            COMMITS.increment();
+        });
+
+        for (BatchEntry entry : leftovers) {
+            this.dispatchAsync(entry.request()).whenComplete((car, ex) -> {
+                if (ex != null) entry.assigned().completeExceptionally(ex);
+                else entry.assigned().complete(car);
+            });
+        }
     }
 
     // You may need a background worker thread to retry pending requests.
 
-    private Elevator assignRequestToElevator(ElevatorRequest request) {
+    // public so that an already built request (retry worker, replay/benchmark drivers) can be dispatched directly
+    public Elevator assignRequestToElevator(ElevatorRequest request) {
+        ElevatorDispatcherService owner = ElevatorBanks.route(request).getDispatcher();
+        if (owner != this) {
+            return owner.assignRequestToElevator(request);
+        }
 
         // MULTIPLE controller/HTTP threads can call outer assignRequestToElevator(request) at the same time
         // 2 different HTTP requests may assign the same elevator to two different pickups at the same time
         // So, Avoid Race Condition - Two threads selecting the same elevator for assignment simultaneously
 
-
-        boolean hasAcquiredLock = false;
-        int retryAttempt = 0;
-        Elevator bestElevator = null;
-
-
-        // Spin-Retry Pattern with fairness & circuit breaker fallback - acknowledges the time-of-check-to-time-of-use(TOCTOU) race between selecting and assigning.
-        try{
-            // Exponential backoff and a retry path to pendingRequests avoids busy-waiting and drops.
-            while(retryAttempt <= MAX_RETRIES) { // thread retry to find another elevator till it gets the lock on some elevator
-                // Step-1. Selection of best elevator as per scheduling algo(read-heavy, short-lived operation)
-                // Scheduler is read-only; it selects bestElevator based on current elevator state.
-                // Scheduler has no concept of reservation; it can pick the same elevator for multiple selector threads until the elevator is actually mutated.
-                // SCANScheduler is fine for picking a elevator candidate, but it cannot guarantee the selected elevator remains suitable by the time previous request thread mutate elevator state in next assignment step
-                // scheduler reads shared elevator state without locks and returns a candidate. Between that read and the later mutation (assignment), the elevator state can change. This is a classic TOCTOU (time-of-check → time-of-use) race.
-                // That’s why reservation (tryLock while selecting) of elevator lock followed by reasonable timeout is needed
-
-                // Scheduler determines which src/originating floor request is suitable to be mapped to which nearest elevator either idle or moving in same direction
-                // helps to find optimal/nearest working/idle elevator or fallback elevator to pick up a user from requested legitimate floor
-                bestElevator =  scheduler.findBestElevator(ElevatorCache.elevators, request);
-                if(bestElevator == null){
-                    LOGGER.info("No suitable elevator found to assign for request: {} because either the floor is invalid or all the elevators are in non-working state", request);
-                    System.out.println(LocalDateTime.now() + " - No suitable elevator found to assign for request: " + request);
-                    return null;
-                } // when at least 1 elevator in working state and the floor is valid input
-
-
-                // The lock acquisition is immediately after elevator selection, before assignment.
-                // Even if another thread picked the same elevator a millisecond earlier, the current thread will fail tryLock() and re-run selection, avoiding simultaneous assignment to the same elevator
-                // Each elevator has Fair ReentrantLock to ensure FIFO order among waiting threads - ensure no starving threads
-
-                // tryLock() can succeed but the elevator may have been changed between scheduler read and acquiring the lock (e.g., movement thread just released and changed state).
-                // That's why If you have high concurrency, you might want slightly longer timeout, e.g., 10–50 ms, to reduce wasted CPU in tight retry loops.
-                hasAcquiredLock = bestElevator.getLock().tryLock(50, TimeUnit.MILLISECONDS);
-                if(hasAcquiredLock){
-                    // updating the elevator state inside the lock (MOVING_UP / MOVING_DOWN) so other threads see the updated state next time they call scheduler.
-                    // This ensures the scheduler will avoid assigning an already moving elevator unless aligned with the direction.
-
-                    // Step-2. Assignment of request to that best elevator
-                    // Perform the multi-step update while holding the elevator lock
-                    this.assignRequestToElevator(request, bestElevator);
-                    return bestElevator;
+        // Optimistic commit instead of lock + sleep - still closes the time-of-check-to-time-of-use(TOCTOU) race between selecting and assigning:
+        //   Step-1. the scheduler ranks candidates and records the version of every car BEFORE reading its state
+        //   Step-2. commit = one CAS on the best car's version; it only succeeds if that car did not change since it was read
+        //   Step-3. on conflict fall through to the next ranked candidate (top-K) - no waiting on a lock, no Thread.sleep()
+        //   Step-4. only when all top-K changed under us, rank again with fresh state
+        // Losing a CAS means somebody else made progress, so the system as a whole never stalls (lock-free).
+        long start = System.nanoTime();
+        for (int round = 0; round <= MAX_RETRIES; round++) {
+            if (round > 0) RETRY_ROUNDS.increment();
+            // the bank's published snapshot: shared by its dispatch threads, rebuilt only after one of its cars changed (i.e. after a lost CAS)
+            FleetSnapshot fleet = this.bank.getFleetSnapshot();
+            // only the TOP_K best are ever tried per round - the scheduler selects them without ranking the whole fleet
+            List<ElevatorCandidate> ranked = scheduler.findBestCandidates(fleet, request, TOP_K);
+            if (ranked.isEmpty()) {
+                LOGGER.info("No suitable elevator found to assign for request: {} because either the floor is invalid or all the elevators are full or in non-working state", request);
+                System.out.println(ClockProvider.getClock().now() + " - No suitable elevator found to assign for request: " + request);
+                // a valid call only waits for a car with room (or back in service) - retried from the pending queue
+                if (Validator.isValidRequest(request) && request.getRequestStatus() == RequestStatus.PENDING) {
+                    this.bank.getPendingRequests().offer(request); // no-op if it is already waiting there
                 }
-                // If the chosen elevator’s lock is busy (another thread is mutating it), this thread immediately retries selection.
-                retryAttempt++; // track fair retry attempt
-                Thread.sleep(20L * retryAttempt); // Exponential backoff brief pause before retrying to avoid optimal elevator selection based on stale elevator state
-            }
-            // When thread Couldn't acquire per-elevator lock in time — handle fallback: requeue in buffer for another round of retry
-            LOGGER.info("Max retries reached while trying to assign request: {} to an elevator. Please try again later.", request);
-            System.out.println(LocalDateTime.now() + " - Max retries reached while trying to assign request: " + request + " to an elevator. Please try again later.");
-            if (request.getIsEnqueued().compareAndSet(false, true)) {
-                UserRequestCache.getPendingRequests().offer(request);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            if (request.getIsEnqueued().compareAndSet(false, true)) {
-                UserRequestCache.getPendingRequests().offer(request);
-            }
-            return null;
-        } finally {
-            if (hasAcquiredLock && bestElevator.getLock().isHeldByCurrentThread()) {
-                bestElevator.getLock().unlock();
+                return null;
+            } // when at least 1 elevator in working state with room and the floor is valid input
+
+            for (int i = 0; i < ranked.size(); i++) {
+                ElevatorCandidate candidate = ranked.get(i);
+                Elevator elevator = candidate.elevator();
+                if (elevator.tryBeginCommit(candidate.version())) {
+                    boolean assigned;
+                    try {
+                        // the car is exactly in the state the scheduler ranked - no re-validation needed
+                        assigned = this.assignRequestToElevator(request, elevator);
+                    } finally {
+                        elevator.endCommit();
+                    }
+                    COMMITS.increment();
+                    ASSIGN_LATENCY.recordSince(start);
+                    if (!assigned) return null; // the call expired or was assigned meanwhile
+                    this.scheduler.assigned(request, elevator);
+                    this.shadowEvaluator.observe(fleet, request, elevator); // one queue offer - the shadows rank on their own thread
+                    return elevator;
+                }
+                // conflict: the car moved / got another assignment since it was ranked - next candidate
+                COMMIT_CONFLICTS.increment();
             }
+            // give the winning committers a chance to finish before re-ranking (a hint, not a sleep)
+            Thread.yield();
+        }
+        // every round lost every CAS (extreme contention) — handle fallback: requeue in buffer for another round of retry
+        RETRIES_EXHAUSTED.increment();
+        LOGGER.info("Max retries reached while trying to assign request: {} to an elevator. Please try again later.", request);
+        System.out.println(ClockProvider.getClock().now() + " - Max retries reached while trying to assign request: " + request + " to an elevator. Please try again later.");
+        if (request.getRequestStatus() == RequestStatus.PENDING) {
+            this.bank.getPendingRequests().offer(request); // no-op if it is already waiting there
         }
-        return bestElevator;
+        return null;
     }
 
-    private void assignRequestToElevator(ElevatorRequest request, Elevator pickUpElevator) {
+    // false when the call is no longer waiting for a car (expired, or assigned meanwhile by another path) - nothing is booked on the car then
+    private boolean assignRequestToElevator(ElevatorRequest request, Elevator pickUpElevator) {
+            boolean wasParking = false;
 
-            // scheduled elevator should be assigned to go to that source floor for pickup
-            // scheduled elevator relevant for only pick-up scenario in global floor call or global dest floor selection
-            pickUpElevator.addFloor(request.getFromSrcFloor());
-            if (request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION) {
-                pickUpElevator.addFloor(request.getToDestFloor()); // always add dest floor to same assigned elevator which picked up the user
-                UserRequestCache.getActiveRequests().put(request.getRequestId(), request);
-            }
-            request.setRequestStatus(RequestStatus.ASSIGNED);
-            request.getIsEnqueued().set(false);
+            // RequestExpiryService takes the same monitor: a call is either expired or assigned, never half of each
+            synchronized (request) {
+                // only a waiting call takes a car: assigning an ASSIGNED one again would book its stops and a seat twice
+                if (request.getRequestStatus() != RequestStatus.PENDING) return false;
 
-//            UserRequestCache.getPendingRequests().remove(request);
+                // a car on its way to park has work now - the parking floor is no stop of it any more
+                int parkingFloor = pickUpElevator.stopParking();
+                if (parkingFloor != AtomicFloorBitSet.NO_FLOOR) {
+                    Helper.clearStopIfUnused(pickUpElevator, parkingFloor);
+                    wasParking = true;
+                }
+                // scheduled elevator should be assigned to go to that source floor for pickup
+                // scheduled elevator relevant for only pick-up scenario in global floor call or global dest floor selection
+                pickUpElevator.addFloor(request.getFromSrcFloor());
+                if (request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION) {
+                    pickUpElevator.addFloor(request.getToDestFloor()); // always add dest floor to same assigned elevator which picked up the user
+                }
+                // active table + per-floor index, hall calls too: the car answers them at the source floor, and a stop another
+                // of its calls still waits at is never cleared (Helper.clearStopIfUnused only sees indexed calls)
+                Helper.activateRequest(request);
+                request.setRequestStatus(RequestStatus.ASSIGNED);
+                request.setAssignedElevator(pickUpElevator); // lets the car recognise its own pickup on arrival, whatever direction it arrives from
+                if (request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION) {
+                    pickUpElevator.reservePickup(); // a seat is held for the rider until it boards, expires or is reassigned
+                }
+                // if it was still waiting in the pending queue (e.g., assigned by a batch meanwhile), drop that entry - O(1) by handle
+                this.bank.getPendingRequests().remove(request);
+            }
 
             // set elevator state if it was idle
-            if (pickUpElevator.isStandingIdle()) {
+            if (pickUpElevator.isStandingIdle() || wasParking) {
                 int currentFloor = pickUpElevator.getCurrentFloor();
                 ElevatorState newState = request.getFromSrcFloor() > currentFloor ? ElevatorState.MOVING_UP : ElevatorState.MOVING_DOWN;
                 pickUpElevator.setElevatorState(newState);
@@ -153,6 +337,11 @@ public class ElevatorDispatcherService  implements Serializable {// ElevatorDisp
 
             // persist change
             this.elevatorRepository.save(pickUpElevator);
+            this.elevatorRepository.save(request);
+
+            // idle cars have no pending movement event - arm the first step now
+            this.elevatorMovementService.wakeUp(pickUpElevator);
+            return true;
     }
 
     public void processPendingRequestsSafely() {
@@ -165,39 +354,44 @@ public class ElevatorDispatcherService  implements Serializable {// ElevatorDisp
 
 
     private void processPendingRequests() {
+        long start = System.nanoTime();
+        try {
+            retryPendingRequests();
+        } finally {
+            PENDING_RETRY.recordSince(start);
+        }
+    }
+
+    private void retryPendingRequests() {
         int maxBatch = 10; // prevents starvation if queue is huge
         int processed = 0;
 
-        while (processed < maxBatch && !UserRequestCache.getPendingRequests().isEmpty()) {
-            ElevatorRequest request = UserRequestCache.getPendingRequests().poll();
+        // poll() serves EMERGENCY first, then aged calls, then VIP, then regular
+        while (processed < maxBatch && !this.bank.getPendingRequests().isEmpty()) {
+            ElevatorRequest request = this.bank.getPendingRequests().poll();
             if (request == null) break;
+            processed++;
+            if (request.getRequestStatus() != RequestStatus.PENDING) continue; // assigned meanwhile by another path, or expired
 
             Elevator assignedElevator = assignRequestToElevator(request);
-            if (assignedElevator == null) {
-                // could not assign → put it back for later retry
-                if (request.getIsEnqueued().compareAndSet(false, true)) {
-                    UserRequestCache.getPendingRequests().offer(request);
-                }
+            // could not assign → put it back for later retry (poll() released it, so the offer is accepted) - but only while
+            // it still waits for a car: a call that expired or got assigned during the attempt would cycle here forever
+            if (assignedElevator == null && request.getRequestStatus() == RequestStatus.PENDING) {
+                this.bank.getPendingRequests().offer(request);
             }
-            processed++;
         }
     }
 
 
-    private static class ElevatorDispatcherServiceHolder {
-//        @Serial
-//        private static final long serialVersionUID = 1L;
-        private static final ElevatorDispatcherService INSTANCE = new ElevatorDispatcherService();
-    }
-
+    // front door for callers that do not care about banks - routes every request to its bank's dispatcher anyway
     public static ElevatorDispatcherService getInstance() {
-        return ElevatorDispatcherServiceHolder.INSTANCE;
+        return ElevatorBanks.getDefaultBank().getDispatcher();
     }
 
-    // This ensures deserialization returns the existing instance
+    // This ensures deserialization returns the existing instance (one per bank)
     @Serial
     protected Object readResolve() {
-        return getInstance();
+        return this.bank.getDispatcher();
     }
 
     @Override
@@ -2,13 +2,15 @@ package com.example.demo.service;
 
 import com.example.demo.IConstants;
 import com.example.demo.cache.ElevatorCache;
-import com.example.demo.cache.UserRequestCache;
+import com.example.demo.bank.ElevatorBanks;
 import com.example.demo.enums.*;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.metrics.StripedCounter;
 import com.example.demo.model.Elevator;
 import com.example.demo.model.ElevatorRequest;
 import com.example.demo.repository.ElevatorRepository;
 import com.example.demo.scheduler.ElevatorScheduler;
-import com.example.demo.scheduler.SCANScheduler;
 import com.example.demo.utility.Helper;
 import lombok.Getter;
 import org.slf4j.Logger;
@@ -37,20 +39,24 @@ public class ElevatorManagerService implements Serializable {// ElevatorDispatch
 
     // Static utility components (shared, not business state) - Read only dependency; Not state change
     private static final Logger LOGGER = LoggerFactory.getLogger(ElevatorManagerService.class);
+
+    // per-elevator lock contention: time spent in tryLock, and how often it gave up
+    private static final LatencyHistogram TRY_LOCK_WAIT = MetricsRegistry.histogram("legacy.tryLock.wait");
+    private static final StripedCounter TRY_LOCK_FAILURES = MetricsRegistry.counter("legacy.tryLock.failures");
     private static final ScheduledExecutorService SCHEDULED_EXECUTOR =
             Executors.newScheduledThreadPool(4);
 
 
     private ElevatorManagerService() {
 //        this.elevators = new ArrayList<>();
-        this.scheduler = new SCANScheduler();
+        this.scheduler = ElevatorScheduler.configured(IConstants.BASE_FLOOR, IConstants.MAX_FLOOR_COUNT); // -Delevator.scheduler
         this.elevatorRepository = new ElevatorRepository();
         this.elevatorMovementService = ElevatorMovementService.getInstance();
         this.initElevator();
 
         // Background retry scheduler (centralized)
         SCHEDULED_EXECUTOR.scheduleAtFixedRate(
-                this::processAllPendingFloorRequests, 0, 1, TimeUnit.MINUTES
+                MetricsRegistry.trackFixedRate("legacy.pendingRetry.task", 1, TimeUnit.MINUTES, this::processAllPendingFloorRequests), 0, 1, TimeUnit.MINUTES
         );
     }
 
@@ -126,10 +132,13 @@ public class ElevatorManagerService implements Serializable {// ElevatorDispatch
         // Perform the multi-step update while holding the elevator lock
         boolean locked = false;
             try{
+                long waitStart = System.nanoTime();
                 locked = pickUpElevator.getLock().tryLock(1, TimeUnit.SECONDS);
+                TRY_LOCK_WAIT.recordSince(waitStart);
                 if (!locked) {
+                    TRY_LOCK_FAILURES.increment();
                     // Couldn't acquire per-elevator lock in time — requeue or handle fallback
-                    UserRequestCache.getPendingRequests().offer(request);
+                    ElevatorBanks.getDefaultBank().getPendingRequests().offer(request);
                     return;
                 }
 
@@ -143,10 +152,10 @@ public class ElevatorManagerService implements Serializable {// ElevatorDispatch
                 request.setRequestStatus(RequestStatus.ASSIGNED);
 
                 if (request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION) {
-                    UserRequestCache.getActiveRequests().put(request.getRequestId(), request);
+                    Helper.activateRequest(request); // active table + per-floor index
                 }
 
-                UserRequestCache.getPendingRequests().remove(request);
+                ElevatorBanks.getDefaultBank().getPendingRequests().remove(request);
 
                 // set elevator state if it was idle
                 if (pickUpElevator.isStandingIdle()) {
@@ -160,7 +169,7 @@ public class ElevatorManagerService implements Serializable {// ElevatorDispatch
                 this.elevatorRepository.save(pickUpElevator);
             } catch (InterruptedException ie) {
                 Thread.currentThread().interrupt();
-                UserRequestCache.getPendingRequests().offer(request);
+                ElevatorBanks.getDefaultBank().getPendingRequests().offer(request);
             } finally {
                 if (locked) {
                     pickUpElevator.getLock().unlock();
@@ -178,8 +187,8 @@ public class ElevatorManagerService implements Serializable {// ElevatorDispatch
 
     public void processAllPendingFloorRequests() {
         // Continuously pull floor request from waiting queue until it gets empty
-        while (!UserRequestCache.getPendingRequests().isEmpty()) {
-            Elevator assignedElevator = this.assignRequestToElevator(UserRequestCache.getPendingRequests().poll());
+        while (!ElevatorBanks.getDefaultBank().getPendingRequests().isEmpty()) {
+            Elevator assignedElevator = this.assignRequestToElevator(ElevatorBanks.getDefaultBank().getPendingRequests().poll());
             if(Objects.isNull(assignedElevator))
                 break;
         }
@@ -209,7 +218,7 @@ public class ElevatorManagerService implements Serializable {// ElevatorDispatch
     // if elevator is already chosen (e.g., in case of in-elevator destination floor selection)
     public void selectDestinationFloorInsideRequestedElevatorForDropOff(Elevator chosenElevator, int requestedFromFloor, int toDestFloor, RequestPriority requestPriority) {
         ElevatorRequest request = new ElevatorRequest(requestPriority, requestedFromFloor, toDestFloor);
-//        UserRequestCache.getPendingRequests().offer(request);
+//        ElevatorBanks.getDefaultBank().getPendingRequests().offer(request);
         // directly assign request to that particular elevator
         this.assignRequestToElevator(request, chosenElevator); // chosen elevator will then reach src floor
     }
@@ -218,7 +227,7 @@ public class ElevatorManagerService implements Serializable {// ElevatorDispatch
     // 3. In case of global Destination Floor Selection, algo needs to decide which elevator to map to
     public void selectDestinationFloorOutsideForBothPickUpAndDropOff(int requestedFromFloor, int toDestFloor, RequestPriority requestPriority) {
         ElevatorRequest request = new ElevatorRequest(requestPriority, requestedFromFloor, toDestFloor);
-        UserRequestCache.getPendingRequests().offer(request);
+        ElevatorBanks.getDefaultBank().getPendingRequests().offer(request);
         // scheduler determines which is best elevator to assign as per floor req
         // and then assigns request to that particular elevator
         this.assignRequestToElevator(request);
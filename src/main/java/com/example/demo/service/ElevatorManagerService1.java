@@ -1,8 +1,12 @@
 package com.example.demo.service;
 
 import com.example.demo.IConstants;
+import com.example.demo.bank.ElevatorBank;
+import com.example.demo.bank.ElevatorBanks;
 import com.example.demo.cache.ElevatorCache;
+import com.example.demo.clock.ClockProvider;
 import com.example.demo.enums.ElevatorState;
+import com.example.demo.metrics.MetricsRegistry;
 import com.example.demo.model.Elevator;
 import com.example.demo.repository.ElevatorRepository;
 import com.example.demo.scheduler.SCANScheduler;
@@ -11,7 +15,6 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -19,7 +22,7 @@ public class ElevatorManagerService1 implements Serializable {
 
     private final ElevatorRepository elevatorRepository;
     private final ElevatorMovementService1 elevatorMovementService;
-    private final ScheduledExecutorService pendingRequestRetryExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final ScheduledExecutorService pendingRequestRetryExecutor = ClockProvider.getClock().newScheduledExecutor("pending-request-retry");
     private final ElevatorDispatcherService elevatorDispatcherService;
 
     public ElevatorManagerService1(){
@@ -31,13 +34,20 @@ public class ElevatorManagerService1 implements Serializable {
 
 
     public void initElevator(){
-        this.createElevator(IConstants.INITIAL_ELEVATOR_COUNT);
-        pendingRequestRetryExecutor.scheduleWithFixedDelay( // we never want the background processing job to run again immediately
-                this.elevatorDispatcherService::processPendingRequestsSafely,
-                1, // initial delay in seconds
-                1,          // cooldown after finish: retry every 1 second
-                TimeUnit.SECONDS
-        );
+        // with -Delevator.persistence.dir the fleet (and its calls) of the previous run comes back instead of a new one
+        if (!ElevatorPersistenceService.getInstance().recover()) {
+            this.createElevator(IConstants.INITIAL_ELEVATOR_COUNT);
+        }
+        // every bank retries its own pending queue with its own dispatcher
+        for (ElevatorBank bank : ElevatorBanks.getBanks()) {
+            String taskName = ElevatorBanks.getBanks().size() == 1 ? "pendingRetry.task" : "pendingRetry.task." + bank.getBankId();
+            pendingRequestRetryExecutor.scheduleWithFixedDelay( // we never want the background processing job to run again immediately
+                    MetricsRegistry.trackFixedDelay(taskName, 1, TimeUnit.SECONDS, bank.getDispatcher()::processPendingRequestsSafely),
+                    1, // initial delay in seconds
+                    1,          // cooldown after finish: retry every 1 second
+                    TimeUnit.SECONDS
+            );
+        }
     }
 
     /*
@@ -53,17 +63,20 @@ public class ElevatorManagerService1 implements Serializable {
      * Cons:
      * Even idle elevators consume 1 scheduled task slot per second, small CPU/memory overhead.
      * In very large systems (hundreds of elevators), many idle threads may be “wasting” cycles.
+     *
+     * Now: event-driven on one shared timing wheel - the elevator is only registered here,
+     * its first movement step is armed by the dispatcher when a request gets assigned to it.
      * */
     public Elevator createElevator(){
         // 1. Create Elevator in IDLE state
         Elevator e = new Elevator(ElevatorState.IDLE);
 
-        // 2. Add to cache & repository
+        // 2. Add to cache & repository (journaled when persistence is on)
         ElevatorCache.elevators.add(e);
         this.elevatorRepository.save(e);
 
-        // 3. Register/Schedule the movement thread immediately after creating the elevator.
-        // This ensures every elevator has a scheduled movement thread from the moment it exists
+        // 3. Register the elevator with the movement engine immediately after creating it.
+        // No thread per elevator: an idle car has no pending event until something is assigned to it
         this.elevatorMovementService.startElevator(e);
         return e;
     }
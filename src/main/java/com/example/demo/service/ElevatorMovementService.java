@@ -1,9 +1,10 @@
 package com.example.demo.service;
 
 import com.example.demo.cache.ElevatorCache;
-import com.example.demo.cache.UserRequestCache;
+import com.example.demo.bank.ElevatorBanks;
 import com.example.demo.enums.ElevatorState;
 import com.example.demo.enums.RequestStatus;
+import com.example.demo.metrics.MetricsRegistry;
 import com.example.demo.model.Elevator;
 import com.example.demo.model.ElevatorRequest;
 import com.example.demo.repository.ElevatorRepository;
@@ -108,7 +109,7 @@ public class ElevatorMovementService implements Serializable {
         ScheduledFuture<?> future;
 //        try (ScheduledExecutorService movementExecutor = Executors.newSingleThreadScheduledExecutor()) {
             future = movementExecutor.scheduleAtFixedRate( //movementExecutor.scheduleAtFixedRate( // Non-Blocking Async Behavior - No Thread.sleep() or waiting involved - The call returns immediately.
-                    () -> moveElevator(elevator.getElevatorId()),
+                    MetricsRegistry.trackFixedRate("legacy.movement.tick", 1, TimeUnit.SECONDS, () -> moveElevator(elevator.getElevatorId())),
                     0, 1, TimeUnit.SECONDS // The action runs 1 seconds later on a different thread.
             );
 //        }
@@ -170,7 +171,7 @@ public class ElevatorMovementService implements Serializable {
         }
 
         // Check if there's a pending request from a person going in the same direction as that of elevator through currently passing floor
-//        Queue<ElevatorRequest> pendingFloorServeRequests = UserRequestCache.getPendingRequests();
+//        Queue<ElevatorRequest> pendingFloorServeRequests = ElevatorBanks.getDefaultBank().getPendingRequests();
 //        return pendingFloorServeRequests.stream()
 //                .anyMatch(request ->
 //                        request.getFromSrcFloor() == targetFloor // pending/unassigned requested floor matches with currently moving floor
@@ -267,7 +268,7 @@ public class ElevatorMovementService implements Serializable {
         // Immutable Snapshot Copy gives you a consistent view of the queue at a single point in time without locking/blocking other threads - maintains concurrency discipline
         // You get deterministic content (snapshot) + You still process in parallel (performance boost)
         // changes to the original queue during processing by multiple threads do not affect this snapshot
-        List<ElevatorRequest> localSnapshotOfPendingRequests = new ArrayList<>(UserRequestCache.getPendingRequests());
+        List<ElevatorRequest> localSnapshotOfPendingRequests = new ArrayList<>(ElevatorBanks.getDefaultBank().getPendingRequests());
         localSnapshotOfPendingRequests.parallelStream()
                     .filter(r -> r.getToDestFloor() == floor && r.getRequestStatus() == RequestStatus.IN_PROGRESS)
                     .forEach(r -> {
@@ -1,23 +1,34 @@
 package com.example.demo.service;
 
+import com.example.demo.IConstants;
 import com.example.demo.cache.ElevatorCache;
-import com.example.demo.cache.UserRequestCache;
+import com.example.demo.bank.ElevatorBank;
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.customds.AtomicFloorBitSet;
 import com.example.demo.enums.ElevatorState;
+import com.example.demo.enums.RequestDirection;
 import com.example.demo.enums.RequestStatus;
+import com.example.demo.enums.RequestType;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.metrics.StripedCounter;
 import com.example.demo.model.Elevator;
 import com.example.demo.model.ElevatorRequest;
 import com.example.demo.repository.ElevatorRepository;
+import com.example.demo.scheduler.ElevatorScheduler;
+import com.example.demo.threading.ThreadingProvider;
 import com.example.demo.utility.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /*
 * Core Idea of Async Non-Blocking Execution
@@ -42,20 +53,50 @@ public class ElevatorMovementService1 implements Serializable {
     // Instance-level mutable state - state change is involved - hence non-static below
     private final ElevatorRepository elevatorRepository;
 
-    // Optional: track scheduled tasks if you want to cancel later
-    private final ConcurrentMap<String, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
+    /*
+    * Event-driven movement on ONE shared timer (a hashed timing wheel in real-time mode, the event queue in simulation mode)
+    * instead of one executor thread ticking every elevator every second:
+    *   - a moving car has exactly one pending event: its next floor step
+    *   - a car in a door cycle has its door open/close events pending and no step
+    *   - an idle car has nothing pending at all; the dispatcher wakes it up on assignment (wakeUp)
+    * So 1,000 cars cost a handful of threads, and idle cars cost no CPU.
+    * */
+    private final ScheduledExecutorService movementScheduler;
+
+    // cars with a pending step event - at most one step per car is ever queued or running
+    private final Set<String> armedElevators = ConcurrentHashMap.newKeySet();
+
+    // cars whose doors are opening/loading/closing - no step may be scheduled until the doors are closed
+    private final Set<String> doorCycleElevators = ConcurrentHashMap.newKeySet();
+
+    private static final long FLOOR_TRAVEL_MILLIS = 1000; // one floor per second, same pace as the old fixed-rate tick
 
-    private final Map<String, ScheduledExecutorService> elevatorExecutors = new ConcurrentHashMap<>();
+    // virtual-thread mode: each elevator runs its own blocking control loop instead of wheel events
+    private final boolean useVirtualControlLoops;
+    private final ConcurrentMap<String, ElevatorControlLoop> controlLoops = new ConcurrentHashMap<>();
 
     // Static utility components (shared, not business state) - Read only dependency - No state change
     private static final Logger LOGGER = LoggerFactory.getLogger(ElevatorMovementService1.class);
 
+    // lateness of each floor step against its due time - timer precision + worker queueing (real-time mode only)
+    private static final LatencyHistogram STEP_JITTER = MetricsRegistry.histogram("movement.step.jitter");
+    // full cars running through a stop nobody gets off at, and riders sent back to the dispatcher because their car had no room
+    private static final StripedCounter FULL_CAR_BYPASSES = MetricsRegistry.counter("movement.fullCarBypasses");
+    private static final StripedCounter PICKUPS_REASSIGNED = MetricsRegistry.counter("movement.pickupsReassigned");
+    private static final StripedCounter PARKING_RUNS = MetricsRegistry.counter("movement.parkingRuns");
+
+    // idle cars move to the floors their bank expects the next calls at (ParkingPolicy) - off: they stay where they stopped
+    private final boolean parkingEnabled = Boolean.getBoolean("elevator.parking");
+    private final boolean recordStepJitter = !ClockProvider.getClock().isVirtual();
+
 
     private ElevatorMovementService1() {
         this.elevatorRepository = new ElevatorRepository();
-        int noOfElevators = this.elevatorRepository.findCountOfElevators();
-        // used to run the given tasks periodically or once after a given certain delay without blocking the caller.
-        // Start movement processing for each elevator
+        // used to run the given tasks once after a given certain delay without blocking the caller.
+        // shared by all elevators - comes from the elevator clock, so simulation mode replays the very same events
+        this.movementScheduler = ClockProvider.getClock().sharedScheduler();
+        // a control loop sleeps in wall time, so it only makes sense on the wall clock; simulations always stay event-driven
+        this.useVirtualControlLoops = ThreadingProvider.isVirtual() && !ClockProvider.getClock().isVirtual();
     }
 
     /*
@@ -67,29 +108,135 @@ public class ElevatorMovementService1 implements Serializable {
 
 
     // call this from manager after creating a new elevator
+    // nothing to schedule for a new (idle) car - it is woken up by its first assignment
     public void startElevator(Elevator elevator) {
-        scheduleElevator(elevator);
+        wakeUp(elevator);
     }
 
-    /**
-     * Submits a periodic action that becomes enabled first after the given initial delay, and subsequently with the given period;
-     * That is, executions will commence in AP series like: after initialDelay, then initialDelay + period, then initialDelay + 2 * period, and so on.
-     */
-
-    private void scheduleElevator(Elevator elevator) {
-        if (scheduledTasks.containsKey(elevator.getElevatorId())) return;
-        ScheduledExecutorService movementExecutor = Executors.newSingleThreadScheduledExecutor();
-
-        // Monitoring started: Monitoring and moves the elevator every second if needed
-        // Do not use try-with-resources for an executor you intend to keep running
-        // Executor Per Elevator On-Demand
-        ScheduledFuture<?> future = movementExecutor.scheduleAtFixedRate( // Non-Blocking Async Behavior - No Thread.sleep() or waiting involved - The call returns immediately.
-                () -> moveElevatorOrNot(elevator.getElevatorId()),
-                0, 1, TimeUnit.SECONDS // The action runs 1 seconds later on a different thread.
-        );
-
-        elevatorExecutors.put(elevator.getElevatorId(), movementExecutor);// to stop, cancel, restart, or manage an elevator’s movement thread later
-        scheduledTasks.put(elevator.getElevatorId(), future);
+    // called by ElevatorBanks when a car leaves the fleet - its virtual control loop ends instead of parking forever
+    // (event-driven mode keeps nothing per car: a pending step of a car with stops left simply runs out)
+    public void stopElevator(Elevator elevator) {
+        ElevatorControlLoop loop = controlLoops.get(elevator.getElevatorId());
+        if (loop != null && loop.elevator == elevator && controlLoops.remove(elevator.getElevatorId(), loop)) {
+            loop.stop();
+        }
+    }
+
+    /*
+    * Arm the next floor step of a car that has somewhere to go.
+    * Called by the dispatcher after an assignment, by the door cycle after doors close, and by the step itself.
+    * No-op for idle/loading cars, cars in a door cycle and cars that already have a step pending.
+    * */
+    public void wakeUp(Elevator elevator) {
+        if (useVirtualControlLoops) {
+            // a car that left the fleet gets no loop - a late door-close event would start one that parks forever
+            if (elevator.getBank() == null) return;
+            ElevatorControlLoop loop = controlLoops.get(elevator.getElevatorId());
+            if (loop == null) {
+                ElevatorControlLoop created = new ElevatorControlLoop(elevator);
+                loop = controlLoops.putIfAbsent(elevator.getElevatorId(), created);
+                if (loop == null) {
+                    loop = created.start(); // outside the map: no thread is started inside a ConcurrentHashMap mapping
+                    // left between the check above and the put - stopElevator may have run before the loop was in the map
+                    if (elevator.getBank() == null) stopElevator(elevator);
+                }
+            }
+            loop.signal();
+            return;
+        }
+        if (!needsNextStep(elevator)) return;
+        if (armedElevators.add(elevator.getElevatorId())) {
+            scheduleStep(elevator);
+        }
+    }
+
+    private void scheduleStep(Elevator elevator) {
+        // Non-Blocking Async Behavior - No Thread.sleep() or waiting involved - The call returns immediately.
+        long dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLOOR_TRAVEL_MILLIS);
+        movementScheduler.schedule(() -> {
+            if (recordStepJitter) STEP_JITTER.record(System.nanoTime() - dueNanos); // how late the timer fired
+            step(elevator);
+        }, FLOOR_TRAVEL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean needsNextStep(Elevator elevator) {
+        return !elevator.isStandingIdle()
+                && elevator.getElevatorState() != ElevatorState.LOADING
+                && !doorCycleElevators.contains(elevator.getElevatorId());
+    }
+
+    private void step(Elevator elevator) {
+        try {
+            moveElevatorOrNot(elevator);
+        } catch (RuntimeException ex) {
+            // a periodic task would have died silently here; a one-shot step just logs and carries on with the next one
+            LOGGER.error("Movement step failed for elevator {}", elevator.getElevatorId(), ex);
+        }
+        if (needsNextStep(elevator)) {
+            scheduleStep(elevator); // still armed - keep moving
+            return;
+        }
+        armedElevators.remove(elevator.getElevatorId());
+        // double check: an assignment may have raced with the disarm above and found the car still armed
+        wakeUp(elevator);
+    }
+
+    /*
+    * Virtual-thread controller of one elevator: plain blocking code, one thread per car.
+    *   idle / doors cycling -> park on the semaphore until wakeUp() (costs no carrier thread while parked)
+    *   moving               -> sleep one floor travel time, then take one step
+    * Door open/close events still come from the shared scheduler; the door-close event wakes the loop up again.
+    * The loop ends when its car leaves the fleet (stopElevator interrupts it, parked or sleeping).
+    * */
+    private final class ElevatorControlLoop implements Runnable {
+        private final Elevator elevator;
+        private final Semaphore wakeUps = new Semaphore(0);
+        private Thread thread;     // guarded by this - start and stop may race (wakeUp vs. stopElevator)
+        private boolean stopped;
+
+        private ElevatorControlLoop(Elevator elevator) {
+            this.elevator = elevator;
+        }
+
+        // started once constructed - the thread never sees a half-built loop; never started once stopped
+        synchronized ElevatorControlLoop start() {
+            if (!this.stopped && this.thread == null) {
+                this.thread = ThreadingProvider.startVirtualLoop("elevator-" + elevator.getElevatorId(), this);
+            }
+            return this;
+        }
+
+        void signal() {
+            wakeUps.release();
+        }
+
+        synchronized void stop() {
+            this.stopped = true;
+            if (this.thread != null) this.thread.interrupt();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (!needsNextStep(elevator)) {
+                        wakeUps.acquire();      // a wakeUp() between the check and here leaves a permit - no lost signal
+                        wakeUps.drainPermits(); // coalesce a burst of assignments into one check
+                        continue;
+                    }
+                    long dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLOOR_TRAVEL_MILLIS);
+                    Thread.sleep(FLOOR_TRAVEL_MILLIS); // unmounts the virtual thread - no OS thread held during travel
+                    STEP_JITTER.record(System.nanoTime() - dueNanos);
+                    try {
+                        moveElevatorOrNot(elevator);
+                    } catch (RuntimeException ex) {
+                        LOGGER.error("Movement step failed for elevator {}", elevator.getElevatorId(), ex);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /*
@@ -107,30 +254,176 @@ public class ElevatorMovementService1 implements Serializable {
     */
 
     private void processFloorRequests(Elevator elevator, int floor) {
-        List<ElevatorRequest> floorRequests = Helper.getActiveRequestsFromFloor(floor);
-        for (ElevatorRequest request : floorRequests) {
-            if (Helper.checkElevatorMovingInSameDirectionAsFloorReq(elevator, request)
-                    || elevator.isStandingIdle()) {
-                elevator.addFloor(request.getToDestFloor());
-                request.setRequestStatus(RequestStatus.IN_PROGRESS);
-                Helper.makePendingRequestActiveForServing(request);
+        // only the requests waiting at this floor are visited; both lanes, since a car also boards its own assigned pickups
+        // when it reaches them against their direction
+        ElevatorScheduler scheduler = ElevatorBanks.bankOf(elevator).getDispatcher().getScheduler();
+        Helper.forEachActiveRequestFromFloor(ElevatorBanks.bankOf(elevator), floor, RequestDirection.NONE, request -> {
+            if ((Helper.checkElevatorMovingInSameDirectionAsFloorReq(elevator, request)
+                    || elevator.isStandingIdle()
+                    || request.getAssignedElevator() == elevator)
+                    && scheduler.canBoard(elevator, request) // a zoned scheduler keeps riders for their own zone's car
+                    && pickUp(elevator, request)) {
+                if (request.getRequestStatus() == RequestStatus.IN_PROGRESS) {
+                    Helper.makePendingRequestActiveForServing(request); // an answered hall call is retired already
+                }
+                this.elevatorRepository.save(request);
+            }
+        });
+        reassignPickupsLeftBehind(elevator, floor);
+    }
+
+    // passenger boards: destination becomes a stop of this elevator and the request moves to the destination side of the index
+    // (a passing car may board someone assigned to another car - from now on the request belongs to the car carrying the rider)
+    // false when the call expired just before the car got here (RequestExpiryService holds the same monitor), or there is no room:
+    // the car's own rider needs a free seat, anybody else's a seat nobody was promised (the car's reserved pickups stay free)
+    // A hall call (FLOOR_DIRECTION_CALL) has no destination to ride to: the car opening here with room answers it - COMPLETED,
+    // off the TTL wheel and out of the index; the rider's destination is a car call of its own.
+    private boolean pickUp(Elevator elevator, ElevatorRequest request) {
+        synchronized (request) {
+            RequestStatus status = request.getRequestStatus();
+            if (status != RequestStatus.PENDING && status != RequestStatus.ASSIGNED) return false; // expired, or answered by another car
+            Elevator reservedOn = request.getRequestStatus() == RequestStatus.ASSIGNED
+                    && request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION ? request.getAssignedElevator() : null;
+            boolean ownRider = reservedOn == elevator;
+            int seatsTaken = ownRider ? elevator.getOccupancy() : elevator.getCommittedRiders();
+            if (seatsTaken >= IConstants.MAX_HOLDING_CAPACITY) return false;
+            if (request.getRequestType() == RequestType.FLOOR_DIRECTION_CALL) {
+                LocalDateTime now = ClockProvider.getClock().now();
+                request.setAssignedElevator(elevator);
+                request.setPickedUpAt(now);
+                request.setCompletedAt(now);
+                request.setRequestStatus(RequestStatus.COMPLETED); // volatile - readers see the timestamps with it
+                Helper.retireRequest(request); // cancels the expiry timer too
+                return true;
+            }
+            if (reservedOn != null && !ownRider) reservedOn.releasePickup(); // boards a passing car - its own car keeps no seat for it
+            elevator.board(ownRider);
+            request.cancelExpiry(); // on board - no longer expirable
+            request.setAssignedElevator(elevator);
+            elevator.addFloor(request.getToDestFloor());
+            request.setRequestStatus(RequestStatus.IN_PROGRESS);
+            request.setPickedUpAt(ClockProvider.getClock().now());
+            ElevatorBanks.route(request).getFloorRequestIndex().markPickedUp(request);
+        }
+        return true;
+    }
+
+    // passengers of this car riding to this floor get off: mark completed and drop them from active table & index
+    private void completeRequestsToFloor(Elevator elevator, int floor) {
+        Helper.forEachRequestToFloor(ElevatorBanks.bankOf(elevator), floor, RequestDirection.NONE, request -> {
+            if (request.getRequestStatus() == RequestStatus.IN_PROGRESS && request.getAssignedElevator() == elevator) {
+                request.setRequestStatus(RequestStatus.COMPLETED);
+                request.setCompletedAt(ClockProvider.getClock().now());
+                elevator.alight();
+                Helper.retireRequest(request);
+                this.elevatorRepository.save(request);
+            }
+        });
+    }
+
+    /*
+    * Idle-car parking (-Delevator.parking=true): a car that has just gone idle - and every idle car each time its bank
+    * publishes a new DemandForecast - is sent to the floor its bank's ParkingPolicy picks. Committed like an
+    * assignment (version CAS), so it never races a dispatcher handing the car a call at the same moment; the
+    * dispatcher in turn cancels the parking run of a car it assigns. A parking car is still idle for the ranking
+    * purposes that matter: free, with no rider.
+    * */
+    public void parkIfIdle(Elevator elevator) {
+        if (!this.parkingEnabled) return;
+        long version = elevator.getVersion();
+        if (!elevator.isStandingIdle() || !elevator.getAssignedFloors().isEmpty()) return;
+        ElevatorBank bank = ElevatorBanks.bankOf(elevator);
+        if (bank == null) return; // left the fleet
+        int floor = bank.getParkingPolicy().parkingFloor(bank.getFleetSnapshot(), elevator, bank.getDemandForecaster().current());
+        if (floor == AtomicFloorBitSet.NO_FLOOR || floor == elevator.getCurrentFloor()) return;
+        if (!elevator.tryBeginCommit(version)) return; // the car changed meanwhile (got a call) - nothing to park
+        try {
+            elevator.park(floor);
+            elevator.addFloor(floor);
+            elevator.setElevatorState(floor > elevator.getCurrentFloor() ? ElevatorState.MOVING_UP : ElevatorState.MOVING_DOWN);
+        } finally {
+            elevator.endCommit();
+        }
+        PARKING_RUNS.increment();
+        this.elevatorRepository.save(elevator);
+        wakeUp(elevator);
+    }
+
+    // reached the parking floor without a call on the way: the car just goes idle there, doors closed
+    // false when it got a call meanwhile - then the floor is a regular stop (the commit keeps the two apart)
+    private boolean arriveParked(Elevator elevator, int floor) {
+        long version = elevator.getVersion();
+        if (elevator.getParkingFloor() != floor || !elevator.tryBeginCommit(version)) return false;
+        try {
+            if (elevator.getParkingFloor() != floor) return false;
+            elevator.stopParking();
+            elevator.removeFloor(floor);
+            if (elevator.getAssignedFloors().isEmpty()) elevator.setElevatorState(ElevatorState.IDLE);
+        } finally {
+            elevator.endCommit();
+        }
+        return true;
+    }
+
+    /*
+    * Riders assigned to this car, still waiting at this floor after it boarded whom it could - the car is full.
+    * They go back to their bank's dispatcher as new calls (status PENDING, seat released, out of the index, TTL still
+    * running): another car with room takes them, or they wait in the pending queue until one has room. Stops only they
+    * needed are cleared from this car.
+    * */
+    private void reassignPickupsLeftBehind(Elevator elevator, int floor) {
+        List<ElevatorRequest> leftBehind = new ArrayList<>();
+        Helper.forEachActiveRequestFromFloor(ElevatorBanks.bankOf(elevator), floor, RequestDirection.NONE, request -> {
+            if (request.getRequestStatus() == RequestStatus.ASSIGNED && request.getAssignedElevator() == elevator) {
+                leftBehind.add(request);
+            }
+        });
+        for (ElevatorRequest request : leftBehind) {
+            synchronized (request) { // same monitor as pickup, expiry and assignment
+                if (request.getRequestStatus() != RequestStatus.ASSIGNED || request.getAssignedElevator() != elevator) continue;
+                Helper.deactivateRequest(request);
+                request.setRequestStatus(RequestStatus.PENDING);
+                request.setAssignedElevator(null);
+                if (request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION) elevator.releasePickup();
+            }
+            Helper.clearStopIfUnused(elevator, request.getFromSrcFloor());
+            if (request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION) {
+                Helper.clearStopIfUnused(elevator, request.getToDestFloor()); // a hall call has no destination stop
             }
+            PICKUPS_REASSIGNED.increment();
+            LOGGER.info("Elevator {} is full - reassigning request {}", elevator.getElevatorId(), request.getRequestId());
+            this.elevatorRepository.save(request);
+            ElevatorBanks.route(request).getDispatcher().assignRequestToElevator(request); // pending queue when no car has room
         }
     }
 
+    // a full car stops only where one of its riders gets off
+    private boolean hasRiderGettingOffAt(Elevator elevator, int floor) {
+        boolean[] alighting = {false};
+        Helper.forEachRequestToFloor(ElevatorBanks.bankOf(elevator), floor, RequestDirection.NONE, request -> alighting[0] |=
+                request.getRequestStatus() == RequestStatus.IN_PROGRESS && request.getAssignedElevator() == elevator);
+        return alighting[0];
+    }
+
     private void handleArrivalForAssignedFloor(Elevator elevator) {
         int currentFloor = elevator.getCurrentFloor();
+        if (elevator.getParkingFloor() == currentFloor) elevator.stopParking();
 
         // Remove this floor from assigned floor list for serving elevator
         elevator.removeFloor(currentFloor);
 
+        // Drop off passengers riding to this floor
+        completeRequestsToFloor(elevator, currentFloor);
+
         // Process any requests from this floor
         processFloorRequests(elevator, currentFloor);
 
         // Determine next direction or go idle
         if (elevator.getAssignedFloors().isEmpty()) {
             elevator.setElevatorState(ElevatorState.IDLE);
-            ElevatorManagerService.getInstance().processAllPendingFloorRequests();
+            // car became free - give queued requests of its bank a chance right away (the bank's own dispatcher)
+            ElevatorBanks.bankOf(elevator).getDispatcher().processPendingRequestsSafely();
+            parkIfIdle(elevator); // nothing queued for it - wait where the next calls are expected
         } else {
             int nextFloor = elevator.findNearestImmediateFloor();
             ElevatorState newState = nextFloor > currentFloor ? ElevatorState.MOVING_UP : ElevatorState.MOVING_DOWN;
@@ -147,7 +440,7 @@ public class ElevatorMovementService1 implements Serializable {
         }
 
         // Check if there's a pending request from a person going in the same direction as that of elevator through currently passing floor
-//        Queue<ElevatorRequest> pendingFloorServeRequests = UserRequestCache.getPendingRequests();
+//        Queue<ElevatorRequest> pendingFloorServeRequests = ElevatorBanks.bankOf(elevator).getPendingRequests();
 //        return pendingFloorServeRequests.stream()
 //                .anyMatch(request ->
 //                        request.getFromSrcFloor() == targetFloor // pending/unassigned requested floor matches with currently moving floor
@@ -183,6 +476,7 @@ public class ElevatorMovementService1 implements Serializable {
             // Move one floor step by step
             moveOneFloor(elevator, toBeServedNearestAssignedFloor);
         }
+        this.elevatorRepository.save(elevator); // new floor / state / stops - journaled when persistence is on
     }
 
     // Target floor can be floor from where to pick (src) or floor to drop (dest)
@@ -199,7 +493,16 @@ public class ElevatorMovementService1 implements Serializable {
         // From Pending Req: if a user request comes all of a sudden while the elevator is moving
         // OR Active Req Assigned: if this floor is already assigned to this elevator as active floor request
         if (shouldStopAtFloor(elevator, nextFloor)) {
-            stopAtFloor(elevator, nextFloor);
+            if (arriveParked(elevator, nextFloor)) {
+                return; // nobody to serve here - no door cycle
+            }
+            if (elevator.isFull() && !hasRiderGettingOffAt(elevator, nextFloor)) {
+                // nobody can board and nobody gets off - no door cycle; the riders waiting here go to a car with room
+                FULL_CAR_BYPASSES.increment();
+                reassignPickupsLeftBehind(elevator, nextFloor);
+            } else {
+                stopAtFloor(elevator, nextFloor);
+            }
         }
     }
 
@@ -209,71 +512,72 @@ public class ElevatorMovementService1 implements Serializable {
     * */
     private void simulateDoorOperations(Elevator elevator, Runnable afterDoorCloseAction) {
 
-        ScheduledExecutorService movementExecutor = elevatorExecutors.get(elevator.getElevatorId());
-        if (movementExecutor == null) {
-            LOGGER.warn("No executor for elevator {}", elevator.getElevatorId());
-            // fallback: run after action directly or schedule on a shared fallback executor
-            if (afterDoorCloseAction != null) afterDoorCloseAction.run();
-            return;
-        }
+        // no movement step while the doors cycle - wakeUp() ignores this car until the close event below
+        doorCycleElevators.add(elevator.getElevatorId());
 
         System.out.printf("[Elevator %s] Doors opening at floor %d%n.",
                 elevator.getElevatorId(), elevator.getCurrentFloor());
 
         // Door open + loading + door close simulation (non-blocking)
 
-        movementExecutor.schedule(() -> {
+        movementScheduler.schedule(() -> {
             elevator.setElevatorState(ElevatorState.LOADING);
+            this.elevatorRepository.save(elevator);
             System.out.printf("[Elevator %s] Door opened in 1 sec. Loading passengers...%n", elevator.getElevatorId());
         }, 1, TimeUnit.SECONDS); // door open time
 
-        movementExecutor.schedule(() -> {
+        movementScheduler.schedule(() -> {
             System.out.printf("[Elevator %s] Passenger Loaded in 10 sec. Doors closing in 1 sec...%n", elevator.getElevatorId());
-            if (afterDoorCloseAction != null) {
-                afterDoorCloseAction.run();
+            try {
+                if (afterDoorCloseAction != null) {
+                    afterDoorCloseAction.run();
+                }
+                this.elevatorRepository.save(elevator);
+            } finally {
+                doorCycleElevators.remove(elevator.getElevatorId());
+                wakeUp(elevator); // resume towards the next stop, if any
             }
         }, 11, TimeUnit.SECONDS); // total: ~10 sec load + 1 sec close
     }
 
     private void stopAtFloor(Elevator elevator, int floor) {
+        if (elevator.getParkingFloor() == floor) elevator.stopParking(); // riders were waiting at the parking floor after all
 
         // Remove this floor from assigned floor list for serving elevator
         elevator.removeFloor(floor);
 
+        // If any in-elevator requests target this floor, mark them completed - riders get off before the waiting ones get on
+        // Riders are indexed by destination floor on pickup, so this is a direct lookup instead of a snapshot scan of a whole queue
+        completeRequestsToFloor(elevator, floor);
+
         // Process requests originating at this floor (assign elevator destinations and update statuses)
-        List<ElevatorRequest> floorRequests = Helper.getActiveRequestsFromFloor(floor);
-        for (ElevatorRequest request : floorRequests) {
-            if (
+        // Only this floor's slot of the per-floor index is visited - cost no longer grows with the number of in-flight requests in the building
+        ElevatorScheduler scheduler = ElevatorBanks.bankOf(elevator).getDispatcher().getScheduler();
+        Helper.forEachActiveRequestFromFloor(ElevatorBanks.bankOf(elevator), floor, RequestDirection.NONE, request -> {
+            if ((
 //                    request.getRequestStatus() == RequestStatus.PENDING
 //                    &&
-                    Helper.checkElevatorMovingInSameDirectionAsFloorReq(elevator, request)) {
+                    Helper.checkElevatorMovingInSameDirectionAsFloorReq(elevator, request)
+                    || request.getAssignedElevator() == elevator)
+                    && scheduler.canBoard(elevator, request)) {
                 // assign this elevator to the request: mark in-progress and add destination
-                request.setRequestStatus(RequestStatus.IN_PROGRESS);
-
-                elevator.addFloor(request.getToDestFloor());
+                if (pickUp(elevator, request)) {
+                    this.elevatorRepository.save(request);
+                }
 //                Helper.makePendingRequestActiveForServing(request);
             }
-        }
-
-        // If any in-elevator requests target this floor, mark them completed
-        // Inherently Provides Strong temporal consistency — Gives effectively that particular point-in-time/moment view of the queue ie “data as of moment T” (working on a stale copy than live data but ensuring consistent view of the data) although the original queue may be changing concurrently by other threads
-        // Immutable Snapshot Copy gives you a consistent view of the queue at a single point in time without locking/blocking other threads - maintains concurrency discipline
-        // You get deterministic content (snapshot) + You still process in parallel (performance boost)
-        // changes to the original queue during processing by multiple threads do not affect this snapshot
-        List<ElevatorRequest> localSnapshotOfPendingRequests = new ArrayList<>(UserRequestCache.getPendingRequests());
-        localSnapshotOfPendingRequests.parallelStream()
-                    .filter(r -> r.getToDestFloor() == floor && r.getRequestStatus() == RequestStatus.IN_PROGRESS)
-                    .forEach(r -> {
-                        r.setRequestStatus(RequestStatus.COMPLETED);
-                });
+        });
+        reassignPickupsLeftBehind(elevator, floor);
 
         // Note: do not block thread here (no sleeping). Door open/close timings should be handled elsewhere if needed.
         // Simulate doors open/close & continue movement afterwards
 
+        // direction of travel into this stop - the car is LOADING by the time the doors close
+        boolean wasMovingUp = elevator.isMovingUp();
         simulateDoorOperations(elevator, () -> {
             // if elevator has still some assigned active destination floor requests ready to be served
             if (!elevator.getAssignedFloors().isEmpty()) {
-                int nextFloor = elevator.findNearestImmediateFloor();
+                int nextFloor = elevator.findNextFloorAfterStop(wasMovingUp);
                 ElevatorState newState = nextFloor > floor ? ElevatorState.MOVING_UP : ElevatorState.MOVING_DOWN;
                 elevator.setElevatorState(newState);
                 System.out.printf("[Elevator %s] Resuming movement towards floor %d%n",
@@ -282,6 +586,7 @@ public class ElevatorMovementService1 implements Serializable {
                 elevator.setElevatorState(ElevatorState.IDLE);
                 System.out.printf("[Elevator %s] Now idle at floor %d%n",
                         elevator.getElevatorId(), floor);
+                parkIfIdle(elevator);
             }
         });
     }
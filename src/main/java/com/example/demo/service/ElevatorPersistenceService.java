@@ -0,0 +1,226 @@
+package com.example.demo.service;
+
+import com.example.demo.bank.ElevatorBank;
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.enums.RequestType;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.repository.ElevatorJournal;
+import com.example.demo.repository.ElevatorRepository;
+import com.example.demo.repository.ElevatorSnapshot;
+import com.example.demo.repository.PersistedState;
+import com.example.demo.utility.Helper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+* Survive a restart: cars and in-flight calls are rebuilt from disk instead of starting from an empty building.
+*
+*   journal  - every save() of a car / request appends its new state (ElevatorJournal, group committed)
+*   snapshot - every -Delevator.snapshot.intervalSeconds (default 300) all cars + live calls are written compactly
+*              (ElevatorSnapshot), and journal segments older than the kept snapshots are deleted
+*   restart  - latest snapshot + journal tail replayed on top, then the calls are put back where they were:
+*              PENDING   -> pending queue
+*              ASSIGNED  -> active table / per-floor index of its car (back to PENDING if the car is gone)
+*              IN_PROGRESS -> riding to its destination
+*              car occupancy / reserved seats are counted back from these two
+*              both unpicked states get their TTL timer back, counting from the original submission
+*
+* Off unless -Delevator.persistence.dir=<directory> is set; without it nothing is journaled and save() costs nothing extra.
+* */
+public class ElevatorPersistenceService implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElevatorPersistenceService.class);
+
+    private final Path directory; // null = persistence disabled
+    private final long snapshotIntervalSeconds;
+    private final ElevatorRepository elevatorRepository;
+    private final AtomicBoolean recovered = new AtomicBoolean(false);
+    private ScheduledExecutorService snapshotExecutor;
+
+    private ElevatorPersistenceService() {
+        String dir = System.getProperty("elevator.persistence.dir");
+        this.directory = (dir == null || dir.isBlank()) ? null : Path.of(dir);
+        this.snapshotIntervalSeconds = Long.getLong("elevator.snapshot.intervalSeconds", 300L);
+        this.elevatorRepository = new ElevatorRepository();
+    }
+
+    public boolean isEnabled() {
+        return this.directory != null;
+    }
+
+    /*
+    * Called once at startup, before any car is created. Rebuilds the persisted state, opens the journal after it and
+    * starts the periodic snapshots. Returns true when cars were restored - the caller then skips creating the initial fleet.
+    * */
+    public boolean recover() {
+        if (!isEnabled() || !this.recovered.compareAndSet(false, true)) return false;
+        try {
+            long start = System.nanoTime();
+            PersistedState state = ElevatorSnapshot.recover(this.directory);
+            // appends continue right after the last valid record - the restored cars below are the first records
+            ElevatorRepository.useJournal(new ElevatorJournal(this.directory, state.getJournalPosition()));
+            int restoredRequests = this.install(state);
+            LOGGER.info("Restored {} cars and {} requests from {} in {} ms",
+                    state.getCars().size(), restoredRequests, this.directory, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            this.snapshotExecutor = ClockProvider.getClock().newScheduledExecutor("elevator-snapshot");
+            this.snapshotExecutor.scheduleWithFixedDelay(
+                    MetricsRegistry.trackFixedDelay("snapshot.task", this.snapshotIntervalSeconds, TimeUnit.SECONDS, this::snapshotSafely),
+                    this.snapshotIntervalSeconds, this.snapshotIntervalSeconds, TimeUnit.SECONDS);
+            // a normal exit forces the last group commit window too
+            Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "elevator-persistence-shutdown"));
+            return !state.getCars().isEmpty();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not restore elevator state from " + this.directory, ex);
+        }
+    }
+
+    private int install(PersistedState state) {
+        ElevatorMovementService1 movementService = ElevatorMovementService1.getInstance();
+        RequestExpiryService expiryService = RequestExpiryService.getInstance();
+
+        List<Elevator> cars = new ArrayList<>(state.getCars());
+        for (Elevator elevator : cars) {
+            // a door cycle in progress at shutdown is not resumed - the car continues (or idles) with closed doors
+            if (elevator.getElevatorState() == ElevatorState.LOADING
+                    || elevator.isMoving() && elevator.getAssignedFloors().isEmpty()) {
+                elevator.setElevatorState(this.directionOf(elevator));
+            }
+            this.elevatorRepository.save(elevator); // repository table + ElevatorCache, and journaled as the new segment's first record
+        }
+
+        int restored = 0;
+        for (ElevatorRequest request : state.getRequests()) {
+            Elevator car = request.getAssignedElevator();
+            RequestStatus status = request.getRequestStatus();
+            if (status == RequestStatus.ASSIGNED && car == null) {
+                request.setRequestStatus(RequestStatus.PENDING); // its car no longer exists - assign it again
+                status = RequestStatus.PENDING;
+            }
+            // a call already on a car belongs to that car's bank; a waiting one is routed afresh
+            if (car != null && status != RequestStatus.PENDING) {
+                request.setBank(ElevatorBanks.bankOf(car));
+            }
+            switch (status) {
+                case PENDING -> ElevatorBanks.route(request).getPendingRequests().offer(request);
+                case ASSIGNED -> {
+                    // a floor-direction call is already a stop of its car (the car record holds it) - it only waits to be answered
+                    if (request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION) {
+                        car.addFloor(request.getFromSrcFloor());
+                        car.addFloor(request.getToDestFloor());
+                        car.reservePickup(); // occupancy is not journaled - rebuilt from the riders
+                    }
+                    Helper.activateRequest(request);
+                }
+                case IN_PROGRESS -> {
+                    if (car == null) continue; // rider of a car that no longer exists
+                    car.addFloor(request.getToDestFloor());
+                    car.board(false);
+                    Helper.activateRequest(request);
+                    ElevatorBanks.route(request).getFloorRequestIndex().markPickedUp(request);
+                }
+                default -> {
+                    continue;
+                }
+            }
+            if (status != RequestStatus.IN_PROGRESS) {
+                expiryService.track(request); // TTL keeps counting from the original submission
+            }
+            restored++;
+        }
+
+        // cars with stops get their next step armed; idle ones wait for their first assignment as usual
+        for (Elevator elevator : cars) {
+            if (elevator.isStandingIdle() && !elevator.getAssignedFloors().isEmpty()) {
+                elevator.setElevatorState(this.directionOf(elevator));
+            }
+            movementService.startElevator(elevator);
+        }
+        return restored;
+    }
+
+    private ElevatorState directionOf(Elevator elevator) {
+        if (elevator.getAssignedFloors().isEmpty()) return ElevatorState.IDLE;
+        return elevator.findNearestImmediateFloor() >= elevator.getCurrentFloor() ? ElevatorState.MOVING_UP : ElevatorState.MOVING_DOWN;
+    }
+
+    public void snapshotSafely() {
+        try {
+            snapshot();
+        } catch (Exception ex) {
+            LOGGER.error("Snapshot failed in {}", this.directory, ex);
+        }
+    }
+
+    /*
+    * Fuzzy snapshot: the building keeps running while it is written. The journal position is read first, so every
+    * change the scan below misses (or sees half of) is in the journal after that position and is replayed on top.
+    * */
+    public synchronized Path snapshot() throws IOException {
+        ElevatorJournal journal = ElevatorRepository.getJournal();
+        if (journal == null) return null;
+        long position = journal.position();
+
+        List<ElevatorRequest> requests = new ArrayList<>((int) (ElevatorBanks.activeRequestCount() + ElevatorBanks.pendingRequestCount()));
+        for (ElevatorBank bank : ElevatorBanks.getBanks()) {
+            requests.addAll(bank.getActiveRequests().values());
+            for (ElevatorRequest request : bank.getPendingRequests()) { // weakly consistent copy of the live entries
+                if (!bank.getActiveRequests().containsKey(request.getRequestId())) requests.add(request);
+            }
+        }
+        Path file = ElevatorSnapshot.write(this.directory, position, this.elevatorRepository.findAll(), requests);
+        ElevatorJournal.deleteSegmentsBefore(this.directory, ElevatorSnapshot.oldestPosition(this.directory));
+        return file;
+    }
+
+    public void shutdown() {
+        if (this.snapshotExecutor != null) this.snapshotExecutor.shutdown();
+        ElevatorJournal journal = ElevatorRepository.getJournal();
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException ex) {
+            LOGGER.warn("Closing the journal in {} failed", this.directory, ex);
+        }
+    }
+
+
+    // Static inner class responsible for holding the instance
+    private static class Holder {
+        private static final ElevatorPersistenceService INSTANCE = new ElevatorPersistenceService();
+    }
+
+    // Global access point
+    public static ElevatorPersistenceService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // This ensures deserialization returns the existing instance
+    @Serial
+    protected Object readResolve() {
+        return getInstance();
+    }
+
+    @Override
+    protected Object clone() throws CloneNotSupportedException {
+        throw new CloneNotSupportedException("Singleton — cannot clone");
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.service;
+
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.ElevatorClock;
+import com.example.demo.clock.HierarchicalTimingWheel;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.enums.RequestType;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.repository.ElevatorRepository;
+import com.example.demo.utility.Helper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+* Drops calls nobody served in time, so that pendingRequests / activeRequests stay bounded on long runs.
+*
+* A call is expirable from submission until pickup (a passenger already inside a car is never "expired"):
+*   track()        - dispatcher registers the call with the TTL of its priority (RequestPriority.getExpiryTtlMillis())
+*   pickup/finish  - request.cancelExpiry() takes it off the timer, O(1); a hall call is finished when a car answers it
+*   TTL runs out   - PENDING  : removed from the pending queue
+*                    ASSIGNED : retired from the active table/index, its stops are cleared from the assigned car
+*                               unless another passenger of that car still needs them, and its seat is released
+*                    then status -> EXPIRED and the per-priority expiry counter is bumped
+*
+* Timers live in one HierarchicalTimingWheel on the monotonic clock; a single periodic task (on the clock's shared
+* scheduler, so simulations expire on simulated time) advances it every tick - O(1) per call, no scans over the caches.
+*
+* Tick (expiry precision): -Delevator.expiry.tickMillis=1000
+* */
+public class RequestExpiryService implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ElevatorClock clock;
+    private final long tickMillis;
+    private final HierarchicalTimingWheel<ElevatorRequest> wheel;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final ElevatorRepository elevatorRepository = new ElevatorRepository();
+
+    // published expiry counts, per priority (indexed by ordinal) - LongAdder: bumped by the expiry thread, read by monitoring
+    private final LongAdder[] expiredByPriority = new LongAdder[RequestPriority.values().length];
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestExpiryService.class);
+
+    private RequestExpiryService() {
+        this.clock = ClockProvider.getClock();
+        this.tickMillis = Long.getLong("elevator.expiry.tickMillis", 1000L);
+        this.wheel = new HierarchicalTimingWheel<>(this.tickMillis, this.clock.monotonicMillis());
+        for (RequestPriority priority : RequestPriority.values()) {
+            this.expiredByPriority[priority.ordinal()] = new LongAdder();
+            MetricsRegistry.gauge("expiry.expired." + priority, () -> this.getExpiredCount(priority));
+        }
+        MetricsRegistry.gauge("expiry.tracked", this::getTrackedCount);
+    }
+
+    // start the TTL timer of a freshly submitted call (idempotent; no-op for priorities that never expire)
+    public void track(ElevatorRequest request) {
+        long ttlMillis = request.getExpiryTtlMillis();
+        if (ttlMillis <= 0 || request.getExpiryTimeout() != null) return;
+        request.setExpiryTimeout(this.wheel.schedule(request, request.getRequestedAtMonotonicMillis() + ttlMillis));
+        // the periodic advance only starts with the first tracked call - an unused service costs nothing
+        if (this.started.compareAndSet(false, true)) {
+            this.clock.sharedScheduler().scheduleAtFixedRate(
+                    MetricsRegistry.trackFixedRate("expiry.tick", this.tickMillis, TimeUnit.MILLISECONDS, this::expireDueSafely),
+                    this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void expireDueSafely() {
+        try {
+            expireDue();
+        } catch (Exception ex) {
+            LOGGER.error("Unexpected error while expiring requests", ex);
+        }
+    }
+
+    // one owner at a time for the wheel (fixed rate never overlaps itself, but expireDue is public)
+    public synchronized int expireDue() {
+        return this.wheel.advanceTo(this.clock.monotonicMillis(), this::expire);
+    }
+
+    private void expire(ElevatorRequest request) {
+        Elevator assignedElevator;
+        // same monitor as the dispatcher's assignment and the movement pickup - a call is expired OR assigned/picked up, never both
+        synchronized (request) {
+            RequestStatus status = request.getRequestStatus();
+            if (status != RequestStatus.PENDING && status != RequestStatus.ASSIGNED) return; // already on board / done
+            assignedElevator = (status == RequestStatus.ASSIGNED) ? request.getAssignedElevator() : null;
+            ElevatorBanks.route(request).getPendingRequests().remove(request); // O(1) by handle, no-op if not queued
+            Helper.retireRequest(request);
+            request.setRequestStatus(RequestStatus.EXPIRED);
+            request.setExpiryTimeout(null);
+        }
+        if (assignedElevator != null) {
+            Helper.clearStopIfUnused(assignedElevator, request.getFromSrcFloor());
+            if (request.getRequestType() == RequestType.DESTINATION_FLOOR_SELECTION) {
+                assignedElevator.releasePickup(); // the seat held for the rider is free again
+                Helper.clearStopIfUnused(assignedElevator, request.getToDestFloor()); // destination is booked at assignment time
+            }
+            this.elevatorRepository.save(assignedElevator);
+        }
+        this.elevatorRepository.save(request);
+        RequestPriority priority = (request.getRequestPriority() == null) ? RequestPriority.REGULAR_NORMAL : request.getRequestPriority();
+        this.expiredByPriority[priority.ordinal()].increment();
+        LOGGER.info("Request expired after {} ms without pickup: {}", request.getExpiryTtlMillis(), request);
+    }
+
+    public long getExpiredCount() {
+        long total = 0;
+        for (LongAdder counter : this.expiredByPriority) total += counter.sum();
+        return total;
+    }
+
+    public long getExpiredCount(RequestPriority priority) {
+        return this.expiredByPriority[priority.ordinal()].sum();
+    }
+
+    // calls currently on a TTL timer
+    public int getTrackedCount() {
+        return this.wheel.size();
+    }
+
+
+    // Static inner class responsible for holding the instance
+    private static class Holder {
+        private static final RequestExpiryService INSTANCE = new RequestExpiryService();
+    }
+
+    // Global access point
+    public static RequestExpiryService getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // This ensures deserialization returns the existing instance
+    @Serial
+    protected Object readResolve() {
+        return getInstance();
+    }
+
+    @Override
+    protected Object clone() throws CloneNotSupportedException {
+        throw new CloneNotSupportedException("Singleton — cannot clone");
+    }
+}
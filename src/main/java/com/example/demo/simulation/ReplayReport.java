@@ -0,0 +1,60 @@
+package com.example.demo.simulation;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// Outcome of one TrafficReplay: how fast the log was read and fed, and what the passengers saw
+@Getter
+public class ReplayReport {
+    private final long records;          // well-formed calls read from the log
+    private final long skippedLines;     // malformed lines
+    private final long rejected;         // well-formed but invalid for this building (floor out of range, src == dest)
+    private final long bytes;
+    private final long recordedSpanMillis; // last - first timestamp of the log
+    private final long wallMillis;
+    private final long pickedUp;
+    private final long completed;
+    private final long expired;
+    private final long stillInFlight;    // neither completed nor expired when the replay ended
+    private final double avgWaitSeconds;
+    private final double p50WaitSeconds;
+    private final double p99WaitSeconds;
+    private final double maxWaitSeconds;
+
+    public ReplayReport(long records, long skippedLines, long rejected, long bytes, long recordedSpanMillis, long wallMillis,
+                        long pickedUp, long completed, long expired, long stillInFlight,
+                        double avgWaitSeconds, double p50WaitSeconds, double p99WaitSeconds, double maxWaitSeconds) {
+        this.records = records;
+        this.skippedLines = skippedLines;
+        this.rejected = rejected;
+        this.bytes = bytes;
+        this.recordedSpanMillis = recordedSpanMillis;
+        this.wallMillis = wallMillis;
+        this.pickedUp = pickedUp;
+        this.completed = completed;
+        this.expired = expired;
+        this.stillInFlight = stillInFlight;
+        this.avgWaitSeconds = avgWaitSeconds;
+        this.p50WaitSeconds = p50WaitSeconds;
+        this.p99WaitSeconds = p99WaitSeconds;
+        this.maxWaitSeconds = maxWaitSeconds;
+    }
+
+    public double getCallsPerSecond() {
+        return records * 1000d / Math.max(1, wallMillis);
+    }
+
+    public double getMegabytesPerSecond() {
+        return bytes / 1048576d * 1000d / Math.max(1, wallMillis);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "ReplayReport{records=%d, skipped=%d, rejected=%d, read=%.1fMB (%.1f MB/s, %.0f calls/s), recordedSpan=%s, wall=%dms, pickedUp=%d, completed=%d, expired=%d, inFlight=%d, avgWait=%.1fs, p50Wait=%.1fs, p99Wait=%.1fs, maxWait=%.1fs}",
+                records, skippedLines, rejected, bytes / 1048576d, getMegabytesPerSecond(), getCallsPerSecond(),
+                Duration.ofMillis(recordedSpanMillis), wallMillis, pickedUp, completed, expired, stillInFlight,
+                avgWaitSeconds, p50WaitSeconds, p99WaitSeconds, maxWaitSeconds);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.simulation;
+
+import com.example.demo.cache.ElevatorCache;
+import com.example.demo.clock.VirtualElevatorClock;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorView;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Round-trip times of the cars during a simulation, the classic up-peak measure: time from one departure from the
+* lobby to the next departure of the same car, minus the time it stood idle at the lobby waiting for riders (a car
+* with nothing to do is not on a trip). Stops per round trip are the door cycles (LOADING) above the lobby on the way.
+* Samples every car once per simulated second - the time of one floor step; a door cycle lasts ten.
+* */
+class RoundTripProbe {
+
+    private static final long SAMPLE_MILLIS = 1000;
+
+    private final int lobbyFloor;
+    private final Map<Elevator, CarTrip> trips = new IdentityHashMap<>();
+    private final List<Long> roundTripMillis = new ArrayList<>();
+    private final List<Integer> stopsPerRoundTrip = new ArrayList<>();
+    private long stops; // every door cycle of every car, lobby included
+    private ScheduledFuture<?> sampling;
+
+    private static final class CarTrip {
+        boolean atLobby;
+        long departedAtMillis = -1; // no departure seen yet
+        long idleAtLobbyMillis;
+        boolean loading;
+        int stops;
+
+        CarTrip(boolean atLobby) {
+            this.atLobby = atLobby;
+        }
+    }
+
+    RoundTripProbe(int lobbyFloor) {
+        this.lobbyFloor = lobbyFloor;
+    }
+
+    void start(VirtualElevatorClock clock) {
+        ScheduledExecutorService sampler = clock.newScheduledExecutor("round-trip-probe");
+        this.sampling = sampler.scheduleAtFixedRate(() -> sample(clock.currentTimeMillis()),
+                SAMPLE_MILLIS, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        if (this.sampling != null) this.sampling.cancel(false);
+    }
+
+    private void sample(long nowMillis) {
+        for (ElevatorView car : ElevatorCache.getFleetSnapshot().getViews()) {
+            boolean atLobby = car.getCurrentFloor() == this.lobbyFloor;
+            CarTrip trip = this.trips.computeIfAbsent(car.getElevator(), k -> new CarTrip(atLobby));
+            if (atLobby && car.isStandingIdle()) {
+                trip.idleAtLobbyMillis += SAMPLE_MILLIS;
+            }
+            boolean loading = car.getElevatorState() == ElevatorState.LOADING;
+            if (loading && !trip.loading) {
+                this.stops++;
+                if (!atLobby) trip.stops++;
+            }
+            trip.loading = loading;
+            if (trip.atLobby && !atLobby) { // left the lobby
+                if (trip.departedAtMillis >= 0) {
+                    this.roundTripMillis.add(nowMillis - trip.departedAtMillis - trip.idleAtLobbyMillis);
+                    this.stopsPerRoundTrip.add(trip.stops);
+                }
+                trip.departedAtMillis = nowMillis;
+                trip.idleAtLobbyMillis = 0;
+                trip.stops = 0;
+            }
+            trip.atLobby = atLobby;
+        }
+    }
+
+    List<Long> getRoundTripMillis() {
+        return this.roundTripMillis;
+    }
+
+    List<Integer> getStopsPerRoundTrip() {
+        return this.stopsPerRoundTrip;
+    }
+
+    long getStops() {
+        return this.stops;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.simulation;
+
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.model.ElevatorRequest;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Outcome of one simulated run: passenger-facing times measured on the elevator clock
+@Getter
+public class SimulationReport {
+    private final int calls;
+    private final int completed;
+    private final int pickedUp;
+    private final int expired;            // dropped by RequestExpiryService - nobody came within the TTL of their priority
+    private final double avgWaitSeconds;   // requestedAt -> pickedUpAt
+    private final double p95WaitSeconds;
+    private final double maxWaitSeconds;
+    private final double avgTripSeconds;   // pickedUpAt -> completedAt
+    private final double avgJourneySeconds; // requestedAt -> completedAt, what the passenger actually feels
+    private final int roundTrips;          // lobby departure -> next lobby departure of the same car (RoundTripProbe)
+    private final double avgRoundTripSeconds;
+    private final double avgStopsPerRoundTrip;
+    private final double stopsPerRider;        // all door cycles / riders delivered - fair also when cars never get back to the lobby
+    private final double handlingCapacity5Min; // riders delivered per 5 minutes while calls kept arriving
+    private final long simulatedMillis;
+    private final long wallMillis;
+    private final long events;
+
+    public SimulationReport(List<ElevatorRequest> requests, List<Long> roundTripMillis, List<Integer> stopsPerRoundTrip,
+                            long stops, long simulatedMillis, long wallMillis, long events) {
+        this.calls = requests.size();
+        double[] waits = requests.stream()
+                .filter(r -> r.getPickedUpAt() != null)
+                .mapToDouble(r -> Duration.between(r.getRequestedAt(), r.getPickedUpAt()).toMillis() / 1000d)
+                .sorted()
+                .toArray();
+        this.pickedUp = waits.length;
+        this.completed = (int) requests.stream().filter(r -> r.getRequestStatus() == RequestStatus.COMPLETED).count();
+        this.expired = (int) requests.stream().filter(r -> r.getRequestStatus() == RequestStatus.EXPIRED).count();
+        this.avgWaitSeconds = Arrays.stream(waits).average().orElse(0);
+        this.p95WaitSeconds = waits.length == 0 ? 0 : waits[(int) Math.min(waits.length - 1, Math.ceil(waits.length * 0.95) - 1)];
+        this.maxWaitSeconds = waits.length == 0 ? 0 : waits[waits.length - 1];
+        this.avgTripSeconds = requests.stream()
+                .filter(r -> r.getPickedUpAt() != null && r.getCompletedAt() != null)
+                .mapToDouble(r -> Duration.between(r.getPickedUpAt(), r.getCompletedAt()).toMillis() / 1000d)
+                .average().orElse(0);
+        this.avgJourneySeconds = requests.stream()
+                .filter(r -> r.getCompletedAt() != null)
+                .mapToDouble(r -> Duration.between(r.getRequestedAt(), r.getCompletedAt()).toMillis() / 1000d)
+                .average().orElse(0);
+        this.roundTrips = roundTripMillis.size();
+        this.avgRoundTripSeconds = roundTripMillis.stream().mapToLong(Long::longValue).average().orElse(0) / 1000d;
+        this.avgStopsPerRoundTrip = stopsPerRoundTrip.stream().mapToInt(Integer::intValue).average().orElse(0);
+        this.stopsPerRider = this.completed == 0 ? 0 : stops / (double) this.completed;
+        this.handlingCapacity5Min = handlingCapacity5Min(requests);
+        this.simulatedMillis = simulatedMillis;
+        this.wallMillis = wallMillis;
+        this.events = events;
+    }
+
+    /*
+    * Riders delivered per 5 minutes between the first and the last call - the building's handling capacity when the
+    * calls arrive faster than the fleet can serve them (a saturated up-peak); with light traffic it is just the demand.
+    * */
+    private static double handlingCapacity5Min(List<ElevatorRequest> requests) {
+        if (requests.size() < 2) return 0;
+        LocalDateTime first = requests.stream().map(ElevatorRequest::getRequestedAt).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime last = requests.stream().map(ElevatorRequest::getRequestedAt).max(Comparator.naturalOrder()).orElseThrow();
+        long spanMillis = Duration.between(first, last).toMillis();
+        if (spanMillis <= 0) return 0;
+        long delivered = requests.stream()
+                .filter(r -> r.getCompletedAt() != null && !r.getCompletedAt().isAfter(last))
+                .count();
+        return delivered * (double) Duration.ofMinutes(5).toMillis() / spanMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "SimulationReport{calls=%d, pickedUp=%d, completed=%d, expired=%d, avgWait=%.1fs, p95Wait=%.1fs, maxWait=%.1fs, avgTrip=%.1fs, avgJourney=%.1fs, roundTrips=%d, avgRoundTrip=%.1fs, stopsPerRoundTrip=%.1f, stopsPerRider=%.2f, handlingCapacity5Min=%.1f, simulated=%s, wall=%dms, events=%d}",
+                calls, pickedUp, completed, expired, avgWaitSeconds, p95WaitSeconds, maxWaitSeconds, avgTripSeconds, avgJourneySeconds,
+                roundTrips, avgRoundTripSeconds, avgStopsPerRoundTrip, stopsPerRider, handlingCapacity5Min,
+                Duration.ofMillis(simulatedMillis), wallMillis, events);
+    }
+}
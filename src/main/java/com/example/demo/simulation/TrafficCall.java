@@ -0,0 +1,15 @@
+package com.example.demo.simulation;
+
+import com.example.demo.enums.RequestPriority;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// One passenger call of a traffic scenario: at offsetMillis after scenario start, someone at srcFloor wants to go to destFloor
+@Getter
+@AllArgsConstructor
+public class TrafficCall {
+    private final long offsetMillis;
+    private final int srcFloor;
+    private final int destFloor;
+    private final RequestPriority priority;
+}
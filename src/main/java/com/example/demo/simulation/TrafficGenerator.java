@@ -0,0 +1,126 @@
+package com.example.demo.simulation;
+
+import com.example.demo.IConstants;
+import com.example.demo.enums.RequestPriority;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/*
+* Seeded synthetic traffic for simulation runs - same seed, same calls, same results.
+*
+* Arrivals are a Poisson process (exponential gaps) whose rate changes per hour of day, with the classic office pattern:
+*   morning up-peak   lobby -> upper floors
+*   lunch             mixed, lots of traffic to/from the lobby
+*   evening down-peak upper floors -> lobby
+*   rest of the day   light inter-floor traffic
+* */
+public class TrafficGenerator {
+
+    // calls per minute for each hour of the day (building with ~50 cars)
+    private static final double[] OFFICE_CALLS_PER_MINUTE = {
+            0.5, 0.5, 0.5, 0.5, 0.5, 1, 2, 10,   // 00 - 07
+            40, 30, 8, 8, 20, 20, 8, 8,          // 08 - 15
+            8, 35, 20, 4, 2, 2, 1, 0.5           // 16 - 23
+    };
+
+    // share of calls leaving the lobby / going to the lobby for each hour (rest is inter-floor)
+    private static final double[] OFFICE_UP_FROM_LOBBY = {
+            0.3, 0.3, 0.3, 0.3, 0.3, 0.5, 0.7, 0.85,
+            0.9, 0.85, 0.4, 0.3, 0.3, 0.45, 0.3, 0.25,
+            0.2, 0.1, 0.1, 0.2, 0.3, 0.3, 0.3, 0.3
+    };
+    private static final double[] OFFICE_DOWN_TO_LOBBY = {
+            0.3, 0.3, 0.3, 0.3, 0.3, 0.2, 0.1, 0.05,
+            0.03, 0.05, 0.3, 0.35, 0.45, 0.3, 0.35, 0.4,
+            0.5, 0.8, 0.8, 0.6, 0.4, 0.4, 0.4, 0.3
+    };
+
+    private TrafficGenerator() {
+    }
+
+    // 24 hours of office-building traffic for floors BASE_FLOOR(lobby)..topFloor
+    public static List<TrafficCall> officeDay(int topFloor, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<TrafficCall> calls = new ArrayList<>();
+        long hourMillis = Duration.ofHours(1).toMillis();
+        for (int hour = 0; hour < 24; hour++) {
+            generateHour(calls, random, hour * hourMillis, hourMillis, topFloor,
+                    OFFICE_CALLS_PER_MINUTE[hour], OFFICE_UP_FROM_LOBBY[hour], OFFICE_DOWN_TO_LOBBY[hour]);
+        }
+        return calls;
+    }
+
+    /*
+    * Writes `days` consecutive office days (seed, seed + 1, ...) as a JSONL traffic log for TrafficReplay,
+    * timestamps in epoch millis from 2024-01-01T00:00Z. One day at a time - a long log never sits in memory.
+    * Returns the number of calls written.
+    * */
+    public static long writeOfficeDays(Path out, int days, long seed) throws IOException {
+        long start = LocalDate.of(2024, 1, 1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        long dayMillis = Duration.ofDays(1).toMillis();
+        long written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(out, StandardCharsets.US_ASCII)) {
+            for (int day = 0; day < days; day++) {
+                for (TrafficCall call : officeDay(IConstants.MAX_FLOOR_COUNT, seed + day)) {
+                    writer.write("{\"timestamp\":" + (start + day * dayMillis + call.getOffsetMillis())
+                            + ",\"fromFloor\":" + call.getSrcFloor()
+                            + ",\"toFloor\":" + call.getDestFloor()
+                            + ",\"priority\":\"" + call.getPriority() + "\"}\n");
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    // pure up-peak: everyone enters at the lobby and goes up (morning arrival scenario)
+    public static List<TrafficCall> upPeak(int topFloor, Duration duration, double callsPerMinute, long seed) {
+        List<TrafficCall> calls = new ArrayList<>();
+        generateHour(calls, new SplittableRandom(seed), 0, duration.toMillis(), topFloor, callsPerMinute, 1.0, 0.0);
+        return calls;
+    }
+
+    private static void generateHour(List<TrafficCall> calls, SplittableRandom random, long fromMillis, long spanMillis,
+                                     int topFloor, double callsPerMinute, double upFromLobby, double downToLobby) {
+        if (callsPerMinute <= 0) return;
+        double meanGapMillis = 60_000d / callsPerMinute;
+        int lobby = IConstants.BASE_FLOOR;
+        double t = nextGap(random, meanGapMillis);
+        while (t < spanMillis) {
+            double kind = random.nextDouble();
+            int src;
+            int dest;
+            if (kind < upFromLobby) {
+                src = lobby;
+                dest = randomUpperFloor(random, topFloor);
+            } else if (kind < upFromLobby + downToLobby) {
+                src = randomUpperFloor(random, topFloor);
+                dest = lobby;
+            } else {
+                src = randomUpperFloor(random, topFloor);
+                dest = randomUpperFloor(random, topFloor);
+                if (dest == src) dest = (src == topFloor) ? src - 1 : src + 1;
+            }
+            calls.add(new TrafficCall(fromMillis + (long) t, src, dest, RequestPriority.REGULAR_NORMAL));
+            t += nextGap(random, meanGapMillis);
+        }
+    }
+
+    private static int randomUpperFloor(SplittableRandom random, int topFloor) {
+        return IConstants.BASE_FLOOR + 1 + random.nextInt(topFloor - IConstants.BASE_FLOOR);
+    }
+
+    private static double nextGap(SplittableRandom random, double meanGapMillis) {
+        return -Math.log(1.0 - random.nextDouble()) * meanGapMillis;
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.demo.simulation;
+
+import com.example.demo.enums.RequestPriority;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+* Streaming reader of recorded traffic logs - one JSON object per line (JSONL):
+*
+*   {"timestamp":1704096000000,"fromFloor":0,"toFloor":12,"priority":"VIP"}
+*
+*   timestamp : epoch millis (or any millisecond offset - only differences between records matter); alias "ts"
+*   fromFloor : alias "from";  toFloor : alias "to"
+*   priority  : optional, a RequestPriority name (case-insensitive), default REGULAR_NORMAL
+*   any other key is skipped; lines that are blank, not an object or miss a field are counted in getSkippedLines()
+*
+* Built for multi-GB production logs:
+*   - the file is memory-mapped in windows (-Delevator.replay.windowMB, default 256) - bytes come straight from the
+*     page cache, no read() system calls, and the heap holds at most one 1 MB chunk of the file. A line crossing the
+*     end of a chunk (or window) makes the next one start at that line.
+*   - it is a cursor, not a list: next() parses one record in place and exposes it through the getters, so memory
+*     stays constant however many calls the log has.
+*   - parsing works on the raw bytes (keys and priority names are compared as bytes, numbers are accumulated digit
+*     by digit) - no String, no boxed number, no per-line object at all. The window is consumed through one reused
+*     1 MB array (bulk get), since indexed array reads are far cheaper than per-byte get() on the mapped buffer.
+*
+* Single-threaded, like any cursor.
+* */
+public final class TrafficLogReader implements Closeable {
+
+    private static final int CHUNK_BYTES = 1 << 20; // also the longest line accepted
+    // a single mapping is int-indexed - at most 1 GB per window, and at least one chunk
+    private static final long WINDOW_BYTES = Math.max(CHUNK_BYTES, Math.min(1L << 30, Long.getLong("elevator.replay.windowMB", 256L) << 20));
+
+    // keys and priority names as bytes, so that matching never decodes the line
+    private static final byte[][] TIMESTAMP_KEYS = keys("timestamp", "ts");
+    private static final byte[][] FROM_KEYS = keys("fromFloor", "from");
+    private static final byte[][] TO_KEYS = keys("toFloor", "to");
+    private static final byte[][] PRIORITY_KEYS = keys("priority");
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+    private static final byte[][] PRIORITY_NAMES = new byte[PRIORITIES.length][];
+
+    static {
+        for (RequestPriority priority : PRIORITIES) {
+            PRIORITY_NAMES[priority.ordinal()] = priority.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final FileChannel channel;
+    private final long fileSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLimit;
+
+    // the bytes being parsed: a slice of the window bulk-copied into one reused, cache-sized array - per-byte get() on
+    // a mapped buffer costs several times an array read, and the parser touches every byte once or twice
+    private final byte[] chunk = new byte[CHUNK_BYTES];
+    private long chunkStart;
+    private int chunkLimit;
+    private int position; // inside the chunk
+
+    private long lines;
+    private long records;
+    private long skippedLines;
+
+    // the current record
+    private long timestampMillis;
+    private int fromFloor;
+    private int toFloor;
+    private RequestPriority priority;
+
+    // parse state of the current line (set by the value readers)
+    private int cursor;
+    private long number;
+
+    public TrafficLogReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = this.channel.size();
+        this.map(0);
+        this.fill(0);
+    }
+
+    /*
+    * Advances to the next well-formed record; false at the end of the file.
+    * Malformed lines are skipped (and counted), they never stop a replay of a production log.
+    * */
+    public boolean next() throws IOException {
+        while (true) {
+            int end = this.indexOfNewline(this.position);
+            if (end < 0) {
+                if (this.chunkStart + this.chunkLimit < this.fileSize) {
+                    if (this.position == 0) {
+                        throw new IOException("Line at byte " + this.chunkStart + " is longer than " + CHUNK_BYTES + " bytes");
+                    }
+                    this.fill(this.chunkStart + this.position); // the line continues past this chunk
+                    continue;
+                }
+                if (this.position >= this.chunkLimit) return false;
+                end = this.chunkLimit; // last line without a trailing newline
+            }
+            int start = this.position;
+            this.position = end + 1;
+            this.lines++;
+            if (this.parseLine(start, end)) {
+                this.records++;
+                return true;
+            }
+            if (!this.isBlank(start, end)) this.skippedLines++;
+        }
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public int getFromFloor() {
+        return fromFloor;
+    }
+
+    public int getToFloor() {
+        return toFloor;
+    }
+
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+
+    // bytes consumed so far
+    public long getBytesRead() {
+        return Math.min(this.fileSize, this.chunkStart + this.position);
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null; // the mapping itself is released with the buffer (GC), closing the channel does not unmap
+        this.channel.close();
+    }
+
+    private void map(long start) throws IOException {
+        long size = Math.min(WINDOW_BYTES, this.fileSize - start);
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        this.windowStart = start;
+        this.windowLimit = (int) size;
+    }
+
+    // next chunk from file offset start; a new window is mapped when the chunk would run past the current one
+    private void fill(long start) throws IOException {
+        if (start + CHUNK_BYTES > this.windowStart + this.windowLimit && this.windowStart + this.windowLimit < this.fileSize) {
+            this.map(start);
+        }
+        this.chunkLimit = (int) Math.min(CHUNK_BYTES, this.windowStart + this.windowLimit - start);
+        this.window.get((int) (start - this.windowStart), this.chunk, 0, this.chunkLimit);
+        this.chunkStart = start;
+        this.position = 0;
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < this.chunkLimit; i++) {
+            if (this.chunk[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isWhitespace(this.chunk[i])) return false;
+        }
+        return true;
+    }
+
+    /*
+    * {"key":value,...} on [start, end). Only the four known keys are interpreted, everything else is skipped
+    * value by value (strings, numbers, literals, nested objects/arrays).
+    * */
+    private boolean parseLine(int start, int end) {
+        boolean hasTimestamp = false;
+        boolean hasFrom = false;
+        boolean hasTo = false;
+        this.priority = RequestPriority.REGULAR_NORMAL;
+
+        this.cursor = this.skipWhitespace(start, end);
+        if (this.cursor >= end || this.chunk[this.cursor] != '{') return false;
+        this.cursor = this.skipWhitespace(this.cursor + 1, end);
+        while (this.cursor < end && this.chunk[this.cursor] != '}') {
+            // key
+            if (this.chunk[this.cursor] != '"') return false;
+            int keyStart = this.cursor + 1;
+            int keyEnd = this.indexOfQuote(keyStart, end);
+            if (keyEnd < 0) return false;
+            this.cursor = this.skipWhitespace(keyEnd + 1, end);
+            if (this.cursor >= end || this.chunk[this.cursor] != ':') return false;
+            this.cursor = this.skipWhitespace(this.cursor + 1, end);
+
+            // value
+            if (this.matches(keyStart, keyEnd, TIMESTAMP_KEYS)) {
+                if (!this.readNumber(end)) return false;
+                this.timestampMillis = this.number;
+                hasTimestamp = true;
+            } else if (this.matches(keyStart, keyEnd, FROM_KEYS)) {
+                if (!this.readNumber(end)) return false;
+                this.fromFloor = (int) this.number;
+                hasFrom = true;
+            } else if (this.matches(keyStart, keyEnd, TO_KEYS)) {
+                if (!this.readNumber(end)) return false;
+                this.toFloor = (int) this.number;
+                hasTo = true;
+            } else if (this.matches(keyStart, keyEnd, PRIORITY_KEYS)) {
+                if (!this.readPriority(end)) return false;
+            } else if (!this.skipValue(end)) {
+                return false;
+            }
+
+            this.cursor = this.skipWhitespace(this.cursor, end);
+            if (this.cursor < end && this.chunk[this.cursor] == ',') {
+                this.cursor = this.skipWhitespace(this.cursor + 1, end);
+            }
+        }
+        return this.cursor < end && hasTimestamp && hasFrom && hasTo;
+    }
+
+    // optionally signed integer; anything with a fraction/exponent is rejected (floors and millis are integers)
+    private boolean readNumber(int end) {
+        boolean negative = this.cursor < end && this.chunk[this.cursor] == '-';
+        int i = negative ? this.cursor + 1 : this.cursor;
+        int digitsStart = i;
+        long value = 0;
+        for (; i < end; i++) {
+            byte b = this.chunk[i];
+            if (b < '0' || b > '9') break;
+            value = value * 10 + (b - '0');
+        }
+        if (i == digitsStart || i - digitsStart > 18) return false; // no digits / would overflow a long
+        if (i < end) {
+            byte next = this.chunk[i];
+            if (next == '.' || next == 'e' || next == 'E') return false;
+        }
+        this.number = negative ? -value : value;
+        this.cursor = i;
+        return true;
+    }
+
+    private boolean readPriority(int end) {
+        if (this.cursor >= end) return false;
+        if (this.chunk[this.cursor] == 'n') { // null -> default
+            return this.skipValue(end);
+        }
+        if (this.chunk[this.cursor] != '"') return false;
+        int valueStart = this.cursor + 1;
+        int valueEnd = this.indexOfQuote(valueStart, end);
+        if (valueEnd < 0) return false;
+        this.cursor = valueEnd + 1;
+        for (int p = 0; p < PRIORITY_NAMES.length; p++) {
+            if (this.equalsIgnoreCase(valueStart, valueEnd, PRIORITY_NAMES[p])) {
+                this.priority = PRIORITIES[p];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // any JSON value: string, number, literal, or a nested object/array (by depth, strings inside respected)
+    private boolean skipValue(int end) {
+        if (this.cursor >= end) return false;
+        byte first = this.chunk[this.cursor];
+        if (first == '"') {
+            int close = this.indexOfQuote(this.cursor + 1, end);
+            if (close < 0) return false;
+            this.cursor = close + 1;
+            return true;
+        }
+        if (first == '{' || first == '[') {
+            int depth = 0;
+            for (int i = this.cursor; i < end; i++) {
+                byte b = this.chunk[i];
+                if (b == '"') {
+                    i = this.indexOfQuote(i + 1, end);
+                    if (i < 0) return false;
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if ((b == '}' || b == ']') && --depth == 0) {
+                    this.cursor = i + 1;
+                    return true;
+                }
+            }
+            return false;
+        }
+        // number or literal: up to the next delimiter
+        int start = this.cursor;
+        int i = start;
+        while (i < end) {
+            byte b = this.chunk[i];
+            if (b == ',' || b == '}' || isWhitespace(b)) break;
+            i++;
+        }
+        this.cursor = i;
+        return i > start;
+    }
+
+    // closing quote of a string starting at from (escapes skipped)
+    private int indexOfQuote(int from, int end) {
+        for (int i = from; i < end; i++) {
+            byte b = this.chunk[i];
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int skipWhitespace(int from, int end) {
+        int i = from;
+        while (i < end && isWhitespace(this.chunk[i])) i++;
+        return i;
+    }
+
+    private boolean matches(int start, int end, byte[][] candidates) {
+        for (byte[] candidate : candidates) {
+            if (end - start != candidate.length) continue;
+            boolean equal = true;
+            for (int i = 0; i < candidate.length && equal; i++) {
+                equal = this.chunk[start + i] == candidate[i];
+            }
+            if (equal) return true;
+        }
+        return false;
+    }
+
+    private boolean equalsIgnoreCase(int start, int end, byte[] upperCaseName) {
+        if (end - start != upperCaseName.length) return false;
+        for (int i = 0; i < upperCaseName.length; i++) {
+            byte b = this.chunk[start + i];
+            if (b >= 'a' && b <= 'z') b -= 'a' - 'A';
+            if (b != upperCaseName[i]) return false;
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static byte[][] keys(String... names) {
+        byte[][] keys = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            keys[i] = names[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return keys;
+    }
+}
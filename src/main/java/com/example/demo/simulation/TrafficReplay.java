@@ -0,0 +1,183 @@
+package com.example.demo.simulation;
+
+import com.example.demo.cache.ElevatorCache;
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.ElevatorClock;
+import com.example.demo.clock.VirtualElevatorClock;
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.metrics.HistogramSnapshot;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.metrics.MetricsRegistry;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.scheduler.ShadowEvaluator;
+import com.example.demo.service.ElevatorDispatcherService;
+import com.example.demo.service.ElevatorManagerService1;
+import com.example.demo.utility.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+* Feeds a recorded traffic log (JSONL, see TrafficLogReader) into ElevatorDispatcherService - same entry point as the
+* REST intake - while the log is being read. Nothing is loaded up front, so a log of millions of calls replays in
+* constant memory: the reader is a cursor over a memory-mapped file, and only calls that are still in flight are kept.
+*
+* Speed:
+*   sim    - on a VirtualElevatorClock: the clock is advanced to each record's timestamp before it is submitted, so the
+*            whole log replays as fast as the services can simulate it (like TrafficSimulation)
+*   1      - real time on the system clock, at the recorded pace
+*   N      - real time, N x accelerated (60 = one recorded hour per wall minute)
+*   0      - real time, no pacing at all: submit as fast as the log can be read (intake stress / disk speed)
+*
+* Run:  java -cp <classpath> com.example.demo.simulation.TrafficReplay <log.jsonl> [fleetSize=50] [speed=sim]
+*       java -cp <classpath> com.example.demo.simulation.TrafficReplay generate <out.jsonl> [days=1] [seed=1]
+* */
+public class TrafficReplay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrafficReplay.class);
+
+    // after the last call, keep simulating so that queued passengers are delivered (sim speed only)
+    private static final Duration DRAIN_TIME = Duration.ofMinutes(30);
+    private static final int MIN_FOLD_SIZE = 1024;
+
+    private final ElevatorClock clock;
+    private final double speed; // recorded millis per wall milli; 0 = unpaced; ignored on a virtual clock
+
+    // calls submitted and not yet finished - folded into the counters below every time the list doubles
+    private final List<ElevatorRequest> inFlight = new ArrayList<>();
+    private int foldAtSize = MIN_FOLD_SIZE;
+    private final LatencyHistogram waitTime = MetricsRegistry.histogram("replay.wait");
+    private long pickedUp;
+    private long completed;
+    private long expired;
+
+    public TrafficReplay(double speed) {
+        this.clock = ClockProvider.getClock();
+        this.speed = speed;
+    }
+
+    public ReplayReport run(Path log, int fleetSize) throws IOException {
+        ElevatorManagerService1 managerService = ElevatorManagerService1.getInstance();
+        while (ElevatorCache.elevators.size() < fleetSize) {
+            managerService.createElevator();
+        }
+        ElevatorDispatcherService dispatcherService = ElevatorDispatcherService.getInstance();
+        VirtualElevatorClock virtualClock = this.clock.isVirtual() ? (VirtualElevatorClock) this.clock : null;
+
+        long rejected = 0;
+        long firstTimestamp = Long.MIN_VALUE;
+        long lastTimestamp = Long.MIN_VALUE;
+        long startEpochMillis = this.clock.currentTimeMillis();
+        long startWall = System.nanoTime();
+        try (TrafficLogReader reader = new TrafficLogReader(log)) {
+            while (reader.next()) {
+                long timestamp = reader.getTimestampMillis();
+                if (firstTimestamp == Long.MIN_VALUE) firstTimestamp = timestamp;
+                lastTimestamp = Math.max(lastTimestamp, timestamp);
+                long offsetMillis = Math.max(0, timestamp - firstTimestamp); // a record out of order is replayed late, not early
+
+                if (virtualClock != null) {
+                    virtualClock.runUntil(startEpochMillis + offsetMillis);
+                } else if (this.speed > 0) {
+                    this.awaitWall(startWall + (long) (TimeUnit.MILLISECONDS.toNanos(offsetMillis) / this.speed));
+                }
+
+                ElevatorRequest request = new ElevatorRequest(reader.getPriority(), reader.getFromFloor(), reader.getToFloor());
+                if (!Validator.isValidRequest(request)) {
+                    rejected++;
+                    continue;
+                }
+                try {
+                    dispatcherService.submitRequest(request);
+                } catch (RuntimeException ex) {
+                    LOGGER.warn("Dispatch failed for replayed call {} -> {}", reader.getFromFloor(), reader.getToFloor(), ex);
+                }
+                this.inFlight.add(request);
+                if (this.inFlight.size() >= this.foldAtSize) this.foldFinished();
+            }
+            long readWallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startWall);
+
+            if (virtualClock != null) {
+                virtualClock.runFor(DRAIN_TIME);
+            }
+            this.foldFinished();
+
+            HistogramSnapshot waits = this.waitTime.snapshot();
+            return new ReplayReport(reader.getRecords(), reader.getSkippedLines(), rejected,
+                    reader.getBytesRead(), firstTimestamp == Long.MIN_VALUE ? 0 : lastTimestamp - firstTimestamp, readWallMillis,
+                    this.pickedUp, this.completed, this.expired, this.inFlight.size(),
+                    waits.getMeanNanos() / 1e9, waits.getP50Nanos() / 1e9, waits.getP99Nanos() / 1e9, waits.getMaxNanos() / 1e9);
+        }
+    }
+
+    /*
+    * Drops every finished call from the in-flight list, folding it into the wait histogram / counters.
+    * Runs each time the list doubled since the last fold - amortized O(1) per call, and the list stays proportional
+    * to the calls actually in flight, not to the size of the log.
+    * */
+    private void foldFinished() {
+        int kept = 0;
+        for (int i = 0, n = this.inFlight.size(); i < n; i++) {
+            ElevatorRequest request = this.inFlight.get(i);
+            RequestStatus status = request.getRequestStatus(); // volatile; completedAt is stamped right after COMPLETED - wait for both
+            boolean finished = (status == RequestStatus.COMPLETED && request.getCompletedAt() != null) || status == RequestStatus.EXPIRED;
+            if (!finished) {
+                this.inFlight.set(kept++, request);
+                continue;
+            }
+            if (request.getPickedUpAt() != null) {
+                this.pickedUp++;
+                this.waitTime.record(Duration.between(request.getRequestedAt(), request.getPickedUpAt()).toNanos());
+            }
+            if (status == RequestStatus.COMPLETED) this.completed++;
+            else this.expired++;
+        }
+        this.inFlight.subList(kept, this.inFlight.size()).clear();
+        this.foldAtSize = Math.max(MIN_FOLD_SIZE, kept * 2);
+    }
+
+    private void awaitWall(long dueNanos) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && "generate".equals(args[0])) {
+            Path out = Path.of(args[1]);
+            int days = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+            long calls = TrafficGenerator.writeOfficeDays(out, days, seed);
+            System.out.println("Wrote " + calls + " calls to " + out);
+            return;
+        }
+        if (args.length == 0) {
+            System.err.println("usage: TrafficReplay <log.jsonl> [fleetSize=50] [speed=sim|0|1|N]  |  TrafficReplay generate <out.jsonl> [days=1] [seed=1]");
+            System.exit(2);
+        }
+        Path log = Path.of(args[0]);
+        int fleetSize = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        String speed = args.length > 2 ? args[2] : "sim";
+
+        // must happen before any service singleton is touched
+        boolean simulated = "sim".equalsIgnoreCase(speed);
+        if (simulated && !ClockProvider.getClock().isVirtual()) {
+            ClockProvider.useClock(new VirtualElevatorClock(LocalDate.of(2024, 1, 1).atStartOfDay()));
+        }
+
+        ReplayReport report = new TrafficReplay(simulated ? 0 : Double.parseDouble(speed)).run(log, fleetSize);
+        LOGGER.info("Replayed {} at speed {}: fleet={}, {}", log, speed, fleetSize, report);
+        System.out.println(report);
+        System.out.print(ShadowEvaluator.summary()); // -Delevator.scheduler.shadow=...: the candidates' predicted waits
+        System.exit(0);
+    }
+}
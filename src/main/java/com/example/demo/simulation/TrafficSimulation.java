@@ -0,0 +1,108 @@
+package com.example.demo.simulation;
+
+import com.example.demo.IConstants;
+import com.example.demo.cache.ElevatorCache;
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.VirtualElevatorClock;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.service.ElevatorDispatcherService;
+import com.example.demo.service.ElevatorManagerService1;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Discrete-event replay of a traffic scenario through the real services (manager, dispatcher, movement)
+* running on a VirtualElevatorClock.
+*
+* Nothing here re-implements elevator behaviour: every call is injected as a clock event that invokes
+* ElevatorDispatcherService exactly like a controller would, and the movement ticks / door timers are the
+* same executor tasks as in real-time mode - they just fire on simulated time.
+*
+* Run:  java -cp <classpath> com.example.demo.simulation.TrafficSimulation [fleetSize=50] [seed=1] [scenario=office|uppeak] [upPeakCallsPerMinute=60]
+*       (-Delevator.maxFloorCount=N for taller buildings, -Delevator.dispatch.batchWindowMillis=100 for batched dispatch,
+*        -Delevator.scheduler=zoning for the zoning scheduler, -Delevator.destinationDispatch=true for destination dispatch)
+* */
+public class TrafficSimulation {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrafficSimulation.class);
+
+    // after the last call, keep simulating so that queued passengers are delivered
+    private static final Duration DRAIN_TIME = Duration.ofMinutes(30);
+
+    // "uppeak" scenario: one busy morning hour, everybody from the lobby upwards
+    private static final Duration UP_PEAK_DURATION = Duration.ofHours(1);
+    private static final double UP_PEAK_CALLS_PER_MINUTE = 60;
+
+    private final VirtualElevatorClock clock;
+
+    public TrafficSimulation() {
+        this.clock = ClockProvider.getVirtualClock();
+    }
+
+    public SimulationReport run(List<TrafficCall> calls, int fleetSize) {
+        ElevatorManagerService1 managerService = ElevatorManagerService1.getInstance();
+        while (ElevatorCache.elevators.size() < fleetSize) {
+            managerService.createElevator();
+        }
+        ElevatorDispatcherService dispatcherService = ElevatorDispatcherService.getInstance();
+
+        // every passenger call becomes one event on the virtual time line
+        ScheduledExecutorService callInjector = clock.newScheduledExecutor("traffic-replay");
+        List<ElevatorRequest> requests = new ArrayList<>(calls.size());
+        long lastOffset = 0;
+        for (TrafficCall call : calls) {
+            callInjector.schedule(() -> {
+                ElevatorRequest request = new ElevatorRequest(call.getPriority(), call.getSrcFloor(), call.getDestFloor());
+                requests.add(request);
+                try {
+                    // same entry point as the controller: honours -Delevator.dispatch.batchWindowMillis
+                    dispatcherService.submitRequest(request);
+                } catch (RuntimeException ex) {
+                    // an executor would swallow this silently; surface it - the call shows up as never picked up in the report
+                    LOGGER.warn("Dispatch failed for simulated call {} -> {}", call.getSrcFloor(), call.getDestFloor(), ex);
+                }
+            }, call.getOffsetMillis(), TimeUnit.MILLISECONDS);
+            lastOffset = Math.max(lastOffset, call.getOffsetMillis());
+        }
+
+        RoundTripProbe roundTrips = new RoundTripProbe(IConstants.BASE_FLOOR);
+        roundTrips.start(clock);
+
+        long startSimulated = clock.currentTimeMillis();
+        long startEvents = clock.getExecutedEvents();
+        long startWall = System.nanoTime();
+        clock.runFor(Duration.ofMillis(lastOffset).plus(DRAIN_TIME));
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startWall);
+        roundTrips.stop();
+
+        return new SimulationReport(requests, roundTrips.getRoundTripMillis(), roundTrips.getStopsPerRoundTrip(), roundTrips.getStops(), clock.currentTimeMillis() - startSimulated, wallMillis,
+                clock.getExecutedEvents() - startEvents);
+    }
+
+    public static void main(String[] args) {
+        int fleetSize = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        String scenario = args.length > 2 ? args[2] : "office";
+        double upPeakCallsPerMinute = args.length > 3 ? Double.parseDouble(args[3]) : UP_PEAK_CALLS_PER_MINUTE;
+
+        // must happen before any service singleton is touched
+        if (!ClockProvider.getClock().isVirtual()) {
+            ClockProvider.useClock(new VirtualElevatorClock(LocalDate.of(2024, 1, 1).atStartOfDay()));
+        }
+
+        List<TrafficCall> calls = "uppeak".equalsIgnoreCase(scenario)
+                ? TrafficGenerator.upPeak(IConstants.MAX_FLOOR_COUNT, UP_PEAK_DURATION, upPeakCallsPerMinute, seed)
+                : TrafficGenerator.officeDay(IConstants.MAX_FLOOR_COUNT, seed);
+        SimulationReport report = new TrafficSimulation().run(calls, fleetSize);
+        LOGGER.info("Simulated {}: fleet={}, floors={}, {}", scenario, fleetSize, IConstants.MAX_FLOOR_COUNT, report);
+        System.out.println(report);
+        System.exit(0);
+    }
+}
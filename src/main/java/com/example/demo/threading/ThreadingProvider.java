@@ -0,0 +1,76 @@
+package com.example.demo.threading;
+
+import com.example.demo.enums.ThreadingMode;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+* Process-wide thread model selection - a static holder like ClockProvider.
+*
+* Selected at startup:  -Delevator.threads=platform  (default) dispatch on a bounded pool of platform threads,
+*                                                    movement steps on the shared timing wheel
+*                       -Delevator.threads=virtual   one virtual thread per dispatched request,
+*                                                    one virtual-thread control loop per elevator
+*
+* Why virtual threads fit here: a dispatch spends most of its life blocked - tryLock(50ms) on a busy car,
+* Thread.sleep() backoff between retries. A platform thread parked there is a whole OS thread doing nothing,
+* so a burst of hall calls queues up behind a small pool. A parked virtual thread only costs its stack on the heap,
+* so every caller gets its own thread and the backoff no longer delays the requests behind it.
+*
+* Like the clock, the mode must be chosen before the first service singleton is created.
+* */
+public class ThreadingProvider {
+
+    // size of the platform dispatch pool (platform mode only)
+    public static final int PLATFORM_DISPATCH_THREADS = Integer.getInteger("elevator.dispatch.threads",
+            Math.max(8, Runtime.getRuntime().availableProcessors() * 4));
+
+    private static volatile ThreadingMode mode = fromSystemProperty();
+
+    private ThreadingProvider() {
+    }
+
+    public static ThreadingMode getMode() {
+        return mode;
+    }
+
+    public static void useMode(ThreadingMode threadingMode) {
+        mode = threadingMode;
+    }
+
+    public static boolean isVirtual() {
+        return mode == ThreadingMode.VIRTUAL;
+    }
+
+    // executor for request dispatch in the current mode
+    public static ExecutorService newDispatchExecutor(String name) {
+        return newDispatchExecutor(mode, name);
+    }
+
+    /*
+    * VIRTUAL : a new virtual thread per task, unbounded - blocking inside a task is cheap
+    * PLATFORM: fixed pool of PLATFORM_DISPATCH_THREADS; extra tasks wait in the pool's queue
+    * */
+    public static ExecutorService newDispatchExecutor(ThreadingMode threadingMode, String name) {
+        if (threadingMode == ThreadingMode.VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+        }
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newFixedThreadPool(PLATFORM_DISPATCH_THREADS,
+                runnable -> new Thread(runnable, name + "-" + index.incrementAndGet()));
+    }
+
+    // long-running loop (e.g., an elevator controller) on its own virtual thread
+    public static Thread startVirtualLoop(String name, Runnable loop) {
+        return Thread.ofVirtual().name(name).start(loop);
+    }
+
+    private static ThreadingMode fromSystemProperty() {
+        if ("virtual".equalsIgnoreCase(System.getProperty("elevator.threads"))) {
+            return ThreadingMode.VIRTUAL;
+        }
+        return ThreadingMode.PLATFORM;
+    }
+}
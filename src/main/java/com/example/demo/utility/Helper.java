@@ -1,21 +1,29 @@
 package com.example.demo.utility;
 
-import com.example.demo.cache.UserRequestCache;
+import com.example.demo.bank.ElevatorBank;
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.customds.AtomicFloorBitSet;
+import com.example.demo.enums.RequestDirection;
 import com.example.demo.model.Elevator;
 import com.example.demo.model.ElevatorRequest;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class Helper {
 
     /*
     * It is already thread-safe and singleton-like by nature — since static methods belong to the class, not an instance.
     * There is no instance field (no private data to preserve or share).
-    * All methods are pure — only performs computation or fetches from static caches.
-    * It’s stateless and side-effect-free (except reading shared data).
+    * It holds no state of its own - but not every method is a pure read:
+    *   - the checks and lookups (direction, UUID, requests from/to a floor) only compute or read the banks' caches
+    *   - activateRequest / retireRequest / deactivateRequest / makePendingRequestActiveForServing change the bank's
+    *     active table, floor request index and pending queue (retireRequest also cancels the request's TTL timer)
+    *   - clearStopIfUnused removes a stop from the car (and so bumps its version)
     */
 
 
@@ -28,27 +36,88 @@ public class Helper {
         return UUID.randomUUID().toString();
     }
 
-    // fetch all elevator requests made by user whose requested floor matches input floor
+    // Direction lane an elevator serves right now - NONE when it is not moving (idle/loading), i.e., both lanes
+    public static RequestDirection getServingDirection(Elevator elevator){
+        if (elevator.isMovingUp()) return RequestDirection.UP;
+        if (elevator.isMovingDown()) return RequestDirection.DOWN;
+        return RequestDirection.NONE;
+    }
+
+    // visit active requests of the bank waiting for pickup at the input floor - O(requests at that floor), no list allocation (hot path on every arrival)
+    public static void forEachActiveRequestFromFloor(ElevatorBank bank, int floor, RequestDirection direction, Consumer<ElevatorRequest> action){
+        bank.getFloorRequestIndex().forEachWaitingAt(floor, direction, action);
+    }
+
+    // visit picked-up requests of the bank riding to the input floor
+    public static void forEachRequestToFloor(ElevatorBank bank, int floor, RequestDirection direction, Consumer<ElevatorRequest> action){
+        bank.getFloorRequestIndex().forEachRidingTo(floor, direction, action);
+    }
+
+    // fetch all active elevator requests made by user whose requested floor matches input floor, in every bank (copying variant - not for hot paths)
     public static List<ElevatorRequest> getActiveRequestsFromFloor(int floor){
-        return UserRequestCache.getActiveRequests().values().stream()
-                                .filter(request -> request.getFromSrcFloor() == floor)
-                                .toList();
+        List<ElevatorRequest> requests = new ArrayList<>();
+        for (ElevatorBank bank : ElevatorBanks.getBanks()) {
+            forEachActiveRequestFromFloor(bank, floor, RequestDirection.NONE, requests::add);
+        }
+        return requests;
     }
 
-    // fetch all elevator requests made by user whose requested floor matches input floor
+    // fetch all picked-up elevator requests whose destination floor matches input floor, in every bank (copying variant - not for hot paths)
     public static List<ElevatorRequest> getRequestsToFloor(int floor){
-        return UserRequestCache.getActiveRequests().values().stream()
-                                .filter(request -> request.getToDestFloor() == floor)
-                                .toList();
+        List<ElevatorRequest> requests = new ArrayList<>();
+        for (ElevatorBank bank : ElevatorBanks.getBanks()) {
+            forEachRequestToFloor(bank, floor, RequestDirection.NONE, requests::add);
+        }
+        return requests;
+    }
+
+    // Assignment: request becomes active in its bank and its passenger is expected at the source floor
+    public static void activateRequest(ElevatorRequest request){
+        ElevatorBank bank = ElevatorBanks.route(request);
+        bank.getActiveRequests().put(request.getRequestId(), request);
+        bank.getFloorRequestIndex().addWaiting(request);
+    }
+
+    // Drop-off (or any terminal state): forget the request everywhere
+    public static void retireRequest(ElevatorRequest request){
+        request.cancelExpiry(); // no-op when called by the expiry itself
+        ElevatorBank bank = ElevatorBanks.route(request);
+        bank.getActiveRequests().remove(request.getRequestId());
+        bank.getFloorRequestIndex().remove(request);
+    }
+
+    // Reassignment: out of the active table and index like a retired request, but its TTL keeps running - it is still waiting
+    public static void deactivateRequest(ElevatorRequest request){
+        ElevatorBank bank = ElevatorBanks.route(request);
+        bank.getActiveRequests().remove(request.getRequestId());
+        bank.getFloorRequestIndex().remove(request);
+    }
+
+    // the floor stays a stop if any other passenger of this car is waiting there, riding there, or waiting elsewhere to go there
+    // (a request that no longer needs the car - expired, reassigned - must be out of the index before calling this)
+    public static void clearStopIfUnused(Elevator elevator, int floor) {
+        if (!elevator.getAssignedFloors().contains(floor)) return;
+        boolean[] needed = {false};
+        ElevatorBank bank = ElevatorBanks.bankOf(elevator);
+        forEachActiveRequestFromFloor(bank, floor, RequestDirection.NONE, other -> needed[0] |= other.getAssignedElevator() == elevator);
+        forEachRequestToFloor(bank, floor, RequestDirection.NONE, other -> needed[0] |= other.getAssignedElevator() == elevator);
+        for (int stop = elevator.getAssignedFloors().first(); !needed[0] && stop != AtomicFloorBitSet.NO_FLOOR; stop = elevator.getAssignedFloors().higher(stop)) {
+            forEachActiveRequestFromFloor(bank, stop, RequestDirection.NONE, other -> needed[0] |=
+                    other.getAssignedElevator() == elevator && other.getToDestFloor() == floor);
+        }
+        if (!needed[0]) {
+            elevator.removeFloor(floor); // bumps the car's version - in-flight rankings of this car are invalidated
+        }
     }
 
     public static void makePendingRequestActiveForServing(ElevatorRequest request){
         // These structures are individually thread-safe,
         // but a compound operation involving both (add in one, remove from another) is not atomic across them
         // unless you explicitly control the order and condition.
-        ElevatorRequest prevExisting = UserRequestCache.getActiveRequests().putIfAbsent(request.getRequestId(), request);
+        ElevatorBank bank = ElevatorBanks.route(request);
+        ElevatorRequest prevExisting = bank.getActiveRequests().putIfAbsent(request.getRequestId(), request);
         if(Objects.isNull(prevExisting)){ // if Does not exist previously
-            UserRequestCache.getPendingRequests().remove(request);
+            bank.getPendingRequests().remove(request); // O(1) - flips the request's queue handle, no scan
         }
     }
 }
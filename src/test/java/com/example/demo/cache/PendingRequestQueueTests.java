@@ -0,0 +1,155 @@
+package com.example.demo.cache;
+
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.ElevatorClock;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.model.ElevatorRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PendingRequestQueueTests {
+
+    private static final long AGING_MILLIS = 30_000;
+
+    // wall and monotonic time set independently - a wall clock step leaves the monotonic reading alone
+    private static final class ManualClock implements ElevatorClock {
+        long wallMillis = 1_700_000_000_000L;
+        long monotonicMillis;
+
+        @Override
+        public long currentTimeMillis() {
+            return wallMillis;
+        }
+
+        @Override
+        public long monotonicMillis() {
+            return monotonicMillis;
+        }
+
+        @Override
+        public ScheduledExecutorService newScheduledExecutor(String name) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ScheduledExecutorService sharedScheduler() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isVirtual() {
+            return true;
+        }
+    }
+
+    private ManualClock clock;
+    private PendingRequestQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        clock = new ManualClock();
+        ClockProvider.useClock(clock);
+        queue = new PendingRequestQueue(AGING_MILLIS);
+    }
+
+    private static ElevatorRequest call(RequestPriority priority) {
+        return new ElevatorRequest(priority, 0, 5);
+    }
+
+    @Test
+    void emergencyThenVipThenRegularFifoWithinALane() {
+        ElevatorRequest regular1 = call(RequestPriority.REGULAR_NORMAL);
+        ElevatorRequest vip1 = call(RequestPriority.VIP);
+        ElevatorRequest regular2 = call(RequestPriority.REGULAR_NORMAL);
+        ElevatorRequest emergency = call(RequestPriority.EMERGENCY);
+        ElevatorRequest vip2 = call(RequestPriority.VIP);
+        for (ElevatorRequest request : new ElevatorRequest[]{regular1, vip1, regular2, emergency, vip2}) {
+            assertTrue(queue.offer(request));
+        }
+        assertEquals(5, queue.size());
+        assertEquals(2, queue.size(RequestPriority.VIP));
+
+        assertSame(emergency, queue.peek());
+        assertSame(emergency, queue.poll());
+        assertSame(vip1, queue.poll());
+        assertSame(vip2, queue.poll());
+        assertSame(regular1, queue.poll());
+        assertSame(regular2, queue.poll());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void agedRegularCallOvertakesVip() {
+        ElevatorRequest regular = call(RequestPriority.REGULAR_NORMAL);
+        queue.offer(regular);
+        clock.monotonicMillis += AGING_MILLIS;
+        ElevatorRequest vip = call(RequestPriority.VIP);
+        queue.offer(vip);
+
+        assertSame(regular, queue.poll()); // waited agingMillis - served before the younger VIP
+        assertSame(vip, queue.poll());
+    }
+
+    @Test
+    void emergencyIsNeverOvertakenByAgedCalls() {
+        ElevatorRequest regular = call(RequestPriority.REGULAR_NORMAL);
+        queue.offer(regular);
+        clock.monotonicMillis += 10 * AGING_MILLIS;
+        ElevatorRequest emergency = call(RequestPriority.EMERGENCY);
+        queue.offer(emergency);
+
+        assertSame(emergency, queue.poll());
+        assertSame(regular, queue.poll());
+    }
+
+    @Test
+    void wallClockStepsDoNotAgeOrRejuvenate() {
+        ElevatorRequest regular = call(RequestPriority.REGULAR_NORMAL);
+        queue.offer(regular);
+        clock.monotonicMillis += 1_000;
+        ElevatorRequest vip = call(RequestPriority.VIP);
+        queue.offer(vip);
+
+        clock.wallMillis += TimeUnit.HOURS.toMillis(1); // wall clock jumps forward - nobody has waited any longer
+        assertSame(vip, queue.peek());
+
+        clock.wallMillis -= TimeUnit.HOURS.toMillis(2); // and back - a call that did wait long enough is still aged
+        clock.monotonicMillis += AGING_MILLIS - 1_000;
+        assertSame(regular, queue.peek());
+    }
+
+    @Test
+    void removeByHandleSkipsTheRequestAndAllowsReoffer() {
+        ElevatorRequest first = call(RequestPriority.REGULAR_NORMAL);
+        ElevatorRequest second = call(RequestPriority.REGULAR_NORMAL);
+        ElevatorRequest third = call(RequestPriority.REGULAR_NORMAL);
+        queue.offer(first);
+        queue.offer(second);
+        queue.offer(third);
+        assertFalse(queue.offer(second)); // already waiting - not queued twice
+
+        assertTrue(queue.remove(second));
+        assertFalse(queue.remove(second));
+        assertNull(second.getPendingHandle());
+        assertFalse(second.getIsEnqueued().get());
+        assertEquals(2, queue.size());
+
+        assertSame(first, queue.poll());
+        assertSame(third, queue.poll());
+        assertNull(queue.poll());
+
+        assertTrue(queue.offer(second)); // handed back - may wait again
+        assertSame(second, queue.poll());
+        assertFalse(queue.remove(second)); // polled already
+    }
+}
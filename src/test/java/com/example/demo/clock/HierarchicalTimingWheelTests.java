@@ -0,0 +1,117 @@
+package com.example.demo.clock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTests {
+
+    // deadlines on every level (64 ticks, 64^2, 64^3, 64^4) and their edges, plus one beyond the top wheel
+    private static final long[] DEADLINES = {
+            1, 5, 63, 64, 65, 127, 128, 4_095, 4_096, 4_097, 262_143, 262_144, 262_145, 300_000,
+            16_777_215, 16_777_216, 20_000_000
+    };
+
+    @Test
+    void expiresExactlyAtTheDeadlineAcrossLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 0);
+        for (long deadline : DEADLINES) {
+            wheel.schedule(deadline, deadline);
+        }
+        assertEquals(DEADLINES.length, wheel.size());
+
+        Set<Long> expired = new HashSet<>();
+        SplittableRandom random = new SplittableRandom(7);
+        long now = 0;
+        while (expired.size() < DEADLINES.length) {
+            now += 1 + random.nextInt(50_000);
+            long advancedTo = now;
+            wheel.advanceTo(now, deadline -> {
+                assertTrue(deadline <= advancedTo, "expired early: " + deadline + " at " + advancedTo);
+                assertTrue(expired.add(deadline), "expired twice: " + deadline);
+            });
+            for (long deadline : DEADLINES) {
+                assertEquals(deadline <= now, expired.contains(deadline), "deadline " + deadline + " at " + now);
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void everyTickStepMatchesTheDeadline() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 0);
+        List<Long> deadlines = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 500; i++) {
+            long deadline = 1 + random.nextInt(20_000);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+        for (long now = 1; now <= 20_000; now++) {
+            long tick = now;
+            int count = wheel.advanceTo(now, deadline -> assertEquals(tick, (long) deadline));
+            assertEquals(deadlines.stream().filter(d -> d == tick).count(), count);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void neverExpiresBeforeTheDeadlineOnCoarseTicks() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1_000, 0);
+        wheel.schedule("call", 1_500); // between two ticks - rounded up, never down
+        List<String> expired = new ArrayList<>();
+        wheel.advanceTo(1_999, expired::add);
+        assertTrue(expired.isEmpty());
+        wheel.advanceTo(2_000, expired::add);
+        assertEquals(List.of("call"), expired);
+    }
+
+    @Test
+    void cancelledTimeoutsNeverExpire() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 0);
+        List<HierarchicalTimingWheel.Timeout<Long>> timeouts = new ArrayList<>();
+        for (long deadline : DEADLINES) {
+            timeouts.add(wheel.schedule(deadline, deadline));
+        }
+        wheel.advanceTo(100, deadline -> { });  // the short ones expire, the rest sit on the upper levels
+
+        Set<Long> cancelled = new HashSet<>();
+        for (int i = 0; i < timeouts.size(); i += 2) {
+            HierarchicalTimingWheel.Timeout<Long> timeout = timeouts.get(i);
+            boolean wasLive = !timeout.isDone();
+            assertEquals(wasLive, timeout.cancel());
+            assertFalse(timeout.cancel()); // only once
+            if (wasLive) cancelled.add(DEADLINES[i]);
+        }
+        HierarchicalTimingWheel.Timeout<Long> beforePlacement = wheel.schedule(-1L, 500);
+        assertTrue(beforePlacement.cancel()); // still in the new-timeouts queue
+        int live = wheel.size();
+
+        Set<Long> expired = new HashSet<>();
+        int count = wheel.advanceTo(30_000_000, expired::add);
+        assertEquals(live, count);
+        for (long deadline : cancelled) {
+            assertFalse(expired.contains(deadline), "cancelled but expired: " + deadline);
+        }
+        assertFalse(expired.contains(-1L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 1_000);
+        wheel.advanceTo(5_000, payload -> { });
+        wheel.schedule("late", 100); // already due when scheduled
+        List<String> expired = new ArrayList<>();
+        wheel.advanceTo(5_010, expired::add);
+        assertEquals(List.of("late"), expired);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.controller;
+
+import com.example.demo.bank.ElevatorBanks;
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.VirtualElevatorClock;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.service.RequestExpiryService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ElevatorController1.class)
+class ElevatorController1Tests {
+
+    private static final VirtualElevatorClock CLOCK = new VirtualElevatorClock(LocalDate.of(2024, 1, 1).atStartOfDay());
+
+    static {
+        // both are read once: the clock by the first service singleton, the batch limit when the controller class loads
+        ClockProvider.useClock(CLOCK);
+        System.setProperty("elevator.intake.maxBatch", "3");
+    }
+
+    private static final String UUID = "[0-9a-f-]{36}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void destinationCallIsAcceptedWithReceipt() throws Exception {
+        this.mockMvc.perform(post("/api/calls/destination").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromFloor\":3,\"toFloor\":12,\"priority\":\"VIP\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.requestId").value(matchesPattern(UUID)))
+                .andExpect(jsonPath("$.status").value(anyOf(is("PENDING"), is("ASSIGNED"))));
+    }
+
+    @Test
+    void invalidCallsAreRejected() throws Exception {
+        this.mockMvc.perform(post("/api/calls/destination").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromFloor\":3,\"toFloor\":3}"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(post("/api/calls/floor").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"floor\":3,\"direction\":\"NONE\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void servedFloorCallNeverExpires() throws Exception {
+        RequestExpiryService expiry = RequestExpiryService.getInstance();
+        long expiredBefore = expiry.getExpiredCount();
+
+        String body = this.mockMvc.perform(post("/api/calls/floor").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"floor\":7,\"direction\":\"DOWN\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.requestId").value(matchesPattern(UUID)))
+                .andExpect(jsonPath("$.status").value(anyOf(is("PENDING"), is("ASSIGNED"))))
+                .andReturn().getResponse().getContentAsString();
+        String requestId = JsonPath.read(body, "$.requestId");
+
+        // a car gets there and answers the call: out of the active table, off the TTL wheel
+        CLOCK.runFor(Duration.ofMinutes(2));
+        assertFalse(ElevatorBanks.getDefaultBank().getActiveRequests().containsKey(requestId));
+
+        CLOCK.runFor(Duration.ofMillis(RequestPriority.REGULAR_NORMAL.getExpiryTtlMillis()));
+        assertEquals(expiredBefore, expiry.getExpiredCount());
+    }
+
+    @Test
+    void batchReceiptIsPositional() throws Exception {
+        this.mockMvc.perform(post("/api/calls/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"fromFloor\":0,\"toFloor\":7},{\"fromFloor\":4,\"toFloor\":4},{\"fromFloor\":9,\"toFloor\":2}]"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.requestIds", hasSize(3)))
+                .andExpect(jsonPath("$.requestIds[0]").value(matchesPattern(UUID)))
+                .andExpect(jsonPath("$.requestIds[1]").value(nullValue()))
+                .andExpect(jsonPath("$.requestIds[2]").value(matchesPattern(UUID)));
+    }
+
+    @Test
+    void batchOverTheLimitIsRejected() throws Exception {
+        this.mockMvc.perform(post("/api/calls/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"fromFloor\":0,\"toFloor\":7},{\"fromFloor\":0,\"toFloor\":8},"
+                                + "{\"fromFloor\":0,\"toFloor\":9},{\"fromFloor\":0,\"toFloor\":10}]"))
+                .andExpect(status().isPayloadTooLarge());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.customds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AtomicFloorBitSetTests {
+
+    @Test
+    void higherAndLowerCrossWordBoundaries() {
+        AtomicFloorBitSet floors = AtomicFloorBitSet.forMaxFloor(200);
+        assertInstanceOf(AtomicFloorBitSet.MultiWord.class, floors);
+        floors.add(3);
+        floors.add(63);
+        floors.add(64);
+        floors.add(130);
+        floors.add(200);
+
+        assertEquals(63, floors.higher(3));
+        assertEquals(64, floors.higher(63));
+        assertEquals(130, floors.higher(64));   // skips the empty rest of word 1
+        assertEquals(200, floors.higher(130));
+        assertEquals(AtomicFloorBitSet.NO_FLOOR, floors.higher(200));
+
+        assertEquals(130, floors.lower(200));
+        assertEquals(64, floors.lower(130));
+        assertEquals(63, floors.lower(64));
+        assertEquals(3, floors.lower(63));
+        assertEquals(AtomicFloorBitSet.NO_FLOOR, floors.lower(3));
+
+        assertEquals(3, floors.first());
+        assertEquals(200, floors.last());
+        assertEquals(200, floors.lower(Integer.MAX_VALUE));
+        assertEquals(3, floors.higher(-1));
+    }
+
+    @Test
+    void singleWordEdges() {
+        AtomicFloorBitSet floors = AtomicFloorBitSet.forMaxFloor(63);
+        assertInstanceOf(AtomicFloorBitSet.SingleWord.class, floors);
+        assertTrue(floors.isEmpty());
+        assertTrue(floors.add(0));
+        assertTrue(floors.add(63));
+        assertFalse(floors.add(63));
+        assertFalse(floors.add(64)); // out of range
+        assertEquals(63, floors.higher(0));
+        assertEquals(AtomicFloorBitSet.NO_FLOOR, floors.higher(63));
+        assertEquals(0, floors.lower(63));
+        assertEquals(AtomicFloorBitSet.NO_FLOOR, floors.lower(0));
+        assertTrue(floors.remove(0));
+        assertFalse(floors.remove(0));
+        assertEquals(1, floors.size());
+    }
+
+    // same answers as a TreeSet for every query, both representations
+    @Test
+    void matchesTreeSet() {
+        for (int maxFloor : new int[]{30, 63, 64, 127, 128, 300}) {
+            SplittableRandom random = new SplittableRandom(maxFloor);
+            AtomicFloorBitSet floors = AtomicFloorBitSet.forMaxFloor(maxFloor);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 2000; i++) {
+                int floor = random.nextInt(maxFloor + 1);
+                if (random.nextBoolean()) {
+                    assertEquals(expected.add(floor), floors.add(floor));
+                } else {
+                    assertEquals(expected.remove(floor), floors.remove(floor));
+                }
+                int probe = random.nextInt(-1, maxFloor + 2);
+                assertEquals(orNoFloor(expected.higher(probe)), floors.higher(probe), "higher(" + probe + ") of " + expected);
+                assertEquals(orNoFloor(expected.lower(probe)), floors.lower(probe), "lower(" + probe + ") of " + expected);
+                assertEquals(expected.contains(probe), floors.contains(probe));
+                assertEquals(expected.size(), floors.size());
+            }
+        }
+    }
+
+    private static int orNoFloor(Integer floor) {
+        return floor == null ? AtomicFloorBitSet.NO_FLOOR : floor;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.demo.repository;
+
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.ElevatorClock;
+import com.example.demo.clock.SystemElevatorClock;
+import com.example.demo.clock.VirtualElevatorClock;
+import com.example.demo.customds.AtomicFloorBitSet;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.enums.RequestDirection;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElevatorJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void smallSegments() {
+        ClockProvider.useClock(new VirtualElevatorClock(LocalDate.of(2024, 1, 1).atStartOfDay()));
+        System.setProperty("elevator.journal.segmentMB", "1"); // read per journal - a few thousand records roll over
+    }
+
+    @Test
+    void appendedRecordsReplayToTheSameState() throws IOException {
+        Elevator car = new Elevator(ElevatorState.MOVING_UP, 3);
+        car.getAssignedFloors().add(5);
+        car.getAssignedFloors().add(9);
+        Elevator idle = new Elevator(ElevatorState.IDLE, 0);
+        ElevatorRequest riding = new ElevatorRequest(RequestPriority.VIP, 2, 8);
+        riding.setAssignedElevator(car);
+        riding.setRequestStatus(RequestStatus.IN_PROGRESS);
+        riding.setPickedUpAt(riding.getRequestedAt().plusSeconds(20));
+        ElevatorRequest waiting = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 4, RequestDirection.DOWN);
+        ElevatorRequest finished = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 1, 6);
+
+        long end;
+        try (ElevatorJournal journal = new ElevatorJournal(this.directory, 0)) {
+            journal.appendCar(car);
+            journal.appendCar(idle);
+            journal.appendRequest(riding);
+            journal.appendRequest(waiting);
+            journal.appendRequest(finished);
+            car.setCurrentFloor(4); // later records of the same object win
+            journal.appendCar(car);
+            finished.setRequestStatus(RequestStatus.COMPLETED);
+            journal.appendRequest(finished);
+            end = journal.position();
+        }
+
+        PersistedState state = ElevatorSnapshot.recover(this.directory); // no snapshot - the whole journal
+        assertEquals(end, state.getJournalPosition());
+        Map<String, Elevator> cars = state.getCars().stream().collect(Collectors.toMap(Elevator::getElevatorId, Function.identity()));
+        assertEquals(2, cars.size());
+        Elevator restoredCar = cars.get(car.getElevatorId());
+        assertEquals(4, restoredCar.getCurrentFloor());
+        assertEquals(ElevatorState.MOVING_UP, restoredCar.getElevatorState());
+        assertEquals(List.of(5, 9), stops(restoredCar));
+        assertEquals(ElevatorState.IDLE, cars.get(idle.getElevatorId()).getElevatorState());
+
+        Map<String, ElevatorRequest> requests = state.getRequests().stream().collect(Collectors.toMap(ElevatorRequest::getRequestId, Function.identity()));
+        assertEquals(2, requests.size()); // the completed one is not restored
+        ElevatorRequest restoredRiding = requests.get(riding.getRequestId());
+        assertEquals(RequestPriority.VIP, restoredRiding.getRequestPriority());
+        assertEquals(RequestStatus.IN_PROGRESS, restoredRiding.getRequestStatus());
+        assertEquals(RequestDirection.UP, restoredRiding.getRequestDirection());
+        assertEquals(2, restoredRiding.getFromSrcFloor());
+        assertEquals(8, restoredRiding.getToDestFloor());
+        assertEquals(riding.getRequestedAt(), restoredRiding.getRequestedAt());
+        assertEquals(riding.getPickedUpAt(), restoredRiding.getPickedUpAt());
+        assertSame(restoredCar, restoredRiding.getAssignedElevator());
+
+        ElevatorRequest restoredWaiting = requests.get(waiting.getRequestId());
+        assertEquals(RequestStatus.PENDING, restoredWaiting.getRequestStatus());
+        assertEquals(RequestDirection.DOWN, restoredWaiting.getRequestDirection());
+        assertNull(restoredWaiting.getPickedUpAt());
+        assertNull(restoredWaiting.getAssignedElevator());
+    }
+
+    @Test
+    void replayCrossesSegments() throws IOException {
+        List<Elevator> cars = new ArrayList<>();
+        long end;
+        try (ElevatorJournal journal = new ElevatorJournal(this.directory, 0)) {
+            for (int i = 0; i < 100_000; i++) { // 32 bytes a record - three 1 MB segments and a bit
+                Elevator car = new Elevator(ElevatorState.IDLE, i % 100);
+                cars.add(car);
+                journal.appendCar(car);
+            }
+            end = journal.position();
+        }
+        assertTrue(end > 2L << 20);
+
+        List<String> replayed = new ArrayList<>();
+        assertEquals(end, ElevatorJournal.replay(this.directory, 0,
+                (type, payload) -> replayed.add(ElevatorRecordCodec.decodeCar(payload).getElevatorId())));
+        assertEquals(cars.stream().map(Elevator::getElevatorId).toList(), replayed);
+    }
+
+    // a record torn by a crash ends the segment: replay stops before it, and appends continue there in a new segment
+    @Test
+    void tornTailIsTruncated() throws IOException {
+        Elevator first = new Elevator(ElevatorState.IDLE, 1);
+        Elevator second = new Elevator(ElevatorState.IDLE, 2);
+        Elevator torn = new Elevator(ElevatorState.IDLE, 3);
+        long validEnd;
+        long tornEnd;
+        try (ElevatorJournal journal = new ElevatorJournal(this.directory, 0)) {
+            journal.appendCar(first);
+            validEnd = journal.appendCar(second);
+            tornEnd = journal.appendCar(torn);
+        }
+        // only part of the last record reached the disk
+        try (FileChannel segment = FileChannel.open(this.directory.resolve(String.format("journal-%016x.log", 0)), StandardOpenOption.WRITE)) {
+            segment.write(ByteBuffer.allocate(4), tornEnd - 4);
+        }
+
+        List<Integer> floors = new ArrayList<>();
+        ElevatorJournal.RecordHandler collect = (type, payload) -> floors.add(ElevatorRecordCodec.decodeCar(payload).getCurrentFloor());
+        assertEquals(validEnd, ElevatorJournal.replay(this.directory, 0, collect));
+        assertEquals(List.of(1, 2), floors);
+
+        long end;
+        try (ElevatorJournal journal = new ElevatorJournal(this.directory, validEnd)) {
+            end = journal.appendCar(new Elevator(ElevatorState.IDLE, 4));
+        }
+        floors.clear();
+        assertEquals(end, ElevatorJournal.replay(this.directory, 0, collect));
+        assertEquals(List.of(1, 2, 4), floors); // the torn record is never read again
+    }
+
+    // -Delevator.journal.sync: an appender waiting for its group commit is released by close(), not left waiting forever
+    @Test
+    void closeReleasesSyncAppenders() throws Exception {
+        Elevator car = new Elevator(ElevatorState.IDLE, 1);
+        ElevatorClock simulated = ClockProvider.getClock();
+        ClockProvider.useClock(new SystemElevatorClock()); // sync commits only wait on the wall clock
+        System.setProperty("elevator.journal.sync", "true");
+        System.setProperty("elevator.journal.groupCommitMillis", "600000"); // no group commit before close()
+        try {
+            ElevatorJournal journal = new ElevatorJournal(this.directory, 0);
+            Thread appender = new Thread(() -> journal.appendCar(car), "sync-appender");
+            appender.start();
+            for (int i = 0; i < 5_000 && journal.position() == 0; i++) {
+                Thread.sleep(1);
+            }
+            appender.join(200);
+            assertTrue(appender.isAlive()); // appended, waiting for the record to be durable
+
+            journal.close();
+            appender.join(5_000);
+            assertFalse(appender.isAlive());
+        } finally {
+            System.clearProperty("elevator.journal.sync");
+            System.clearProperty("elevator.journal.groupCommitMillis");
+            ClockProvider.useClock(simulated);
+        }
+        List<Integer> floors = new ArrayList<>();
+        ElevatorJournal.replay(this.directory, 0, (type, payload) -> floors.add(ElevatorRecordCodec.decodeCar(payload).getCurrentFloor()));
+        assertEquals(List.of(1), floors);
+    }
+
+    private static List<Integer> stops(Elevator elevator) {
+        List<Integer> stops = new ArrayList<>();
+        AtomicFloorBitSet floors = elevator.getAssignedFloors();
+        for (int stop = floors.first(); stop != AtomicFloorBitSet.NO_FLOOR; stop = floors.higher(stop)) {
+            stops.add(stop);
+        }
+        return stops;
+    }
+}
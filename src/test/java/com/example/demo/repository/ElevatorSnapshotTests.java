@@ -0,0 +1,114 @@
+package com.example.demo.repository;
+
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.VirtualElevatorClock;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.enums.RequestDirection;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ElevatorSnapshotTests {
+
+    @TempDir
+    Path directory;
+
+    private Elevator car;
+    private ElevatorRequest waiting;
+    private ElevatorRequest assigned;
+    private ElevatorRequest later;
+
+    @BeforeAll
+    static void simulatedClock() {
+        ClockProvider.useClock(new VirtualElevatorClock(LocalDate.of(2024, 1, 1).atStartOfDay()));
+        System.setProperty("elevator.journal.segmentMB", "1");
+    }
+
+    /*
+    * journal: car, waiting, assigned | snapshot at that position | tail: waiting completed, later, car moved.
+    * Returns the journal end.
+    * */
+    private long snapshotThenTail() throws IOException {
+        this.car = new Elevator(ElevatorState.MOVING_UP, 2);
+        this.car.getAssignedFloors().add(6);
+        this.waiting = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 6, RequestDirection.UP);
+        this.assigned = new ElevatorRequest(RequestPriority.VIP, 3, 10);
+        this.assigned.setAssignedElevator(this.car);
+        this.assigned.setRequestStatus(RequestStatus.ASSIGNED);
+        this.later = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 9, 0);
+
+        try (ElevatorJournal journal = new ElevatorJournal(this.directory, 0)) {
+            journal.appendCar(this.car);
+            journal.appendRequest(this.waiting);
+            journal.appendRequest(this.assigned);
+            ElevatorSnapshot.write(this.directory, journal.position(), List.of(this.car), List.of(this.waiting, this.assigned));
+
+            this.waiting.setRequestStatus(RequestStatus.COMPLETED);
+            journal.appendRequest(this.waiting);
+            journal.appendRequest(this.later);
+            this.car.setCurrentFloor(7);
+            journal.appendCar(this.car);
+            return journal.position();
+        }
+    }
+
+    private void assertRecovered(PersistedState state, long end) {
+        assertEquals(end, state.getJournalPosition());
+        assertEquals(1, state.getCars().size());
+        Elevator restoredCar = state.getCars().iterator().next();
+        assertEquals(this.car.getElevatorId(), restoredCar.getElevatorId());
+        assertEquals(7, restoredCar.getCurrentFloor());
+
+        // the tail's newer state of `waiting` (completed) beats the snapshot's - it is not restored
+        Map<String, ElevatorRequest> requests = state.getRequests().stream().collect(Collectors.toMap(ElevatorRequest::getRequestId, Function.identity()));
+        assertEquals(Set.of(this.assigned.getRequestId(), this.later.getRequestId()), requests.keySet());
+        ElevatorRequest restoredAssigned = requests.get(this.assigned.getRequestId());
+        assertEquals(RequestStatus.ASSIGNED, restoredAssigned.getRequestStatus());
+        assertEquals(RequestPriority.VIP, restoredAssigned.getRequestPriority());
+        assertSame(restoredCar, restoredAssigned.getAssignedElevator());
+        assertEquals(RequestDirection.DOWN, requests.get(this.later.getRequestId()).getRequestDirection());
+    }
+
+    @Test
+    void snapshotPlusJournalTail() throws IOException {
+        long end = snapshotThenTail();
+        assertRecovered(ElevatorSnapshot.recover(this.directory), end);
+    }
+
+    @Test
+    void damagedSnapshotFallsBackToTheOlderOne() throws IOException {
+        long end = snapshotThenTail();
+        Path newest = ElevatorSnapshot.write(this.directory, end, List.of(this.car), List.of(this.assigned, this.later));
+        try (FileChannel snapshot = FileChannel.open(newest, StandardOpenOption.WRITE)) {
+            snapshot.write(ByteBuffer.wrap(new byte[]{0x5A}), snapshot.size() - 1); // last request record - body checksum fails
+        }
+        assertRecovered(ElevatorSnapshot.recover(this.directory), end);
+    }
+
+    @Test
+    void onlyTheTwoNewestSnapshotsAreKept() throws IOException {
+        for (long position = 100; position <= 400; position += 100) {
+            ElevatorSnapshot.write(this.directory, position, List.of(), List.of());
+        }
+        assertEquals(300, ElevatorSnapshot.oldestPosition(this.directory));
+    }
+}
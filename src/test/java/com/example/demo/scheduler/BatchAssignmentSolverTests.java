@@ -0,0 +1,113 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.enums.RequestDirection;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.model.ElevatorRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchAssignmentSolverTests {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void hungarianMatchesBruteForceOnSquareMatrices() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int n = 1; n <= 6; n++) {
+            for (int trial = 0; trial < 50; trial++) {
+                assertOptimal(randomMatrix(random, n, n, 100));
+            }
+        }
+    }
+
+    @Test
+    void hungarianMatchesBruteForceOnRectangularMatrices() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int rows = 1; rows <= 5; rows++) {
+            for (int columns = rows + 1; columns <= 7; columns++) {
+                for (int trial = 0; trial < 20; trial++) {
+                    assertOptimal(randomMatrix(random, rows, columns, 100));
+                }
+            }
+        }
+    }
+
+    // many equal costs - the ties must not break the matching
+    @Test
+    void hungarianMatchesBruteForceWithTies() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int trial = 0; trial < 200; trial++) {
+            int rows = 1 + random.nextInt(5);
+            assertOptimal(randomMatrix(random, rows, rows + random.nextInt(3), 3));
+        }
+    }
+
+    @Test
+    void infeasibleCallStaysUnassigned() {
+        ElevatorRequest reachable = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 2, RequestDirection.UP);
+        ElevatorRequest unreachable = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 9, RequestDirection.DOWN);
+        List<Integer> cars = List.of(0, 4); // a car is just its floor here
+        Map<ElevatorRequest, Integer> assignment = BatchAssignmentSolver.solve(cars, List.of(reachable, unreachable),
+                (car, request) -> request == unreachable ? BatchAssignmentSolver.INFEASIBLE : Math.abs(car - request.getFromSrcFloor()));
+
+        assertEquals(0, assignment.get(reachable));
+        assertNull(assignment.get(unreachable));
+    }
+
+    @Test
+    void ridersOfOneHallCallShareACar() {
+        ElevatorRequest first = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 6, RequestDirection.UP);
+        ElevatorRequest second = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 6, RequestDirection.UP);
+        ElevatorRequest down = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 6, RequestDirection.DOWN);
+        Map<ElevatorRequest, Integer> assignment = BatchAssignmentSolver.solve(List.of(5, 8), List.of(first, second, down),
+                (car, request) -> Math.abs(car - request.getFromSrcFloor()));
+
+        assertEquals(assignment.get(first), assignment.get(second));
+        assertTrue(assignment.values().containsAll(Set.of(5, 8))); // the other direction gets the other car
+    }
+
+    private static double[][] randomMatrix(SplittableRandom random, int rows, int columns, int maxCost) {
+        double[][] cost = new double[rows][columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                cost[row][column] = random.nextInt(maxCost);
+            }
+        }
+        return cost;
+    }
+
+    private static void assertOptimal(double[][] cost) {
+        int[] columnOfRow = BatchAssignmentSolver.hungarian(cost);
+        assertEquals(cost.length, columnOfRow.length);
+        Set<Integer> usedColumns = new HashSet<>();
+        double total = 0;
+        for (int row = 0; row < cost.length; row++) {
+            assertTrue(columnOfRow[row] >= 0, "row " + row + " unmatched");
+            assertTrue(usedColumns.add(columnOfRow[row]), "column " + columnOfRow[row] + " matched twice");
+            total += cost[row][columnOfRow[row]];
+        }
+        assertEquals(bruteForce(cost, 0, new boolean[cost[0].length]), total, EPSILON);
+    }
+
+    // cheapest way to give rows row.. a column each, trying every unused column
+    private static double bruteForce(double[][] cost, int row, boolean[] used) {
+        if (row == cost.length) return 0;
+        double best = Double.POSITIVE_INFINITY;
+        for (int column = 0; column < used.length; column++) {
+            if (used[column]) continue;
+            used[column] = true;
+            best = Math.min(best, cost[row][column] + bruteForce(cost, row + 1, used));
+            used[column] = false;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.IConstants;
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.VirtualElevatorClock;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.enums.RequestDirection;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import com.example.demo.model.FleetSnapshot;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SCANSchedulerTests {
+
+    private static final ElevatorState[] STATES = {
+            ElevatorState.IDLE, ElevatorState.MOVING_UP, ElevatorState.MOVING_DOWN, ElevatorState.MAINTENANCE
+    };
+
+    @BeforeAll
+    static void simulatedClock() {
+        ClockProvider.useClock(new VirtualElevatorClock(LocalDate.of(2024, 1, 1).atStartOfDay()));
+    }
+
+    // few distinct floors, so many cars tie; moving cars have a stop ahead of them
+    private static List<Elevator> fleet(SplittableRandom random, int size) {
+        List<Elevator> elevators = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int floor = random.nextInt(6) * 6;
+            ElevatorState state = STATES[random.nextInt(STATES.length)];
+            Elevator elevator = new Elevator(state, floor);
+            if (state == ElevatorState.MOVING_UP && floor < IConstants.MAX_FLOOR_COUNT) {
+                elevator.getAssignedFloors().add(random.nextInt(floor + 1, IConstants.MAX_FLOOR_COUNT + 1));
+            } else if (state == ElevatorState.MOVING_DOWN && floor > IConstants.BASE_FLOOR) {
+                elevator.getAssignedFloors().add(random.nextInt(IConstants.BASE_FLOOR, floor));
+            }
+            elevators.add(elevator);
+        }
+        return elevators;
+    }
+
+    private static ElevatorRequest randomRequest(SplittableRandom random) {
+        int from = random.nextInt(IConstants.MAX_FLOOR_COUNT + 1);
+        if (random.nextBoolean()) {
+            RequestDirection direction = from == IConstants.MAX_FLOOR_COUNT || (from > 0 && random.nextBoolean())
+                    ? RequestDirection.DOWN : RequestDirection.UP;
+            return new ElevatorRequest(RequestPriority.REGULAR_NORMAL, from, direction);
+        }
+        int to = (from + 1 + random.nextInt(IConstants.MAX_FLOOR_COUNT)) % (IConstants.MAX_FLOOR_COUNT + 1);
+        return new ElevatorRequest(RequestPriority.REGULAR_NORMAL, from, to);
+    }
+
+    // the limited ranking (bounded heap, or nearest-first from 64 cars on) must return exactly the head of the full one
+    @Test
+    void topKIsThePrefixOfTheFullRanking() {
+        for (SCANScheduler.Cost cost : SCANScheduler.Cost.values()) {
+            for (int size : new int[]{10, 63, 64, 200, 1000}) {
+                SplittableRandom random = new SplittableRandom(size);
+                FleetSnapshot fleet = FleetSnapshot.of(fleet(random, size));
+                // same seed, called in lockstep - both see the same tie-break rotation on every request
+                SCANScheduler full = new SCANScheduler(cost, 42);
+                SCANScheduler limited = new SCANScheduler(cost, 42);
+                for (int i = 0; i < 50; i++) {
+                    ElevatorRequest request = randomRequest(random);
+                    int limit = 1 + random.nextInt(8);
+                    List<ElevatorCandidate> ranking = full.findBestCandidates(fleet, request);
+                    List<ElevatorCandidate> best = limited.findBestCandidates(fleet, request, limit);
+                    assertEquals(ranking.subList(0, Math.min(limit, ranking.size())), best,
+                            cost + ", " + size + " cars, limit " + limit + ", request from " + request.getFromSrcFloor());
+                }
+            }
+        }
+    }
+
+    @Test
+    void sameSeedSameChoices() {
+        List<Elevator> idle = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            idle.add(new Elevator(ElevatorState.IDLE, 0)); // all tied for every call
+        }
+        FleetSnapshot fleet = FleetSnapshot.of(idle);
+        List<ElevatorRequest> requests = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 50; i++) {
+            requests.add(randomRequest(random));
+        }
+
+        List<Elevator> first = choices(new SCANScheduler(SCANScheduler.Cost.ETA, 7), fleet, requests);
+        List<Elevator> replayed = choices(new SCANScheduler(SCANScheduler.Cost.ETA, 7), fleet, requests);
+        List<Elevator> otherSeed = choices(new SCANScheduler(SCANScheduler.Cost.ETA, 8), fleet, requests);
+
+        assertEquals(first, replayed);
+        assertNotEquals(first, otherSeed);
+        Set<Elevator> distinct = new HashSet<>(first);
+        assertTrue(distinct.size() > 10, "ties always broken towards the same few cars: " + distinct.size());
+    }
+
+    private static List<Elevator> choices(SCANScheduler scheduler, FleetSnapshot fleet, List<ElevatorRequest> requests) {
+        List<Elevator> choices = new ArrayList<>();
+        for (ElevatorRequest request : requests) {
+            choices.add(scheduler.findBestCandidates(fleet, request, 1).getFirst().elevator());
+        }
+        return choices;
+    }
+}
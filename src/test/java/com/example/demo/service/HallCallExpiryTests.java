@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import com.example.demo.IConstants;
+import com.example.demo.cache.ElevatorCache;
+import com.example.demo.clock.ClockProvider;
+import com.example.demo.clock.VirtualElevatorClock;
+import com.example.demo.enums.ElevatorState;
+import com.example.demo.enums.RequestDirection;
+import com.example.demo.enums.RequestPriority;
+import com.example.demo.enums.RequestStatus;
+import com.example.demo.model.Elevator;
+import com.example.demo.model.ElevatorRequest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// a served hall call is finished, not expired later - and its timer never clears a stop another call of the car still needs
+class HallCallExpiryTests {
+
+    private static VirtualElevatorClock clock;
+    private static Elevator car;
+
+    @BeforeAll
+    static void startSimulatedBuilding() {
+        // before any service singleton is created (surefire runs every test class in a JVM of its own)
+        clock = new VirtualElevatorClock(LocalDate.of(2024, 1, 1).atStartOfDay());
+        ClockProvider.useClock(clock);
+        ElevatorManagerService1.getInstance(); // the initial fleet
+        car = ElevatorCache.elevators.getFirst();
+        // one car in service, so both calls of the test go to it
+        ElevatorCache.elevators.stream().filter(other -> other != car).forEach(other -> other.setElevatorState(ElevatorState.MAINTENANCE));
+    }
+
+    @Test
+    void servedHallCallIsCompletedAndNeverExpires() {
+        RequestExpiryService expiry = RequestExpiryService.getInstance();
+        ElevatorDispatcherService dispatcher = ElevatorDispatcherService.getInstance();
+
+        ElevatorRequest first = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 5, RequestDirection.UP);
+        dispatcher.submitRequest(first);
+        assertSame(car, first.getAssignedElevator());
+        clock.runFor(Duration.ofMinutes(1));
+
+        assertEquals(RequestStatus.COMPLETED, first.getRequestStatus());
+        assertNull(first.getExpiryTimeout());
+        assertEquals(0, expiry.getTrackedCount());
+
+        // the car is sent to the top floor, then called back to floor 5 - still on its way when the first call's TTL runs out
+        ElevatorRequest top = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, IConstants.MAX_FLOOR_COUNT, RequestDirection.DOWN);
+        dispatcher.submitRequest(top);
+        clock.runFor(Duration.ofMinutes(1));
+        assertEquals(RequestStatus.COMPLETED, top.getRequestStatus());
+
+        long ttlMillis = RequestPriority.REGULAR_NORMAL.getExpiryTtlMillis();
+        clock.runFor(Duration.ofMillis(ttlMillis).minusMinutes(2).minusSeconds(10)); // 10 s before the first call's TTL
+        ElevatorRequest second = new ElevatorRequest(RequestPriority.REGULAR_NORMAL, 5, RequestDirection.UP);
+        dispatcher.submitRequest(second);
+        assertSame(car, second.getAssignedElevator());
+        clock.runFor(Duration.ofSeconds(15)); // past the first call's TTL - the car is still above floor 5
+
+        assertEquals(RequestStatus.COMPLETED, first.getRequestStatus());
+        assertEquals(RequestStatus.ASSIGNED, second.getRequestStatus());
+        assertTrue(car.getCurrentFloor() > 5);
+        assertTrue(car.getAssignedFloors().contains(5));
+
+        clock.runFor(Duration.ofMinutes(1));
+        assertEquals(RequestStatus.COMPLETED, second.getRequestStatus());
+
+        // past every TTL: nothing expires, nothing is left on the wheel
+        clock.runFor(Duration.ofMillis(RequestPriority.REGULAR_NORMAL.getExpiryTtlMillis()).plusMinutes(1));
+        assertEquals(0, expiry.getExpiredCount());
+        assertEquals(0, expiry.getTrackedCount());
+    }
+}
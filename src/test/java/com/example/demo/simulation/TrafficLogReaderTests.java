@@ -0,0 +1,151 @@
+package com.example.demo.simulation;
+
+import com.example.demo.enums.RequestPriority;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficLogReaderTests {
+
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    static {
+        // windows as small as a chunk, so a few MB of log cross several window boundaries too (read once, when the reader class loads)
+        System.setProperty("elevator.replay.windowMB", "1");
+    }
+
+    @TempDir
+    Path directory;
+
+    private Path write(String content) throws IOException {
+        Path file = this.directory.resolve("traffic.jsonl");
+        Files.writeString(file, content, StandardCharsets.US_ASCII);
+        return file;
+    }
+
+    @Test
+    void readsRecordsAndAliases() throws IOException {
+        Path file = write("""
+                {"timestamp":1704096000000,"fromFloor":0,"toFloor":12,"priority":"VIP"}
+                { "ts" : -5 , "from" : 7 , "to" : 3 }
+                {"to":2,"extra":{"nested":[1,{"x":"}"}]},"from":4,"note":"a \\"quoted\\" }","ts":10,"priority":"emergency"}
+                {"timestamp":20,"fromFloor":1,"toFloor":9,"priority":null}""");
+        try (TrafficLogReader reader = new TrafficLogReader(file)) {
+            assertTrue(reader.next());
+            assertEquals(1704096000000L, reader.getTimestampMillis());
+            assertEquals(0, reader.getFromFloor());
+            assertEquals(12, reader.getToFloor());
+            assertEquals(RequestPriority.VIP, reader.getPriority());
+
+            assertTrue(reader.next());
+            assertEquals(-5, reader.getTimestampMillis());
+            assertEquals(7, reader.getFromFloor());
+            assertEquals(3, reader.getToFloor());
+            assertEquals(RequestPriority.REGULAR_NORMAL, reader.getPriority());
+
+            assertTrue(reader.next());
+            assertEquals(10, reader.getTimestampMillis());
+            assertEquals(4, reader.getFromFloor());
+            assertEquals(2, reader.getToFloor());
+            assertEquals(RequestPriority.EMERGENCY, reader.getPriority());
+
+            assertTrue(reader.next()); // last line, no trailing newline
+            assertEquals(20, reader.getTimestampMillis());
+            assertEquals(RequestPriority.REGULAR_NORMAL, reader.getPriority());
+
+            assertFalse(reader.next());
+            assertEquals(4, reader.getRecords());
+            assertEquals(0, reader.getSkippedLines());
+            assertEquals(reader.getFileSize(), reader.getBytesRead());
+        }
+    }
+
+    @Test
+    void skipsMalformedLines() throws IOException {
+        Path file = write("""
+                {"ts":1,"from":0,"to":5}
+
+                not json
+                ["ts",1]
+                {"ts":2,"from":0}
+                {"ts":3.5,"from":0,"to":5}
+                {"ts":4,"from":1e2,"to":5}
+                {"ts":5,"from":0,"to":5,"priority":"PLATINUM"}
+                {"ts":6,"from":0,"to":5,"priority":3}
+                {"ts":99999999999999999999,"from":0,"to":5}
+                {"ts":7,"from":0,"to":"5"}
+                {"ts":8,"from":0,"to":5
+                {"ts":9,"from:0,"to":5}
+                   \t
+                {"ts":10,"from":2,"to":6}
+                """);
+        try (TrafficLogReader reader = new TrafficLogReader(file)) {
+            assertTrue(reader.next());
+            assertEquals(1, reader.getTimestampMillis());
+            assertTrue(reader.next());
+            assertEquals(10, reader.getTimestampMillis());
+            assertEquals(2, reader.getFromFloor());
+            assertFalse(reader.next());
+
+            assertEquals(2, reader.getRecords());
+            assertEquals(11, reader.getSkippedLines()); // blank lines are not counted as malformed
+            assertEquals(15, reader.getLines());
+        }
+    }
+
+    @Test
+    void emptyFileHasNoRecords() throws IOException {
+        try (TrafficLogReader reader = new TrafficLogReader(write(""))) {
+            assertFalse(reader.next());
+            assertEquals(0, reader.getLines());
+        }
+    }
+
+    // lines of every length land on every offset of the chunk/window boundaries - none lost, none split, none doubled
+    @Test
+    void linesCrossingChunkBoundariesAreReadWhole() throws IOException {
+        StringBuilder content = new StringBuilder();
+        int records = 0;
+        while (content.length() < 3 * CHUNK_BYTES + 1000) {
+            int pad = records % 97;
+            content.append("{\"ts\":").append(records)
+                    .append(",\"pad\":\"").append("x".repeat(pad)).append('"')
+                    .append(",\"from\":").append(records % 50)
+                    .append(",\"to\":").append(records % 50 + 1)
+                    .append("}\n");
+            records++;
+        }
+        try (TrafficLogReader reader = new TrafficLogReader(write(content.toString()))) {
+            for (int record = 0; record < records; record++) {
+                assertTrue(reader.next(), "record " + record);
+                assertEquals(record, reader.getTimestampMillis());
+                assertEquals(record % 50, reader.getFromFloor());
+                assertEquals(record % 50 + 1, reader.getToFloor());
+            }
+            assertFalse(reader.next());
+            assertEquals(records, reader.getRecords());
+            assertEquals(0, reader.getSkippedLines());
+            assertEquals(records, reader.getLines());
+        }
+    }
+
+    @Test
+    void lineLongerThanAChunkIsRejected() throws IOException {
+        String content = "{\"ts\":1,\"from\":0,\"to\":5}\n"
+                + "{\"ts\":2,\"pad\":\"" + "x".repeat(CHUNK_BYTES) + "\",\"from\":0,\"to\":5}\n"
+                + "{\"ts\":3,\"from\":0,\"to\":5}\n";
+        try (TrafficLogReader reader = new TrafficLogReader(write(content))) {
+            assertTrue(reader.next());
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+}